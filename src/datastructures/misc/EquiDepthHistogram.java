@@ -0,0 +1,102 @@
+package datastructures.misc;
+
+import java.util.Arrays;
+
+/**
+ * A histogram whose bars all hold (about) the same number of values, the width of each bar is what changes.
+ * Unlike Histogram, which is keyed by strings for drawing bar graphs, values here are ordered keys (doubles),
+ * so it can describe NUMBER and DATE columns. Dense ranges of values end up in many narrow bars, which is
+ * what makes it better than assuming values are spread evenly between the smallest and largest value.
+ * Bar i covers the values from bounds[i] to bounds[i + 1], both included.
+ */
+public class EquiDepthHistogram {
+
+    private final double[] bounds;
+
+    /**
+     * @param bounds are the bounds of each bar in ascending order, one more than the number of bars
+     */
+    public EquiDepthHistogram(double[] bounds) {
+        this.bounds = bounds;
+    }
+
+    /**
+     * @param sortedKeys are the values to describe in ascending order
+     * @param numKeys is the number of values to use
+     * @param numBars is the number of bars to split the values into, fewer are used if there aren't enough values
+     * @return a histogram describing the values, or null if there aren't any
+     */
+    public static EquiDepthHistogram of(double[] sortedKeys, int numKeys, int numBars) {
+
+        if (numKeys == 0) {
+            return null;
+        }
+
+        numBars = Math.max(1, Math.min(numBars, numKeys));
+        double[] bounds = new double[numBars + 1];
+
+        for (int i = 0; i < numBars; i++) {
+            bounds[i] = sortedKeys[(int) ((long) i * numKeys / numBars)];
+        }
+
+        bounds[numBars] = sortedKeys[numKeys - 1];
+
+        return new EquiDepthHistogram(bounds);
+    }
+
+    public double[] getBounds() {
+        return bounds;
+    }
+
+    public int getNumBars() {
+        return bounds.length - 1;
+    }
+
+    /**
+     * @param key is the value to compare with
+     * @return the estimated fraction of values that are less than the key
+     */
+    public double getFractionBelow(double key) {
+
+        double numBarsBelow = 0;
+
+        for (int i = 0; i < getNumBars(); i++) {
+
+            double low = bounds[i];
+            double high = bounds[i + 1];
+
+            if (key > high) {
+                numBarsBelow++;
+            } else if (key > low) {
+                numBarsBelow += (key - low) / (high - low);
+            } else {
+                break;
+            }
+        }
+
+        return numBarsBelow / getNumBars();
+    }
+
+    /**
+     * A value common enough to fill a bar by itself shows up as a bar whose bounds are both that value.
+     * @param key is the value to look for
+     * @return the fraction of values known to be the key, 0 if it doesn't fill any bar by itself
+     */
+    public double getFractionEqual(double key) {
+
+        int numBarsEqual = 0;
+
+        for (int i = 0; i < getNumBars(); i++) {
+            if (bounds[i] == key && bounds[i + 1] == key) {
+                numBarsEqual++;
+            }
+        }
+
+        return (double) numBarsEqual / getNumBars();
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(bounds);
+    }
+}
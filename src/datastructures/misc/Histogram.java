@@ -26,21 +26,7 @@ public class Histogram {
 
         // adding elements and their frequencies
         for (String data : rawData) {
-
-            // make sure adding a unique element
-            boolean foundElement = false;
-
-            for (String element : barGraph.keySet()) {
-                if (data.equals(element)) {
-                    barGraph.replace(data, barGraph.get(data) + 1);
-                    foundElement = true;
-                    break;
-                }
-            }
-
-            if (! foundElement) {
-                barGraph.put(data, 1);
-            }
+            barGraph.merge(data, 1, Integer::sum);
         }
 
         this.numBars = barGraph.size();
@@ -0,0 +1,198 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.DateVector;
+import datastructures.relation.table.component.NumberVector;
+import enums.Keyword;
+
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Computes a single aggregate function (MIN, MAX, AVG, COUNT, or SUM) of a column for every group at once.
+ * Rows are added one at a time as the column is read and only a running value is kept per group,
+ * so the rows of a group never have to be collected together. Groups are numbered from 0.
+ * Null values are counted but otherwise left out, a group with nothing but nulls aggregates to null.
+ */
+public class Aggregator {
+
+    private static final String NULL = "null";
+    private static final int INITIAL_NUM_GROUPS = 16;
+
+    private final Keyword aggregationType;
+    private final ColumnVector columnVector;
+    private final DecimalFormat decimalFormat;
+
+    private int[] counts;           // every row of the group
+    private int[] numValues;        // rows of the group that aren't null
+    private double[] values;        // running min, max, or sum of numbers, min or max epoch day of dates
+    private long[] totalMillis;     // running sum of dates, at the start of each day in the default time zone
+
+    /**
+     * @param aggregationType is the aggregate function to perform
+     * @param columnVector is the column to aggregate
+     * @param decimalSize is the number of decimal places to format numbers with
+     */
+    public Aggregator(Keyword aggregationType, ColumnVector columnVector, int decimalSize) {
+
+        this.aggregationType = aggregationType;
+        this.columnVector = columnVector;
+
+        // for decimal formatting
+        StringBuilder sb = new StringBuilder();
+
+        for (int j = 0; j < decimalSize; j++) {
+            sb.append("0");
+        }
+
+        this.decimalFormat = new DecimalFormat("#." + sb.toString());
+        this.decimalFormat.setDecimalSeparatorAlwaysShown(false);
+
+        this.counts = new int[INITIAL_NUM_GROUPS];
+        this.numValues = new int[INITIAL_NUM_GROUPS];
+        this.values = new double[INITIAL_NUM_GROUPS];
+        this.totalMillis = new long[INITIAL_NUM_GROUPS];
+    }
+
+    /**
+     * Adds a row of the column to the group supplied.
+     * @param group is the group the row belongs to
+     * @param row is the row of the column to add
+     */
+    public void add(int group, int row) {
+
+        ensureCapacity(group);
+        counts[group]++;
+
+        if (aggregationType == Keyword.COUNT || columnVector.isNull(row)) {
+            return;
+        }
+
+        if (columnVector instanceof NumberVector) {
+            accumulate(group, ((NumberVector) columnVector).getDouble(row));
+        } else if (columnVector instanceof DateVector) {
+            int epochDay = ((DateVector) columnVector).getEpochDay(row);
+            if (aggregationType == Keyword.SUM || aggregationType == Keyword.AVG) {
+                totalMillis[group] += toMillis(LocalDate.ofEpochDay(epochDay));
+                numValues[group]++;
+            } else {
+                accumulate(group, epochDay);
+            }
+        }
+    }
+
+    /**
+     * Adds everything added to a group of another aggregator of the same function to the group supplied, as if the
+     * other group's rows had been added to this one. Used to merge the partial aggregates of morsels aggregated on
+     * their own, see Parallelism.
+     * @param group is the group to add to
+     * @param other is the aggregator holding the other group
+     * @param otherGroup is the group of the other aggregator to add
+     */
+    public void merge(int group, Aggregator other, int otherGroup) {
+
+        ensureCapacity(group);
+        counts[group] += other.counts[otherGroup];
+
+        int otherNumValues = other.numValues[otherGroup];
+
+        if (otherNumValues == 0) {
+            return;
+        }
+
+        boolean isFirstValue = numValues[group] == 0;
+        numValues[group] += otherNumValues;
+        totalMillis[group] += other.totalMillis[otherGroup];
+        combine(group, other.values[otherGroup], isFirstValue);
+    }
+
+    /**
+     * @param group is the group to get the result of
+     * @return the aggregate of all rows added to the group, formatted the way the column's values are
+     */
+    public String getResult(int group) {
+
+        int count = group < counts.length ? counts[group] : 0;
+
+        // performing COUNT() on a char data type produces a number, not a char
+        if (aggregationType == Keyword.COUNT || ! (columnVector instanceof NumberVector ||
+                columnVector instanceof DateVector)) {
+            return Integer.toString(count);
+        }
+
+        boolean hasValues = count > 0 && numValues[group] > 0;
+
+        if (columnVector instanceof NumberVector) {
+            if (! hasValues) {
+                return aggregationType == Keyword.SUM ? decimalFormat.format(0) : NULL;
+            }
+            double value = values[group];
+            return decimalFormat.format(aggregationType == Keyword.AVG ? value / numValues[group] : value);
+        }
+
+        if (! hasValues) {
+            return NULL;
+        }
+
+        switch (aggregationType) {
+            case SUM:
+                return toLocalDate(totalMillis[group]).toString();
+            case AVG:
+                return toLocalDate(totalMillis[group] / numValues[group]).toString();
+            default:
+                return LocalDate.ofEpochDay((long) values[group]).toString();
+        }
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    private void ensureCapacity(int group) {
+
+        if (group >= counts.length) {
+            int capacity = Math.max(group + 1, counts.length * 2);
+            counts = Arrays.copyOf(counts, capacity);
+            numValues = Arrays.copyOf(numValues, capacity);
+            values = Arrays.copyOf(values, capacity);
+            totalMillis = Arrays.copyOf(totalMillis, capacity);
+        }
+    }
+
+    private void accumulate(int group, double value) {
+        boolean isFirstValue = numValues[group] == 0;
+        numValues[group]++;
+        combine(group, value, isFirstValue);
+    }
+
+    /**
+     * Folds a value into the running min, max, or sum of the group.
+     */
+    private void combine(int group, double value, boolean isFirstValue) {
+
+        switch (aggregationType) {
+            case MIN:
+                if (isFirstValue || value < values[group]) {
+                    values[group] = value;
+                }
+                break;
+            case MAX:
+                if (isFirstValue || value > values[group]) {
+                    values[group] = value;
+                }
+                break;
+            default:
+                values[group] += value;
+                break;
+        }
+    }
+
+    private static long toMillis(LocalDate localDate) {
+        return Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant()).getTime();
+    }
+
+    private static LocalDate toLocalDate(long millis) {
+        return new Date(millis).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
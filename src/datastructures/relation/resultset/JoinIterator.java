@@ -0,0 +1,176 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.ColumnVector;
+import enums.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pairs up the rows of two inputs, either the pairs satisfying a join condition or every pair when there is no
+ * condition (a cartesian product). The join has to see all rows of both inputs, so when opened the row ids of
+ * each input's sources are collected and only the columns joined on have their values gathered. A joined row is
+ * made up of the sources of the first input followed by the sources of the second input, which means no values
+ * are copied until the rows are materialized further up.
+ */
+class JoinIterator extends RowIterator {
+
+    private final RowIterator first;
+    private final RowIterator second;
+    private final String firstColumnToJoin;     // null for a cartesian product
+    private final Symbol joinSymbol;
+    private final String secondColumnToJoin;
+    private final List<Column> columns;
+    private final List<Integer> paddingAmountList;
+
+    private SelectionVectors firstRows;
+    private SelectionVectors secondRows;
+    private ResultSet.JoinedRows joinedRows;
+    private long current;
+    private long numRows;
+
+    JoinIterator(RowIterator first, RowIterator second, String firstColumnToJoin, String joinSymbolName,
+                 String secondColumnToJoin) {
+
+        this.first = first;
+        this.second = second;
+        this.firstColumnToJoin = firstColumnToJoin;
+        this.joinSymbol = joinSymbolName != null ? Symbol.convertToSymbol(joinSymbolName) : null;
+        this.secondColumnToJoin = secondColumnToJoin;
+
+        this.columns = new ArrayList<>(first.getColumns());
+        this.columns.addAll(second.getColumns());
+        this.paddingAmountList = new ArrayList<>(first.getPaddingAmountList());
+        this.paddingAmountList.addAll(second.getPaddingAmountList());
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public List<Integer> getPaddingAmountList() {
+        return paddingAmountList;
+    }
+
+    @Override
+    public void open() {
+
+        firstRows = new SelectionVectors(first);
+        secondRows = new SelectionVectors(second);
+
+        if (firstColumnToJoin != null) {
+
+            // the columns to join on can be listed in either order, make sure we know which side each belongs to
+            boolean firstColumnIsInFirst = first.getColumnLocation(firstColumnToJoin) != -1;
+            String columnToJoinFromFirst = firstColumnIsInFirst ? firstColumnToJoin : secondColumnToJoin;
+            String columnToJoinFromSecond = firstColumnIsInFirst ? secondColumnToJoin : firstColumnToJoin;
+
+            joinedRows = ResultSet.joinRows(
+                    getJoinVector(first, firstRows, columnToJoinFromFirst), firstRows.getNumRows(),
+                    firstColumnIsInFirst ? joinSymbol : ResultSet.flip(joinSymbol),
+                    getJoinVector(second, secondRows, columnToJoinFromSecond), secondRows.getNumRows());
+            numRows = joinedRows.size();
+        } else {
+            numRows = (long) firstRows.getNumRows() * secondRows.getNumRows();
+        }
+
+        current = -1;
+    }
+
+    @Override
+    public boolean next() {
+        current++;
+        return current < numRows;
+    }
+
+    @Override
+    public void close() {
+        first.close();
+        second.close();
+        firstRows = null;
+        secondRows = null;
+        joinedRows = null;
+    }
+
+    @Override
+    public int getNumSources() {
+        return first.getNumSources() + second.getNumSources();
+    }
+
+    @Override
+    public int getSource(int col) {
+        int numFirstColumns = first.getColumns().size();
+        return col < numFirstColumns
+                ? first.getSource(col)
+                : first.getNumSources() + second.getSource(col - numFirstColumns);
+    }
+
+    @Override
+    public ColumnVector getColumnVector(int col) {
+        int numFirstColumns = first.getColumns().size();
+        return col < numFirstColumns
+                ? first.getColumnVector(col)
+                : second.getColumnVector(col - numFirstColumns);
+    }
+
+    @Override
+    public int getRowId(int source) {
+
+        int numFirstSources = first.getNumSources();
+
+        if (source < numFirstSources) {
+            return firstRows.getRowIds(source)[getFirstRow()];
+        }
+
+        return secondRows.getRowIds(source - numFirstSources)[getSecondRow()];
+    }
+
+    /**
+     * The statistics of the side the column comes from, they describe the column's values rather than
+     * how many times each of them shows up in the joined rows.
+     */
+    @Override
+    public ColumnStatistics getColumnStatistics(int col) {
+        int numFirstColumns = first.getColumns().size();
+        return col < numFirstColumns
+                ? first.getColumnStatistics(col)
+                : second.getColumnStatistics(col - numFirstColumns);
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the row of the first input's selection vectors that the current row is made up from
+     */
+    private int getFirstRow() {
+
+        if (joinedRows != null) {
+            return joinedRows.getFirstRowId((int) current);
+        }
+
+        // every row of the second input is paired with the first input's row before moving on to the next one
+        return (int) (current / secondRows.getNumRows());
+    }
+
+    /**
+     * @return the row of the second input's selection vectors that the current row is made up from
+     */
+    private int getSecondRow() {
+        return joinedRows != null
+                ? joinedRows.getSecondRowId((int) current)
+                : (int) (current % secondRows.getNumRows());
+    }
+
+    /**
+     * Gathers the values of the column to join on for the rows an input produced, the only values the join needs.
+     * @return the values of the column, in the same order as the rows
+     */
+    private static ColumnVector getJoinVector(RowIterator input, SelectionVectors rows, String columnName) {
+        int colIndex = input.getColumnLocation(columnName);
+        return input.getColumnVector(colIndex).gather(rows.getRowIds(input.getSource(colIndex)), rows.getNumRows());
+    }
+}
@@ -0,0 +1,82 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.ColumnVector;
+
+import java.util.List;
+
+/**
+ * Passes along at most the first few rows of its input. Rows are pulled from the input one at a time, so once
+ * enough have been produced the input is never asked for another and the selections and scans below it stop
+ * where they are.
+ */
+class LimitIterator extends RowIterator {
+
+    private final RowIterator input;
+    private final int limit;
+
+    private int numRowsProduced;
+
+    LimitIterator(RowIterator input, int limit) {
+        this.input = input;
+        this.limit = limit;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return input.getColumns();
+    }
+
+    @Override
+    public List<Integer> getPaddingAmountList() {
+        return input.getPaddingAmountList();
+    }
+
+    @Override
+    public void open() {
+        input.open();
+        numRowsProduced = 0;
+    }
+
+    @Override
+    public boolean next() {
+
+        if (numRowsProduced == limit || ! input.next()) {
+            return false;
+        }
+
+        numRowsProduced++;
+        return true;
+    }
+
+    @Override
+    public void close() {
+        input.close();
+    }
+
+    @Override
+    public int getNumSources() {
+        return input.getNumSources();
+    }
+
+    @Override
+    public int getSource(int col) {
+        return input.getSource(col);
+    }
+
+    @Override
+    public ColumnVector getColumnVector(int col) {
+        return input.getColumnVector(col);
+    }
+
+    @Override
+    public int getRowId(int source) {
+        return input.getRowId(source);
+    }
+
+    @Override
+    public ColumnStatistics getColumnStatistics(int col) {
+        return input.getColumnStatistics(col);
+    }
+}
@@ -0,0 +1,132 @@
+package datastructures.relation.resultset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * How many threads a query may use and whether its rows have to come out in the order a single thread would
+ * produce them. Scans of large result sets are split into morsels of MORSEL_SIZE rows, and the selections and
+ * projections on top of them, then each morsel is worked on by a thread of a fork/join pool and the morsels'
+ * results are put back together. Morsels are put back together in the order they were split in when deterministic,
+ * otherwise in the order they finish, which lets a slow morsel hold up nothing but itself.
+ */
+public final class Parallelism {
+
+    public static final Parallelism SERIAL = new Parallelism(1, true);
+
+    // big enough that handing a morsel to a thread is cheap next to working on it
+    static final int MORSEL_SIZE = 16384;
+
+    private final int degreeOfParallelism;
+    private final boolean isDeterministic;
+    private final int morselSize;
+    private final ForkJoinPool pool;    // null when serial
+
+    /**
+     * @param degreeOfParallelism is the most threads to work on a query with
+     * @param isDeterministic is whether rows come out in the same order no matter how many threads are used
+     */
+    public Parallelism(int degreeOfParallelism, boolean isDeterministic) {
+        this(degreeOfParallelism, isDeterministic, MORSEL_SIZE);
+    }
+
+    /**
+     * @param degreeOfParallelism is the most threads to work on a query with
+     * @param isDeterministic is whether rows come out in the same order no matter how many threads are used
+     * @param morselSize is the number of rows of each morsel
+     */
+    public Parallelism(int degreeOfParallelism, boolean isDeterministic, int morselSize) {
+
+        assert degreeOfParallelism >= 1 && morselSize >= 1;
+
+        this.degreeOfParallelism = degreeOfParallelism;
+        this.isDeterministic = isDeterministic;
+        this.morselSize = morselSize;
+        this.pool = degreeOfParallelism > 1 ? new ForkJoinPool(degreeOfParallelism) : null;
+    }
+
+    public int getDegreeOfParallelism() {
+        return degreeOfParallelism;
+    }
+
+    public boolean isDeterministic() {
+        return isDeterministic;
+    }
+
+    /**
+     * Lets the threads go, nothing can be worked on in parallel afterwards.
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * @param rowIterator is the iterator to split
+     * @return iterators over morsels of the rows of the iterator that together produce the same rows, or null if the
+     * rows should be produced by a single thread
+     */
+    List<RowIterator> split(RowIterator rowIterator) {
+        return pool != null ? rowIterator.split(morselSize) : null;
+    }
+
+    /**
+     * Works on each input in parallel.
+     * @param inputs are the inputs to work on
+     * @param work is what to do with each input
+     * @return the result of each input, in the order of the inputs if deterministic
+     */
+    <T, R> List<R> map(List<T> inputs, Function<T, R> work) {
+
+        List<R> results = new ArrayList<>();
+
+        if (pool == null) {
+            for (T input : inputs) {
+                results.add(work.apply(input));
+            }
+            return results;
+        }
+
+        if (isDeterministic) {
+
+            List<ForkJoinTask<R>> tasks = new ArrayList<>();
+
+            for (T input : inputs) {
+                tasks.add(pool.submit(() -> work.apply(input)));
+            }
+            for (ForkJoinTask<R> task : tasks) {
+                results.add(task.join());
+            }
+
+            return results;
+        }
+
+        CompletionService<R> completionService = new ExecutorCompletionService<>(pool);
+
+        for (T input : inputs) {
+            completionService.submit(() -> work.apply(input));
+        }
+
+        try {
+            for (int i = 0; i < inputs.size(); i++) {
+                results.add(completionService.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return results;
+    }
+}
@@ -0,0 +1,116 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.ColumnVector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps only some of the columns of its input, in the order supplied. Rows are passed along untouched,
+ * only the columns that are looked at change.
+ */
+class ProjectionIterator extends RowIterator {
+
+    private final RowIterator input;
+    private final int[] inputColumnLocations;
+    private final List<Column> columns;
+    private final List<Integer> paddingAmountList;
+
+    ProjectionIterator(RowIterator input, List<String> columnNames) {
+
+        this.input = input;
+        this.inputColumnLocations = new int[columnNames.size()];
+        this.columns = new ArrayList<>();
+        this.paddingAmountList = new ArrayList<>();
+
+        List<Integer> inputPaddingAmountList = input.getPaddingAmountList();
+
+        for (int cols = 0; cols < columnNames.size(); cols++) {
+            int inputColumnLocation = input.getColumnLocation(columnNames.get(cols));
+            inputColumnLocations[cols] = inputColumnLocation;
+            columns.add(input.getColumns().get(inputColumnLocation));
+            if (inputColumnLocation < inputPaddingAmountList.size()) {
+                paddingAmountList.add(inputPaddingAmountList.get(inputColumnLocation));
+            }
+        }
+    }
+
+    private ProjectionIterator(RowIterator input, int[] inputColumnLocations, List<Column> columns,
+                               List<Integer> paddingAmountList) {
+        this.input = input;
+        this.inputColumnLocations = inputColumnLocations;
+        this.columns = columns;
+        this.paddingAmountList = paddingAmountList;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    @Override
+    public List<Integer> getPaddingAmountList() {
+        return paddingAmountList;
+    }
+
+    @Override
+    public void open() {
+        input.open();
+    }
+
+    @Override
+    public boolean next() {
+        return input.next();
+    }
+
+    @Override
+    public void close() {
+        input.close();
+    }
+
+    @Override
+    public int getNumSources() {
+        return input.getNumSources();
+    }
+
+    @Override
+    public int getSource(int col) {
+        return input.getSource(inputColumnLocations[col]);
+    }
+
+    @Override
+    public ColumnVector getColumnVector(int col) {
+        return input.getColumnVector(inputColumnLocations[col]);
+    }
+
+    @Override
+    public int getRowId(int source) {
+        return input.getRowId(source);
+    }
+
+    @Override
+    public ColumnStatistics getColumnStatistics(int col) {
+        return input.getColumnStatistics(inputColumnLocations[col]);
+    }
+
+    /**
+     * Each morsel of the input keeps the same columns.
+     */
+    @Override
+    List<RowIterator> split(int morselSize) {
+
+        List<RowIterator> inputMorsels = input.split(morselSize);
+
+        if (inputMorsels == null) {
+            return null;
+        }
+
+        return inputMorsels.stream()
+                .map(inputMorsel -> new ProjectionIterator(inputMorsel, inputColumnLocations, columns,
+                        paddingAmountList))
+                .collect(Collectors.toList());
+    }
+}
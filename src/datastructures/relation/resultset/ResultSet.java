@@ -1,6 +1,8 @@
 package datastructures.relation.resultset;
 
+import datastructures.relation.table.component.CharVector;
 import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnVector;
 import datastructures.relation.table.component.TableData;
 import datastructures.relation.table.Table;
 import datastructures.relation.table.component.DataType;
@@ -9,12 +11,10 @@ import enums.Symbol;
 import utilities.OptimizerUtilities;
 import utilities.Utilities;
 
-import java.math.BigInteger;
-import java.text.DecimalFormat;
-import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
+import java.util.function.IntPredicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Represents the data returned after execution of a query. Table data is set initially, then
@@ -23,34 +23,43 @@ import java.util.stream.Collectors;
  */
 public class ResultSet {
 
+    private static final Object NULL_KEY = new Object();
+
     private final List<Column> columns;
-    private final List<List<String>> data;
+    private final TableData tableData;
+    private final List<List<String>> data;  // row view of the table data
 
     /**
      * Default constructor that initializes this result set with no data.
      */
     public ResultSet() {
         this.columns = new ArrayList<>();
-        this.data = new ArrayList<>();
+        this.tableData = new TableData(new ArrayList<>(), new ArrayList<>());
+        this.data = tableData.getData();
     }
 
     /**
      * Initializes this result set with the data from the table provided. Each column name
-     * will be prefixed with the table name that it belongs to.
+     * will be prefixed with the table name that it belongs to. The rows aren't copied, so this
+     * takes the same time no matter how big the table is.
      * @param table is the table to initialize from
      */
     public ResultSet(Table table) {
 
-        // need to create a deep copy of the table to prevent unwanted changes to table data
-        Table copyTable = new Table(table);
+        // file structures can also be changed from the tables screen, so bring the indexes up to date first
+        table.updateIndexes();
 
         // used for identifying which column belongs to which table
-        for (Column column: copyTable.getColumns()) {
-            column.setName(copyTable.getTableName() + "." + column.getColumnName());
+        this.columns = new ArrayList<>();
+        for (Column column : table.getColumns()) {
+            Column copyColumn = new Column(column);
+            copyColumn.setName(table.getTableName() + "." + column.getColumnName());
+            this.columns.add(copyColumn);
         }
 
-        this.columns = copyTable.getColumns();
-        this.data = copyTable.getTableData().getData();
+        // a snapshot shares the table's rows, whichever of the two is changed first copies them
+        this.tableData = TableData.snapshotOf(table.getTableData());
+        this.data = tableData.getData();
     }
 
     /**
@@ -60,8 +69,20 @@ public class ResultSet {
      * @param data is the data of this result set
      */
     private ResultSet(List<Column> columns, List<List<String>> data) {
+        this(columns, new TableData(new ArrayList<>(), data, columns.stream()
+                .map(Column::getDataType)
+                .collect(Collectors.toList())));
+    }
+
+    /**
+     * Result set whose data was produced directly from the typed column vectors of a previous result set.
+     * @param columns are the columns of this result set
+     * @param tableData is the data of this result set
+     */
+    ResultSet(List<Column> columns, TableData tableData) {
         this.columns = columns;
-        this.data = data;
+        this.tableData = tableData;
+        this.data = tableData.getData();
     }
 
     /**
@@ -69,14 +90,20 @@ public class ResultSet {
      * @param toCopy is the result set to make a deep copy of
      */
     public ResultSet(ResultSet toCopy) {
-        this(); // initializing member variables
+        this.columns = new ArrayList<>();
         for (Column toCopyColumn : toCopy.columns) {
             this.columns.add(new Column(toCopyColumn));
         }
-        for (List<String> toCopyRows : toCopy.data) {
-            List<String> rows = new ArrayList<>(toCopyRows);
-            this.data.add(rows);
-        }
+        this.tableData = new TableData(toCopy.tableData);
+        this.data = tableData.getData();
+    }
+
+    /**
+     * Lets go of the table this result set was initialized from, if it was, so the table doesn't copy its rows
+     * before it's changed next. This result set mustn't be read afterwards.
+     */
+    public void release() {
+        tableData.release();
     }
 
     // utility methods
@@ -89,6 +116,10 @@ public class ResultSet {
         return data;
     }
 
+    public TableData getTableData() {
+        return tableData;
+    }
+
     public int getNumRows() {
         return data.size();
     }
@@ -166,24 +197,10 @@ public class ResultSet {
         List<Column> projectedColumns = new ArrayList<>();
         columns.forEach(column -> projectedColumns.add(new Column(column)));
 
-        // find the locations of each column to project
+        // find the locations of each column to project, columns that are not being projected are ignored
         List<Integer> locationsOfColumnsToProject = getColumnLocations(columns);
 
-        List<List<String>> projectedData = new ArrayList<>();
-
-        // ignore columns that are not being projected
-        for (List<String> row : data) {
-
-            List<String> columnsToAdd = new ArrayList<>();
-
-            for (int columnToProjectLocation : locationsOfColumnsToProject) {
-                columnsToAdd.add(row.get(columnToProjectLocation));
-            }
-
-            projectedData.add(columnsToAdd);
-        }
-
-        return new ResultSet(projectedColumns, projectedData);
+        return new ResultSet(projectedColumns, tableData.project(locationsOfColumnsToProject));
     }
 
     /**
@@ -202,110 +219,15 @@ public class ResultSet {
         columns.forEach(col -> selectionColumns.add(new Column(col)));
 
         Column column = getColumnFromColumnName(columnName);
-        DataType dataType = column.getDataType();
         Symbol symbol = Symbol.convertToSymbol(symbolName);
         int selectionColumnLocation = getColumnLocation(column);
 
-        List<List<String>> selectionData = new ArrayList<>();
-
-        for (List<String> row : data) {
-
-            String resultSetValue = row.get(selectionColumnLocation);
-
-            switch (dataType) {
-
-                case NUMBER:
-                    double numericValue = Double.parseDouble(value);
-                    double numericResultSetValue = Double.parseDouble(resultSetValue);
-                    switch (symbol) {
-                        case EQUAL:
-                            if (numericValue == numericResultSetValue) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case NOT_EQUAL:
-                            if (numericValue != numericResultSetValue) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case GREATER_THAN:
-                            if (numericResultSetValue > numericValue) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case LESS_THAN:
-                            if (numericResultSetValue < numericValue) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case GREATER_THAN_OR_EQUAL:
-                            if (numericResultSetValue >= numericValue) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case LESS_THAN_OR_EQUAL:
-                            if (numericResultSetValue <= numericValue) {
-                                selectionData.add(row);
-                            }
-                            break;
-                    } // end switch symbol
-                    break; // case NUMBER break
-
-                case CHAR:
-                    switch (symbol) {
-                        case EQUAL:
-                            if (value.equalsIgnoreCase(resultSetValue)) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case NOT_EQUAL:
-                            if (! value.equalsIgnoreCase(resultSetValue)) {
-                                selectionData.add(row);
-                            }
-                            break;
-                    } // end switch symbol
-                    break; // case CHAR break
-
-                case DATE:
-                    LocalDate dateValue = LocalDate.parse(value);
-                    LocalDate resultSetDateValue = LocalDate.parse(resultSetValue);
-                    switch (symbol) {
-                        case EQUAL:
-                            if (dateValue.equals(resultSetDateValue)) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case NOT_EQUAL:
-                            if (! dateValue.equals(resultSetDateValue)) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case GREATER_THAN:
-                            if (resultSetDateValue.compareTo(dateValue) > 0) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case LESS_THAN:
-                            if (resultSetDateValue.compareTo(dateValue) < 0) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case GREATER_THAN_OR_EQUAL:
-                            if (resultSetDateValue.compareTo(dateValue) >= 0) {
-                                selectionData.add(row);
-                            }
-                            break;
-                        case LESS_THAN_OR_EQUAL:
-                            if (resultSetDateValue.compareTo(dateValue) <= 0) {
-                                selectionData.add(row);
-                            }
-                            break;
-                    }
-                    break;
-            }
-        }
+        // the value is converted once, then compared against the stored doubles, epoch days, or dictionary codes,
+        // an = on a column with a hash index is a single probe of the index instead
+        int[] selectedRows = new int[getNumRows()];
+        int numSelectedRows = tableData.select(selectionColumnLocation, symbol, value, selectedRows);
 
-        return new ResultSet(selectionColumns, selectionData);
+        return new ResultSet(selectionColumns, tableData.gather(selectedRows, numSelectedRows));
     }
 
     /**
@@ -320,21 +242,20 @@ public class ResultSet {
         columns.forEach(column -> cartesianProductColumns.add(new Column(column)));
         otherResultSet.columns.forEach(column -> cartesianProductColumns.add(new Column(column)));
 
-        List<List<String>> cartesianProductData = new ArrayList<>();
-
-        for(int theseRows = 0; theseRows < data.size(); theseRows++) {
-            for(int otherRows = 0; otherRows < otherResultSet.data.size(); otherRows++) {
+        // each row of this result set is paired with each row of the other result set
+        int numRows = getNumRows() * otherResultSet.getNumRows();
+        int[] theseRowIds = new int[numRows];
+        int[] otherRowIds = new int[numRows];
 
-                List<String> rowToAdd = new ArrayList<>();
-
-                rowToAdd.addAll(data.get(theseRows));
-                rowToAdd.addAll(otherResultSet.data.get(otherRows));
-
-                cartesianProductData.add(rowToAdd);
+        for (int theseRows = 0, i = 0; theseRows < getNumRows(); theseRows++) {
+            for (int otherRows = 0; otherRows < otherResultSet.getNumRows(); otherRows++, i++) {
+                theseRowIds[i] = theseRows;
+                otherRowIds[i] = otherRows;
             }
         }
 
-        return new ResultSet(cartesianProductColumns, cartesianProductData);
+        return new ResultSet(cartesianProductColumns,
+                TableData.combine(tableData, theseRowIds, otherResultSet.tableData, otherRowIds, numRows));
     }
 
     /**
@@ -347,92 +268,360 @@ public class ResultSet {
     public ResultSet innerJoin(ResultSet otherResultSet, String firstColumnToJoin, String joinSymbolName,
                                String secondColumnToJoin) {
 
-        // perform a cartesian product
-        ResultSet cartesianProductResultSet = this.cartesianProduct(otherResultSet);
-
         // copy the columns to keep
         List<Column> joinColumns = new ArrayList<>();
-        cartesianProductResultSet.columns.forEach(column -> joinColumns.add(new Column(column)));
-        // get the index locations of the columns to perform the join on
-        int firstColumnIndex = cartesianProductResultSet.getColumnLocation(
-                cartesianProductResultSet.getColumnFromColumnName(firstColumnToJoin));
-        int secondColumnIndex = cartesianProductResultSet.getColumnLocation(
-                        cartesianProductResultSet.getColumnFromColumnName(secondColumnToJoin));
+        columns.forEach(column -> joinColumns.add(new Column(column)));
+        otherResultSet.columns.forEach(column -> joinColumns.add(new Column(column)));
+
+        JoinedRows joinedRows = joinRows(otherResultSet, firstColumnToJoin, joinSymbolName, secondColumnToJoin);
+
+        return new ResultSet(joinColumns, TableData.combine(tableData, joinedRows.firstRowIds,
+                otherResultSet.tableData, joinedRows.secondRowIds, joinedRows.size));
+    }
+
+    /**
+     * Finds the pairs of rows of this result set and another result set that satisfy the join condition,
+     * without combining them. The pairs are ordered by this result set's row, then the other result set's row.
+     * @param otherResultSet is the result set to join with
+     * @param firstColumnToJoin is the column to join on from either result set
+     * @param joinSymbolName is the symbol to compare the join columns with
+     * @param secondColumnToJoin is the column to join on from the other result set
+     * @return the pairs of rows to join, this result set's rows are the first row ids
+     */
+    JoinedRows joinRows(ResultSet otherResultSet, String firstColumnToJoin, String joinSymbolName,
+                        String secondColumnToJoin) {
+
         Symbol joinSymbol = Symbol.convertToSymbol(joinSymbolName);
-        DataType bothColumnsDataType =
-                cartesianProductResultSet.getColumnFromColumnName(firstColumnToJoin).getDataType();
-
-        // keep only rows to join on
-        List<List<String>> joinRows = new ArrayList<>();
-
-        for(List<String> rows : cartesianProductResultSet.data) {
-            String firstRowData = rows.get(firstColumnIndex);
-            String secondRowData = rows.get(secondColumnIndex);
-            switch (joinSymbol) {
-                case EQUAL: {
-                    if (firstRowData.equalsIgnoreCase(secondRowData)) {
-                        joinRows.add(rows);
-                    }
-                    break;
-                }
-                case NOT_EQUAL: {
-                    if (! firstRowData.equalsIgnoreCase(secondRowData)) {
-                        joinRows.add(rows);
-                    }
-                    break;
-                }
-                case LESS_THAN: {
-                    if (bothColumnsDataType == DataType.NUMBER) {
-                        if (Double.parseDouble(firstRowData) < Double.parseDouble(secondRowData)) {
-                            joinRows.add(rows);
-                        }
-                    } else {
-                        if (LocalDate.parse(firstRowData).compareTo(LocalDate.parse(secondRowData)) < 0) {
-                            joinRows.add(rows);
-                        }
-                    }
-                    break;
-                }
-                case GREATER_THAN: {
-                    if (bothColumnsDataType == DataType.NUMBER) {
-                        if (Double.parseDouble(firstRowData) > Double.parseDouble(secondRowData)) {
-                            joinRows.add(rows);
-                        }
-                    } else {
-                        if (LocalDate.parse(firstRowData).compareTo(LocalDate.parse(secondRowData)) > 0) {
-                            joinRows.add(rows);
-                        }
-                    }
-                    break;
+
+        // the columns to join on can be listed in either order, make sure we know which side each belongs to
+        boolean firstColumnIsInThis = getColumnFromColumnName(firstColumnToJoin) != null;
+        String thisColumnToJoin = firstColumnIsInThis ? firstColumnToJoin : secondColumnToJoin;
+        String otherColumnToJoin = firstColumnIsInThis ? secondColumnToJoin : firstColumnToJoin;
+
+        if (! firstColumnIsInThis) {
+            joinSymbol = flip(joinSymbol);
+        }
+
+        ColumnVector thisJoinVector = tableData.getColumnVector(
+                getColumnLocation(getColumnFromColumnName(thisColumnToJoin)));
+        ColumnVector otherJoinVector = otherResultSet.tableData.getColumnVector(
+                otherResultSet.getColumnLocation(otherResultSet.getColumnFromColumnName(otherColumnToJoin)));
+
+        return joinRows(thisJoinVector, getNumRows(), joinSymbol, otherJoinVector, otherResultSet.getNumRows());
+    }
+
+    /**
+     * Finds the pairs of rows of two join columns that satisfy the join condition, compared on their typed values.
+     * The pairs are ordered by the first column's row, then the second column's row.
+     * @param firstVector is the first column to join on
+     * @param firstNumRows is the number of rows in the first column
+     * @param joinSymbol is the symbol to compare the first column's values with the second column's values
+     * @param secondVector is the second column to join on
+     * @param secondNumRows is the number of rows in the second column
+     * @return the pairs of rows to join, the first column's rows are the first row ids
+     */
+    static JoinedRows joinRows(ColumnVector firstVector, int firstNumRows, Symbol joinSymbol,
+                               ColumnVector secondVector, int secondNumRows) {
+
+        if (joinSymbol == Symbol.EQUAL) {
+            return hashJoin(firstVector, firstNumRows, secondVector, secondNumRows);
+        } else if (canSortMergeJoin(firstVector, joinSymbol, secondVector)) {
+            return sortMergeJoin(firstVector, firstNumRows, joinSymbol, secondVector, secondNumRows);
+        } else {
+            return nestedLoopJoin(firstVector, firstNumRows, joinSymbol, secondVector, secondNumRows);
+        }
+    }
+
+    /**
+     * Compares every pair of rows, used for joins that can't be hashed.
+     */
+    private static JoinedRows nestedLoopJoin(ColumnVector firstVector, int firstNumRows, Symbol joinSymbol,
+                                             ColumnVector secondVector, int secondNumRows) {
+
+        JoinedRows joinedRows = new JoinedRows(Math.max(firstNumRows, secondNumRows));
+
+        // "first symbol second" is the same as "second flipped symbol first", checked against each first row in turn
+        Symbol flippedSymbol = flip(joinSymbol);
+
+        for (int firstRow = 0; firstRow < firstNumRows; firstRow++) {
+            IntPredicate predicate = secondVector.compile(flippedSymbol, firstVector, firstRow);
+            for (int secondRow = 0; secondRow < secondNumRows; secondRow++) {
+                if (predicate.test(secondRow)) {
+                    joinedRows.add(firstRow, secondRow);
                 }
-                case LESS_THAN_OR_EQUAL: {
-                    if (bothColumnsDataType == DataType.NUMBER) {
-                        if (Double.parseDouble(firstRowData) <= Double.parseDouble(secondRowData)) {
-                            joinRows.add(rows);
-                        }
-                    } else {
-                        if (LocalDate.parse(firstRowData).compareTo(LocalDate.parse(secondRowData)) <= 0) {
-                            joinRows.add(rows);
-                        }
-                    }
-                    break;
+            }
+        }
+
+        return joinedRows;
+    }
+
+    /**
+     * Joins on = by building a hash table on the smaller side and probing it with every row of the larger side,
+     * so each side is only read once. Rows come out in the same order as the nested loop join, ordered by the
+     * first side's row then the second side's row.
+     */
+    private static JoinedRows hashJoin(ColumnVector firstVector, int firstNumRows,
+                                       ColumnVector secondVector, int secondNumRows) {
+
+        boolean buildOnFirst = firstNumRows < secondNumRows;
+        ColumnVector buildVector = buildOnFirst ? firstVector : secondVector;
+        ColumnVector probeVector = buildOnFirst ? secondVector : firstVector;
+        int buildNumRows = buildOnFirst ? firstNumRows : secondNumRows;
+        int probeNumRows = buildOnFirst ? secondNumRows : firstNumRows;
+
+        // each key points to the first row holding it, and each row to the next row holding the same key.
+        // built from the bottom up so that the rows of a key are visited in ascending order
+        Map<Object, Integer> firstRowOfKey = new HashMap<>();
+        int[] nextRowOfKey = new int[buildNumRows];
+
+        for (int buildRow = buildNumRows - 1; buildRow >= 0; buildRow--) {
+            Object key = buildVector.getJoinKey(buildRow, probeVector);
+            if (key != null) {
+                Integer firstRow = firstRowOfKey.put(key, buildRow);
+                nextRowOfKey[buildRow] = firstRow != null ? firstRow : -1;
+            }
+        }
+
+        JoinedRows joinedRows = new JoinedRows(probeNumRows);
+
+        for (int probeRow = 0; probeRow < probeNumRows; probeRow++) {
+
+            Object key = probeVector.getJoinKey(probeRow, buildVector);
+            Integer buildRow = key != null ? firstRowOfKey.get(key) : null;
+
+            for (int row = buildRow != null ? buildRow : -1; row != -1; row = nextRowOfKey[row]) {
+                if (buildOnFirst) {
+                    joinedRows.add(row, probeRow);
+                } else {
+                    joinedRows.add(probeRow, row);
                 }
-                case GREATER_THAN_OR_EQUAL: {
-                    if (bothColumnsDataType == DataType.NUMBER) {
-                        if (Double.parseDouble(firstRowData) >= Double.parseDouble(secondRowData)) {
-                            joinRows.add(rows);
-                        }
-                    } else {
-                        if (LocalDate.parse(firstRowData).compareTo(LocalDate.parse(secondRowData)) >= 0) {
-                            joinRows.add(rows);
-                        }
-                    }
-                    break;
+            }
+        }
+
+        // probing went through the second side in order, put the rows back in order of the first side
+        if (buildOnFirst) {
+            joinedRows.sortByFirstRow(firstNumRows);
+        }
+
+        return joinedRows;
+    }
+
+    /**
+     * Ranges can be joined by sorting when both sides are numbers or both sides are dates, anything else
+     * is compared the way strings are and has to go through the nested loop join.
+     */
+    private static boolean canSortMergeJoin(ColumnVector firstVector, Symbol joinSymbol, ColumnVector secondVector) {
+        return joinSymbol != Symbol.NOT_EQUAL && firstVector.hasOrderedKeys() &&
+                firstVector.getClass() == secondVector.getClass();
+    }
+
+    /**
+     * Joins on <, <=, > or >= by sorting both sides on their keys once and merging them. As the first side's
+     * key goes up, the rows of the second side that match it always start or end at a point further along
+     * the second side, so each first row's matches are a range found without comparing any rows twice.
+     * Rows come out in the same order as the nested loop join.
+     */
+    private static JoinedRows sortMergeJoin(ColumnVector firstVector, int firstNumRows, Symbol joinSymbol,
+                                            ColumnVector secondVector, int secondNumRows) {
+
+        double[] firstKeys = getOrderedKeys(firstVector, firstNumRows);
+        double[] secondKeys = getOrderedKeys(secondVector, secondNumRows);
+        int[] firstSorted = sortByKey(firstVector, firstNumRows, firstKeys);
+        int[] secondSorted = sortByKey(secondVector, secondNumRows, secondKeys);
+
+        // < and >= split the second side at the first key that is > the first row's key, <= and > at the first >=
+        boolean splitAfterEqual = joinSymbol == Symbol.LESS_THAN || joinSymbol == Symbol.GREATER_THAN_OR_EQUAL;
+        boolean matchesAfterSplit = joinSymbol == Symbol.LESS_THAN || joinSymbol == Symbol.LESS_THAN_OR_EQUAL;
+
+        JoinedRows joinedRows = new JoinedRows(Math.max(firstNumRows, secondNumRows));
+        int split = 0;
+
+        for (int firstRow : firstSorted) {
+
+            double firstKey = firstKeys[firstRow];
+
+            while (split < secondSorted.length && (secondKeys[secondSorted[split]] < firstKey ||
+                    (splitAfterEqual && secondKeys[secondSorted[split]] == firstKey))) {
+                split++;
+            }
+
+            int start = matchesAfterSplit ? split : 0;
+            int end = matchesAfterSplit ? secondSorted.length : split;
+
+            for (int i = start; i < end; i++) {
+                joinedRows.add(firstRow, secondSorted[i]);
+            }
+        }
+
+        joinedRows.sortByBothRows(firstNumRows, secondNumRows);
+
+        return joinedRows;
+    }
+
+    private static double[] getOrderedKeys(ColumnVector columnVector, int numRows) {
+        double[] keys = new double[numRows];
+        for (int row = 0; row < numRows; row++) {
+            keys[row] = columnVector.getOrderedKey(row);
+        }
+        return keys;
+    }
+
+    /**
+     * @return a key for each row that orders the rows the way ORDER BY does, NaN for nulls so they compare last
+     */
+    private static double[] getSortKeys(ColumnVector columnVector, int numRows) {
+
+        double[] keys = new double[numRows];
+
+        // characters are ranked among the dictionary's strings once, instead of comparing strings for every pair
+        if (columnVector instanceof CharVector) {
+
+            CharVector charVector = (CharVector) columnVector;
+            CharVector.Dictionary dictionary = charVector.getDictionary();
+
+            Integer[] codes = new Integer[dictionary.size()];
+            for (int code = 0; code < codes.length; code++) {
+                codes[code] = code;
+            }
+
+            Arrays.sort(codes, Comparator.comparing(dictionary::getValue, String.CASE_INSENSITIVE_ORDER));
+
+            // strings equal ignoring case share a rank
+            double[] ranks = new double[codes.length];
+            for (int i = 1; i < codes.length; i++) {
+                boolean isEqual = dictionary.getValue(codes[i]).equalsIgnoreCase(dictionary.getValue(codes[i - 1]));
+                ranks[codes[i]] = isEqual ? ranks[codes[i - 1]] : i;
+            }
+
+            // nulls are stored as "null", they're ordered like the nulls of numbers and dates instead of as a string
+            for (int code = 0; code < ranks.length; code++) {
+                if (dictionary.getValue(code).equals("null")) {
+                    ranks[code] = Double.NaN;
                 }
             }
+
+            for (int row = 0; row < numRows; row++) {
+                keys[row] = ranks[charVector.getCode(row)];
+            }
+
+            return keys;
         }
 
-        return new ResultSet(joinColumns, joinRows);
+        for (int row = 0; row < numRows; row++) {
+            keys[row] = columnVector.isNull(row) ? Double.NaN : columnVector.getOrderedKey(row);
+        }
+
+        return keys;
+    }
+
+    /**
+     * @return the rows that aren't null, ordered by their keys
+     */
+    private static int[] sortByKey(ColumnVector columnVector, int numRows, double[] keys) {
+        return IntStream.range(0, numRows)
+                .filter(row -> ! columnVector.isNull(row))
+                .boxed()
+                .sorted((first, second) -> keys[first] < keys[second] ? -1 : (keys[first] > keys[second] ? 1 : 0))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * The pairs of rows that were joined, the first and second row ids of a pair share the same location.
+     */
+    static class JoinedRows {
+
+        private int[] firstRowIds;
+        private int[] secondRowIds;
+        private int size;
+
+        private JoinedRows(int initialCapacity) {
+            this.firstRowIds = new int[Math.max(initialCapacity, 16)];
+            this.secondRowIds = new int[firstRowIds.length];
+            this.size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int getFirstRowId(int i) {
+            return firstRowIds[i];
+        }
+
+        int getSecondRowId(int i) {
+            return secondRowIds[i];
+        }
+
+        private void add(int firstRow, int secondRow) {
+            if (size == firstRowIds.length) {
+                firstRowIds = Arrays.copyOf(firstRowIds, size * 2);
+                secondRowIds = Arrays.copyOf(secondRowIds, size * 2);
+            }
+            firstRowIds[size] = firstRow;
+            secondRowIds[size] = secondRow;
+            size++;
+        }
+
+        /**
+         * Counting sort on the first row ids, stable so pairs with the same first row keep their order.
+         */
+        private void sortByFirstRow(int firstNumRows) {
+            sortBy(firstRowIds, firstNumRows);
+        }
+
+        /**
+         * Puts the pairs in the order a nested loop join would produce them, by first row then second row.
+         */
+        private void sortByBothRows(int firstNumRows, int secondNumRows) {
+            sortBy(secondRowIds, secondNumRows);
+            sortBy(firstRowIds, firstNumRows);
+        }
+
+        /**
+         * Stable counting sort of the pairs on the row ids supplied, either the first or second row ids.
+         */
+        private void sortBy(int[] rowIds, int numRows) {
+
+            int[] starts = new int[numRows + 1];
+            for (int i = 0; i < size; i++) {
+                starts[rowIds[i] + 1]++;
+            }
+            for (int row = 0; row < numRows; row++) {
+                starts[row + 1] += starts[row];
+            }
+
+            int[] sortedFirstRowIds = new int[firstRowIds.length];
+            int[] sortedSecondRowIds = new int[secondRowIds.length];
+
+            for (int i = 0; i < size; i++) {
+                int location = starts[rowIds[i]]++;
+                sortedFirstRowIds[location] = firstRowIds[i];
+                sortedSecondRowIds[location] = secondRowIds[i];
+            }
+
+            firstRowIds = sortedFirstRowIds;
+            secondRowIds = sortedSecondRowIds;
+        }
+    }
+
+    /**
+     * @param symbol is the symbol to flip
+     * @return the symbol that gives the same result when both sides of a comparison are swapped
+     */
+    static Symbol flip(Symbol symbol) {
+        switch (symbol) {
+            case GREATER_THAN:
+                return Symbol.LESS_THAN;
+            case LESS_THAN:
+                return Symbol.GREATER_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return Symbol.LESS_THAN_OR_EQUAL;
+            case LESS_THAN_OR_EQUAL:
+                return Symbol.GREATER_THAN_OR_EQUAL;
+            default:
+                return symbol;
+        }
     }
 
     /**
@@ -446,10 +635,33 @@ public class ResultSet {
      */
     public ResultSet aggregate(List<String> columnNamesToGroupBy, List<String> aggregationTypes,
                                List<String> columnNamesToAggregate) {
+        return aggregate(Collections.singletonList(group(columnNamesToGroupBy, aggregationTypes,
+                columnNamesToAggregate)), columnNamesToGroupBy, aggregationTypes, columnNamesToAggregate);
+    }
+
+    /**
+     * Merges the groups found in each part of the rows being aggregated into the result of the aggregation.
+     * Groups are returned in the order they were first seen, going through the parts in order.
+     * @param partialGroups are the groups of each part, see group()
+     * @param columnNamesToGroupBy are the column names to group by, column names are assumed to be prefixed
+     * @param aggregationTypes are the types of aggregations to apply to the aggregated columns
+     * @param columnNamesToAggregate are the names of the columns to be aggregated, assumed to be prefixed
+     * @return a new result set after being aggregated
+     */
+    static ResultSet aggregate(List<Groups> partialGroups, List<String> columnNamesToGroupBy,
+                               List<String> aggregationTypes, List<String> columnNamesToAggregate) {
+
+        Groups groups = partialGroups.get(0);
+
+        for (int i = 1; i < partialGroups.size(); i++) {
+            groups.merge(partialGroups.get(i));
+        }
+
+        ResultSet resultSet = groups.resultSet;
 
         // copying each column
         List<Column> columnsToGroupByCopy = columnNamesToGroupBy.stream()
-                .map(this::getColumnFromColumnName)
+                .map(resultSet::getColumnFromColumnName)
                 .map(Column::new)
                 .collect(Collectors.toList());
 
@@ -462,7 +674,7 @@ public class ResultSet {
             String aggregatedColumnName = columnNamesToAggregate.get(i);
             String newColumnName = aggregationType + "(" + aggregatedColumnName + ")";
 
-            Column columnToAdd = new Column(getColumnFromColumnName(aggregatedColumnName));
+            Column columnToAdd = new Column(resultSet.getColumnFromColumnName(aggregatedColumnName));
             columnToAdd.setName(newColumnName);
             // performing COUNT() on a char data type produces a number, not a char
             if (columnToAdd.getDataType() == DataType.CHAR) {
@@ -472,29 +684,12 @@ public class ResultSet {
             columnsToAggregateCopy.add(columnToAdd);
         }
 
-        List<Column> columnsToAggregate = columnNamesToAggregate.stream()
-                .map(this::getColumnFromColumnName)
-                .collect(Collectors.toList());
-
-        boolean hasGroupByColumns = ! columnNamesToGroupBy.isEmpty();
-
-        // no group by columns, just perform each aggregated function and return the row created
-        if (! hasGroupByColumns) {
-
-            List<String> rowToReturn = new ArrayList<>();
+        // no group by columns, every row belongs to the one group and a single row is returned, even with no rows
+        if (columnNamesToGroupBy.isEmpty()) {
 
-            for (int i = 0; i < columnsToAggregate.size(); i++) {
-
-                // extract the data needed from the column in order to produce the aggregation
-                Column columnToAggregate = columnsToAggregate.get(i);
-                List<String> columnsData = getColumnDataAt(columnToAggregate);
-                int decimalSize = columnToAggregate.getDecimalSize();
-                DataType dataType = columnToAggregate.getDataType();
-                Keyword aggregationType = Keyword.toKeyword(aggregationTypes.get(i));
-
-                // get the result of the aggregation and add it to the row to return
-                rowToReturn.add(performAggregation(columnsData, decimalSize, dataType, aggregationType));
-            }
+            List<String> rowToReturn = groups.aggregators.stream()
+                    .map(aggregator -> aggregator.getResult(0))
+                    .collect(Collectors.toList());
 
             // plop the row
             List<List<String>> toReturnData = new ArrayList<>();
@@ -505,48 +700,15 @@ public class ResultSet {
 
         // end if, there are group by columns
 
-        // find each group by column's location and aggregate column location
-        // with respect to the columns of the result set being processed
-        List<Integer> groupByColumnLocations = getColumnLocations(getColumnsFromColumnNames(columnNamesToGroupBy));
-        List<Integer> aggregateColumnLocations = getColumnLocations(getColumnsFromColumnNames(columnNamesToAggregate));
-
-        // project the columns to keep (this only includes group by columns, aggregated columns get added later)
-        ResultSet projection = projection(columnNamesToGroupBy);
-
-        // get the unique rows according to the projected data
-        List<List<String>> uniqueProjectedRows = uniqueRows(projection.data);
-
+        // each group's row is its group by values followed by each aggregated value
         List<List<String>> rowsToReturn = new ArrayList<>();
 
-        // for each unique projected row, go through all of the original data,
-        // finding matches for that unique projected row
-        for (List<String> uniqueProjectedRow : uniqueProjectedRows) {
-
-            // when a match is found, add it to the list of column data to aggregate
-            List<List<String>> columnDataToAggregate = new ArrayList<>();
-
-            for (List<String> row : data) {
-                if (containsMatchingElementsAt(uniqueProjectedRow, row, groupByColumnLocations)) {
-                    columnDataToAggregate.add(row);
-                }
-            }
-
-            // once we got all rows corresponding with that unique projected row, for each column to aggregate,
-            // perform that aggregation, adding the result to the unique projected row to return
-            // each aggregated column will be added to rowToAdd which will then be added to rowsToReturn
-            List<String> rowToAdd = new ArrayList<>(uniqueProjectedRow);
+        for (int group = 0; group < groups.groupByValues.size(); group++) {
 
-            for (int i = 0; i < aggregateColumnLocations.size(); i++) {
+            List<String> rowToAdd = new ArrayList<>(groups.groupByValues.get(group));
 
-                // get the data needed to perform the aggregation for this column of data
-                int aggregateColumnLocation = aggregateColumnLocations.get(i);
-                List<String> columnData = getColumnDataAt(columnDataToAggregate, aggregateColumnLocation);
-                int decimalSize = columns.get(aggregateColumnLocation).getDecimalSize();
-                DataType dataType = columns.get(aggregateColumnLocation).getDataType();
-                Keyword aggregationToPerform = Keyword.toKeyword(aggregationTypes.get(i));
-
-                // perform the aggregation and add it to the row
-                rowToAdd.add(performAggregation(columnData, decimalSize, dataType, aggregationToPerform));
+            for (Aggregator aggregator : groups.aggregators) {
+                rowToAdd.add(aggregator.getResult(group));
             }
 
             rowsToReturn.add(rowToAdd);
@@ -557,112 +719,131 @@ public class ResultSet {
         return new ResultSet(columnsToGroupByCopy, rowsToReturn);
     }
 
-    private List<List<String>> uniqueRows(List<List<String>> allRows) {
+    /**
+     * Finds the groups of this result set's rows and aggregates each group, without building the result yet so
+     * that the groups found in other rows can still be merged in, see aggregate().
+     * @param columnNamesToGroupBy are the column names to group by, column names are assumed to be prefixed
+     * @param aggregationTypes are the types of aggregations to apply to the aggregated columns
+     * @param columnNamesToAggregate are the names of the columns to be aggregated, assumed to be prefixed
+     * @return the groups of this result set's rows
+     */
+    Groups group(List<String> columnNamesToGroupBy, List<String> aggregationTypes,
+                 List<String> columnNamesToAggregate) {
 
-        List<List<String>> uniqueRows = new ArrayList<>();
+        // find each group by column's location and aggregate column location
+        // with respect to the columns of the result set being processed
+        List<Integer> groupByColumnLocations = getColumnLocations(getColumnsFromColumnNames(columnNamesToGroupBy));
+        List<Integer> aggregateColumnLocations = getColumnLocations(getColumnsFromColumnNames(columnNamesToAggregate));
 
-        for (List<String> row : allRows) {
-            boolean foundRow = false;
-            for (List<String> uniqueRow : uniqueRows) {
-                if (hasEqualRows(row, uniqueRow)) {
-                    foundRow = true;
-                    break;
+        List<Aggregator> aggregators = new ArrayList<>();
+
+        for (int i = 0; i < aggregateColumnLocations.size(); i++) {
+            int aggregateColumnLocation = aggregateColumnLocations.get(i);
+            aggregators.add(new Aggregator(Keyword.toKeyword(aggregationTypes.get(i)),
+                    tableData.getColumnVector(aggregateColumnLocation),
+                    columns.get(aggregateColumnLocation).getDecimalSize()));
+        }
+
+        List<ColumnVector> groupByVectors = groupByColumnLocations.stream()
+                .map(tableData::getColumnVector)
+                .collect(Collectors.toList());
+
+        Groups groups = new Groups(this, aggregators);
+
+        // one pass over the rows, each row is either added to the group with its key or starts a new group.
+        // with no group by columns every row has the same key
+        for (int rows = 0; rows < getNumRows(); rows++) {
+
+            Object groupKey = getGroupKey(groupByVectors, rows);
+            Integer group = groups.groupsByKey.get(groupKey);
+
+            if (group == null) {
+                List<String> groupByValues = new ArrayList<>();
+                for (ColumnVector groupByVector : groupByVectors) {
+                    groupByValues.add(groupByVector.get(rows));
                 }
+                group = groups.addGroup(groupKey, groupByValues);
             }
-            if (! foundRow) {
-                uniqueRows.add(row);
+
+            for (Aggregator aggregator : aggregators) {
+                aggregator.add(group, rows);
             }
         }
 
-        return uniqueRows;
+        return groups;
     }
 
-    public boolean containsMatchingElementsAt(List<String> uniqueProjectedRow, List<String> row,
-                                              List<Integer> locations) {
-
-        for (int i = 0, j = 0; i < locations.size(); i++, j++) {
-            if (! uniqueProjectedRow.get(i).equalsIgnoreCase(row.get(locations.get(j)))) {
-                return false;
-            }
+    /**
+     * The groups found in some of the rows being aggregated along with the running aggregates of each group.
+     * Groups are numbered in the order they're first seen, which is the order they're returned in.
+     */
+    static final class Groups {
+
+        private final ResultSet resultSet;      // the rows the groups were found in
+        private final List<Aggregator> aggregators;
+        private final Map<Object, Integer> groupsByKey;
+        private final List<Object> groupKeys;
+        private final List<List<String>> groupByValues;
+
+        private Groups(ResultSet resultSet, List<Aggregator> aggregators) {
+            this.resultSet = resultSet;
+            this.aggregators = aggregators;
+            this.groupsByKey = new HashMap<>();
+            this.groupKeys = new ArrayList<>();
+            this.groupByValues = new ArrayList<>();
         }
 
-        return true;
-    }
+        private int addGroup(Object groupKey, List<String> values) {
+            int group = groupKeys.size();
+            groupsByKey.put(groupKey, group);
+            groupKeys.add(groupKey);
+            groupByValues.add(values);
+            return group;
+        }
 
-    public String performAggregation(List<String> columnData, int decimalSize, DataType dataType,
-                                     Keyword aggregationType) {
+        /**
+         * Adds the groups of other rows to these groups, groups only found in the other rows come after these.
+         * @param other are the groups of the other rows
+         */
+        private void merge(Groups other) {
 
-        // for decimal formatting
-        StringBuilder sb = new StringBuilder();
+            for (int otherGroup = 0; otherGroup < other.groupKeys.size(); otherGroup++) {
 
-        for (int j = 0; j < decimalSize; j++) {
-            sb.append("0");
-        }
+                Object groupKey = other.groupKeys.get(otherGroup);
+                Integer group = groupsByKey.get(groupKey);
 
-        DecimalFormat decimalFormat = new DecimalFormat("#." + sb.toString());
-        decimalFormat.setDecimalSeparatorAlwaysShown(false);
-
-        String toReturn = "";
-
-        // process the data and add it to the data to be returned
-        switch (dataType) {
-            case NUMBER: {
-                List<Double> columnsDataAsNumber = columnData.stream()
-                        .map(Double::parseDouble)
-                        .collect(Collectors.toList());
-                switch (aggregationType) {
-                    case MIN:
-                        double min = minDoubleInColumnData(columnsDataAsNumber);
-                        toReturn = decimalFormat.format(min);
-                        break;
-                    case MAX:
-                        double max = maxDoubleInColumnData(columnsDataAsNumber);
-                        toReturn = decimalFormat.format(max);
-                        break;
-                    case AVG:
-                        double avg = avgDoubleInColumnData(columnsDataAsNumber);
-                        toReturn = decimalFormat.format(avg);
-                        break;
-                    case COUNT:
-                        toReturn = Integer.toString(columnsDataAsNumber.size());
-                        break;
-                    case SUM:
-                        double sum = sumDoubleInColumnData(columnsDataAsNumber);
-                        toReturn = decimalFormat.format(sum);
-                        break;
+                if (group == null) {
+                    group = addGroup(groupKey, other.groupByValues.get(otherGroup));
                 }
-                break;
-            }
-            case DATE: {
-                List<LocalDate> columnsDataAsDate = columnData.stream()
-                        .map(LocalDate::parse)
-                        .collect(Collectors.toList());
-                switch (aggregationType) {
-                    case MIN:
-                        toReturn = minDateInColumnData(columnsDataAsDate).toString();
-                        break;
-                    case MAX:
-                        toReturn = maxDataInColumnData(columnsDataAsDate).toString();
-                        break;
-                    case AVG:
-                        toReturn = avgDateInColumnData(columnsDataAsDate).toString();
-                        break;
-                    case COUNT:
-                        toReturn = Integer.toString(columnsDataAsDate.size());
-                        break;
-                    case SUM:
-                        toReturn = sumDateInColumnData(columnsDataAsDate).toString();
-                        break;
+
+                for (int i = 0; i < aggregators.size(); i++) {
+                    aggregators.get(i).merge(group, other.aggregators.get(i), otherGroup);
                 }
-                break;
-            }
-            case CHAR: {
-                toReturn = Integer.toString(columnData.size());
-                break;
             }
         }
+    }
+
+    /**
+     * Rows are in the same group when each of their group by values are =, nulls are grouped together.
+     */
+    private static Object getGroupKey(List<ColumnVector> groupByVectors, int row) {
+
+        if (groupByVectors.size() == 1) {
+            return getGroupKey(groupByVectors.get(0), row);
+        }
+
+        List<Object> groupKey = new ArrayList<>(groupByVectors.size());
+
+        for (ColumnVector groupByVector : groupByVectors) {
+            groupKey.add(getGroupKey(groupByVector, row));
+        }
+
+        return groupKey;
+    }
 
-        return toReturn;
+    private static Object getGroupKey(ColumnVector groupByVector, int row) {
+        Object key = groupByVector.getKey(row);
+        return key != null ? key : NULL_KEY;
     }
 
     /**
@@ -695,32 +876,38 @@ public class ResultSet {
 
     /**
      * Intersects this result set with the one provided. This means that only rows in
-     * this result set that match with the one provided are returned.
+     * this result set that match with the one provided are returned. The rows of the other result set are hashed
+     * once on their row keys (see getRowKey()), so each row of this result set is matched with a single lookup.
      * @param otherResultSet is the other result set to perform the intersection on
      */
     public ResultSet intersection(ResultSet otherResultSet) {
 
-        // copying the intersected columns
-        List<Column> intersectionColumns = new ArrayList<>();
-        columns.forEach(column -> intersectionColumns.add(new Column(column)));
+        int numKeyColumns = Math.min(getNumColumns(), otherResultSet.getNumColumns());
+        List<ColumnVector> theseVectors = getColumnVectors(numKeyColumns);
+        List<ColumnVector> otherVectors = otherResultSet.getColumnVectors(numKeyColumns);
 
-        List<List<String>> intersectedData = new ArrayList<>();
+        Set<Object> otherRowKeys = new HashSet<>();
+        for (int rows = 0; rows < otherResultSet.getNumRows(); rows++) {
+            otherRowKeys.add(getRowKey(otherVectors, theseVectors, rows));
+        }
 
-        for (List<String> theseRows : data) {
-            for (List<String> otherRows : otherResultSet.data) {
-                if (hasEqualRows(theseRows, otherRows)) {
-                    intersectedData.add(theseRows);
-                    break;
-                }
+        int[] rowIds = new int[getNumRows()];
+        int numRowsKept = 0;
+
+        for (int rows = 0; rows < getNumRows(); rows++) {
+            if (otherRowKeys.contains(getRowKey(theseVectors, otherVectors, rows))) {
+                rowIds[numRowsKept++] = rows;
             }
         }
 
-        return new ResultSet(intersectionColumns, intersectedData);
+        return gather(rowIds, numRowsKept);
     }
 
     /**
      * Unions this result set with the one provided. This means that rows from this result
-     * set and the one provided will be added to this result set. Duplicates will not appear.
+     * set and the one provided will be added to this result set. Duplicates will not appear, the first time a row
+     * is seen is the one kept. Each row is hashed once on its row key (see getRowKey()) instead of being compared
+     * against every row kept so far.
      * @param otherResultSet is other result set to perform the union on
      */
     public ResultSet union(ResultSet otherResultSet) {
@@ -742,229 +929,212 @@ public class ResultSet {
             }
         }
 
-        // add all rows from this result set
-        List<List<String>> unionData = new ArrayList<>(data);
+        int numKeyColumns = Math.min(getNumColumns(), otherResultSet.getNumColumns());
+        List<ColumnVector> theseVectors = getColumnVectors(numKeyColumns);
+        List<ColumnVector> otherVectors = otherResultSet.getColumnVectors(numKeyColumns);
 
-        // add all rows from other result set, don't add duplicates!
-        for (List<String> otherRows : otherResultSet.data) {
-            boolean foundDuplicate = false;
-            for (List<String> theseRows : data) {
-                if (hasEqualRows(otherRows, theseRows)) {
-                    foundDuplicate = true;
-                    break;
-                }
+        Set<Object> rowKeys = new HashSet<>();
+        List<List<String>> unionData = new ArrayList<>();
+
+        // add all rows from this result set, then the rows of the other result set, don't add duplicates!
+        for (int rows = 0; rows < getNumRows(); rows++) {
+            if (rowKeys.add(getRowKey(theseVectors, otherVectors, rows))) {
+                unionData.add(data.get(rows));
             }
-            if (! foundDuplicate) {
-                unionData.add(otherRows);
+        }
+
+        for (int rows = 0; rows < otherResultSet.getNumRows(); rows++) {
+            if (rowKeys.add(getRowKey(otherVectors, theseVectors, rows))) {
+                unionData.add(otherResultSet.data.get(rows));
             }
         }
 
         return new ResultSet(unionColumns, unionData);
     }
 
-    public void orderByAsc(List<String> columnNamesToOrderBy) {
+    /**
+     * Removes duplicate rows from this result set, the first time a row is seen is the one kept.
+     * @return a new result set where no two rows are equal
+     */
+    public ResultSet distinct() {
 
-        List<Integer> columnLocations = getColumnLocations(getColumnsFromColumnNames(columnNamesToOrderBy));
-        columnLocations.add(0, -1); // used for the helper method
+        List<ColumnVector> columnVectors = getColumnVectors(getNumColumns());
+        Set<Object> rowKeys = new HashSet<>();
 
-        for (int i = 1; i < columnLocations.size(); i++) {
-            int prevSortInd = columnLocations.get(i - 1);
-            int sortInd = columnLocations.get(i);
-            orderGroupedRow(data, sortInd, prevSortInd);
-        }
-    }
+        int[] rowIds = new int[getNumRows()];
+        int numRowsKept = 0;
 
-    public void orderGroupedRow(List<List<String>> groupedRows, int sortInd, int lastSortInd) {
-        for (int i = 0; i < groupedRows.size() - 1; i++) {
-            for (int j = 0; j < groupedRows.size() - i - 1; j++) {
-                if (Utilities.isNumeric(groupedRows.get(j).get(sortInd))) {
-                    // equal rows
-                    if (lastSortInd == -1 || groupedRows.get(j).get(lastSortInd).equalsIgnoreCase(groupedRows.get(j + 1).get(lastSortInd))) {
-                        if (Double.parseDouble(groupedRows.get(j).get(sortInd)) > Double.parseDouble(groupedRows.get(j + 1).get(sortInd))) {
-                            swap(data, j, j + 1);
-                        }
-                    }
-                } else {
-                    if (lastSortInd == -1 || groupedRows.get(j).get(lastSortInd).equalsIgnoreCase(groupedRows.get(j + 1).get(lastSortInd))) {
-                        if (groupedRows.get(j).get(sortInd).compareTo(groupedRows.get(j + 1).get(sortInd)) > 0) {
-                            swap(data, j, j + 1);
-                        }
-                    }
-                }
+        for (int rows = 0; rows < getNumRows(); rows++) {
+            if (rowKeys.add(getRowKey(columnVectors, columnVectors, rows))) {
+                rowIds[numRowsKept++] = rows;
             }
         }
-    }
 
-    private void swap(List<List<String>> data, int i, int j) {
-        List<String> temp = data.get(i);
-        data.set(i, data.get(j));
-        data.set(j, temp);
+        return gather(rowIds, numRowsKept);
     }
 
-    // helper methods for above transformation methods -----------------------------------------------------------------
-
     /**
-     * Compares the values contained in the first row and compares them to those of
-     * the second row to check for equality. Two rows are equal if the values and order
-     * of both are equal.
-     * @param row1 is the first row to compare
-     * @param row2 is the second row to compare
-     * @return whether these two rows are equal
+     * Orders the rows of this result set on one or more columns, rows with equal values in a column are ordered
+     * on the columns after it. Each column is turned into one key per row up front, numbers and dates by their
+     * values and characters by their place among the column's distinct strings ignoring case, so rows are compared
+     * without looking at any strings. The sort is stable, rows equal on every column keep the order they were in.
+     * Nulls go last when ascending and first when descending.
+     * @param columnNamesToOrderBy are the names of the columns to order by, assumed to be prefixed
+     * @param areAscending are whether each column is ordered ascending or descending
+     * @return a new result set with the rows ordered
      */
-    public boolean hasEqualRows(List<String> row1, List<String> row2) {
-
-        for (int cols = 0; cols < row1.size(); cols++) {
-            String col1 = row1.get(cols);
-            String col2 = row2.get(cols);
-            if (! col1.equalsIgnoreCase(col2)) {
-                return false;
-            }
-        }
-
-        return true;
+    public ResultSet orderBy(List<String> columnNamesToOrderBy, List<Boolean> areAscending) {
+        return orderBy(columnNamesToOrderBy, areAscending, getNumRows());
     }
 
     /**
-     * Returns a list of data associated with a column.
-     * @param columnIndex is the index of the column to get the data from
-     * @return the rows of this column
+     * Same as orderBy() but only the first rows up to the limit are returned. When the limit is less than the
+     * number of rows, the rows are run through a heap that never holds more than the limit, so only the rows
+     * kept are ever put in order.
+     * @param columnNamesToOrderBy are the names of the columns to order by, assumed to be prefixed
+     * @param areAscending are whether each column is ordered ascending or descending
+     * @param limit is the most rows to return
+     * @return a new result set with the first rows in order
      */
-    public List<String> getColumnDataAt(int columnIndex) {
+    public ResultSet orderBy(List<String> columnNamesToOrderBy, List<Boolean> areAscending, int limit) {
 
-        List<String> columnData = new ArrayList<>();
+        int numRows = getNumRows();
+        List<Integer> columnLocations = getColumnLocations(getColumnsFromColumnNames(columnNamesToOrderBy));
 
-        for (List<String> rows : data) {
-            String data = rows.get(columnIndex);
-            columnData.add(data);
+        double[][] sortKeys = new double[columnLocations.size()][];
+        for (int i = 0; i < columnLocations.size(); i++) {
+            sortKeys[i] = getSortKeys(tableData.getColumnVector(columnLocations.get(i)), numRows);
         }
 
-        return columnData;
-    }
+        // rows equal on every column are ordered by where they were, which is what keeps the sort stable
+        Comparator<Integer> byKeys = (first, second) -> {
+            for (int i = 0; i < sortKeys.length; i++) {
+                int comparison = Double.compare(sortKeys[i][first], sortKeys[i][second]);
+                if (comparison != 0) {
+                    return areAscending.get(i) ? comparison : -comparison;
+                }
+            }
+            return Integer.compare(first, second);
+        };
 
-    /**
-     * @param column is the column to get the data from
-     * @return the rows of this column
-     */
-    public List<String> getColumnDataAt(Column column) {
+        Integer[] order;
 
-        String columnName = column.getColumnName();
+        if (limit < numRows) {
 
-        for( int cols = 0; cols < columns.size(); cols++) {
-            String thisColumnName = columns.get(cols).getColumnName();
-            if (columnName.equalsIgnoreCase(thisColumnName)) {
-                return getColumnDataAt(cols);
+            // the heap's head is the last of the rows kept so far, each row after it pushes out whichever is last
+            PriorityQueue<Integer> firstRows = new PriorityQueue<>(limit + 1, byKeys.reversed());
+            for (int rows = 0; rows < numRows; rows++) {
+                firstRows.add(rows);
+                if (firstRows.size() > limit) {
+                    firstRows.poll();
+                }
             }
-        }
-
-        return new ArrayList<>();
-    }
 
-    public List<String> getColumnDataAt(List<List<String>> rows, int colInd) {
-        List<String> columnData = new ArrayList<>();
-        for (List<String> row : rows) {
-            columnData.add(row.get(colInd));
-        }
-        return columnData;
-    }
+            order = firstRows.toArray(new Integer[0]);
 
-    public double minDoubleInColumnData(List<Double> columnData) {
+        } else {
 
-        double min = columnData.get(0);
-
-        for (Double data : columnData) {
-            if (data < min) {
-                min = data;
+            order = new Integer[numRows];
+            for (int rows = 0; rows < numRows; rows++) {
+                order[rows] = rows;
             }
         }
 
-        return min;
-    }
+        // Arrays.sort on objects is a merge sort that takes advantage of rows already in order
+        Arrays.sort(order, byKeys);
 
-    public LocalDate minDateInColumnData(List<LocalDate> columnData) {
-
-        LocalDate min = columnData.get(0);
-
-        for (LocalDate localDate : columnData) {
-            if (localDate.isBefore(min)) {
-                min = localDate;
-            }
+        int[] rowIds = new int[order.length];
+        for (int rows = 0; rows < order.length; rows++) {
+            rowIds[rows] = order[rows];
         }
 
-        return min;
+        return gather(rowIds, order.length);
     }
 
-    public double maxDoubleInColumnData(List<Double> columnData) {
+    // helper methods for above transformation methods -----------------------------------------------------------------
+
+    /**
+     * @param rowIds are the rows to keep, in the order they're kept
+     * @param numRows is the number of row ids used
+     * @return a new result set with the same columns and only the rows supplied
+     */
+    private ResultSet gather(int[] rowIds, int numRows) {
 
-        double max = columnData.get(0);
+        List<Column> gatheredColumns = new ArrayList<>();
+        List<ColumnVector> gatheredVectors = new ArrayList<>();
 
-        for (Double data : columnData) {
-            if(data > max) {
-                max = data;
-            }
+        for (int cols = 0; cols < columns.size(); cols++) {
+            gatheredColumns.add(new Column(columns.get(cols)));
+            gatheredVectors.add(tableData.getColumnVector(cols).gather(rowIds, numRows));
         }
 
-        return max;
+        return new ResultSet(gatheredColumns,
+                new TableData(new ArrayList<>(tableData.getPaddingAmountList()), gatheredVectors, numRows));
     }
 
-    public LocalDate maxDataInColumnData(List<LocalDate> columnData) {
+    /**
+     * @param numColumns is the number of columns to get, starting from the first
+     * @return the column vectors of the first columns
+     */
+    private List<ColumnVector> getColumnVectors(int numColumns) {
 
-        LocalDate max = columnData.get(0);
+        List<ColumnVector> columnVectors = new ArrayList<>();
 
-        for (LocalDate localDate : columnData) {
-            if (localDate.isAfter(max)) {
-                max = localDate;
-            }
+        for (int cols = 0; cols < numColumns; cols++) {
+            columnVectors.add(tableData.getColumnVector(cols));
         }
 
-        return max;
-    }
-
-    public double avgDoubleInColumnData(List<Double> columnData) {
-
-        double totalValue = sumDoubleInColumnData(columnData);
-        int numRows = columnData.size();
-
-        return totalValue / numRows;
+        return columnVectors;
     }
 
-    public LocalDate avgDateInColumnData(List<LocalDate> columnData) {
+    /**
+     * Two rows have equal row keys when each of their values are equal ignoring case, with nulls equal to each
+     * other. A value is keyed on its type when the column it's compared with has the same type, and on its string
+     * otherwise (see ColumnVector.getJoinKey()), so each value is only converted once no matter how many rows it's
+     * compared with.
+     * @param columnVectors are the column vectors of the row
+     * @param otherColumnVectors are the column vectors of the rows it will be compared with
+     * @param row is the row to get the key of
+     * @return the key of the row
+     */
+    private static Object getRowKey(List<ColumnVector> columnVectors, List<ColumnVector> otherColumnVectors,
+                                    int row) {
 
-        BigInteger totalMillis = BigInteger.ZERO;
+        List<Object> rowKey = new ArrayList<>(columnVectors.size());
 
-        for (LocalDate localDate : columnData) {
-            Date date = Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
-            totalMillis = totalMillis.add(BigInteger.valueOf(date.getTime()));
+        for (int cols = 0; cols < columnVectors.size(); cols++) {
+            Object key = columnVectors.get(cols).getJoinKey(row, otherColumnVectors.get(cols));
+            rowKey.add(key != null ? key : NULL_KEY);
         }
 
-        BigInteger averageMillis = totalMillis.divide(BigInteger.valueOf(columnData.size()));
-        Date averageDate = new Date(averageMillis.longValue());
-
-        return averageDate.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return rowKey;
     }
 
-    public double sumDoubleInColumnData(List<Double> columnData) {
-
-        double sum = 0;
-
-        for(Double data : columnData) {
-            double dataValue = data;
-            sum += dataValue;
-        }
-
-        return sum;
+    /**
+     * Returns a list of data associated with a column.
+     * @param columnIndex is the index of the column to get the data from
+     * @return the rows of this column
+     */
+    public List<String> getColumnDataAt(int columnIndex) {
+        return tableData.getRowsAt(columnIndex);
     }
 
-    public LocalDate sumDateInColumnData(List<LocalDate> columnData) {
+    /**
+     * @param column is the column to get the data from
+     * @return the rows of this column
+     */
+    public List<String> getColumnDataAt(Column column) {
 
-        BigInteger totalMillis = BigInteger.ZERO;
+        String columnName = column.getColumnName();
 
-        for (LocalDate localDate : columnData) {
-            Date date = Date.from(localDate.atStartOfDay(ZoneId.systemDefault()).toInstant());
-            totalMillis = totalMillis.add(BigInteger.valueOf(date.getTime()));
+        for( int cols = 0; cols < columns.size(); cols++) {
+            String thisColumnName = columns.get(cols).getColumnName();
+            if (columnName.equalsIgnoreCase(thisColumnName)) {
+                return getColumnDataAt(cols);
+            }
         }
 
-        Date date = new Date(totalMillis.longValue());
-        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return new ArrayList<>();
     }
 
     /**
@@ -1031,8 +1201,7 @@ public class ResultSet {
 
         stringBuilder.append("\n");
 
-        // a very bad hack that gets the job done
-        stringBuilder.append(new TableData(paddingAmountList, data).toString());
+        stringBuilder.append(tableData.toString(paddingAmountList));
 
         if (! isEmpty()) {
             stringBuilder.append("\n");
@@ -0,0 +1,415 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.DataType;
+import enums.Keyword;
+import enums.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The estimated shape of a result set: its columns, roughly how many rows it has, and statistics on the
+ * values of each column. Estimates go through the same relational algebra transformations as a result set,
+ * but only the statistics are carried along, so the optimizer can cost a query tree without running it.
+ * Each transformation assumes the columns are independent of each other and that values are spread evenly.
+ */
+public class ResultSetEstimate {
+
+    // used for joins on <, <=, > and >=, a third of all pairs of rows is the usual guess
+    private static final double RANGE_JOIN_SELECTIVITY = 1.0 / 3;
+
+    private final List<Column> columns;
+    private final List<ColumnStatistics> columnStatistics;
+    private final double numRows;
+
+    /**
+     * Estimates a result set initialized from the table supplied, using the statistics of the table's data.
+     * Each column name will be prefixed with the table name that it belongs to.
+     * @param table is the table to initialize from
+     */
+    public ResultSetEstimate(Table table) {
+
+        this.columns = new ArrayList<>();
+        this.columnStatistics = new ArrayList<>();
+        this.numRows = table.getNumRecords();
+
+        List<ColumnStatistics> tableStatistics = table.getTableData().getStatistics();
+
+        for (int cols = 0; cols < table.getColumns().size(); cols++) {
+
+            Column column = new Column(table.getColumns().get(cols));
+            column.setName(table.getTableName() + "." + column.getColumnName());
+            columns.add(column);
+
+            // a table whose data doesn't have this column yet, every row is null
+            columnStatistics.add(cols < tableStatistics.size()
+                    ? tableStatistics.get(cols)
+                    : new ColumnStatistics(column.getDataType(), numRows, numRows, 0, Double.NaN, Double.NaN));
+        }
+    }
+
+    private ResultSetEstimate(List<Column> columns, List<ColumnStatistics> columnStatistics, double numRows) {
+        this.columns = columns;
+        this.columnStatistics = columnStatistics;
+        this.numRows = numRows;
+    }
+
+    // utility methods
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return the estimated number of rows, rounded to the nearest row
+     */
+    public int getNumRows() {
+        return (int) Math.min(Math.round(numRows), Integer.MAX_VALUE);
+    }
+
+    public Column getColumnFromColumnName(String columnName) {
+        int columnLocation = getColumnLocation(columnName);
+        return columnLocation != -1 ? columns.get(columnLocation) : null;
+    }
+
+    /**
+     * @param columnName is the name of the column, assumed to be prefixed
+     * @return the estimated statistics of the column's values, or null if there's no such column
+     */
+    public ColumnStatistics getColumnStatistics(String columnName) {
+        int columnLocation = getColumnLocation(columnName);
+        return columnLocation != -1 ? columnStatistics.get(columnLocation) : null;
+    }
+
+    /**
+     * @param columnName is the name of the column, assumed to be prefixed
+     * @param value is the value to look for
+     * @return whether the value is expected to be held by at most one row of the column
+     */
+    public boolean isUniqueValue(String columnName, String value) {
+
+        ColumnStatistics statistics = getColumnStatistics(columnName);
+
+        if (statistics == null || statistics.getNumRows() == 0) {
+            return true;
+        }
+
+        return statistics.getSelectivity(Symbol.EQUAL, value) * statistics.getNumRows() <= 1;
+    }
+
+    // relational algebra transformations
+
+    /**
+     * @param columnNames are the names of the columns to keep, assumed to be prefixed
+     * @return the estimate of ResultSet.projection()
+     */
+    public ResultSetEstimate projection(List<String> columnNames) {
+
+        List<Column> projectedColumns = new ArrayList<>();
+        List<ColumnStatistics> projectedStatistics = new ArrayList<>();
+
+        for (String columnName : columnNames) {
+            int columnLocation = getColumnLocation(columnName);
+            if (columnLocation != -1) {
+                projectedColumns.add(new Column(columns.get(columnLocation)));
+                projectedStatistics.add(columnStatistics.get(columnLocation));
+            }
+        }
+
+        return new ResultSetEstimate(projectedColumns, projectedStatistics, numRows);
+    }
+
+    /**
+     * @param columnName is the name of the column to operate on, assumed to be prefixed
+     * @param symbolName is the symbol to use
+     * @param value is the value to check
+     * @return the estimate of ResultSet.selection()
+     */
+    public ResultSetEstimate selection(String columnName, String symbolName, String value) {
+
+        int selectionColumnLocation = getColumnLocation(columnName);
+
+        if (selectionColumnLocation == -1) {
+            return this;
+        }
+
+        Symbol symbol = Symbol.convertToSymbol(symbolName);
+        ColumnStatistics selectionColumnStatistics = columnStatistics.get(selectionColumnLocation);
+        double selectedNumRows = numRows * selectionColumnStatistics.getSelectivity(symbol, value);
+
+        List<ColumnStatistics> selectedStatistics = new ArrayList<>();
+
+        for (int cols = 0; cols < columns.size(); cols++) {
+            selectedStatistics.add(cols == selectionColumnLocation
+                    ? selectionColumnStatistics.select(symbol, value, selectedNumRows)
+                    : columnStatistics.get(cols).scale(selectedNumRows));
+        }
+
+        return new ResultSetEstimate(copyColumns(columns), selectedStatistics, selectedNumRows);
+    }
+
+    /**
+     * @param other is the other estimate to perform a cartesian product on
+     * @return the estimate of ResultSet.cartesianProduct()
+     */
+    public ResultSetEstimate cartesianProduct(ResultSetEstimate other) {
+        return combine(other, numRows * other.numRows, -1, -1, null);
+    }
+
+    /**
+     * @param other is the estimate to perform an inner join on
+     * @param firstColumnToJoin is the column to join on from either side
+     * @param joinSymbolName is the symbol to compare the join columns with
+     * @param secondColumnToJoin is the column to join on from the other side
+     * @return the estimate of ResultSet.innerJoin()
+     */
+    public ResultSetEstimate innerJoin(ResultSetEstimate other, String firstColumnToJoin, String joinSymbolName,
+                                       String secondColumnToJoin) {
+
+        Symbol joinSymbol = Symbol.convertToSymbol(joinSymbolName);
+
+        // the columns to join on can be listed in either order, make sure we know which side each belongs to
+        boolean firstColumnIsInThis = getColumnLocation(firstColumnToJoin) != -1;
+        int thisJoinColumnLocation = getColumnLocation(firstColumnIsInThis ? firstColumnToJoin : secondColumnToJoin);
+        int otherJoinColumnLocation = other.getColumnLocation(firstColumnIsInThis
+                ? secondColumnToJoin
+                : firstColumnToJoin);
+
+        if (thisJoinColumnLocation == -1 || otherJoinColumnLocation == -1) {
+            return cartesianProduct(other);
+        }
+
+        ColumnStatistics thisJoinStatistics = columnStatistics.get(thisJoinColumnLocation);
+        ColumnStatistics otherJoinStatistics = other.columnStatistics.get(otherJoinColumnLocation);
+
+        // nulls never join
+        double thisNonNullRows = thisJoinStatistics.getNumRows() - thisJoinStatistics.getNumNulls();
+        double otherNonNullRows = otherJoinStatistics.getNumRows() - otherJoinStatistics.getNumNulls();
+        double joinedNumRows = thisNonNullRows * otherNonNullRows *
+                getJoinSelectivity(thisJoinStatistics, otherJoinStatistics, joinSymbol);
+
+        return combine(other, joinedNumRows, thisJoinColumnLocation, otherJoinColumnLocation, joinSymbol);
+    }
+
+    /**
+     * Estimates a join condition whose columns are both in this result set already, like a second condition
+     * between two relations that have been joined.
+     * @param firstColumnName is the name of one of the columns to compare, assumed to be prefixed
+     * @param joinSymbolName is the symbol to compare the columns with
+     * @param secondColumnName is the name of the other column to compare, assumed to be prefixed
+     * @return the estimate of keeping the rows whose columns compare as the symbol says
+     */
+    public ResultSetEstimate joinSelection(String firstColumnName, String joinSymbolName, String secondColumnName) {
+
+        int firstColumnLocation = getColumnLocation(firstColumnName);
+        int secondColumnLocation = getColumnLocation(secondColumnName);
+
+        if (firstColumnLocation == -1 || secondColumnLocation == -1) {
+            return this;
+        }
+
+        Symbol joinSymbol = Symbol.convertToSymbol(joinSymbolName);
+        ColumnStatistics firstStatistics = columnStatistics.get(firstColumnLocation);
+        ColumnStatistics secondStatistics = columnStatistics.get(secondColumnLocation);
+
+        // a row with a null in either column never matches
+        double firstNonNullFraction = numRows > 0 ? 1 - firstStatistics.getNumNulls() / numRows : 0;
+        double secondNonNullFraction = numRows > 0 ? 1 - secondStatistics.getNumNulls() / numRows : 0;
+        double selectedNumRows = numRows * firstNonNullFraction * secondNonNullFraction *
+                getJoinSelectivity(firstStatistics, secondStatistics, joinSymbol);
+
+        List<ColumnStatistics> selectedStatistics = new ArrayList<>();
+        columnStatistics.forEach(statistics -> selectedStatistics.add(statistics.scale(selectedNumRows)));
+
+        // like joining on =, both columns only keep the values they have in common
+        if (joinSymbol == Symbol.EQUAL) {
+
+            double numDistinct = Math.min(firstStatistics.getNumDistinct(), secondStatistics.getNumDistinct());
+
+            selectedStatistics.set(firstColumnLocation, new ColumnStatistics(firstStatistics.getDataType(),
+                    selectedNumRows, 0, numDistinct, firstStatistics.getMin(), firstStatistics.getMax()));
+            selectedStatistics.set(secondColumnLocation, new ColumnStatistics(secondStatistics.getDataType(),
+                    selectedNumRows, 0, numDistinct, secondStatistics.getMin(), secondStatistics.getMax()));
+        }
+
+        return new ResultSetEstimate(copyColumns(columns), selectedStatistics, selectedNumRows);
+    }
+
+    /**
+     * @param columnNamesToGroupBy are the column names to group by, assumed to be prefixed
+     * @param aggregationTypes are the types of aggregations to apply to the aggregated columns
+     * @param columnNamesToAggregate are the names of the columns to be aggregated, assumed to be prefixed
+     * @return the estimate of ResultSet.aggregate()
+     */
+    public ResultSetEstimate aggregate(List<String> columnNamesToGroupBy, List<String> aggregationTypes,
+                                       List<String> columnNamesToAggregate) {
+
+        // every combination of group by values that shows up is a group, nulls are a group of their own
+        double numGroups = 1;
+
+        for (String columnName : columnNamesToGroupBy) {
+            ColumnStatistics statistics = getColumnStatistics(columnName);
+            if (statistics != null) {
+                numGroups *= statistics.getNumDistinct() + (statistics.getNumNulls() > 0 ? 1 : 0);
+            }
+        }
+
+        numGroups = columnNamesToGroupBy.isEmpty() ? 1 : Math.min(numGroups, numRows);
+
+        List<Column> aggregatedColumns = new ArrayList<>();
+        List<ColumnStatistics> aggregatedStatistics = new ArrayList<>();
+
+        for (String columnName : columnNamesToGroupBy) {
+            int columnLocation = getColumnLocation(columnName);
+            if (columnLocation != -1) {
+                aggregatedColumns.add(new Column(columns.get(columnLocation)));
+                aggregatedStatistics.add(columnStatistics.get(columnLocation).scale(numGroups));
+            }
+        }
+
+        for (int i = 0; i < aggregationTypes.size(); i++) {
+
+            String aggregationType = aggregationTypes.get(i);
+            String aggregatedColumnName = columnNamesToAggregate.get(i);
+            int columnLocation = getColumnLocation(aggregatedColumnName);
+
+            if (columnLocation == -1) {
+                continue;
+            }
+
+            Column columnToAdd = new Column(columns.get(columnLocation));
+            columnToAdd.setName(aggregationType + "(" + aggregatedColumnName + ")");
+            // performing COUNT() on a char data type produces a number, not a char
+            if (columnToAdd.getDataType() == DataType.CHAR) {
+                columnToAdd.setDataType(DataType.NUMBER);
+            }
+
+            aggregatedColumns.add(columnToAdd);
+            aggregatedStatistics.add(getAggregatedStatistics(Keyword.toKeyword(aggregationType),
+                    columnStatistics.get(columnLocation), columnToAdd.getDataType(), numGroups));
+        }
+
+        return new ResultSetEstimate(aggregatedColumns, aggregatedStatistics, numGroups);
+    }
+
+    /**
+     * @param aggregationTypes are the aggregation types to be applied to the column
+     * @param columnNames is a list of column names prefixed with the table name that they belong to
+     * @param symbols is a list of symbols
+     * @param values is a list of values to check
+     * @return the estimate of ResultSet.having()
+     */
+    public ResultSetEstimate having(List<String> aggregationTypes, List<String> columnNames, List<String> symbols,
+                                    List<String> values) {
+
+        ResultSetEstimate estimate = this;
+
+        for (int i = 0; i < aggregationTypes.size(); i++) {
+            String aggregatedColumnName = aggregationTypes.get(i) + "(" + columnNames.get(i) + ")";
+            estimate = estimate.selection(aggregatedColumnName, symbols.get(i), values.get(i));
+        }
+
+        return estimate;
+    }
+
+    // helper methods
+
+    private int getColumnLocation(String columnName) {
+
+        for (int cols = 0; cols < columns.size(); cols++) {
+            if (columns.get(cols).getColumnName().equalsIgnoreCase(columnName)) {
+                return cols;
+            }
+        }
+
+        return -1;
+    }
+
+    private static List<Column> copyColumns(List<Column> columns) {
+
+        List<Column> copiedColumns = new ArrayList<>();
+        columns.forEach(column -> copiedColumns.add(new Column(column)));
+
+        return copiedColumns;
+    }
+
+    /**
+     * @return the fraction of pairs of non null values that compare as the join symbol says, the column with more
+     * distinct values decides how many pairs match on =
+     */
+    private static double getJoinSelectivity(ColumnStatistics firstStatistics, ColumnStatistics secondStatistics,
+                                             Symbol joinSymbol) {
+
+        double maxNumDistinct = Math.max(firstStatistics.getNumDistinct(), secondStatistics.getNumDistinct());
+        double equalSelectivity = maxNumDistinct > 0 ? 1 / maxNumDistinct : 0;
+        boolean isCharJoin = firstStatistics.getDataType() == DataType.CHAR ||
+                secondStatistics.getDataType() == DataType.CHAR;
+
+        switch (joinSymbol) {
+            case EQUAL:
+                return equalSelectivity;
+            case NOT_EQUAL:
+                return maxNumDistinct > 0 ? 1 - equalSelectivity : 0;
+            default:
+                return isCharJoin ? 0 : RANGE_JOIN_SELECTIVITY;
+        }
+    }
+
+    /**
+     * Puts the columns of this estimate and the other side by side for the number of rows supplied. When joined
+     * on =, both join columns only keep the values they have in common.
+     */
+    private ResultSetEstimate combine(ResultSetEstimate other, double combinedNumRows, int thisJoinColumnLocation,
+                                      int otherJoinColumnLocation, Symbol joinSymbol) {
+
+        List<Column> combinedColumns = copyColumns(columns);
+        combinedColumns.addAll(copyColumns(other.columns));
+
+        List<ColumnStatistics> combinedStatistics = new ArrayList<>();
+        columnStatistics.forEach(statistics -> combinedStatistics.add(statistics.scale(combinedNumRows)));
+        other.columnStatistics.forEach(statistics -> combinedStatistics.add(statistics.scale(combinedNumRows)));
+
+        if (joinSymbol == Symbol.EQUAL) {
+
+            ColumnStatistics thisJoinStatistics = columnStatistics.get(thisJoinColumnLocation);
+            ColumnStatistics otherJoinStatistics = other.columnStatistics.get(otherJoinColumnLocation);
+            double numDistinct = Math.min(thisJoinStatistics.getNumDistinct(), otherJoinStatistics.getNumDistinct());
+
+            combinedStatistics.set(thisJoinColumnLocation, new ColumnStatistics(thisJoinStatistics.getDataType(),
+                    combinedNumRows, 0, numDistinct, thisJoinStatistics.getMin(), thisJoinStatistics.getMax()));
+            combinedStatistics.set(columns.size() + otherJoinColumnLocation, new ColumnStatistics(
+                    otherJoinStatistics.getDataType(), combinedNumRows, 0, numDistinct, otherJoinStatistics.getMin(),
+                    otherJoinStatistics.getMax()));
+        }
+
+        return new ResultSetEstimate(combinedColumns, combinedStatistics, combinedNumRows);
+    }
+
+    /**
+     * @return the statistics of an aggregated column, one value per group
+     */
+    private static ColumnStatistics getAggregatedStatistics(Keyword aggregationType, ColumnStatistics statistics,
+                                                            DataType dataType, double numGroups) {
+
+        double rowsPerGroup = numGroups > 0 ? statistics.getNumRows() / numGroups : 0;
+
+        switch (aggregationType) {
+            case COUNT:
+                return new ColumnStatistics(dataType, numGroups, 0, numGroups, Math.min(1, rowsPerGroup),
+                        statistics.getNumRows());
+            case SUM: {
+                double min = statistics.getMin();
+                double max = statistics.getMax();
+                return new ColumnStatistics(dataType, numGroups, 0, numGroups,
+                        Math.min(min, min * rowsPerGroup), Math.max(max, max * rowsPerGroup));
+            }
+            default:
+                // MIN, MAX and AVG stay between the smallest and largest value of the column
+                return new ColumnStatistics(dataType, numGroups, 0, numGroups, statistics.getMin(),
+                        statistics.getMax());
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.TableData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pull based operator that produces the rows of a query one at a time. A row is opened with open(),
+ * each call to next() moves on to the next row, and close() lets go of anything held onto.
+ * Rows are never copied on their way through an iterator. Every row comes from one or more sources
+ * (result sets that were already materialized) and each column of the current row is a row of one of
+ * the sources' column vectors, so selections, projections, and joins stacked on top of each other only pass
+ * row ids along. Values are only gathered into new column vectors when materialize() is called.
+ */
+public abstract class RowIterator {
+
+    /**
+     * @param resultSet is the result set to read
+     * @return an iterator over every row of the result set
+     */
+    public static RowIterator scan(ResultSet resultSet) {
+        return new ScanIterator(resultSet);
+    }
+
+    /**
+     * @return the columns of the rows produced
+     */
+    public abstract List<Column> getColumns();
+
+    /**
+     * @return used for formatting, in the same order as the columns
+     */
+    public abstract List<Integer> getPaddingAmountList();
+
+    /**
+     * Gets this iterator ready to produce its first row.
+     */
+    public abstract void open();
+
+    /**
+     * Moves on to the next row.
+     * @return whether there was another row
+     */
+    public abstract boolean next();
+
+    /**
+     * Lets go of anything used to produce the rows, no more rows can be produced until opened again.
+     */
+    public abstract void close();
+
+    /**
+     * @return the number of sources the rows are made up from
+     */
+    public abstract int getNumSources();
+
+    /**
+     * @param col is the location of the column
+     * @return the source that the column's values come from
+     */
+    public abstract int getSource(int col);
+
+    /**
+     * Only valid once this iterator is open.
+     * @param col is the location of the column
+     * @return the column vector holding the column's values, indexed by the row ids of its source
+     */
+    public abstract ColumnVector getColumnVector(int col);
+
+    /**
+     * @param source is the source to get the row of
+     * @return the row of the source that the current row is made up from
+     */
+    public abstract int getRowId(int source);
+
+    /**
+     * Used to decide which predicate of a selection to check first. Statistics are only handed back if they were
+     * already gathered, this never looks at the rows.
+     * @param col is the location of the column
+     * @return the statistics of the column's source, or null if they aren't known
+     */
+    public ColumnStatistics getColumnStatistics(int col) {
+        return null;
+    }
+
+    // relational algebra transformations ------------------------------------------------------------------------------
+
+    /**
+     * @param columnName is the name of the column to operate on, assumed to be prefixed
+     * @param symbolName is the symbol to use
+     * @param value is the value to check
+     * @return an iterator over the rows of this iterator that satisfy the predicate
+     */
+    public RowIterator selection(String columnName, String symbolName, String value) {
+        return new SelectionIterator(this, columnName, symbolName, value);
+    }
+
+    /**
+     * Each row is checked against every predicate in a single pass, see SelectionIterator.
+     * @param columnNames are the names of the columns to operate on, assumed to be prefixed
+     * @param symbolNames are the symbols to use
+     * @param values are the values to check
+     * @return an iterator over the rows of this iterator that satisfy all of the predicates
+     */
+    public RowIterator selection(List<String> columnNames, List<String> symbolNames, List<String> values) {
+
+        RowIterator selection = this;
+
+        for (int i = 0; i < columnNames.size(); i++) {
+            selection = selection.selection(columnNames.get(i), symbolNames.get(i), values.get(i));
+        }
+
+        return selection;
+    }
+
+    /**
+     * @param columnNames are the names of the columns to keep, assumed to be prefixed
+     * @return an iterator over the rows of this iterator with only the columns supplied
+     */
+    public RowIterator projection(List<String> columnNames) {
+        return new ProjectionIterator(this, columnNames);
+    }
+
+    /**
+     * @param limit is the most rows to produce
+     * @return an iterator over the first rows of this iterator, up to the limit
+     */
+    public RowIterator limit(int limit) {
+        return new LimitIterator(this, limit);
+    }
+
+    /**
+     * Joining has to see all rows of both sides before the first row can be produced, so the row ids of both
+     * sides are collected when the join is opened. Only the columns joined on have their values gathered, the
+     * joined rows are still produced one at a time as row ids into the sides' sources.
+     * @param other is the iterator to join with
+     * @param firstColumnToJoin is the column to join on from either side
+     * @param joinSymbolName is the symbol to compare the join columns with
+     * @param secondColumnToJoin is the column to join on from the other side
+     * @return an iterator over each pair of rows satisfying the join condition
+     */
+    public RowIterator innerJoin(RowIterator other, String firstColumnToJoin, String joinSymbolName,
+                                 String secondColumnToJoin) {
+        return new JoinIterator(this, other, firstColumnToJoin, joinSymbolName, secondColumnToJoin);
+    }
+
+    /**
+     * @param other is the iterator to combine with
+     * @return an iterator over every pair of rows of this iterator and the other iterator
+     */
+    public RowIterator cartesianProduct(RowIterator other) {
+        return new JoinIterator(this, other, null, null, null);
+    }
+
+    /**
+     * Produces every row of this iterator, gathering the values of each column into a new result set.
+     * @return a result set holding the rows of this iterator
+     */
+    public ResultSet materialize() {
+        return gather(new SelectionVectors(this));
+    }
+
+    /**
+     * Produces every row of this iterator, splitting the rows into morsels that are produced in parallel when
+     * there are enough of them, see Parallelism.
+     * @param parallelism is how many threads to use and whether rows have to come out in order
+     * @return a result set holding the rows of this iterator
+     */
+    public ResultSet materialize(Parallelism parallelism) {
+
+        List<RowIterator> morsels = parallelism.split(this);
+
+        if (morsels == null) {
+            return materialize();
+        }
+
+        List<SelectionVectors> parts = parallelism.map(morsels, SelectionVectors::new);
+        morsels.forEach(RowIterator::close);
+
+        // the morsels read the same sources as this iterator, so only the row ids have to be put back together
+        open();
+        return gather(new SelectionVectors(parts));
+    }
+
+    /**
+     * Groups and aggregates the rows of this iterator, see ResultSet.aggregate(). When there are enough rows each
+     * morsel is grouped and aggregated on its own in parallel, then the groups of the morsels are merged.
+     * @param columnNamesToGroupBy are the column names to group by, column names are assumed to be prefixed
+     * @param aggregationTypes are the types of aggregations to apply to the aggregated columns
+     * @param columnNamesToAggregate are the names of the columns to be aggregated, assumed to be prefixed
+     * @param parallelism is how many threads to use and whether groups have to come out in order
+     * @return a new result set after being aggregated
+     */
+    public ResultSet aggregate(List<String> columnNamesToGroupBy, List<String> aggregationTypes,
+                               List<String> columnNamesToAggregate, Parallelism parallelism) {
+
+        List<RowIterator> morsels = parallelism.split(this);
+
+        if (morsels == null) {
+            return materialize().aggregate(columnNamesToGroupBy, aggregationTypes, columnNamesToAggregate);
+        }
+
+        List<ResultSet.Groups> partialGroups = parallelism.map(morsels, morsel -> morsel.materialize()
+                .group(columnNamesToGroupBy, aggregationTypes, columnNamesToAggregate));
+
+        return ResultSet.aggregate(partialGroups, columnNamesToGroupBy, aggregationTypes, columnNamesToAggregate);
+    }
+
+    /**
+     * Splits the rows into morsels that can be produced on their own. Only scans of every row of a result set
+     * and the selections and projections stacked on top of them can be split.
+     * @param morselSize is the number of rows of each morsel
+     * @return iterators that together produce the rows of this iterator in order, or null if it can't be split
+     */
+    List<RowIterator> split(int morselSize) {
+        return null;
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * Gathers the values of each column for the rows supplied into a new result set and closes this iterator.
+     */
+    private ResultSet gather(SelectionVectors selectionVectors) {
+
+        int numRows = selectionVectors.getNumRows();
+
+        List<Column> columns = new ArrayList<>();
+        List<ColumnVector> columnVectors = new ArrayList<>();
+
+        for (int cols = 0; cols < getColumns().size(); cols++) {
+            columns.add(new Column(getColumns().get(cols)));
+            columnVectors.add(getColumnVector(cols).gather(selectionVectors.getRowIds(getSource(cols)), numRows));
+        }
+
+        close();
+
+        return new ResultSet(columns, new TableData(new ArrayList<>(getPaddingAmountList()), columnVectors, numRows));
+    }
+
+    /**
+     * @param columnName is the name of the column to find
+     * @return the location of the column, or -1 if this iterator doesn't produce it
+     */
+    protected int getColumnLocation(String columnName) {
+
+        List<Column> columns = getColumns();
+
+        for (int cols = 0; cols < columns.size(); cols++) {
+            if (columns.get(cols).getColumnName().equalsIgnoreCase(columnName)) {
+                return cols;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,151 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.TableData;
+import enums.Symbol;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the rows of a result set. A selection placed straight on top of a scan becomes the way the result set
+ * is accessed, so a hash index or B+-tree on the selected column is used instead of looking at every row.
+ */
+class ScanIterator extends RowIterator {
+
+    private final ResultSet resultSet;
+
+    // the selection used to access the result set, or null if every row is read
+    private final String columnName;
+    private final Symbol symbol;
+    private final String value;
+
+    // the rows read when every row is read, to is -1 for the last row of the result set
+    private final int fromRow;
+    private final int toRow;
+
+    private int[] rowIds;
+    private int numRows;
+    private int current;
+
+    ScanIterator(ResultSet resultSet) {
+        this(resultSet, null, null, null, 0, -1);
+    }
+
+    private ScanIterator(ResultSet resultSet, String columnName, Symbol symbol, String value, int fromRow,
+                         int toRow) {
+        this.resultSet = resultSet;
+        this.columnName = columnName;
+        this.symbol = symbol;
+        this.value = value;
+        this.fromRow = fromRow;
+        this.toRow = toRow;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return resultSet.getColumns();
+    }
+
+    @Override
+    public List<Integer> getPaddingAmountList() {
+        return resultSet.getTableData().getPaddingAmountList();
+    }
+
+    @Override
+    public void open() {
+
+        if (columnName != null) {
+            rowIds = new int[resultSet.getNumRows()];
+            numRows = resultSet.getTableData().select(getColumnLocation(columnName), symbol, value, rowIds);
+        } else {
+            numRows = toRow >= 0 ? toRow : resultSet.getNumRows();
+        }
+
+        current = fromRow - 1;
+    }
+
+    @Override
+    public boolean next() {
+        current++;
+        return current < numRows;
+    }
+
+    @Override
+    public void close() {
+        rowIds = null;
+    }
+
+    @Override
+    public int getNumSources() {
+        return 1;
+    }
+
+    @Override
+    public int getSource(int col) {
+        return 0;
+    }
+
+    @Override
+    public ColumnVector getColumnVector(int col) {
+        return resultSet.getTableData().getColumnVector(col);
+    }
+
+    @Override
+    public int getRowId(int source) {
+        return rowIds != null ? rowIds[current] : current;
+    }
+
+    @Override
+    public ColumnStatistics getColumnStatistics(int col) {
+        TableData tableData = resultSet.getTableData();
+        return tableData.hasStatistics() ? tableData.getStatistics().get(col) : null;
+    }
+
+    @Override
+    public RowIterator selection(String columnName, String symbolName, String value) {
+
+        if (this.columnName == null && ! isMorsel()) {
+            return new ScanIterator(resultSet, columnName, Symbol.convertToSymbol(symbolName), value, 0, -1);
+        }
+
+        return super.selection(columnName, symbolName, value);
+    }
+
+    /**
+     * Reading every row of a result set gives back the same result set, there's no need to copy it.
+     */
+    @Override
+    public ResultSet materialize() {
+        return columnName == null && ! isMorsel() ? resultSet : super.materialize();
+    }
+
+    /**
+     * Rows found through an index can't be split, the index has to be looked at before knowing which rows there are.
+     */
+    @Override
+    List<RowIterator> split(int morselSize) {
+
+        int numRows = resultSet.getNumRows();
+
+        if (columnName != null || isMorsel() || numRows <= morselSize) {
+            return null;
+        }
+
+        List<RowIterator> morsels = new ArrayList<>();
+
+        for (int from = 0; from < numRows; from += morselSize) {
+            morsels.add(new ScanIterator(resultSet, null, null, null, from, Math.min(from + morselSize, numRows)));
+        }
+
+        return morsels;
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    private boolean isMorsel() {
+        return toRow >= 0;
+    }
+}
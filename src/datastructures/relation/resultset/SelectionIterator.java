@@ -0,0 +1,203 @@
+package datastructures.relation.resultset;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.ColumnVector;
+import enums.Symbol;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Passes along only the rows of its input that satisfy every one of its predicates, each "column symbol value".
+ * Selections stacked on top of each other are fused into a single iterator, so every row is checked against all
+ * of the predicates in one go. The predicates are compiled for the type of their column when opened, so the value
+ * isn't converted again for every row, and are checked starting with the one estimated to keep the fewest rows
+ * so that most rows are turned away by the first check.
+ */
+class SelectionIterator extends RowIterator {
+
+    // fraction of rows kept when a column has no statistics, the usual textbook guesses
+    private static final double DEFAULT_EQUAL_SELECTIVITY = 0.1;
+    private static final double DEFAULT_RANGE_SELECTIVITY = 1.0 / 3;
+    private static final double DEFAULT_NOT_EQUAL_SELECTIVITY = 0.9;
+
+    private final RowIterator input;
+    private final List<Integer> selectionColumnLocations;
+    private final List<Symbol> symbols;
+    private final List<String> values;
+
+    // compiled once the input is open, in the order they're checked
+    private IntPredicate[] predicates;
+    private int[] selectionSources;
+
+    SelectionIterator(RowIterator input, String columnName, String symbolName, String value) {
+        this(input, new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        add(columnName, symbolName, value);
+    }
+
+    private SelectionIterator(RowIterator input, List<Integer> selectionColumnLocations, List<Symbol> symbols,
+                              List<String> values) {
+        this.input = input;
+        this.selectionColumnLocations = selectionColumnLocations;
+        this.symbols = symbols;
+        this.values = values;
+    }
+
+    @Override
+    public List<Column> getColumns() {
+        return input.getColumns();
+    }
+
+    @Override
+    public List<Integer> getPaddingAmountList() {
+        return input.getPaddingAmountList();
+    }
+
+    @Override
+    public void open() {
+
+        input.open();
+
+        List<Integer> order = new ArrayList<>();
+        List<Double> selectivities = new ArrayList<>();
+
+        for (int i = 0; i < symbols.size(); i++) {
+            order.add(i);
+            selectivities.add(getSelectivity(i));
+        }
+
+        // stable, so predicates that are estimated to be just as selective keep the order they were written in
+        order.sort(Comparator.comparing(selectivities::get));
+
+        predicates = new IntPredicate[order.size()];
+        selectionSources = new int[order.size()];
+
+        for (int i = 0; i < order.size(); i++) {
+            int selectionColumnLocation = selectionColumnLocations.get(order.get(i));
+            ColumnVector selectionVector = input.getColumnVector(selectionColumnLocation);
+            predicates[i] = selectionVector.compile(symbols.get(order.get(i)), values.get(order.get(i)));
+            selectionSources[i] = input.getSource(selectionColumnLocation);
+        }
+    }
+
+    @Override
+    public boolean next() {
+
+        while (input.next()) {
+            if (matchesAll()) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void close() {
+        input.close();
+        predicates = null;
+        selectionSources = null;
+    }
+
+    @Override
+    public int getNumSources() {
+        return input.getNumSources();
+    }
+
+    @Override
+    public int getSource(int col) {
+        return input.getSource(col);
+    }
+
+    @Override
+    public ColumnVector getColumnVector(int col) {
+        return input.getColumnVector(col);
+    }
+
+    @Override
+    public int getRowId(int source) {
+        return input.getRowId(source);
+    }
+
+    @Override
+    public ColumnStatistics getColumnStatistics(int col) {
+        return input.getColumnStatistics(col);
+    }
+
+    /**
+     * Fuses the selection into this one instead of stacking another iterator on top, the rows kept are the same.
+     */
+    @Override
+    public RowIterator selection(String columnName, String symbolName, String value) {
+        SelectionIterator fused = new SelectionIterator(input, new ArrayList<>(selectionColumnLocations),
+                new ArrayList<>(symbols), new ArrayList<>(values));
+        fused.add(columnName, symbolName, value);
+        return fused;
+    }
+
+    /**
+     * Each morsel of the input is checked against the same predicates.
+     */
+    @Override
+    List<RowIterator> split(int morselSize) {
+
+        List<RowIterator> inputMorsels = input.split(morselSize);
+
+        if (inputMorsels == null) {
+            return null;
+        }
+
+        return inputMorsels.stream()
+                .map(inputMorsel -> new SelectionIterator(inputMorsel, selectionColumnLocations, symbols, values))
+                .collect(Collectors.toList());
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    private void add(String columnName, String symbolName, String value) {
+        selectionColumnLocations.add(input.getColumnLocation(columnName));
+        symbols.add(Symbol.convertToSymbol(symbolName));
+        values.add(value);
+    }
+
+    /**
+     * @return whether the current row of the input satisfies every predicate, stopping at the first that fails
+     */
+    private boolean matchesAll() {
+
+        for (int i = 0; i < predicates.length; i++) {
+            if (! predicates[i].test(input.getRowId(selectionSources[i]))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param i is the location of the predicate
+     * @return the estimated fraction of rows the predicate keeps
+     */
+    private double getSelectivity(int i) {
+
+        ColumnStatistics columnStatistics = input.getColumnStatistics(selectionColumnLocations.get(i));
+        Symbol symbol = symbols.get(i);
+
+        if (columnStatistics != null) {
+            return columnStatistics.getSelectivity(symbol, values.get(i));
+        }
+
+        switch (symbol) {
+            case EQUAL:
+                return DEFAULT_EQUAL_SELECTIVITY;
+            case NOT_EQUAL:
+                return DEFAULT_NOT_EQUAL_SELECTIVITY;
+            default:
+                return DEFAULT_RANGE_SELECTIVITY;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package datastructures.relation.resultset;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The rows produced by a row iterator kept as row ids rather than values, one selection vector for each of the
+ * iterator's sources. Row i is made up of row getRowIds(source)[i] of each source, so resolving the values of a
+ * column is left until they're actually needed.
+ */
+final class SelectionVectors {
+
+    private int[][] rowIds;
+    private int numRows;
+
+    /**
+     * Produces every row of the iterator supplied, keeping the row ids of each of its sources. The iterator
+     * is opened but left open, so its column vectors can still be looked at until it's closed.
+     * @param rowIterator is the iterator to produce the rows of
+     */
+    SelectionVectors(RowIterator rowIterator) {
+
+        rowIterator.open();
+
+        int numSources = rowIterator.getNumSources();
+        this.rowIds = new int[numSources][16];
+        this.numRows = 0;
+
+        while (rowIterator.next()) {
+            if (numRows == rowIds[0].length) {
+                for (int source = 0; source < numSources; source++) {
+                    rowIds[source] = Arrays.copyOf(rowIds[source], numRows * 2);
+                }
+            }
+            for (int source = 0; source < numSources; source++) {
+                rowIds[source][numRows] = rowIterator.getRowId(source);
+            }
+            numRows++;
+        }
+    }
+
+    /**
+     * Puts the rows of several parts back together, one after the other.
+     * @param parts are the rows of each part, all from the same sources
+     */
+    SelectionVectors(List<SelectionVectors> parts) {
+
+        int numSources = parts.get(0).rowIds.length;
+        this.numRows = parts.stream().mapToInt(SelectionVectors::getNumRows).sum();
+        this.rowIds = new int[numSources][Math.max(numRows, 1)];
+
+        int offset = 0;
+
+        for (SelectionVectors part : parts) {
+            for (int source = 0; source < numSources; source++) {
+                System.arraycopy(part.rowIds[source], 0, rowIds[source], offset, part.numRows);
+            }
+            offset += part.numRows;
+        }
+    }
+
+    /**
+     * @param source is the source to get the row ids of
+     * @return the row of the source that each row is made up from, only the first getNumRows() are used
+     */
+    int[] getRowIds(int source) {
+        return rowIds[source];
+    }
+
+    int getNumRows() {
+        return numRows;
+    }
+}
@@ -1,13 +1,18 @@
 package datastructures.relation.table;
 
 import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.FileStructure;
 import datastructures.relation.table.component.TableData;
 import datastructures.relation.table.component.DataType;
+import utilities.QueryCost;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * A representation of the table stored within the database. This stores stuff
@@ -22,6 +27,14 @@ public class Table {
     private String clusteredWith;
     private TableData tableData;
 
+    // reads the data the first time it's needed, null once the data is there. Statistics that were saved
+    // with the data are held onto until then, they can only be checked against the data once it's read
+    private Supplier<TableData> tableDataLoader;
+    private List<ColumnStatistics> savedStatistics;
+
+    // whether the data has changed since it was last written out
+    private boolean isDirty;
+
     /**
      * Default constructor used for un-serializing serialized data.
      * Should not be used for any other purpose
@@ -62,7 +75,9 @@ public class Table {
         this.primaryKeys = primaryKeys;
         this.foreignKeys = foreignKeys;
         this.clusteredWith = "none";
-        this.tableData = new TableData(new ArrayList<>(), new ArrayList<>());
+        this.tableData = new TableData(new ArrayList<>(), new ArrayList<>(), columns.stream()
+                .map(Column::getDataType)
+                .collect(Collectors.toList()));
     }
 
     /**
@@ -84,6 +99,25 @@ public class Table {
         this.tableData = new TableData(toCopy.getTableData());
     }
 
+    /**
+     * Returns a copy of a table's columns, keys, and clustering that shares the table's data instead of copying it.
+     * File structures and clustering can be changed on the copy without affecting the original, which is all the
+     * optimizer needs when trying them out (see WhatIfCatalog). The shared data must only ever be read.
+     * @param toCopy is the table to copy
+     * @return the copy of the table's metadata
+     */
+    public static Table copyOfMetadata(Table toCopy) {
+        Table copy = new Table(toCopy.tableName);
+        for(Column column : toCopy.getColumns()) {
+            copy.columns.add(new Column(column));
+        }
+        copy.primaryKeys.addAll(toCopy.primaryKeys);
+        copy.foreignKeys.putAll(toCopy.foreignKeys);
+        copy.clusteredWith = toCopy.clusteredWith;
+        copy.tableData = toCopy.getTableData();
+        return copy;
+    }
+
     // getters, setters ------------------------------------------------------------------------------------------------
 
     /**
@@ -120,8 +154,9 @@ public class Table {
      * @param column is the column to add
      */
     public void addColumn(Column column) {
+        TableData tableData = getTableData();
         columns.add(column);
-        tableData.addColumn(column.size());
+        tableData.addColumn(column.size(), column.getDataType());
     }
 
     /**
@@ -137,6 +172,7 @@ public class Table {
      * @param columnToRemove is the name of the column to remove
      */
     public void removeColumn(String columnToRemove) {
+        TableData tableData = getTableData();
         for(int i = 0; i < columns.size(); i++) {
             String columnName = columns.get(i).getColumnName();
             if(columnName.equalsIgnoreCase(columnToRemove)) {
@@ -208,17 +244,124 @@ public class Table {
     }
 
     /**
+     * Reads the data first if it hasn't been read yet, see setTableDataLoader().
      * @return all the data held within a table
      */
-    public TableData getTableData() {
+    public synchronized TableData getTableData() {
+
+        if (tableDataLoader != null) {
+
+            // cleared first, setting the data looks at it again to build the indexes
+            Supplier<TableData> loader = tableDataLoader;
+            tableDataLoader = null;
+
+            // kept if the data couldn't be read, so it's read again the next time it's needed
+            try {
+                setTableData(loader.get());
+            } catch (RuntimeException e) {
+                tableDataLoader = loader;
+                throw e;
+            }
+
+            if (savedStatistics != null) {
+                tableData.setStatistics(savedStatistics);
+                savedStatistics = null;
+            }
+        }
+
         return tableData;
     }
 
     /**
+     * Holds off on reading the data until it's first needed, so tables that are never looked at are never read.
+     * @param tableDataLoader reads the data
+     */
+    public synchronized void setTableDataLoader(Supplier<TableData> tableDataLoader) {
+        this.tableDataLoader = tableDataLoader;
+    }
+
+    /**
+     * @return whether the data has been read, see setTableDataLoader()
+     */
+    public synchronized boolean isTableDataLoaded() {
+        return tableDataLoader == null;
+    }
+
+    /**
+     * Hands statistics that were saved to the data, they're thrown away if they don't describe it.
+     * When the data hasn't been read yet, they're held onto until it is.
+     * @param statistics are the statistics of each column
+     */
+    public synchronized void restoreStatistics(List<ColumnStatistics> statistics) {
+        if (tableDataLoader != null) {
+            savedStatistics = statistics;
+        } else {
+            tableData.setStatistics(statistics);
+        }
+    }
+
+    /**
+     * Never reads the data, statistics held onto for data that hasn't been read yet are handed back as they are.
+     * @return the statistics to save, or null if none have been gathered
+     */
+    public synchronized List<ColumnStatistics> getStatisticsToSave() {
+        if (tableDataLoader != null) {
+            return savedStatistics;
+        }
+        return tableData.hasStatistics() ? tableData.getStatistics() : null;
+    }
+
+    /**
+     * Sets the table data, converting each of its columns to the data type of this table's columns.
      * @param tableData is the table data to set
      */
-    public void setTableData(TableData tableData) {
+    public synchronized void setTableData(TableData tableData) {
+        this.tableDataLoader = null;
         this.tableData = tableData;
+        this.tableData.setDataTypes(columns);
+        updateIndexes();
+    }
+
+    /**
+     * Makes sure each column has the index its file structure calls for: a hash index for a hash table,
+     * a B+-tree for a secondary or clustered b-tree. Rows are kept in order by the first column with a
+     * clustered b-tree.
+     */
+    public void updateIndexes() {
+
+        TableData tableData = getTableData();
+        int clusteredColumn = -1;
+
+        for (int i = 0; i < columns.size(); i++) {
+
+            Column column = columns.get(i);
+            FileStructure fileStructure = column.getFileStructure();
+            boolean isHashTable = fileStructure == FileStructure.HASH_TABLE;
+            boolean isBTree = fileStructure == FileStructure.SECONDARY_B_TREE ||
+                    fileStructure == FileStructure.CLUSTERED_B_TREE;
+
+            if (isHashTable && ! tableData.hasHashIndex(i)) {
+                tableData.buildHashIndex(i);
+            } else if (! isHashTable && tableData.hasHashIndex(i)) {
+                tableData.dropHashIndex(i);
+            }
+
+            if (isBTree && ! tableData.hasBPlusTree(i)) {
+                tableData.buildBPlusTree(i, QueryCost.degree(column.size()));
+            } else if (! isBTree && tableData.hasBPlusTree(i)) {
+                tableData.dropBPlusTree(i);
+            }
+
+            if (fileStructure == FileStructure.CLUSTERED_B_TREE && clusteredColumn == -1) {
+                clusteredColumn = i;
+            }
+        }
+
+        if (clusteredColumn == -1) {
+            tableData.unCluster();
+        } else if (tableData.getClusteredColumn() != clusteredColumn) {
+            tableData.clusterOn(clusteredColumn);
+        }
     }
 
     // utility methods -------------------------------------------------------------------------------------------------
@@ -234,7 +377,7 @@ public class Table {
      * @return the number of rows within the table
      */
     public int getNumRecords() {
-        return tableData.getNumRows();
+        return getTableData().getNumRows();
     }
 
     /**
@@ -295,7 +438,28 @@ public class Table {
     }
 
     public void addRow(List<String> row) {
-        tableData.addRow(row);
+        getTableData().addRow(row);
+    }
+
+    /**
+     * Marks the data as changed, so it gets written out the next time changes are saved.
+     */
+    public void markDirty() {
+        isDirty = true;
+    }
+
+    /**
+     * Marks the data as the same as what's been written out.
+     */
+    public void markClean() {
+        isDirty = false;
+    }
+
+    /**
+     * @return whether the data has changed since it was last written out
+     */
+    public boolean isDirty() {
+        return isDirty;
     }
 
     /**
@@ -445,7 +609,7 @@ public class Table {
         }
 
         stringBuilder.append("\n");
-        stringBuilder.append(tableData);
+        stringBuilder.append(getTableData());
 
         return stringBuilder.toString();
     }
@@ -0,0 +1,72 @@
+package datastructures.relation.table;
+
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.FileStructure;
+import utilities.Utilities;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A "what if" view of the system tables, used by the optimizer to see how a query would cost with different file
+ * structures and clustering without touching the real tables. Only the metadata of each table is copied, the data
+ * itself is shared (see Table.copyOfMetadata()), so trying out another file structure costs the same no matter how
+ * many rows the tables have. The same catalog can be reset and reused for each thing being tried.
+ */
+public class WhatIfCatalog {
+
+    private final List<Table> tables;
+
+    /**
+     * @param tables are the system tables to try things out on
+     */
+    public WhatIfCatalog(List<Table> tables) {
+        this.tables = tables.stream()
+                .map(Table::copyOfMetadata)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the tables with whatever file structures and clustering have been tried, to pass to the cost analysis
+     */
+    public List<Table> getTables() {
+        return tables;
+    }
+
+    /**
+     * Removes every file structure and clustering, giving a clean slate to try things on.
+     */
+    public void removeAllFileStructures() {
+        for (Table table : tables) {
+            for (Column column : table.getColumns()) {
+                column.setFileStructure(FileStructure.NONE);
+            }
+            table.setClusteredWith("none");
+        }
+    }
+
+    /**
+     * @param tableName is the name of the table the column belongs to
+     * @param columnName is the name of the column
+     * @param fileStructure is the file structure to pretend is built on the column
+     */
+    public void setFileStructure(String tableName, String columnName, FileStructure fileStructure) {
+        Table table = Utilities.getReferencedTable(tableName, tables);
+        assert table != null;
+        Column column = table.getColumn(columnName);
+        assert column != null;
+        column.setFileStructure(fileStructure);
+    }
+
+    /**
+     * @param firstTableName is the name of one of the tables to pretend are clustered together
+     * @param secondTableName is the name of the other table
+     */
+    public void setClustered(String firstTableName, String secondTableName) {
+        Table firstTable = Utilities.getReferencedTable(firstTableName, tables);
+        Table secondTable = Utilities.getReferencedTable(secondTableName, tables);
+        assert firstTable != null && secondTable != null;
+        firstTable.setClusteredWith(secondTableName);
+        secondTable.setClusteredWith(firstTableName);
+    }
+}
@@ -0,0 +1,571 @@
+package datastructures.relation.table.component;
+
+import enums.Symbol;
+
+import java.util.Arrays;
+
+/**
+ * An in-memory B+-tree on a single NUMBER or DATE column of table data, backing the secondary and
+ * clustered b-tree file structures. Each node holds at most m children (leaves at most m - 1 entries),
+ * where m is the degree used for cost estimation (QueryCost.degree()). Entries are (key, row) pairs
+ * ordered by key, then row, so duplicate keys are fine. The leaves are linked together, letting =, <, <=,
+ * > and >= be answered by walking down to the first matching leaf then across until the range ends.
+ * Nulls aren't indexed since they never match.
+ * Like HashIndex, appends and updates change the tree in place, anything that moves rows around marks
+ * it as stale and it's rebuilt from scratch on the next search. Removing entries doesn't merge leaves back
+ * together, leaves are allowed to run under half full until the next rebuild.
+ */
+public class BPlusTree {
+
+    private static final int MIN_DEGREE = 3;
+
+    private final int degree;
+    private ColumnVector indexedVector;
+    private Node root;
+    private LeafNode firstLeaf;
+    private int numEntries;
+    private boolean isStale;
+
+    /**
+     * Builds a tree on the column vector supplied.
+     * @param columnVector is the column to index, must hold ordered keys (NUMBER or DATE)
+     * @param degree is the maximum number of children of each node
+     */
+    public BPlusTree(ColumnVector columnVector, int degree) {
+        this.degree = Math.max(MIN_DEGREE, degree);
+        build(columnVector);
+    }
+
+    /**
+     * Creates a deep copy of the tree supplied for a copy of the column it indexes.
+     * @param toCopy is the tree to copy
+     * @param copiedVector is the copy of the column that toCopy indexes
+     */
+    public BPlusTree(BPlusTree toCopy, ColumnVector copiedVector) {
+
+        this.degree = toCopy.degree;
+        this.indexedVector = copiedVector;
+        this.isStale = toCopy.isStale;
+
+        // the leaves of the tree being copied are already in order, so they can be loaded straight in
+        double[] keys = new double[toCopy.numEntries];
+        int[] rows = new int[toCopy.numEntries];
+        int numEntries = 0;
+
+        for (LeafNode leaf = toCopy.firstLeaf; leaf != null && ! isStale; leaf = leaf.next) {
+            System.arraycopy(leaf.keys, 0, keys, numEntries, leaf.size);
+            System.arraycopy(leaf.rows, 0, rows, numEntries, leaf.size);
+            numEntries += leaf.size;
+        }
+
+        bulkLoad(keys, rows, numEntries);
+    }
+
+    /**
+     * @return the maximum number of children of each node
+     */
+    public int getDegree() {
+        return degree;
+    }
+
+    /**
+     * @return the number of levels in this tree, a tree with just a leaf has 1 level
+     */
+    public int getHeight() {
+
+        int height = 1;
+
+        for (Node node = root; node instanceof InternalNode; node = ((InternalNode) node).children[0]) {
+            height++;
+        }
+
+        return height;
+    }
+
+    /**
+     * @return the number of (key, row) pairs stored in this tree
+     */
+    public int size() {
+        return numEntries;
+    }
+
+    /**
+     * Marks this tree as out of date, it will be rebuilt the next time it's searched.
+     */
+    public void invalidate() {
+        isStale = true;
+    }
+
+    /**
+     * Indexes a row that was just appended to the column.
+     * @param columnVector is the column the row was appended to
+     * @param row is the row appended
+     */
+    public void add(ColumnVector columnVector, int row) {
+
+        if (isOutOfDate(columnVector)) {
+            isStale = true;
+            return;
+        }
+
+        if (! columnVector.isNull(row)) {
+            insert(columnVector.getOrderedKey(row), row);
+        }
+    }
+
+    /**
+     * Moves a row whose value was just changed to where its new value belongs.
+     * @param columnVector is the column the row belongs to
+     * @param row is the row that was changed
+     * @param wasNull is whether the row was null before it was changed
+     * @param previousKey is the key of the row before it was changed
+     */
+    public void update(ColumnVector columnVector, int row, boolean wasNull, double previousKey) {
+
+        if (isOutOfDate(columnVector)) {
+            isStale = true;
+            return;
+        }
+
+        if (! wasNull) {
+            remove(previousKey, row);
+        }
+
+        if (! columnVector.isNull(row)) {
+            insert(columnVector.getOrderedKey(row), row);
+        }
+    }
+
+    /**
+     * Finds the rows of the column satisfying "row symbol value".
+     * @param columnVector is the column this tree is on
+     * @param symbol is one of =, <, <=, >, >=
+     * @param value is the value to compare against
+     * @param rowIds receives the matching rows in key order, must be able to hold every row of the column
+     * @return the number of matching rows, or -1 if the tree can't answer this and the column has to be scanned
+     */
+    public int search(ColumnVector columnVector, Symbol symbol, String value, int[] rowIds) {
+
+        // the column could have fallen back to characters since the tree was built
+        if (! columnVector.hasOrderedKeys()) {
+            isStale = true;
+            return -1;
+        }
+
+        if (isOutOfDate(columnVector)) {
+            build(columnVector);
+        }
+
+        double key = columnVector.toOrderedKey(value);
+
+        if (Double.isNaN(key)) {
+            return -1;
+        }
+
+        LeafNode leaf;
+        int location;
+
+        // walk down to the first entry that could match
+        switch (symbol) {
+            case EQUAL:
+            case GREATER_THAN_OR_EQUAL:
+                leaf = findLeaf(key, Integer.MIN_VALUE);
+                location = leaf.lowerBound(key, Integer.MIN_VALUE);
+                break;
+            case GREATER_THAN:
+                leaf = findLeaf(key, Integer.MAX_VALUE);
+                location = leaf.lowerBound(key, Integer.MAX_VALUE);
+                break;
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                leaf = firstLeaf;
+                location = 0;
+                break;
+            default:
+                return -1;
+        }
+
+        // then walk across the leaves until the range ends
+        int count = 0;
+
+        for (; leaf != null; leaf = leaf.next, location = 0) {
+            for (; location < leaf.size; location++) {
+                double leafKey = leaf.keys[location];
+                boolean isPastRange = (symbol == Symbol.EQUAL || symbol == Symbol.LESS_THAN_OR_EQUAL)
+                        ? leafKey > key
+                        : symbol == Symbol.LESS_THAN && ! (leafKey < key);
+                if (isPastRange) {
+                    return count;
+                }
+                // > starts at (key, max row), an entry equal to key can't be there but skip it to be safe
+                if (symbol != Symbol.GREATER_THAN || leafKey > key) {
+                    rowIds[count++] = leaf.rows[location];
+                }
+            }
+        }
+
+        return count;
+    }
+
+    // tree operations -------------------------------------------------------------------------------------------------
+
+    private void build(ColumnVector columnVector) {
+
+        indexedVector = columnVector;
+        isStale = false;
+
+        double[] keys = new double[columnVector.size()];
+        int[] rows = new int[columnVector.size()];
+        int numEntries = 0;
+        boolean isSorted = true;
+
+        for (int row = 0; row < columnVector.size(); row++) {
+            if (! columnVector.isNull(row)) {
+                keys[numEntries] = columnVector.getOrderedKey(row);
+                rows[numEntries] = row;
+                isSorted &= numEntries == 0 || ! (keys[numEntries] < keys[numEntries - 1]);
+                numEntries++;
+            }
+        }
+
+        // a clustered column is already in order, anything else has to be sorted first
+        if (! isSorted) {
+            Integer[] order = new Integer[numEntries];
+            for (int i = 0; i < numEntries; i++) {
+                order[i] = i;
+            }
+            double[] unsortedKeys = keys;
+            Arrays.sort(order, (first, second) -> compare(unsortedKeys[first], first, unsortedKeys[second], second));
+            double[] sortedKeys = new double[numEntries];
+            int[] sortedRows = new int[numEntries];
+            for (int i = 0; i < numEntries; i++) {
+                sortedKeys[i] = keys[order[i]];
+                sortedRows[i] = rows[order[i]];
+            }
+            keys = sortedKeys;
+            rows = sortedRows;
+        }
+
+        bulkLoad(keys, rows, numEntries);
+    }
+
+    /**
+     * Builds the tree bottom up from entries that are already in order. Leaves are filled up completely,
+     * then each level above is built from the one below until a single root is left.
+     */
+    private void bulkLoad(double[] keys, int[] rows, int numEntries) {
+
+        int leafCapacity = degree - 1;
+        int numLeaves = Math.max(1, (numEntries + leafCapacity - 1) / leafCapacity);
+        Node[] level = new Node[numLeaves];
+        LeafNode previousLeaf = null;
+
+        for (int i = 0; i < numLeaves; i++) {
+            LeafNode leaf = new LeafNode(leafCapacity);
+            leaf.size = Math.min(leafCapacity, numEntries - i * leafCapacity);
+            System.arraycopy(keys, i * leafCapacity, leaf.keys, 0, leaf.size);
+            System.arraycopy(rows, i * leafCapacity, leaf.rows, 0, leaf.size);
+            if (previousLeaf != null) {
+                previousLeaf.next = leaf;
+            }
+            previousLeaf = leaf;
+            level[i] = leaf;
+        }
+
+        firstLeaf = (LeafNode) level[0];
+
+        while (level.length > 1) {
+
+            Node[] parentLevel = new Node[(level.length + degree - 1) / degree];
+
+            for (int i = 0; i < parentLevel.length; i++) {
+                InternalNode parent = new InternalNode(degree);
+                for (int child = i * degree; child < Math.min(level.length, (i + 1) * degree); child++) {
+                    if (parent.size > 0) {
+                        LeafNode smallest = level[child].leftmostLeaf();
+                        parent.keys[parent.size - 1] = smallest.keys[0];
+                        parent.rows[parent.size - 1] = smallest.rows[0];
+                    }
+                    parent.children[parent.size++] = level[child];
+                }
+                parentLevel[i] = parent;
+            }
+
+            level = parentLevel;
+        }
+
+        root = level[0];
+        this.numEntries = numEntries;
+    }
+
+    private void insert(double key, int row) {
+
+        Split split = root.insert(key, row);
+
+        // the root split, so the tree grows a level
+        if (split != null) {
+            InternalNode newRoot = new InternalNode(degree);
+            newRoot.children[0] = root;
+            newRoot.children[1] = split.right;
+            newRoot.keys[0] = split.key;
+            newRoot.rows[0] = split.row;
+            newRoot.size = 2;
+            root = newRoot;
+        }
+
+        numEntries++;
+    }
+
+    private void remove(double key, int row) {
+
+        LeafNode leaf = findLeaf(key, row);
+        int location = leaf.lowerBound(key, row);
+
+        if (location < leaf.size && compare(leaf.keys[location], leaf.rows[location], key, row) == 0) {
+            System.arraycopy(leaf.keys, location + 1, leaf.keys, location, leaf.size - location - 1);
+            System.arraycopy(leaf.rows, location + 1, leaf.rows, location, leaf.size - location - 1);
+            leaf.size--;
+            numEntries--;
+        }
+    }
+
+    /**
+     * @return the leaf that the entry belongs in
+     */
+    private LeafNode findLeaf(double key, int row) {
+
+        Node node = root;
+
+        while (node instanceof InternalNode) {
+            InternalNode internalNode = (InternalNode) node;
+            node = internalNode.children[internalNode.childIndex(key, row)];
+        }
+
+        return (LeafNode) node;
+    }
+
+    /**
+     * Table data swaps in a new vector whenever a column changes type or rows are deleted in bulk,
+     * so a different vector means the tree no longer lines up with the column.
+     */
+    private boolean isOutOfDate(ColumnVector columnVector) {
+        return isStale || columnVector != indexedVector;
+    }
+
+    /**
+     * Orders entries by key, then by row. Keys are compared with < and > so 0.0 and -0.0 are equal,
+     * just like when the column is scanned.
+     */
+    private static int compare(double firstKey, int firstRow, double secondKey, int secondRow) {
+        if (firstKey < secondKey) {
+            return -1;
+        } else if (firstKey > secondKey) {
+            return 1;
+        }
+        return Integer.compare(firstRow, secondRow);
+    }
+
+    // nodes -----------------------------------------------------------------------------------------------------------
+
+    /**
+     * Handed back up the tree when a node splits, the right half and the smallest entry in it.
+     */
+    private static class Split {
+
+        private final Node right;
+        private final double key;
+        private final int row;
+
+        private Split(Node right, double key, int row) {
+            this.right = right;
+            this.key = key;
+            this.row = row;
+        }
+    }
+
+    private abstract static class Node {
+
+        protected int size;
+
+        /**
+         * @return the right half of this node if it had to split to fit the entry, otherwise null
+         */
+        protected abstract Split insert(double key, int row);
+
+        protected abstract LeafNode leftmostLeaf();
+    }
+
+    private static class LeafNode extends Node {
+
+        private final double[] keys;
+        private final int[] rows;
+        private LeafNode next;
+
+        private LeafNode(int capacity) {
+            this.keys = new double[capacity];
+            this.rows = new int[capacity];
+        }
+
+        /**
+         * @return the location of the first entry that isn't smaller than the entry supplied
+         */
+        private int lowerBound(double key, int row) {
+
+            int low = 0, high = size;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(keys[middle], rows[middle], key, row) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        @Override
+        protected Split insert(double key, int row) {
+
+            int location = lowerBound(key, row);
+
+            if (size < keys.length) {
+                insertAt(location, key, row);
+                return null;
+            }
+
+            // full, move the upper half into a new leaf then add the entry to whichever half it belongs in
+            LeafNode right = new LeafNode(keys.length);
+            int half = (size + 1) / 2;
+            right.size = size - half;
+            System.arraycopy(keys, half, right.keys, 0, right.size);
+            System.arraycopy(rows, half, right.rows, 0, right.size);
+            size = half;
+
+            if (location <= half) {
+                insertAt(location, key, row);
+            } else {
+                right.insertAt(location - half, key, row);
+            }
+
+            right.next = next;
+            next = right;
+
+            return new Split(right, right.keys[0], right.rows[0]);
+        }
+
+        @Override
+        protected LeafNode leftmostLeaf() {
+            return this;
+        }
+
+        private void insertAt(int location, double key, int row) {
+            System.arraycopy(keys, location, keys, location + 1, size - location);
+            System.arraycopy(rows, location, rows, location + 1, size - location);
+            keys[location] = key;
+            rows[location] = row;
+            size++;
+        }
+    }
+
+    /**
+     * Holds size children and size - 1 separators, separator i being the smallest entry under child i + 1.
+     */
+    private static class InternalNode extends Node {
+
+        private final double[] keys;
+        private final int[] rows;
+        private final Node[] children;
+
+        private InternalNode(int degree) {
+            this.keys = new double[degree - 1];
+            this.rows = new int[degree - 1];
+            this.children = new Node[degree];
+        }
+
+        /**
+         * @return the child whose entries the entry supplied falls between
+         */
+        private int childIndex(double key, int row) {
+
+            int low = 0, high = size - 1;
+
+            // number of separators less than or equal to the entry
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compare(keys[middle], rows[middle], key, row) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        @Override
+        protected Split insert(double key, int row) {
+
+            int childIndex = childIndex(key, row);
+            Split childSplit = children[childIndex].insert(key, row);
+
+            if (childSplit == null) {
+                return null;
+            }
+
+            if (size < children.length) {
+                insertAt(childIndex, childSplit);
+                return null;
+            }
+
+            // full, lay everything out with the new child in place then split it down the middle
+            double[] allKeys = new double[keys.length + 1];
+            int[] allRows = new int[rows.length + 1];
+            Node[] allChildren = new Node[children.length + 1];
+
+            System.arraycopy(keys, 0, allKeys, 0, childIndex);
+            System.arraycopy(rows, 0, allRows, 0, childIndex);
+            allKeys[childIndex] = childSplit.key;
+            allRows[childIndex] = childSplit.row;
+            System.arraycopy(keys, childIndex, allKeys, childIndex + 1, keys.length - childIndex);
+            System.arraycopy(rows, childIndex, allRows, childIndex + 1, rows.length - childIndex);
+
+            System.arraycopy(children, 0, allChildren, 0, childIndex + 1);
+            allChildren[childIndex + 1] = childSplit.right;
+            System.arraycopy(children, childIndex + 1, allChildren, childIndex + 2, children.length - childIndex - 1);
+
+            int leftSize = allChildren.length / 2;
+            InternalNode right = new InternalNode(children.length);
+            right.size = allChildren.length - leftSize;
+
+            // the separator between the two halves moves up instead of staying in either half
+            System.arraycopy(allChildren, leftSize, right.children, 0, right.size);
+            System.arraycopy(allKeys, leftSize, right.keys, 0, right.size - 1);
+            System.arraycopy(allRows, leftSize, right.rows, 0, right.size - 1);
+
+            Arrays.fill(children, null);
+            System.arraycopy(allChildren, 0, children, 0, leftSize);
+            System.arraycopy(allKeys, 0, keys, 0, leftSize - 1);
+            System.arraycopy(allRows, 0, rows, 0, leftSize - 1);
+            size = leftSize;
+
+            return new Split(right, allKeys[leftSize - 1], allRows[leftSize - 1]);
+        }
+
+        @Override
+        protected LeafNode leftmostLeaf() {
+            return children[0].leftmostLeaf();
+        }
+
+        private void insertAt(int childIndex, Split childSplit) {
+            System.arraycopy(keys, childIndex, keys, childIndex + 1, size - 1 - childIndex);
+            System.arraycopy(rows, childIndex, rows, childIndex + 1, size - 1 - childIndex);
+            System.arraycopy(children, childIndex + 1, children, childIndex + 2, size - childIndex - 1);
+            keys[childIndex] = childSplit.key;
+            rows[childIndex] = childSplit.row;
+            children[childIndex + 1] = childSplit.right;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package datastructures.relation.table.component;
+
+import enums.Symbol;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * Stores a CHAR column as dictionary codes. Each distinct string is stored once in the dictionary and
+ * every row just holds the int code of its string. Columns like PaymentMethod or State only have a handful
+ * of distinct values, so this saves a good amount of memory and lets equality checks be worked out once
+ * per distinct value instead of once per row.
+ */
+public class CharVector extends ColumnVector {
+
+    private int[] codes;
+    private final Dictionary dictionary;
+
+    public CharVector() {
+        this.codes = new int[INITIAL_CAPACITY];
+        this.dictionary = new Dictionary();
+        this.size = 0;
+    }
+
+    private CharVector(int[] codes, Dictionary dictionary, int size) {
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.size = size;
+    }
+
+    /**
+     * Creates a vector around codes that were already filled in, eg. when reading a table data file.
+     * @param codes are the dictionary codes of each row
+     * @param dictionary is the dictionary the codes refer to
+     * @param size is the number of rows
+     * @return a vector holding the values supplied
+     */
+    public static CharVector wrap(int[] codes, Dictionary dictionary, int size) {
+        return new CharVector(codes.length > 0 ? codes : new int[1], dictionary, size);
+    }
+
+    /**
+     * @param values are the values to store
+     * @return a vector holding the values supplied
+     */
+    public static CharVector of(List<String> values) {
+
+        CharVector vector = new CharVector();
+
+        for (String value : values) {
+            vector.add(value);
+        }
+
+        return vector;
+    }
+
+    /**
+     * Converts any vector into one that stores characters, used when a typed column is handed a value
+     * it can't store.
+     * @param vector is the vector to convert
+     * @return a vector holding the same values as characters
+     */
+    public static CharVector of(ColumnVector vector) {
+        return of(vector.toList());
+    }
+
+    @Override
+    public DataType getDataType() {
+        return DataType.CHAR;
+    }
+
+    @Override
+    public boolean accepts(String value) {
+        return true;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return false;
+    }
+
+    /**
+     * @param row is the row to get
+     * @return the dictionary code of the value stored at the row
+     */
+    public int getCode(int row) {
+        return codes[row];
+    }
+
+    /**
+     * @return the dictionary that this vector's codes refer to
+     */
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    @Override
+    public String get(int row) {
+        return dictionary.getValue(codes[row]);
+    }
+
+    @Override
+    public void set(int row, String value) {
+        codes[row] = dictionary.encode(value);
+    }
+
+    @Override
+    public void add(int row, String value) {
+        if (size + 1 > codes.length) {
+            codes = Arrays.copyOf(codes, grow(codes.length, size + 1));
+        }
+        System.arraycopy(codes, row, codes, row + 1, size - row);
+        size++;
+        set(row, value);
+    }
+
+    @Override
+    public void remove(int row) {
+        System.arraycopy(codes, row + 1, codes, row, size - row - 1);
+        size--;
+    }
+
+    @Override
+    public void swap(int i, int j) {
+        int temp = codes[i];
+        codes[i] = codes[j];
+        codes[j] = temp;
+    }
+
+    /**
+     * The dictionary only ever grows, so copies are free to share it.
+     */
+    @Override
+    public ColumnVector copy() {
+        return new CharVector(Arrays.copyOf(codes, Math.max(size, 1)), dictionary, size);
+    }
+
+    @Override
+    public ColumnVector gather(int[] rowIds, int count) {
+
+        int[] gathered = new int[Math.max(count, 1)];
+
+        for (int i = 0; i < count; i++) {
+            gathered[i] = codes[rowIds[i]];
+        }
+
+        return new CharVector(gathered, dictionary, count);
+    }
+
+    /**
+     * Each distinct string of the other vector is encoded once, then its rows are just copied over as codes.
+     */
+    @Override
+    public void append(ColumnVector other) {
+
+        if (! (other instanceof CharVector)) {
+            super.append(other);
+            return;
+        }
+
+        CharVector otherChars = (CharVector) other;
+        int[] toCode = new int[otherChars.dictionary.size()];
+
+        for (int code = 0; code < toCode.length; code++) {
+            toCode[code] = dictionary.encode(otherChars.dictionary.getValue(code));
+        }
+
+        if (size + other.size > codes.length) {
+            codes = Arrays.copyOf(codes, grow(codes.length, size + other.size));
+        }
+        for (int row = 0; row < other.size; row++) {
+            codes[size + row] = toCode[otherChars.codes[row]];
+        }
+        size += other.size;
+    }
+
+    /**
+     * Only = and != are supported on characters, anything else matches nothing.
+     */
+    @Override
+    public IntPredicate compile(Symbol symbol, String value) {
+
+        if (symbol != Symbol.EQUAL && symbol != Symbol.NOT_EQUAL) {
+            return row -> false;
+        }
+
+        // work out which dictionary entries match once rather than comparing every row's string
+        boolean[] matchingCodes = dictionary.matchIgnoreCase(value);
+
+        return symbol == Symbol.EQUAL ? row -> matchingCodes[codes[row]] : row -> ! matchingCodes[codes[row]];
+    }
+
+    /**
+     * = and != are worked out on the dictionary, anything else is compared the way matches() does.
+     */
+    @Override
+    public IntPredicate compile(Symbol symbol, ColumnVector other, int otherRow) {
+
+        if (symbol != Symbol.EQUAL && symbol != Symbol.NOT_EQUAL) {
+            return super.compile(symbol, other, otherRow);
+        }
+
+        return compile(symbol, other.get(otherRow));
+    }
+
+    @Override
+    public boolean matches(int row, Symbol symbol, ColumnVector other, int otherRow) {
+
+        // same dictionary means same code for the same string
+        boolean sharesDictionary = other instanceof CharVector && ((CharVector) other).dictionary == dictionary;
+
+        if (sharesDictionary && codes[row] == ((CharVector) other).codes[otherRow]) {
+            if (symbol == Symbol.EQUAL) {
+                return true;
+            } else if (symbol == Symbol.NOT_EQUAL) {
+                return false;
+            }
+        }
+
+        return super.matches(row, symbol, other, otherRow);
+    }
+
+    /**
+     * Strings that are equal ignoring case share a key.
+     */
+    @Override
+    public Object getKey(int row) {
+        return dictionary.getKey(codes[row]);
+    }
+
+    @Override
+    public Object toKey(String value) {
+        return foldCase(value);
+    }
+
+    /**
+     * Maps each distinct string of a column to an int code and back again.
+     */
+    public static class Dictionary {
+
+        private final List<String> values;
+        private final Map<String, Integer> codes;
+
+        // case folded values, only filled in once a hash index asks. Result sets gathered from a column share its
+        // dictionary and can be grouped on several threads at once, so the keys are published through numKeys
+        private volatile String[] keys;
+        private volatile int numKeys;
+
+        public Dictionary() {
+            this.values = new ArrayList<>();
+            this.codes = new HashMap<>();
+            this.keys = new String[0];
+            this.numKeys = 0;
+        }
+
+        /**
+         * @return the number of distinct strings stored
+         */
+        public int size() {
+            return values.size();
+        }
+
+        /**
+         * @param code is the code to look up
+         * @return the string associated with the code
+         */
+        public String getValue(int code) {
+            return values.get(code);
+        }
+
+        /**
+         * @param code is the code to look up
+         * @return the hash index key of the string associated with the code
+         */
+        public String getKey(int code) {
+            if (code >= numKeys) {
+                foldKeys(code);
+            }
+            return keys[code];
+        }
+
+        /**
+         * Case folds every value up to the code supplied that hasn't been folded yet.
+         * @param code is the last code to fold
+         */
+        private synchronized void foldKeys(int code) {
+
+            if (code < numKeys) {
+                return;
+            }
+
+            String[] foldedKeys = code < keys.length ? keys : Arrays.copyOf(keys, Math.max(code + 1, keys.length * 2));
+
+            for (int i = numKeys; i <= code; i++) {
+                foldedKeys[i] = foldCase(values.get(i));
+            }
+
+            keys = foldedKeys;
+            numKeys = code + 1;
+        }
+
+        /**
+         * Returns the code of the value supplied, adding it to the dictionary if it's new.
+         * @param value is the value to encode
+         * @return the code of the value
+         */
+        public int encode(String value) {
+
+            Integer code = codes.get(value);
+
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+
+            return code;
+        }
+
+        /**
+         * @param value is the value to check
+         * @return for each code, whether its string is equal to the value supplied ignoring case
+         */
+        public boolean[] matchIgnoreCase(String value) {
+
+            boolean[] matches = new boolean[values.size()];
+
+            for (int i = 0; i < values.size(); i++) {
+                matches[i] = values.get(i).equalsIgnoreCase(value);
+            }
+
+            return matches;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package datastructures.relation.table.component;
+
+import datastructures.misc.EquiDepthHistogram;
+import enums.Symbol;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Statistics describing the values of a single column: how many rows there are, how many of them are null,
+ * how many distinct values there are, and the smallest and largest value for columns whose values can be
+ * ordered (NUMBER and DATE). These are all the optimizer needs to estimate how many rows a predicate keeps,
+ * so estimating the cost of a query never has to look at the rows themselves. Columns whose values can be
+ * ordered also get an equi-depth histogram, so ranges of values don't have to be assumed to be spread evenly.
+ */
+public class ColumnStatistics {
+
+    public static final int NUM_HISTOGRAM_BARS = 20;
+
+    private final DataType dataType;
+    private final double numRows;
+    private final double numNulls;
+    private final double numDistinct;
+    private final double min;     // ordered key of the smallest value, NaN if there isn't one
+    private final double max;     // ordered key of the largest value, NaN if there isn't one
+    private final EquiDepthHistogram histogram;     // null if there isn't one
+
+    /**
+     * @param dataType is the type of the column
+     * @param numRows is the number of rows in the column
+     * @param numNulls is the number of those rows that are null
+     * @param numDistinct is the number of distinct values that aren't null
+     * @param min is the ordered key of the smallest value, NaN if the values can't be ordered
+     * @param max is the ordered key of the largest value, NaN if the values can't be ordered
+     */
+    public ColumnStatistics(DataType dataType, double numRows, double numNulls, double numDistinct,
+                            double min, double max) {
+        this(dataType, numRows, numNulls, numDistinct, min, max, null);
+    }
+
+    /**
+     * @param histogram describes how the values that aren't null are spread out, null if it isn't known
+     */
+    public ColumnStatistics(DataType dataType, double numRows, double numNulls, double numDistinct,
+                            double min, double max, EquiDepthHistogram histogram) {
+        this.dataType = dataType;
+        this.numRows = numRows;
+        this.numNulls = Math.min(numNulls, numRows);
+        this.numDistinct = Math.min(numDistinct, numRows - this.numNulls);
+        this.min = min;
+        this.max = max;
+        this.histogram = histogram;
+    }
+
+    /**
+     * Gathers the statistics of a column in a single pass over its values. Ordered keys are collected on the way
+     * and sorted afterwards to find the bounds of the histogram's bars.
+     * @param columnVector is the column to gather the statistics of
+     * @param numRows is the number of rows in the column
+     * @return the statistics of the column
+     */
+    public static ColumnStatistics gather(ColumnVector columnVector, int numRows) {
+
+        Set<Object> distinctKeys = new HashSet<>();
+        boolean hasOrderedKeys = columnVector.hasOrderedKeys();
+        double[] orderedKeys = new double[hasOrderedKeys ? numRows : 0];
+        int numOrderedKeys = 0;
+        int numNulls = 0;
+
+        for (int rows = 0; rows < numRows; rows++) {
+
+            if (columnVector.isNull(rows)) {
+                numNulls++;
+                continue;
+            }
+
+            distinctKeys.add(columnVector.getKey(rows));
+
+            if (hasOrderedKeys) {
+                orderedKeys[numOrderedKeys++] = columnVector.getOrderedKey(rows);
+            }
+        }
+
+        if (numOrderedKeys == 0) {
+            return new ColumnStatistics(columnVector.getDataType(), numRows, numNulls, distinctKeys.size(),
+                    Double.NaN, Double.NaN);
+        }
+
+        Arrays.sort(orderedKeys, 0, numOrderedKeys);
+
+        return new ColumnStatistics(columnVector.getDataType(), numRows, numNulls, distinctKeys.size(),
+                orderedKeys[0], orderedKeys[numOrderedKeys - 1],
+                EquiDepthHistogram.of(orderedKeys, numOrderedKeys, NUM_HISTOGRAM_BARS));
+    }
+
+    // getters ---------------------------------------------------------------------------------------------------------
+
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    public double getNumRows() {
+        return numRows;
+    }
+
+    public double getNumNulls() {
+        return numNulls;
+    }
+
+    public double getNumDistinct() {
+        return numDistinct;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    public EquiDepthHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return whether the smallest and largest values of the column are known
+     */
+    public boolean hasRange() {
+        return ! Double.isNaN(min) && ! Double.isNaN(max);
+    }
+
+    // estimation ------------------------------------------------------------------------------------------------------
+
+    /**
+     * Estimates the fraction of rows that satisfy a predicate on this column, following the same rules
+     * that ColumnVector.compile() does: nulls never match, and characters can only be compared with = and !=.
+     * Values are assumed to be spread evenly within each bar of the histogram, or between the smallest and
+     * largest value if there isn't one.
+     * @param symbol is the symbol to compare with
+     * @param value is the value to compare against
+     * @return the estimated fraction of rows that satisfy the predicate, between 0 and 1
+     */
+    public double getSelectivity(Symbol symbol, String value) {
+
+        if (numRows == 0 || numDistinct == 0) {
+            return 0;
+        }
+
+        double nonNullFraction = (numRows - numNulls) / numRows;
+
+        if (dataType == DataType.CHAR || ! hasRange()) {
+            switch (symbol) {
+                case EQUAL:
+                    return nonNullFraction / numDistinct;
+                case NOT_EQUAL:
+                    return nonNullFraction - nonNullFraction / numDistinct;
+                default:
+                    return 0;
+            }
+        }
+
+        double key = toOrderedKey(value);
+
+        if (Double.isNaN(key)) {
+            return 0;
+        }
+
+        // fraction of values equal to the key, and the fraction strictly below it
+        boolean isInRange = key >= min && key <= max;
+        double equalFraction = isInRange ? 1 / numDistinct : 0;
+        double belowFraction;
+
+        if (histogram != null) {
+            equalFraction = isInRange ? Math.max(equalFraction, histogram.getFractionEqual(key)) : 0;
+            belowFraction = histogram.getFractionBelow(key);
+        } else {
+            belowFraction = max == min ? (key > max ? 1 : 0) : (key - min) / (max - min);
+        }
+
+        belowFraction = Math.max(0, Math.min(belowFraction, 1 - equalFraction));
+
+        double fraction;
+
+        switch (symbol) {
+            case EQUAL:
+                fraction = equalFraction;
+                break;
+            case NOT_EQUAL:
+                fraction = 1 - equalFraction;
+                break;
+            case LESS_THAN:
+                fraction = belowFraction;
+                break;
+            case LESS_THAN_OR_EQUAL:
+                fraction = belowFraction + equalFraction;
+                break;
+            case GREATER_THAN:
+                fraction = 1 - belowFraction - equalFraction;
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                fraction = 1 - belowFraction;
+                break;
+            default:
+                fraction = 0;
+                break;
+        }
+
+        return nonNullFraction * Math.max(0, Math.min(fraction, 1));
+    }
+
+    /**
+     * @param numRows is the number of rows left after a predicate on another column was applied
+     * @return the statistics of this column for the rows left, assuming the predicate kept rows at random
+     */
+    public ColumnStatistics scale(double numRows) {
+
+        if (this.numRows == 0) {
+            return new ColumnStatistics(dataType, numRows, numRows, 0, min, max);
+        }
+
+        double fraction = numRows / this.numRows;
+
+        return new ColumnStatistics(dataType, numRows, numNulls * fraction, Math.min(numDistinct, numRows),
+                min, max, histogram);
+    }
+
+    /**
+     * @param symbol is the symbol of a predicate on this column
+     * @param value is the value of a predicate on this column
+     * @param numRows is the number of rows the predicate is estimated to keep
+     * @return the statistics of this column for the rows that satisfy the predicate
+     */
+    public ColumnStatistics select(Symbol symbol, String value, double numRows) {
+
+        double key = hasRange() ? toOrderedKey(value) : Double.NaN;
+        double newMin = min;
+        double newMax = max;
+        double numDistinct = Math.min(this.numDistinct * getRangeFraction(symbol, key), numRows);
+
+        if (symbol == Symbol.EQUAL) {
+            numDistinct = Math.min(1, numRows);
+            newMin = Double.isNaN(key) ? min : key;
+            newMax = Double.isNaN(key) ? max : key;
+        } else if (! Double.isNaN(key)) {
+            if (symbol == Symbol.LESS_THAN || symbol == Symbol.LESS_THAN_OR_EQUAL) {
+                newMax = Math.min(max, key);
+            } else if (symbol == Symbol.GREATER_THAN || symbol == Symbol.GREATER_THAN_OR_EQUAL) {
+                newMin = Math.max(min, key);
+            }
+        }
+
+        return new ColumnStatistics(dataType, numRows, 0, numDistinct, newMin, newMax);
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the fraction of the range of values a predicate keeps, used to scale the number of distinct values
+     */
+    private double getRangeFraction(Symbol symbol, double key) {
+
+        if (Double.isNaN(key) || max == min) {
+            return 1;
+        }
+
+        double belowFraction = Math.max(0, Math.min((key - min) / (max - min), 1));
+
+        switch (symbol) {
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                return belowFraction;
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                return 1 - belowFraction;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * @return the ordered key of the value, or NaN if the value isn't one of this column's data type
+     */
+    private double toOrderedKey(String value) {
+        try {
+            return ColumnVector.create(dataType).toOrderedKey(value);
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+}
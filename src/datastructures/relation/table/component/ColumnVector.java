@@ -0,0 +1,344 @@
+package datastructures.relation.table.component;
+
+import enums.Symbol;
+import utilities.Utilities;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Typed storage for every row of a single column. Table data is stored column by column so that
+ * scans can compare raw doubles, epoch days, or dictionary codes instead of parsing strings over and over.
+ * Values still go in and come out as strings, so anything that only cares about the text representation
+ * doesn't need to know how a column is actually stored.
+ */
+public abstract class ColumnVector {
+
+    protected static final int INITIAL_CAPACITY = 16;
+
+    protected int size;
+
+    /**
+     * Creates an empty vector that stores the data type supplied.
+     * @param dataType is the type of data the vector will hold
+     * @return an empty vector for that data type
+     */
+    public static ColumnVector create(DataType dataType) {
+        switch (dataType) {
+            case NUMBER:
+                return new NumberVector();
+            case DATE:
+                return new DateVector();
+            case CHAR:
+            default:
+                return new CharVector();
+        }
+    }
+
+    /**
+     * Creates a vector holding the values supplied. If a value can't be stored as the data type
+     * requested (eg. "abc" in a NUMBER column), the vector falls back to storing characters.
+     * @param dataType is the type of data the vector should hold
+     * @param values are the values to store
+     * @return a vector holding the values supplied
+     */
+    public static ColumnVector of(DataType dataType, List<String> values) {
+
+        ColumnVector vector = create(dataType);
+
+        for (String value : values) {
+            if (! vector.accepts(value)) {
+                return CharVector.of(values);
+            }
+        }
+
+        for (String value : values) {
+            vector.add(value);
+        }
+
+        return vector;
+    }
+
+    // getters, setters ------------------------------------------------------------------------------------------------
+
+    /**
+     * @return the number of rows stored in this vector
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the type of data that this vector stores
+     */
+    public abstract DataType getDataType();
+
+    /**
+     * @param value is the value to check
+     * @return whether this vector is able to store the value supplied
+     */
+    public abstract boolean accepts(String value);
+
+    /**
+     * @param row is the row to check
+     * @return whether the value stored at the row is "null"
+     */
+    public abstract boolean isNull(int row);
+
+    /**
+     * @param row is the row to get
+     * @return the value stored at the row as a string
+     */
+    public abstract String get(int row);
+
+    /**
+     * @param row is the row to set
+     * @param value is the value to set, assumed to be accepted by this vector
+     */
+    public abstract void set(int row, String value);
+
+    /**
+     * Appends the value to the end of this vector.
+     * @param value is the value to add, assumed to be accepted by this vector
+     */
+    public void add(String value) {
+        add(size, value);
+    }
+
+    /**
+     * Inserts the value at the row supplied, shifting everything after it down.
+     * @param row is where to insert the value
+     * @param value is the value to add, assumed to be accepted by this vector
+     */
+    public abstract void add(int row, String value);
+
+    /**
+     * Removes the value at the row supplied, shifting everything after it up.
+     * @param row is the row to remove
+     */
+    public abstract void remove(int row);
+
+    /**
+     * Swaps the values stored at the rows supplied.
+     */
+    public abstract void swap(int i, int j);
+
+    /**
+     * @return a deep copy of this vector
+     */
+    public abstract ColumnVector copy();
+
+    /**
+     * Creates a new vector containing only the rows supplied, in the order supplied.
+     * @param rowIds are the rows to keep, may contain duplicates
+     * @param count is the number of row ids to use
+     * @return a new vector containing the rows supplied
+     */
+    public abstract ColumnVector gather(int[] rowIds, int count);
+
+    /**
+     * Appends every row of the vector supplied to the end of this vector.
+     * @param other is the vector to append, each of its values assumed to be accepted by this vector
+     */
+    public void append(ColumnVector other) {
+        for (int row = 0; row < other.size(); row++) {
+            add(other.get(row));
+        }
+    }
+
+    // scanning --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Compiles "row symbol value" into a predicate on the rows of this vector. The value is converted and the
+     * symbol looked at once here, so testing a row is just a comparison against the stored representation.
+     * Null values never match. The predicate stays valid as long as no rows are added to this vector.
+     * @param symbol is the symbol to compare with
+     * @param value is the value to compare against
+     * @return a predicate that holds for each row satisfying "row symbol value"
+     */
+    public abstract IntPredicate compile(Symbol symbol, String value);
+
+    /**
+     * Compiles "row symbol other[otherRow]" into a predicate on the rows of this vector, so every row of this
+     * vector can be checked against a single row of another vector the same way matches() does.
+     * @param symbol is the symbol to compare with
+     * @param other is the other vector
+     * @param otherRow is the row of the other vector
+     * @return a predicate that holds for each row satisfying "row symbol other[otherRow]"
+     */
+    public IntPredicate compile(Symbol symbol, ColumnVector other, int otherRow) {
+        String otherValue = other.get(otherRow);
+        return row -> compareStrings(get(row), symbol, otherValue);
+    }
+
+    /**
+     * Finds each row of this vector satisfying "row symbol value". The value is only converted once,
+     * after that every comparison is done on the stored representation. Null values never match.
+     * @param symbol is the symbol to compare with
+     * @param value is the value to compare against
+     * @param rowIds receives the matching rows, must be able to hold at least size() elements
+     * @return the number of matching rows written to rowIds
+     */
+    public int select(Symbol symbol, String value, int[] rowIds) {
+
+        IntPredicate predicate = compile(symbol, value);
+        int count = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (predicate.test(i)) {
+                rowIds[count++] = i;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Checks whether "this[row] symbol other[otherRow]" holds. Vectors of the same type compare their
+     * stored representations directly, otherwise the string values are compared.
+     * @param row is the row of this vector
+     * @param symbol is the symbol to compare with
+     * @param other is the other vector
+     * @param otherRow is the row of the other vector
+     * @return whether the comparison holds
+     */
+    public boolean matches(int row, Symbol symbol, ColumnVector other, int otherRow) {
+        return compareStrings(get(row), symbol, other.get(otherRow));
+    }
+
+    // hashing ---------------------------------------------------------------------------------------------------------
+
+    /**
+     * Used by hash indexes. Two rows have equal keys exactly when they are = to each other.
+     * @param row is the row to get the key of
+     * @return the key of the value stored at the row, or null if the row is null
+     */
+    public abstract Object getKey(int row);
+
+    /**
+     * Used by hash indexes to look up the rows that are = to a value.
+     * @param value is the value to get the key of
+     * @return the key that rows = to the value have, or null if the value can't be looked up by key
+     */
+    public abstract Object toKey(String value);
+
+    /**
+     * Used by hash joins, a row of this vector is = to a row of the other vector exactly when their join keys
+     * are equal. Vectors of different types are compared on their strings, so they're keyed on their strings.
+     * @param row is the row to get the join key of
+     * @param other is the vector being joined with
+     * @return the join key of the row, or null if the row can't match anything
+     */
+    public Object getJoinKey(int row, ColumnVector other) {
+        return getClass() == other.getClass() ? getKey(row) : foldCase(get(row));
+    }
+
+    // ordering --------------------------------------------------------------------------------------------------------
+
+    /**
+     * Used by B+-trees, only vectors whose values can be ordered as numbers (NUMBER and DATE) can be put in one.
+     * @return whether the rows of this vector have ordered keys
+     */
+    public boolean hasOrderedKeys() {
+        return false;
+    }
+
+    /**
+     * @param row is the row to get the key of, assumed not to be null
+     * @return the key of the value stored at the row, ordered the same way the values compare
+     */
+    public double getOrderedKey(int row) {
+        throw new UnsupportedOperationException(getDataType() + " values have no ordered keys");
+    }
+
+    /**
+     * @param value is the value to get the key of
+     * @return the key of the value supplied, or NaN if the value can't be compared by key
+     */
+    public double toOrderedKey(String value) {
+        throw new UnsupportedOperationException(getDataType() + " values have no ordered keys");
+    }
+
+    /**
+     * @return the values of this vector as strings
+     */
+    public List<String> toList() {
+
+        List<String> values = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            values.add(get(i));
+        }
+
+        return values;
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * Evaluates a comparison result against a symbol. Eg. a comparison result of -1 with "<" is true.
+     * @param comparison is the result of comparing two values
+     * @param symbol is the symbol to evaluate
+     * @return whether the comparison satisfies the symbol
+     */
+    protected static boolean satisfies(int comparison, Symbol symbol) {
+        switch (symbol) {
+            case EQUAL:
+                return comparison == 0;
+            case NOT_EQUAL:
+                return comparison != 0;
+            case GREATER_THAN:
+                return comparison > 0;
+            case LESS_THAN:
+                return comparison < 0;
+            case GREATER_THAN_OR_EQUAL:
+                return comparison >= 0;
+            case LESS_THAN_OR_EQUAL:
+                return comparison <= 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Maps each character to the same case the way String.equalsIgnoreCase() compares them, so two strings
+     * are equal ignoring case exactly when their folded strings are equal.
+     */
+    protected static String foldCase(String value) {
+
+        char[] characters = value.toCharArray();
+
+        for (int i = 0; i < characters.length; i++) {
+            characters[i] = Character.toLowerCase(Character.toUpperCase(characters[i]));
+        }
+
+        return new String(characters);
+    }
+
+    /**
+     * Compares two string values the way they were compared before columns were typed. Equality
+     * ignores case, ranges are compared as numbers or dates.
+     */
+    protected static boolean compareStrings(String first, Symbol symbol, String second) {
+        switch (symbol) {
+            case EQUAL:
+                return first.equalsIgnoreCase(second);
+            case NOT_EQUAL:
+                return ! first.equalsIgnoreCase(second);
+            default:
+                if (Utilities.isNumeric(first) && Utilities.isNumeric(second)) {
+                    return satisfies(Double.compare(Double.parseDouble(first), Double.parseDouble(second)), symbol);
+                }
+                return satisfies(LocalDate.parse(first).compareTo(LocalDate.parse(second)), symbol);
+        }
+    }
+
+    /**
+     * @return a capacity large enough to hold at least the minimum capacity supplied
+     */
+    protected static int grow(int currentCapacity, int minCapacity) {
+        return Math.max(minCapacity, Math.max(INITIAL_CAPACITY, currentCapacity * 2));
+    }
+}
@@ -0,0 +1,224 @@
+package datastructures.relation.table.component;
+
+import enums.Symbol;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Stores a DATE column as an int[] of epoch days (days since 1970-01-01), so comparing two dates
+ * is just comparing two ints.
+ */
+public class DateVector extends ColumnVector {
+
+    private static final String NULL = "null";
+    private static final int NULL_EPOCH_DAY = Integer.MIN_VALUE;
+
+    private int[] epochDays;
+
+    public DateVector() {
+        this.epochDays = new int[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    private DateVector(int[] epochDays, int size) {
+        this.epochDays = epochDays;
+        this.size = size;
+    }
+
+    /**
+     * Creates a vector around an array that was already filled in, eg. when reading a table data file.
+     * @param epochDays are the epoch days of each row
+     * @param size is the number of rows
+     * @return a vector holding the dates supplied
+     */
+    public static DateVector wrap(int[] epochDays, int size) {
+        return new DateVector(epochDays.length > 0 ? epochDays : new int[1], size);
+    }
+
+    @Override
+    public DataType getDataType() {
+        return DataType.DATE;
+    }
+
+    @Override
+    public boolean accepts(String value) {
+
+        if (value.equals(NULL)) {
+            return true;
+        }
+
+        // only accept dates that will be written back out exactly the same way
+        try {
+            return LocalDate.parse(value).toString().equals(value);
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return epochDays[row] == NULL_EPOCH_DAY;
+    }
+
+    /**
+     * @param row is the row to get
+     * @return the number of days since 1970-01-01 of the date stored at the row
+     */
+    public int getEpochDay(int row) {
+        return epochDays[row];
+    }
+
+    @Override
+    public String get(int row) {
+        return isNull(row) ? NULL : LocalDate.ofEpochDay(epochDays[row]).toString();
+    }
+
+    @Override
+    public void set(int row, String value) {
+        epochDays[row] = toEpochDay(value);
+    }
+
+    @Override
+    public void add(int row, String value) {
+        if (size + 1 > epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, grow(epochDays.length, size + 1));
+        }
+        System.arraycopy(epochDays, row, epochDays, row + 1, size - row);
+        size++;
+        set(row, value);
+    }
+
+    @Override
+    public void remove(int row) {
+        System.arraycopy(epochDays, row + 1, epochDays, row, size - row - 1);
+        size--;
+    }
+
+    @Override
+    public void swap(int i, int j) {
+        int temp = epochDays[i];
+        epochDays[i] = epochDays[j];
+        epochDays[j] = temp;
+    }
+
+    @Override
+    public ColumnVector copy() {
+        return new DateVector(Arrays.copyOf(epochDays, Math.max(size, 1)), size);
+    }
+
+    @Override
+    public ColumnVector gather(int[] rowIds, int count) {
+
+        int[] gathered = new int[Math.max(count, 1)];
+
+        for (int i = 0; i < count; i++) {
+            gathered[i] = epochDays[rowIds[i]];
+        }
+
+        return new DateVector(gathered, count);
+    }
+
+    @Override
+    public void append(ColumnVector other) {
+
+        if (! (other instanceof DateVector)) {
+            super.append(other);
+            return;
+        }
+
+        if (size + other.size > epochDays.length) {
+            epochDays = Arrays.copyOf(epochDays, grow(epochDays.length, size + other.size));
+        }
+        System.arraycopy(((DateVector) other).epochDays, 0, epochDays, size, other.size);
+        size += other.size;
+    }
+
+    @Override
+    public IntPredicate compile(Symbol symbol, String value) {
+        return compile(symbol, toEpochDay(value));
+    }
+
+    @Override
+    public IntPredicate compile(Symbol symbol, ColumnVector other, int otherRow) {
+
+        if (! (other instanceof DateVector)) {
+            return super.compile(symbol, other, otherRow);
+        }
+
+        DateVector otherDates = (DateVector) other;
+
+        return otherDates.isNull(otherRow) ? row -> false : compile(symbol, otherDates.epochDays[otherRow]);
+    }
+
+    @Override
+    public boolean matches(int row, Symbol symbol, ColumnVector other, int otherRow) {
+
+        if (! (other instanceof DateVector)) {
+            return super.matches(row, symbol, other, otherRow);
+        }
+
+        DateVector otherDates = (DateVector) other;
+
+        if (isNull(row) || otherDates.isNull(otherRow)) {
+            return false;
+        }
+
+        return satisfies(Integer.compare(epochDays[row], otherDates.epochDays[otherRow]), symbol);
+    }
+
+    @Override
+    public Object getKey(int row) {
+        return isNull(row) ? null : epochDays[row];
+    }
+
+    /**
+     * Null dates never match, so they're scanned for like they always were.
+     */
+    @Override
+    public Object toKey(String value) {
+        return value.equals(NULL) ? null : toEpochDay(value);
+    }
+
+    @Override
+    public boolean hasOrderedKeys() {
+        return true;
+    }
+
+    @Override
+    public double getOrderedKey(int row) {
+        return epochDays[row];
+    }
+
+    @Override
+    public double toOrderedKey(String value) {
+        return value.equals(NULL) ? Double.NaN : toEpochDay(value);
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    private IntPredicate compile(Symbol symbol, int epochDay) {
+        switch (symbol) {
+            case EQUAL:
+                return row -> epochDays[row] == epochDay && ! isNull(row);
+            case NOT_EQUAL:
+                return row -> epochDays[row] != epochDay && ! isNull(row);
+            case GREATER_THAN:
+                return row -> epochDays[row] > epochDay && ! isNull(row);
+            case LESS_THAN:
+                return row -> epochDays[row] < epochDay && ! isNull(row);
+            case GREATER_THAN_OR_EQUAL:
+                return row -> epochDays[row] >= epochDay && ! isNull(row);
+            case LESS_THAN_OR_EQUAL:
+                return row -> epochDays[row] <= epochDay && ! isNull(row);
+            default:
+                return row -> false;
+        }
+    }
+
+    private static int toEpochDay(String value) {
+        return value.equals(NULL) ? NULL_EPOCH_DAY : (int) LocalDate.parse(value).toEpochDay();
+    }
+}
@@ -0,0 +1,214 @@
+package datastructures.relation.table.component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An in-memory hash index on a single column of table data, backing the hash table file structure.
+ * Each key maps to the rows holding it in ascending order, so an = selection on the column is a
+ * single probe instead of a scan of every row. Null values aren't indexed since they never match.
+ * Appending and updating rows keeps the index up to date, anything that moves rows around
+ * (deleting, inserting in the middle, swapping) marks it as stale and it's rebuilt on the next probe.
+ */
+public class HashIndex {
+
+    private static final int INITIAL_BUCKET_CAPACITY = 2;
+
+    private ColumnVector indexedVector;
+    private Map<Object, Bucket> buckets;
+    private boolean isStale;
+
+    /**
+     * Builds an index on the column vector supplied.
+     * @param columnVector is the column to index
+     */
+    public HashIndex(ColumnVector columnVector) {
+        build(columnVector);
+    }
+
+    /**
+     * Creates a deep copy of the index supplied for a copy of the column it indexes.
+     * @param toCopy is the index to copy
+     * @param copiedVector is the copy of the column that toCopy indexes
+     */
+    public HashIndex(HashIndex toCopy, ColumnVector copiedVector) {
+        this.indexedVector = copiedVector;
+        this.isStale = toCopy.isStale;
+        this.buckets = new HashMap<>();
+        if (! isStale) {
+            toCopy.buckets.forEach((key, bucket) -> buckets.put(key, new Bucket(bucket)));
+        }
+    }
+
+    /**
+     * Marks this index as out of date, it will be rebuilt the next time it's probed.
+     */
+    public void invalidate() {
+        isStale = true;
+    }
+
+    /**
+     * Indexes a row that was just appended to the column.
+     * @param columnVector is the column the row was appended to
+     * @param row is the row appended, assumed to be the last row
+     */
+    public void add(ColumnVector columnVector, int row) {
+
+        if (isOutOfDate(columnVector)) {
+            isStale = true;
+            return;
+        }
+
+        Object key = columnVector.getKey(row);
+
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new Bucket()).append(row);
+        }
+    }
+
+    /**
+     * Moves a row whose value was just changed to the bucket of its new value.
+     * @param columnVector is the column the row belongs to
+     * @param row is the row that was changed
+     * @param previousKey is the key of the row before it was changed
+     */
+    public void update(ColumnVector columnVector, int row, Object previousKey) {
+
+        if (isOutOfDate(columnVector)) {
+            isStale = true;
+            return;
+        }
+
+        Object key = columnVector.getKey(row);
+
+        if (key != null && key.equals(previousKey)) {
+            return;
+        }
+
+        if (previousKey != null) {
+            Bucket bucket = buckets.get(previousKey);
+            if (bucket != null && bucket.remove(row) && bucket.size == 0) {
+                buckets.remove(previousKey);
+            }
+        }
+
+        if (key != null) {
+            buckets.computeIfAbsent(key, k -> new Bucket()).insert(row);
+        }
+    }
+
+    /**
+     * Finds the rows of the column that are = to the value supplied.
+     * @param columnVector is the column this index is on
+     * @param value is the value to look up
+     * @param rowIds receives the matching rows in ascending order, must be able to hold every row of the column
+     * @return the number of matching rows, or -1 if the value can't be looked up and the column has to be scanned
+     */
+    public int probe(ColumnVector columnVector, String value, int[] rowIds) {
+
+        if (isOutOfDate(columnVector)) {
+            build(columnVector);
+        }
+
+        Object key = columnVector.toKey(value);
+
+        if (key == null) {
+            return -1;
+        }
+
+        Bucket bucket = buckets.get(key);
+
+        if (bucket == null) {
+            return 0;
+        }
+
+        System.arraycopy(bucket.rows, 0, rowIds, 0, bucket.size);
+
+        return bucket.size;
+    }
+
+    /**
+     * @return the number of distinct keys stored in this index
+     */
+    public int getNumKeys() {
+        return buckets.size();
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    private void build(ColumnVector columnVector) {
+
+        indexedVector = columnVector;
+        buckets = new HashMap<>();
+        isStale = false;
+
+        for (int row = 0; row < columnVector.size(); row++) {
+            Object key = columnVector.getKey(row);
+            if (key != null) {
+                buckets.computeIfAbsent(key, k -> new Bucket()).append(row);
+            }
+        }
+    }
+
+    /**
+     * Table data swaps in a new vector whenever a column changes type or rows are deleted in bulk,
+     * so a different vector means the index no longer lines up with the column.
+     */
+    private boolean isOutOfDate(ColumnVector columnVector) {
+        return isStale || columnVector != indexedVector;
+    }
+
+    /**
+     * The rows holding a single key, kept in ascending order.
+     */
+    private static class Bucket {
+
+        private int[] rows;
+        private int size;
+
+        private Bucket() {
+            this.rows = new int[INITIAL_BUCKET_CAPACITY];
+            this.size = 0;
+        }
+
+        private Bucket(Bucket toCopy) {
+            this.rows = Arrays.copyOf(toCopy.rows, toCopy.size);
+            this.size = toCopy.size;
+        }
+
+        private void append(int row) {
+            insertAt(size, row);
+        }
+
+        private void insert(int row) {
+            int location = Arrays.binarySearch(rows, 0, size, row);
+            if (location < 0) {
+                insertAt(-(location + 1), row);
+            }
+        }
+
+        private boolean remove(int row) {
+
+            int location = Arrays.binarySearch(rows, 0, size, row);
+
+            if (location < 0) {
+                return false;
+            }
+
+            System.arraycopy(rows, location + 1, rows, location, size - location - 1);
+            size--;
+
+            return true;
+        }
+
+        private void insertAt(int location, int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(INITIAL_BUCKET_CAPACITY, rows.length * 2));
+            }
+            System.arraycopy(rows, location, rows, location + 1, size - location);
+            rows[location] = row;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package datastructures.relation.table.component;
+
+import enums.Symbol;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Stores a NUMBER column as a double[]. The text of a value is only kept around when it can't be
+ * reproduced from the double itself (eg. "05" or "1.50"), so almost every column stores no strings at all.
+ */
+public class NumberVector extends ColumnVector {
+
+    private static final String NULL = "null";
+
+    private double[] values;
+    private String[] text;  // only allocated once a value doesn't format back to what was stored
+
+    public NumberVector() {
+        this.values = new double[INITIAL_CAPACITY];
+        this.text = null;
+        this.size = 0;
+    }
+
+    private NumberVector(double[] values, String[] text, int size) {
+        this.values = values;
+        this.text = text;
+        this.size = size;
+    }
+
+    /**
+     * Creates a vector around arrays that were already filled in, eg. when reading a table data file.
+     * @param values are the numeric values of each row
+     * @param text is the exact text of each row that can't be reproduced from its value, can be null
+     * @param size is the number of rows
+     * @return a vector holding the values supplied
+     */
+    public static NumberVector wrap(double[] values, String[] text, int size) {
+        return new NumberVector(values.length > 0 ? values : new double[1], text, size);
+    }
+
+    @Override
+    public DataType getDataType() {
+        return DataType.NUMBER;
+    }
+
+    @Override
+    public boolean accepts(String value) {
+
+        if (value.equals(NULL)) {
+            return true;
+        }
+
+        try {
+            Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return Double.isNaN(values[row]);
+    }
+
+    /**
+     * @param row is the row to get
+     * @return the numeric value stored at the row, NaN if the row is null
+     */
+    public double getDouble(int row) {
+        return values[row];
+    }
+
+    /**
+     * @param row is the row to get
+     * @return the exact text stored at the row if it can't be reproduced from its value, null otherwise
+     */
+    public String getText(int row) {
+        return text != null ? text[row] : null;
+    }
+
+    @Override
+    public String get(int row) {
+        if (text != null && text[row] != null) {
+            return text[row];
+        }
+        return format(values[row]);
+    }
+
+    @Override
+    public void set(int row, String value) {
+        double parsed = value.equals(NULL) ? Double.NaN : Double.parseDouble(value);
+        values[row] = parsed;
+        setText(row, value.equals(format(parsed)) ? null : value);
+    }
+
+    @Override
+    public void add(int row, String value) {
+        ensureCapacity(size + 1);
+        System.arraycopy(values, row, values, row + 1, size - row);
+        if (text != null) {
+            System.arraycopy(text, row, text, row + 1, size - row);
+            text[row] = null;
+        }
+        size++;
+        set(row, value);
+    }
+
+    @Override
+    public void remove(int row) {
+        System.arraycopy(values, row + 1, values, row, size - row - 1);
+        if (text != null) {
+            System.arraycopy(text, row + 1, text, row, size - row - 1);
+            text[size - 1] = null;
+        }
+        size--;
+    }
+
+    @Override
+    public void swap(int i, int j) {
+        double tempValue = values[i];
+        values[i] = values[j];
+        values[j] = tempValue;
+        if (text != null) {
+            String tempText = text[i];
+            text[i] = text[j];
+            text[j] = tempText;
+        }
+    }
+
+    @Override
+    public ColumnVector copy() {
+        return new NumberVector(Arrays.copyOf(values, Math.max(size, 1)),
+                text != null ? Arrays.copyOf(text, Math.max(size, 1)) : null, size);
+    }
+
+    @Override
+    public ColumnVector gather(int[] rowIds, int count) {
+
+        double[] gatheredValues = new double[Math.max(count, 1)];
+        String[] gatheredText = text != null ? new String[gatheredValues.length] : null;
+
+        for (int i = 0; i < count; i++) {
+            gatheredValues[i] = values[rowIds[i]];
+            if (text != null) {
+                gatheredText[i] = text[rowIds[i]];
+            }
+        }
+
+        return new NumberVector(gatheredValues, gatheredText, count);
+    }
+
+    @Override
+    public void append(ColumnVector other) {
+
+        if (! (other instanceof NumberVector)) {
+            super.append(other);
+            return;
+        }
+
+        NumberVector otherNumbers = (NumberVector) other;
+
+        if (text == null && otherNumbers.text != null) {
+            text = new String[values.length];
+        }
+
+        ensureCapacity(size + other.size);
+        System.arraycopy(otherNumbers.values, 0, values, size, other.size);
+        if (otherNumbers.text != null) {
+            System.arraycopy(otherNumbers.text, 0, text, size, other.size);
+        }
+        size += other.size;
+    }
+
+    @Override
+    public IntPredicate compile(Symbol symbol, String value) {
+        return compile(symbol, Double.parseDouble(value));
+    }
+
+    @Override
+    public IntPredicate compile(Symbol symbol, ColumnVector other, int otherRow) {
+
+        if (! (other instanceof NumberVector)) {
+            return super.compile(symbol, other, otherRow);
+        }
+
+        NumberVector otherNumbers = (NumberVector) other;
+
+        return otherNumbers.isNull(otherRow) ? row -> false : compile(symbol, otherNumbers.values[otherRow]);
+    }
+
+    @Override
+    public boolean matches(int row, Symbol symbol, ColumnVector other, int otherRow) {
+
+        if (! (other instanceof NumberVector)) {
+            return super.matches(row, symbol, other, otherRow);
+        }
+
+        NumberVector otherNumbers = (NumberVector) other;
+
+        if (isNull(row) || otherNumbers.isNull(otherRow)) {
+            return false;
+        }
+
+        return satisfies(compare(values[row], otherNumbers.values[otherRow]), symbol);
+    }
+
+    /**
+     * 0.0 and -0.0 are =, so they share a key.
+     */
+    @Override
+    public Object getKey(int row) {
+        return isNull(row) ? null : toKey(values[row]);
+    }
+
+    @Override
+    public Object toKey(String value) {
+        double numericValue = Double.parseDouble(value);
+        return Double.isNaN(numericValue) ? null : toKey(numericValue);
+    }
+
+    @Override
+    public boolean hasOrderedKeys() {
+        return true;
+    }
+
+    @Override
+    public double getOrderedKey(int row) {
+        return values[row];
+    }
+
+    @Override
+    public double toOrderedKey(String value) {
+        return value.equals(NULL) ? Double.NaN : Double.parseDouble(value);
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * Compares the way the == and < operators do, so 0.0 and -0.0 are treated as equal.
+     */
+    private static Double toKey(double value) {
+        return value == 0 ? 0.0 : value;
+    }
+
+    /**
+     * Nulls are stored as NaN, which is never ==, <, or > anything, so only != has to look for them.
+     */
+    private IntPredicate compile(Symbol symbol, double key) {
+
+        // every value compares as equal to NaN, the way compare() does
+        if (Double.isNaN(key)) {
+            boolean isSatisfied = satisfies(0, symbol);
+            return row -> isSatisfied && ! isNull(row);
+        }
+
+        switch (symbol) {
+            case EQUAL:
+                return row -> values[row] == key;
+            case NOT_EQUAL:
+                return row -> values[row] != key && ! isNull(row);
+            case GREATER_THAN:
+                return row -> values[row] > key;
+            case LESS_THAN:
+                return row -> values[row] < key;
+            case GREATER_THAN_OR_EQUAL:
+                return row -> values[row] >= key;
+            case LESS_THAN_OR_EQUAL:
+                return row -> values[row] <= key;
+            default:
+                return row -> false;
+        }
+    }
+
+    private static int compare(double first, double second) {
+        return first < second ? -1 : (first > second ? 1 : 0);
+    }
+
+    /**
+     * Formats a double the way values are written in the table data files, whole numbers don't get a ".0".
+     */
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15 && ! (value == 0 && 1 / value < 0)) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    private void setText(int row, String value) {
+        if (value == null && text == null) {
+            return;
+        }
+        if (text == null) {
+            text = new String[values.length];
+        }
+        text[row] = value;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > values.length) {
+            int newCapacity = grow(values.length, minCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+            if (text != null) {
+                text = Arrays.copyOf(text, newCapacity);
+            }
+        }
+    }
+}
@@ -1,34 +1,140 @@
 package datastructures.relation.table.component;
 
+import enums.Symbol;
+
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents all the rows and columns stored within a particular table.
  * Rows and columns can grow, shrink, have their contents changed, and
  * and accept null values. These will be the direct result of a DMl statement.
+ * Data is stored column by column in typed vectors (see ColumnVector). The rows can still
+ * be viewed and changed as a List of Lists of Strings through getData().
+ * Columns with a hash table file structure also get a hash index (see HashIndex), and columns with a b-tree
+ * file structure a B+-tree (see BPlusTree), both kept up to date by every change made through this class.
+ * Table data can also be clustered on a column, its rows are then kept in order by that column's values.
+ * Statistics on each column (see ColumnStatistics) are gathered the first time they're asked for and kept
+ * until the data changes.
+ * Snapshots of table data (see snapshotOf()) share its column vectors and indexes instead of copying them, whichever
+ * side is changed first makes its own copy before the change goes through. Once a snapshot is released, nothing is
+ * copied on its account anymore.
  */
 public class TableData {
 
     private List<Integer> paddingAmountList;    // for formatting
-    private List<List<String>> tableData;
+    private List<ColumnVector> columnVectors;
+    private int numRows;
+    private Map<Integer, HashIndex> hashIndexes;    // column index -> hash index on that column
+    private Map<Integer, BPlusTree> bPlusTrees;     // column index -> b+-tree on that column
+    private int clusteredColumn;                    // column the rows are kept in order by, -1 if none
+    private List<ColumnStatistics> statistics;      // null until asked for, or after the data changes
+    private AtomicInteger numSharing;               // table data sharing the column vectors and indexes, null if none
+    private final List<List<String>> rowView;
 
+    /**
+     * Table data where the type of each column isn't known yet, so everything is stored as characters.
+     * Table.setTableData() converts the columns to the types of the table's columns.
+     */
     public TableData(List<Integer> paddingAmountList, List<List<String>> tableData) {
+        this(paddingAmountList, tableData, new ArrayList<>());
+    }
+
+    /**
+     * Table data where the type of each column is known.
+     * @param paddingAmountList is used for formatting
+     * @param tableData are the rows of the table
+     * @param dataTypes are the types of each column, columns without a type are stored as characters
+     */
+    public TableData(List<Integer> paddingAmountList, List<List<String>> tableData, List<DataType> dataTypes) {
         this.paddingAmountList = paddingAmountList;
-        this.tableData = tableData;
+        this.columnVectors = new ArrayList<>();
+        for (DataType dataType : dataTypes) {
+            this.columnVectors.add(ColumnVector.create(dataType));
+        }
+        this.numRows = 0;
+        this.hashIndexes = new HashMap<>();
+        this.bPlusTrees = new HashMap<>();
+        this.clusteredColumn = -1;
+        this.rowView = new RowList();
+        setData(tableData);
     }
 
     /**
-     * Returns a deep copy of this object.
+     * Returns a deep copy of this object. Indexes are copied too, but the copy doesn't keep its rows
+     * ordered by the clustered column since copies are only ever used as working data.
      */
     public TableData(TableData toCopy) {
         this.paddingAmountList = new ArrayList<>();
         this.paddingAmountList.addAll(toCopy.paddingAmountList);
-        this.tableData = new ArrayList<>();
-        for(List<String> rows : toCopy.tableData) {
-            List<String> rowsToAdd = new ArrayList<>(rows);
-            this.tableData.add(rowsToAdd);
+        this.columnVectors = new ArrayList<>();
+        for (ColumnVector columnVector : toCopy.columnVectors) {
+            this.columnVectors.add(columnVector.copy());
         }
+        this.numRows = toCopy.numRows;
+        this.hashIndexes = new HashMap<>();
+        toCopy.hashIndexes.forEach((col, hashIndex) ->
+                hashIndexes.put(col, new HashIndex(hashIndex, columnVectors.get(col))));
+        this.bPlusTrees = new HashMap<>();
+        toCopy.bPlusTrees.forEach((col, bPlusTree) ->
+                bPlusTrees.put(col, new BPlusTree(bPlusTree, columnVectors.get(col))));
+        this.clusteredColumn = -1;
+        this.statistics = toCopy.statistics;
+        this.rowView = new RowList();
+    }
+
+    /**
+     * Returns table data holding the same rows as the table data supplied, without copying them. Both share the
+     * same column vectors and indexes until either one is changed, at which point the one being changed copies
+     * them first, so neither ever sees the other's changes. Like a copy, the snapshot doesn't keep its rows
+     * ordered by the clustered column.
+     * @param toSnapshot is the table data to take a snapshot of
+     * @return the snapshot of the table data
+     */
+    public static TableData snapshotOf(TableData toSnapshot) {
+        TableData snapshot = new TableData(new ArrayList<>(toSnapshot.paddingAmountList),
+                new ArrayList<>(toSnapshot.columnVectors), toSnapshot.numRows);
+        snapshot.hashIndexes.putAll(toSnapshot.hashIndexes);
+        snapshot.bPlusTrees.putAll(toSnapshot.bPlusTrees);
+        snapshot.statistics = toSnapshot.statistics;
+        if (toSnapshot.numSharing == null) {
+            toSnapshot.numSharing = new AtomicInteger(1);
+        }
+        toSnapshot.numSharing.incrementAndGet();
+        snapshot.numSharing = toSnapshot.numSharing;
+        return snapshot;
+    }
+
+    /**
+     * Lets go of the column vectors and indexes shared with a snapshot, so the other side no longer copies them
+     * before it's changed. Called once a snapshot is done with, it mustn't be read afterwards.
+     */
+    public void release() {
+        if (numSharing != null) {
+            numSharing.decrementAndGet();
+            numSharing = null;
+        }
+    }
+
+    /**
+     * Table data made up of column vectors that were already filled in.
+     * @param paddingAmountList is used for formatting
+     * @param columnVectors hold the data of each column
+     * @param numRows is the number of rows in each column vector
+     */
+    public TableData(List<Integer> paddingAmountList, List<ColumnVector> columnVectors, int numRows) {
+        this.paddingAmountList = paddingAmountList;
+        this.columnVectors = columnVectors;
+        this.numRows = numRows;
+        this.hashIndexes = new HashMap<>();
+        this.bPlusTrees = new HashMap<>();
+        this.clusteredColumn = -1;
+        this.rowView = new RowList();
     }
 
     /**
@@ -42,29 +148,101 @@ public class TableData {
         this.paddingAmountList = paddingAmountList;
     }
 
+    /**
+     * Replaces the rows of this table, keeping the type of each column where possible.
+     */
     public void setData(List<List<String>> tableData) {
-        this.tableData = tableData;
+
+        copyIfShared();
+
+        int numCols = ! tableData.isEmpty() ? tableData.get(0).size() : columnVectors.size();
+        List<ColumnVector> newColumnVectors = new ArrayList<>();
+
+        // read everything before swapping the vectors in, the rows supplied could be a view of this table
+        for (int cols = 0; cols < numCols; cols++) {
+
+            List<String> values = new ArrayList<>(tableData.size());
+
+            for (List<String> row : tableData) {
+                values.add(row.get(cols));
+            }
+
+            DataType dataType = cols < columnVectors.size() ? columnVectors.get(cols).getDataType() : DataType.CHAR;
+            newColumnVectors.add(ColumnVector.of(dataType, values));
+        }
+
+        this.columnVectors = newColumnVectors;
+        this.numRows = tableData.size();
+        this.statistics = null;
+        invalidateIndexes();
     }
 
     /**
+     * Returns the rows of this table. This is a live view, changing a row changes the table data.
      * @return the data of this table
      */
     public List<List<String>> getData() {
-        return tableData;
+        return rowView;
+    }
+
+    /**
+     * @return the typed vectors holding each column's data
+     */
+    public List<ColumnVector> getColumnVectors() {
+        return columnVectors;
+    }
+
+    /**
+     * @param colIndex is the index of the column
+     * @return the typed vector holding the column's data
+     */
+    public ColumnVector getColumnVector(int colIndex) {
+        return columnVectors.get(colIndex);
+    }
+
+    /**
+     * Converts each column to the data type of the matching column supplied. Columns holding values that
+     * can't be converted (eg. "abc" in a NUMBER column) are kept as characters.
+     * @param columns are the columns describing this table data
+     */
+    public void setDataTypes(List<Column> columns) {
+
+        if (columns.size() != columnVectors.size()) {
+            return;
+        }
+
+        for (int i = 0; i < columns.size(); i++) {
+            setDataType(i, columns.get(i).getDataType());
+        }
+    }
+
+    /**
+     * Converts the column supplied to a new data type if it isn't already stored as that type.
+     * @param colIndex is the index of the column
+     * @param dataType is the new data type
+     */
+    public void setDataType(int colIndex, DataType dataType) {
+
+        ColumnVector columnVector = columnVectors.get(colIndex);
+
+        if (columnVector.getDataType() != dataType) {
+            columnVectors.set(colIndex, ColumnVector.of(dataType, columnVector.toList()));
+            statistics = null;
+        }
     }
 
     /**
      * @return the number of rows in this table
      */
     public int getNumRows() {
-        return tableData.size();
+        return numRows;
     }
 
     /**
      * @return the number of columns in this table
      */
     public int getNumCols() {
-        return ! tableData.isEmpty() ? tableData.get(0).size() : 0;
+        return numRows != 0 ? columnVectors.size() : 0;
     }
 
     /**
@@ -72,7 +250,42 @@ public class TableData {
      * @param index the location of the row to delete
      */
     public void deleteRowAt(int index) {
-        tableData.remove(index);
+        copyIfShared();
+        for (ColumnVector columnVector : columnVectors) {
+            columnVector.remove(index);
+        }
+        numRows--;
+        statistics = null;
+        invalidateIndexes();
+    }
+
+    /**
+     * Deletes the rows supplied.
+     * @param rowIds are the rows to delete in ascending order
+     * @param count is the number of row ids to use
+     */
+    public void deleteRows(int[] rowIds, int count) {
+
+        copyIfShared();
+
+        int[] rowsToKeep = new int[numRows];
+        int numRowsToKeep = 0;
+
+        for (int rows = 0, i = 0; rows < numRows; rows++) {
+            if (i < count && rowIds[i] == rows) {
+                i++;
+            } else {
+                rowsToKeep[numRowsToKeep++] = rows;
+            }
+        }
+
+        for (int cols = 0; cols < columnVectors.size(); cols++) {
+            columnVectors.set(cols, columnVectors.get(cols).gather(rowsToKeep, numRowsToKeep));
+        }
+
+        numRows = numRowsToKeep;
+        statistics = null;
+        invalidateIndexes();
     }
 
     /**
@@ -81,35 +294,127 @@ public class TableData {
      */
     public void deleteColumnAt(int index) {
 
-        for(int rows = 0; rows < tableData.size(); rows++) {
-            tableData.get(rows).remove(index);
-        }
-
+        columnVectors.remove(index);
         paddingAmountList.remove(index);
+        statistics = null;
+
+        // indexes on columns to the right move over by one
+        hashIndexes = removeColumnFrom(hashIndexes, index);
+        bPlusTrees = removeColumnFrom(bPlusTrees, index);
+
+        if (clusteredColumn == index) {
+            clusteredColumn = -1;
+        } else if (clusteredColumn > index) {
+            clusteredColumn--;
+        }
     }
 
     public String getCellAt(int row, int col) {
-        return tableData.get(row).get(col);
+        return columnVectors.get(col).get(row);
     }
 
     /**
      * Alters the data of a cell to something else.
      */
     public void updateCellAt(int row, int col, String cell) {
-        tableData.get(row).set(col, cell);
+
+        copyIfShared();
+        setCellAt(row, col, cell);
+
+        // a row whose clustered value changed has to move to where its new value belongs
+        if (col == clusteredColumn && ! isInOrder(row)) {
+            List<String> movedRow = new ArrayList<>(rowView.get(row));
+            deleteRowAt(row);
+            addRow(movedRow);
+        }
+    }
+
+    /**
+     * Alters the data of the column at each of the rows supplied to the same thing.
+     * @param rowIds are the rows to alter
+     * @param count is the number of row ids to use
+     * @param col is the column to alter
+     * @param cell is the new data
+     */
+    public void updateCellsAt(int[] rowIds, int count, int col, String cell) {
+        String[] cells = new String[count];
+        Arrays.fill(cells, cell);
+        updateCellsAt(rowIds, cells, count, col);
+    }
+
+    /**
+     * Alters the data of the column at each of the rows supplied. No row is moved until every cell has been
+     * altered, then the rows are put back in order by the clustered column all at once, so row ids found before
+     * the update point at the same rows the whole way through.
+     * @param rowIds are the rows to alter
+     * @param cells is the new data of each row
+     * @param count is the number of row ids to use
+     * @param col is the column to alter
+     */
+    public void updateCellsAt(int[] rowIds, String[] cells, int count, int col) {
+
+        copyIfShared();
+
+        for (int i = 0; i < count; i++) {
+            setCellAt(rowIds[i], col, cells[i]);
+        }
+
+        if (col == clusteredColumn && count > 0) {
+            clusterOn(col);
+        }
+    }
+
+    /**
+     * Alters the data of a cell and its indexes without moving the row.
+     */
+    private void setCellAt(int row, int col, String cell) {
+
+        ColumnVector previousVector = columnVectors.get(col);
+        HashIndex hashIndex = hashIndexes.get(col);
+        BPlusTree bPlusTree = bPlusTrees.get(col);
+        Object previousKey = hashIndex != null ? previousVector.getKey(row) : null;
+        boolean wasNull = previousVector.isNull(row);
+        double previousOrderedKey = bPlusTree != null && ! wasNull ? previousVector.getOrderedKey(row) : 0;
+
+        ColumnVector columnVector = accept(col, cell);
+        columnVector.set(row, cell);
+        statistics = null;
+
+        if (hashIndex != null) {
+            hashIndex.update(columnVector, row, previousKey);
+        }
+
+        if (bPlusTree != null) {
+            bPlusTree.update(columnVector, row, wasNull, previousOrderedKey);
+        }
     }
 
     public void updateCellAt(int col, String cell) {
-        for(List<String> row : tableData) {
-            row.set(col, cell);
+
+        copyIfShared();
+
+        ColumnVector columnVector = accept(col, cell);
+
+        for (int rows = 0; rows < numRows; rows++) {
+            columnVector.set(rows, cell);
+        }
+
+        statistics = null;
+
+        if (hashIndexes.containsKey(col)) {
+            hashIndexes.get(col).invalidate();
+        }
+
+        if (bPlusTrees.containsKey(col)) {
+            bPlusTrees.get(col).invalidate();
         }
     }
 
     /**
-     * Adds a row to the bottom of the table.
+     * Adds a row to the bottom of the table, or where it belongs if the table is clustered.
      */
     public void addRow(List<String> row) {
-        tableData.add(row);
+        addRowAt(clusteredColumn != -1 ? getClusteredLocation(row.get(clusteredColumn)) : numRows, row);
     }
 
     /**
@@ -117,7 +422,39 @@ public class TableData {
      * Use for maintaining an order with respect to the primary key.
      */
     public void addRowAt(int index, List<String> row) {
-        tableData.add(index, row);
+
+        copyIfShared();
+
+        // first row of a table that didn't know what its columns were
+        while (columnVectors.size() < row.size()) {
+            columnVectors.add(new CharVector());
+        }
+
+        for (int cols = 0; cols < row.size(); cols++) {
+            accept(cols, row.get(cols)).add(index, row.get(cols));
+        }
+
+        numRows++;
+        statistics = null;
+
+        // appending doesn't move any other rows, so the new row can just be added to each index
+        if (index == numRows - 1) {
+            hashIndexes.forEach((col, hashIndex) -> hashIndex.add(columnVectors.get(col), index));
+            bPlusTrees.forEach((col, bPlusTree) -> bPlusTree.add(columnVectors.get(col), index));
+        } else {
+            invalidateIndexes();
+        }
+    }
+
+    /**
+     * Swaps the rows at the indexes supplied.
+     */
+    public void swapRows(int i, int j) {
+        copyIfShared();
+        for (ColumnVector columnVector : columnVectors) {
+            columnVector.swap(i, j);
+        }
+        invalidateIndexes();
     }
 
     /**
@@ -126,12 +463,26 @@ public class TableData {
      * @param columnSize is the size of the new column to add
      */
     public void addColumn(int columnSize) {
+        addColumn(columnSize, DataType.CHAR);
+    }
 
-        for(int rows = 0; rows < tableData.size(); rows++) {
-            tableData.get(rows).add("null");
+    /**
+     * Adds a column of the data type supplied to the table. New columns are appended to right of the table.
+     * The rows within this new column will be null.
+     * @param columnSize is the size of the new column to add
+     * @param dataType is the data type of the new column
+     */
+    public void addColumn(int columnSize, DataType dataType) {
+
+        ColumnVector columnVector = ColumnVector.create(dataType);
+
+        for (int rows = 0; rows < numRows; rows++) {
+            columnVector.add("null");
         }
 
+        columnVectors.add(columnVector);
         paddingAmountList.add(columnSize);
+        statistics = null;
     }
 
     /**
@@ -140,14 +491,434 @@ public class TableData {
      * @return a list of rows corresponding to the supplied column index
      */
     public List<String> getRowsAt(int colIndex) {
+        return columnVectors.get(colIndex).toList();
+    }
 
-        ArrayList<String> columnsRowData = new ArrayList<>();
+    // hash indexes ----------------------------------------------------------------------------------------------------
+
+    /**
+     * Builds a hash index on the column supplied, replacing any index already there.
+     * @param colIndex is the index of the column
+     */
+    public void buildHashIndex(int colIndex) {
+        hashIndexes.put(colIndex, new HashIndex(columnVectors.get(colIndex)));
+    }
+
+    /**
+     * Removes the hash index on the column supplied if there is one.
+     * @param colIndex is the index of the column
+     */
+    public void dropHashIndex(int colIndex) {
+        hashIndexes.remove(colIndex);
+    }
 
-        for(int rows = 0; rows < tableData.size(); rows++) {
-            columnsRowData.add(tableData.get(rows).get(colIndex));
+    /**
+     * @param colIndex is the index of the column
+     * @return whether the column has a hash index on it
+     */
+    public boolean hasHashIndex(int colIndex) {
+        return hashIndexes.containsKey(colIndex);
+    }
+
+    /**
+     * Builds a B+-tree on the column supplied, replacing any tree already there. Only NUMBER and DATE
+     * columns can have one, nothing happens for any other column.
+     * @param colIndex is the index of the column
+     * @param degree is the maximum number of children of each node of the tree
+     */
+    public void buildBPlusTree(int colIndex, int degree) {
+        if (columnVectors.get(colIndex).hasOrderedKeys()) {
+            bPlusTrees.put(colIndex, new BPlusTree(columnVectors.get(colIndex), degree));
         }
+    }
 
-        return columnsRowData;
+    /**
+     * Removes the B+-tree on the column supplied if there is one.
+     * @param colIndex is the index of the column
+     */
+    public void dropBPlusTree(int colIndex) {
+        bPlusTrees.remove(colIndex);
+    }
+
+    /**
+     * @param colIndex is the index of the column
+     * @return whether the column has a B+-tree on it
+     */
+    public boolean hasBPlusTree(int colIndex) {
+        return bPlusTrees.containsKey(colIndex);
+    }
+
+    /**
+     * Sorts the rows by the column supplied and keeps them that way as rows are added and changed.
+     * Null values go last. Rows with equal values keep the order they were in.
+     * @param colIndex is the index of the column
+     */
+    public void clusterOn(int colIndex) {
+
+        clusteredColumn = colIndex;
+        ColumnVector columnVector = columnVectors.get(colIndex);
+
+        if (! columnVector.hasOrderedKeys() || isClustered()) {
+            return;
+        }
+
+        copyIfShared();
+
+        Integer[] order = new Integer[numRows];
+        for (int rows = 0; rows < numRows; rows++) {
+            order[rows] = rows;
+        }
+
+        Arrays.sort(order, (first, second) -> compareClustered(columnVector, first, second));
+
+        int[] rowIds = new int[numRows];
+        for (int rows = 0; rows < numRows; rows++) {
+            rowIds[rows] = order[rows];
+        }
+
+        for (int cols = 0; cols < columnVectors.size(); cols++) {
+            columnVectors.set(cols, columnVectors.get(cols).gather(rowIds, numRows));
+        }
+
+        invalidateIndexes();
+    }
+
+    /**
+     * Stops keeping the rows in order, the rows stay where they are.
+     */
+    public void unCluster() {
+        clusteredColumn = -1;
+    }
+
+    /**
+     * @return the column the rows are kept in order by, -1 if there isn't one
+     */
+    public int getClusteredColumn() {
+        return clusteredColumn;
+    }
+
+    /**
+     * Finds each row satisfying "column symbol value". An = on a column with a hash index is looked up
+     * in the index, =, <, <=, > and >= on a column with a B+-tree are searched for in the tree,
+     * anything else scans the column.
+     * @param colIndex is the index of the column
+     * @param symbol is the symbol to compare with
+     * @param value is the value to compare against
+     * @param rowIds receives the matching rows in ascending order, must be able to hold at least getNumRows() elements
+     * @return the number of matching rows written to rowIds
+     */
+    public int select(int colIndex, Symbol symbol, String value, int[] rowIds) {
+
+        ColumnVector columnVector = columnVectors.get(colIndex);
+        HashIndex hashIndex = hashIndexes.get(colIndex);
+
+        BPlusTree bPlusTree = bPlusTrees.get(colIndex);
+
+        if (symbol == Symbol.EQUAL && hashIndex != null) {
+            int numMatchingRows = hashIndex.probe(columnVector, value, rowIds);
+            if (numMatchingRows != -1) {
+                return numMatchingRows;
+            }
+        }
+
+        if (bPlusTree != null) {
+            int numMatchingRows = bPlusTree.search(columnVector, symbol, value, rowIds);
+            if (numMatchingRows != -1) {
+                // the tree hands rows back in key order, on a clustered column that's already row order
+                if (! isAscending(rowIds, numMatchingRows)) {
+                    Arrays.sort(rowIds, 0, numMatchingRows);
+                }
+                return numMatchingRows;
+            }
+        }
+
+        return columnVector.select(symbol, value, rowIds);
+    }
+
+    // statistics ------------------------------------------------------------------------------------------------------
+
+    /**
+     * Gathers the statistics of every column if they haven't been since the data last changed.
+     * @return the statistics of each column, in the same order as the columns
+     */
+    public List<ColumnStatistics> getStatistics() {
+
+        if (statistics == null) {
+
+            List<ColumnStatistics> gatheredStatistics = new ArrayList<>();
+
+            for (ColumnVector columnVector : columnVectors) {
+                gatheredStatistics.add(ColumnStatistics.gather(columnVector, numRows));
+            }
+
+            statistics = gatheredStatistics;
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Gathers the statistics of every column again, even if the data hasn't changed since they last were.
+     * @return the statistics of each column, in the same order as the columns
+     */
+    public List<ColumnStatistics> analyze() {
+        statistics = null;
+        return getStatistics();
+    }
+
+    /**
+     * @return whether the statistics of each column are already known, meaning they won't have to be gathered
+     */
+    public boolean hasStatistics() {
+        return statistics != null;
+    }
+
+    /**
+     * Uses statistics gathered earlier (say, loaded from a file) instead of gathering them again. They're ignored
+     * if they can't describe this data.
+     * @param statistics are the statistics of each column, in the same order as the columns
+     */
+    public void setStatistics(List<ColumnStatistics> statistics) {
+
+        boolean matchesData = statistics.size() == columnVectors.size();
+
+        for (int i = 0; matchesData && i < statistics.size(); i++) {
+            matchesData = statistics.get(i).getNumRows() == numRows &&
+                    statistics.get(i).getDataType() == columnVectors.get(i).getDataType();
+        }
+
+        if (matchesData) {
+            this.statistics = statistics;
+        }
+    }
+
+    // creating new table data -----------------------------------------------------------------------------------------
+
+    /**
+     * Creates new table data containing only the rows supplied, in the order supplied.
+     * @param rowIds are the rows to keep, may contain duplicates
+     * @param count is the number of row ids to use
+     * @return new table data containing only the rows supplied
+     */
+    public TableData gather(int[] rowIds, int count) {
+
+        List<ColumnVector> gatheredColumnVectors = new ArrayList<>();
+
+        for (ColumnVector columnVector : columnVectors) {
+            gatheredColumnVectors.add(columnVector.gather(rowIds, count));
+        }
+
+        return new TableData(new ArrayList<>(paddingAmountList), gatheredColumnVectors, count);
+    }
+
+    /**
+     * Creates new table data containing only the columns supplied, in the order supplied.
+     * @param colIndexes are the columns to keep, may contain duplicates
+     * @return new table data containing only the columns supplied
+     */
+    public TableData project(List<Integer> colIndexes) {
+
+        List<Integer> projectedPaddingAmountList = new ArrayList<>();
+        List<ColumnVector> projectedColumnVectors = new ArrayList<>();
+
+        for (int colIndex : colIndexes) {
+            if (colIndex < paddingAmountList.size()) {
+                projectedPaddingAmountList.add(paddingAmountList.get(colIndex));
+            }
+            projectedColumnVectors.add(columnVectors.get(colIndex).copy());
+        }
+
+        return new TableData(projectedPaddingAmountList, projectedColumnVectors, numRows);
+    }
+
+    /**
+     * Creates new table data by gluing rows of the first table data to rows of the second side by side.
+     * Row i of the result is firstRowIds[i] of the first table data followed by secondRowIds[i] of the second.
+     * @return the combined table data
+     */
+    public static TableData combine(TableData first, int[] firstRowIds, TableData second, int[] secondRowIds,
+                                    int count) {
+
+        TableData combined = first.gather(firstRowIds, count);
+        TableData gatheredSecond = second.gather(secondRowIds, count);
+
+        combined.paddingAmountList.addAll(gatheredSecond.paddingAmountList);
+        combined.columnVectors.addAll(gatheredSecond.columnVectors);
+
+        return combined;
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * Called before anything changes the column vectors or indexes. If they're shared with a snapshot that
+     * hasn't been released, this table data takes its own copy of them so the snapshot is left as it was.
+     */
+    private void copyIfShared() {
+
+        if (numSharing == null) {
+            return;
+        }
+
+        // everything it was shared with has been released
+        if (numSharing.get() <= 1) {
+            numSharing = null;
+            return;
+        }
+
+        List<ColumnVector> copiedColumnVectors = new ArrayList<>();
+        for (ColumnVector columnVector : columnVectors) {
+            copiedColumnVectors.add(columnVector.copy());
+        }
+
+        Map<Integer, HashIndex> copiedHashIndexes = new HashMap<>();
+        hashIndexes.forEach((col, hashIndex) ->
+                copiedHashIndexes.put(col, new HashIndex(hashIndex, copiedColumnVectors.get(col))));
+
+        Map<Integer, BPlusTree> copiedBPlusTrees = new HashMap<>();
+        bPlusTrees.forEach((col, bPlusTree) ->
+                copiedBPlusTrees.put(col, new BPlusTree(bPlusTree, copiedColumnVectors.get(col))));
+
+        columnVectors = copiedColumnVectors;
+        hashIndexes = copiedHashIndexes;
+        bPlusTrees = copiedBPlusTrees;
+        numSharing.decrementAndGet();
+        numSharing = null;
+    }
+
+    /**
+     * Called whenever rows move around, each index is rebuilt the next time it's probed.
+     */
+    private void invalidateIndexes() {
+        hashIndexes.values().forEach(HashIndex::invalidate);
+        bPlusTrees.values().forEach(BPlusTree::invalidate);
+    }
+
+    /**
+     * @return the indexes supplied without the one on the column removed, indexes to its right move over by one
+     */
+    private static <T> Map<Integer, T> removeColumnFrom(Map<Integer, T> indexes, int index) {
+
+        Map<Integer, T> remainingIndexes = new HashMap<>();
+
+        indexes.forEach((col, columnIndex) -> {
+            if (col != index) {
+                remainingIndexes.put(col > index ? col - 1 : col, columnIndex);
+            }
+        });
+
+        return remainingIndexes;
+    }
+
+    /**
+     * Orders two rows by the clustered column, nulls last.
+     */
+    private static int compareClustered(ColumnVector columnVector, int first, int second) {
+
+        boolean isFirstNull = columnVector.isNull(first);
+        boolean isSecondNull = columnVector.isNull(second);
+
+        if (isFirstNull || isSecondNull) {
+            return Boolean.compare(isFirstNull, isSecondNull);
+        }
+
+        double firstKey = columnVector.getOrderedKey(first);
+        double secondKey = columnVector.getOrderedKey(second);
+
+        return firstKey < secondKey ? -1 : (firstKey > secondKey ? 1 : 0);
+    }
+
+    /**
+     * @return whether every row is in order by the clustered column
+     */
+    private boolean isClustered() {
+
+        for (int rows = 1; rows < numRows; rows++) {
+            if (compareClustered(columnVectors.get(clusteredColumn), rows - 1, rows) > 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return whether the row is in order with the rows on either side of it by the clustered column
+     */
+    private boolean isInOrder(int row) {
+
+        ColumnVector columnVector = columnVectors.get(clusteredColumn);
+
+        if (! columnVector.hasOrderedKeys()) {
+            return true;
+        }
+
+        return (row == 0 || compareClustered(columnVector, row - 1, row) <= 0) &&
+                (row == numRows - 1 || compareClustered(columnVector, row, row + 1) <= 0);
+    }
+
+    /**
+     * Finds where a row with the value supplied belongs in the clustered column, after any rows with an equal value.
+     * @param value is the row's value in the clustered column
+     * @return the location to add the row at
+     */
+    private int getClusteredLocation(String value) {
+
+        ColumnVector columnVector = columnVectors.get(clusteredColumn);
+
+        if (! columnVector.hasOrderedKeys() || ! columnVector.accepts(value)) {
+            return numRows;
+        }
+
+        double key = columnVector.toOrderedKey(value);
+
+        if (Double.isNaN(key)) {
+            return numRows;
+        }
+
+        // rows are in order with the nulls at the bottom, so binary search for the first row greater than the key
+        int low = 0, high = numRows;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (! columnVector.isNull(middle) && ! (columnVector.getOrderedKey(middle) > key)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * @return whether the first count row ids are in ascending order
+     */
+    private static boolean isAscending(int[] rowIds, int count) {
+
+        for (int i = 1; i < count; i++) {
+            if (rowIds[i - 1] > rowIds[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Makes sure the column can store the value supplied, falling back to characters if it can't.
+     * @return the vector of the column
+     */
+    private ColumnVector accept(int col, String value) {
+
+        ColumnVector columnVector = columnVectors.get(col);
+
+        if (! columnVector.accepts(value)) {
+            columnVector = CharVector.of(columnVector);
+            columnVectors.set(col, columnVector);
+        }
+
+        return columnVector;
     }
 
     /**
@@ -205,11 +976,11 @@ public class TableData {
         }
 
         // check each cell within the table for equality
-        for(int rows = 0; rows < tableData.size(); rows++) {
-            for(int cols = 0; cols < tableData.get(rows).size(); cols++) {
+        for(int rows = 0; rows < numRows; rows++) {
+            for(int cols = 0; cols < getNumCols(); cols++) {
 
-                String otherCell = otherTableData.tableData.get(rows).get(cols);
-                String thisCell  = this.tableData.get(rows).get(cols);
+                String otherCell = otherTableData.getCellAt(rows, cols);
+                String thisCell  = this.getCellAt(rows, cols);
 
                 if(! otherCell.equals(thisCell)) {
                     System.out.println("Table Data not equal");
@@ -228,25 +999,34 @@ public class TableData {
      */
     @Override
     public String toString() {
+        return toString(paddingAmountList);
+    }
+
+    /**
+     * @param paddingAmountList is the amount to pad each column by
+     * @return a string representation of the data stored within the table
+     */
+    public String toString(List<Integer> paddingAmountList) {
 
         StringBuilder print = new StringBuilder();
 
-        for(int rows = 0; rows < tableData.size(); rows++) {
+        for(int rows = 0; rows < numRows; rows++) {
 
-            for(int cols = 0; cols < tableData.get(rows).size(); cols++) {
+            for(int cols = 0; cols < columnVectors.size(); cols++) {
 
                 // space formatting
-                int colSize = tableData.get(rows).get(cols).length();
+                String cell = getCellAt(rows, cols);
+                int colSize = cell.length();
                 int maxColSize = paddingAmountList.get(cols);
                 int spaceOffset = Math.abs(colSize - maxColSize);
 
-                StringBuilder spaces = new StringBuilder();
+                print.append(cell);
 
                 for(int i = 0; i < spaceOffset; i++) {
-                    spaces.append(" ");
+                    print.append(" ");
                 }
 
-                print.append(tableData.get(rows).get(cols)).append(spaces).append(" ");
+                print.append(" ");
             }
 
             print.append("\n");
@@ -259,4 +1039,77 @@ public class TableData {
 
         return print.toString();
     }
+
+    // row views -------------------------------------------------------------------------------------------------------
+
+    /**
+     * Rows of the table data viewed as a list. Setting or removing a row hands back a copy of what
+     * was there, so swapping rows through this list works as expected.
+     */
+    private class RowList extends AbstractList<List<String>> {
+
+        @Override
+        public List<String> get(int index) {
+            if (index < 0 || index >= numRows) {
+                throw new IndexOutOfBoundsException("Row: " + index + ", Number of rows: " + numRows);
+            }
+            return new Row(index);
+        }
+
+        @Override
+        public int size() {
+            return numRows;
+        }
+
+        @Override
+        public List<String> set(int index, List<String> row) {
+            List<String> previousRow = new ArrayList<>(get(index));
+            List<String> newRow = new ArrayList<>(row);
+            for (int cols = 0; cols < newRow.size(); cols++) {
+                updateCellAt(index, cols, newRow.get(cols));
+            }
+            return previousRow;
+        }
+
+        @Override
+        public void add(int index, List<String> row) {
+            addRowAt(index, new ArrayList<>(row));
+        }
+
+        @Override
+        public List<String> remove(int index) {
+            List<String> previousRow = new ArrayList<>(get(index));
+            deleteRowAt(index);
+            return previousRow;
+        }
+    }
+
+    /**
+     * A single row of the table data, reads and writes go straight to the column vectors.
+     */
+    private class Row extends AbstractList<String> {
+
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(int col) {
+            return getCellAt(row, col);
+        }
+
+        @Override
+        public int size() {
+            return columnVectors.size();
+        }
+
+        @Override
+        public String set(int col, String cell) {
+            String previousCell = getCellAt(row, col);
+            updateCellAt(row, col, cell);
+            return previousCell;
+        }
+    }
 }
@@ -82,8 +82,17 @@ public final class RuleGraphTypes {
         queryRuleGraph.addRule("\"",           false, 63);
         queryRuleGraph.addRule("AND",          false, 64);
         queryRuleGraph.addRule(";",            false, 65);
-
-        queryRuleGraph.setChildren(0,  1, 2, 3, 4, 5, 6, 7);
+        queryRuleGraph.addRule("ORDER",        false, 66);
+        queryRuleGraph.addRule("BY",           false, 67);
+        queryRuleGraph.addRule("ColumnName",   true,  68);
+        queryRuleGraph.addRule("ASC",          false, 69);
+        queryRuleGraph.addRule("DESC",         false, 70);
+        queryRuleGraph.addRule(",",            false, 71);
+        queryRuleGraph.addRule("LIMIT",        false, 72);
+        queryRuleGraph.addRule("NumericValue", true,  73);
+        queryRuleGraph.addRule("DISTINCT",     false, 74);
+
+        queryRuleGraph.setChildren(0,  1, 2, 3, 4, 5, 6, 7, 74);
         queryRuleGraph.setChildren(1,  12);
         queryRuleGraph.setChildren(2,  11, 12);
         queryRuleGraph.setChildren(3,  8);
@@ -96,9 +105,9 @@ public final class RuleGraphTypes {
         queryRuleGraph.setChildren(10, 11, 12);
         queryRuleGraph.setChildren(11, 2, 3, 4, 5, 6, 7);
         queryRuleGraph.setChildren(12, 13);
-        queryRuleGraph.setChildren(13, 14, 16, 28, 41, 65);
+        queryRuleGraph.setChildren(13, 14, 16, 28, 41, 66, 72, 65);
         queryRuleGraph.setChildren(14, 15);
-        queryRuleGraph.setChildren(15, 14, 28, 41, 65);
+        queryRuleGraph.setChildren(15, 14, 28, 41, 66, 72, 65);
         queryRuleGraph.setChildren(16, 17);
         queryRuleGraph.setChildren(17, 18);
         queryRuleGraph.setChildren(18, 19);
@@ -110,7 +119,7 @@ public final class RuleGraphTypes {
         queryRuleGraph.setChildren(24, 27);
         queryRuleGraph.setChildren(25, 27);
         queryRuleGraph.setChildren(26, 27);
-        queryRuleGraph.setChildren(27, 16, 28, 41, 65);
+        queryRuleGraph.setChildren(27, 16, 28, 41, 66, 72, 65);
         queryRuleGraph.setChildren(28, 29);
         queryRuleGraph.setChildren(29, 30, 31, 32, 33, 34, 35);
         queryRuleGraph.setChildren(30, 36, 37);
@@ -119,14 +128,14 @@ public final class RuleGraphTypes {
         queryRuleGraph.setChildren(33, 36, 37);
         queryRuleGraph.setChildren(34, 36, 37);
         queryRuleGraph.setChildren(35, 36, 37);
-        queryRuleGraph.setChildren(36, 40, 41, 65);
+        queryRuleGraph.setChildren(36, 40, 41, 66, 72, 65);
         queryRuleGraph.setChildren(37, 38);
         queryRuleGraph.setChildren(38, 39);
-        queryRuleGraph.setChildren(39, 40, 41, 65);
+        queryRuleGraph.setChildren(39, 40, 41, 66, 72, 65);
         queryRuleGraph.setChildren(40, 29);
         queryRuleGraph.setChildren(41, 42);
         queryRuleGraph.setChildren(42, 43);
-        queryRuleGraph.setChildren(43, 44, 45, 65);
+        queryRuleGraph.setChildren(43, 44, 45, 66, 72, 65);
         queryRuleGraph.setChildren(44, 43);
         queryRuleGraph.setChildren(45, 46, 47, 48, 49, 50);
         queryRuleGraph.setChildren(46, 51);
@@ -143,12 +152,21 @@ public final class RuleGraphTypes {
         queryRuleGraph.setChildren(57, 60, 61);
         queryRuleGraph.setChildren(58, 60, 61);
         queryRuleGraph.setChildren(59, 60, 61);
-        queryRuleGraph.setChildren(60, 64, 65);
+        queryRuleGraph.setChildren(60, 64, 66, 72, 65);
         queryRuleGraph.setChildren(61, 62);
         queryRuleGraph.setChildren(62, 63);
-        queryRuleGraph.setChildren(63, 64, 65);
+        queryRuleGraph.setChildren(63, 64, 66, 72, 65);
         queryRuleGraph.setChildren(64, 46, 47, 48, 49, 50);
         queryRuleGraph.setChildren(65);
+        queryRuleGraph.setChildren(66, 67);
+        queryRuleGraph.setChildren(67, 68);
+        queryRuleGraph.setChildren(68, 69, 70, 71, 72, 65);
+        queryRuleGraph.setChildren(69, 71, 72, 65);
+        queryRuleGraph.setChildren(70, 71, 72, 65);
+        queryRuleGraph.setChildren(71, 68);
+        queryRuleGraph.setChildren(72, 73);
+        queryRuleGraph.setChildren(73, 65);
+        queryRuleGraph.setChildren(74, 1, 2, 3, 4, 5, 6, 7);
 
         return queryRuleGraph;
     }
@@ -571,4 +589,21 @@ public final class RuleGraphTypes {
 
         return removeFileStructureRuleGraph;
     }
+
+    public static RuleGraph getAnalyzeRuleGraph() {
+
+        RuleGraph analyzeRuleGraph = new RuleGraph();
+
+        analyzeRuleGraph.addRule("ANALYZE",   false, 0);
+        analyzeRuleGraph.addRule("TableName", true,  1);
+        analyzeRuleGraph.addRule(",",         false, 2);
+        analyzeRuleGraph.addRule(";",         false, 3);
+
+        analyzeRuleGraph.setChildren(0, 1);
+        analyzeRuleGraph.setChildren(1, 2, 3);
+        analyzeRuleGraph.setChildren(2, 1);
+        analyzeRuleGraph.setChildren(3);
+
+        return analyzeRuleGraph;
+    }
 }
\ No newline at end of file
@@ -8,7 +8,7 @@ public enum InputType {
 
     QUERY(0), CREATE_TABLE(1), DROP_TABLE(2), ALTER_TABLE(3), INSERT(4), DELETE(5),
     UPDATE(6), GRANT(7), REVOKE(8), BUILD_FILE_STRUCTURE(9), REMOVE_FILE_STRUCTURE(10),
-    UNKNOWN(-1);
+    ANALYZE(11), UNKNOWN(-1);
 
     private final int index;
 
@@ -2,9 +2,10 @@ package enums;
 
 public enum Keyword {
 
-    SELECT, MIN, MAX, AVG, COUNT, SUM, FROM, JOIN, USING, WHERE, AND, OR,
-    GROUP, BY, HAVING, CREATE, TABLE, NUMBER, CHAR, DATE, DROP, INSERT, INTO, VALUES, DELETE, UPDATE,
-    SET, GRANT, ALTER, INDEX, REFERENCES, ALL, PRIVILEGES, TO, REVOKE, ON;
+    SELECT, DISTINCT, MIN, MAX, AVG, COUNT, SUM, FROM, JOIN, USING, WHERE, AND, OR,
+    GROUP, BY, HAVING, ORDER, ASC, DESC, LIMIT,
+    CREATE, TABLE, NUMBER, CHAR, DATE, DROP, INSERT, INTO, VALUES, DELETE, UPDATE,
+    SET, GRANT, ALTER, INDEX, REFERENCES, ALL, PRIVILEGES, TO, REVOKE, ON, ANALYZE;
 
     /**
      * Basically takes and returns a string in uppercase if it's a keyword, else, just returns the String.
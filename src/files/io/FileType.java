@@ -16,7 +16,9 @@ public final class FileType {
     public enum CurrentData {
 
         CURRENT_USERS(Paths.get("users", "Users.txt")),
-        CURRENT_TABLES(Paths.get("tables", "Tables.txt"));
+        CURRENT_TABLES(Paths.get("tables", "Tables.txt")),
+        CURRENT_STATISTICS(Paths.get("tables", "Statistics.txt")),
+        CURRENT_WRITE_AHEAD_LOG(Paths.get("WriteAheadLog.log"));
 
         private final Path path;
 
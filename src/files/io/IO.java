@@ -4,9 +4,15 @@ import javafx.scene.image.Image;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.Scanner;
 
 /**
@@ -50,7 +56,7 @@ public final class IO {
         try {
 
             File file = path.toFile();
-            Scanner scanner = new Scanner(file);
+            Scanner scanner = new Scanner(file, StandardCharsets.UTF_8.name());
 
             while(scanner.hasNext()) {
                 data.append(scanner.nextLine()).append("\n");
@@ -78,19 +84,79 @@ public final class IO {
         write(data, currentTableDataFileType.getPath().resolve(tableName + ".txt"));
     }
 
+    /**
+     * Writes the data to the temporary file of the current data file without moving it into place, see
+     * WriteAheadLog.checkpoint().
+     * @return the current data file, or null if the data couldn't be written
+     */
+    public static Path stageCurrentData(String data, FileType.CurrentData currentDataFileType) {
+        return stage(data, currentDataFileType.getPath());
+    }
+
+    /**
+     * Writes the data to the temporary file of the table data file without moving it into place, see
+     * WriteAheadLog.checkpoint().
+     * @return the table data file, or null if the data couldn't be written
+     */
+    public static Path stageCurrentTableData(String data, FileType.CurrentTableData currentTableDataFileType,
+                                             String tableName) {
+        return stage(data, currentTableDataFileType.getPath().resolve(tableName + ".txt"));
+    }
+
+    /**
+     * Writes the data to a temporary file next to the one supplied and then moves it into place, so the file
+     * holds either all of its old data or all of its new data even if the application goes down part way through.
+     */
     private static void write(String data, Path path) {
+        if (stage(data, path) != null) {
+            try {
+                moveIntoPlace(getTemporaryPath(path), path);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
 
-        try {
+    private static Path stage(String data, Path path) {
 
-            File file = path.toFile();
-            FileWriter fileWriter = new FileWriter(file);
+        try (FileChannel fileChannel = FileChannel.open(getTemporaryPath(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
 
-            fileWriter.write(data);
-            fileWriter.flush();
-            fileWriter.close();
+            ByteBuffer bytes = ByteBuffer.wrap(data.getBytes(StandardCharsets.UTF_8));
+
+            while (bytes.hasRemaining()) {
+                fileChannel.write(bytes);
+            }
+
+            fileChannel.force(false);
 
         } catch (IOException e) {
             e.printStackTrace();
+            return null;
+        }
+
+        return path;
+    }
+
+    /**
+     * @param path is the file that will be replaced
+     * @return where the new contents of the file are written before being moved into place
+     */
+    public static Path getTemporaryPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    /**
+     * Replaces a file with a temporary file in a single step where the file system allows it.
+     * @param temporaryPath is the temporary file holding the new contents
+     * @param path is the file to replace
+     * @throws IOException if the file couldn't be replaced, it's left as it was
+     */
+    static void moveIntoPlace(Path temporaryPath, Path path) throws IOException {
+        try {
+            Files.move(temporaryPath, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporaryPath, path, StandardCopyOption.REPLACE_EXISTING);
         }
     }
-}
\ No newline at end of file
+}
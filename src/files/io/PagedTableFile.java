@@ -0,0 +1,327 @@
+package files.io;
+
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.CharVector;
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.DateVector;
+import datastructures.relation.table.component.NumberVector;
+import datastructures.relation.table.component.TableData;
+import utilities.QueryCost;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads and writes table data in a binary, page based format. Table data text files have to be sliced into
+ * columns and converted value by value, these files are memory mapped and each column is copied straight
+ * into its typed vector instead. Layout of a file, every section starts on a page boundary:
+ * Header:   magic, version, page size, number of rows, number of columns,
+ *           then for each column: data type, first page, number of bytes
+ * NUMBER:   a double for each row, then the number of rows whose text can't be reproduced from their double,
+ *           followed by (row, length, UTF-8 bytes) for each of them
+ * DATE:     an int (epoch day) for each row
+ * CHAR:     dictionary size, (length, UTF-8 bytes) for each dictionary entry, then an int code for each row
+ * Pages are a multiple of the block size used for cost estimation. The text files are still the ones that get
+ * read when a paged file doesn't exist or is older than its text file.
+ */
+public final class PagedTableFile {
+
+    public static final int PAGE_SIZE = 32 * QueryCost.BLOCK_SIZE;
+    public static final String FILE_EXTENSION = ".tbl";
+
+    private static final int MAGIC = 0x4D505442; // "MPTB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 5 * Integer.BYTES;
+    private static final int COLUMN_ENTRY_SIZE = 1 + 2 * Integer.BYTES;
+
+    // can't instantiate me!
+    private PagedTableFile() {}
+
+    /**
+     * Converts the current and original table data text files into paged files.
+     */
+    public static void main(String[] args) {
+        convertTableDataFiles(Serializer.unSerializeTables(IO.readCurrentData(FileType.CurrentData.CURRENT_TABLES),
+                true), FileType.CurrentTableData.CURRENT_TABLE_DATA.getPath());
+        convertTableDataFiles(Serializer.unSerializeTables(IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES),
+                false), FileType.OriginalTableData.ORIGINAL_TABLE_DATA.getPath());
+    }
+
+    /**
+     * Writes out a paged file next to the text file of each table supplied.
+     * @param tables are the tables to convert, their data is assumed to be loaded already
+     * @param tableDataDirectory is the directory holding the table data files
+     */
+    public static void convertTableDataFiles(List<Table> tables, Path tableDataDirectory) {
+        for (Table table : tables) {
+            write(table.getTableData(), getPath(tableDataDirectory, table.getTableName()));
+        }
+    }
+
+    /**
+     * @param tableDataDirectory is the directory holding the table data files
+     * @param tableName is the name of the table
+     * @return where the paged file of the table is located
+     */
+    public static Path getPath(Path tableDataDirectory, String tableName) {
+        return tableDataDirectory.resolve(tableName + FILE_EXTENSION);
+    }
+
+    /**
+     * A paged file can only be used if it was written after its text file, otherwise the text file
+     * has changes that the paged file doesn't know about.
+     * @param pagedFile is the paged file
+     * @param textFile is the text file holding the same table data
+     * @return whether the paged file can be read instead of the text file
+     */
+    public static boolean isUpToDate(Path pagedFile, Path textFile) {
+
+        if (! Files.exists(pagedFile)) {
+            return false;
+        }
+
+        try {
+            return ! Files.exists(textFile) ||
+                    Files.getLastModifiedTime(pagedFile).compareTo(Files.getLastModifiedTime(textFile)) >= 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // read operations -------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads the table data stored in a paged file.
+     * @param path is the location of the paged file
+     * @param paddingAmountList is used for formatting the table data
+     * @return the table data stored in the file
+     * @throws IOException if the file can't be read or isn't a paged table file
+     */
+    public static TableData read(Path path, List<Integer> paddingAmountList) throws IOException {
+
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+
+            MappedByteBuffer buffer = fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size());
+
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a paged table file: " + path);
+            }
+
+            int pageSize = buffer.getInt();
+            int numRows = buffer.getInt();
+            int numCols = buffer.getInt();
+
+            List<ColumnVector> columnVectors = new ArrayList<>();
+
+            for (int cols = 0; cols < numCols; cols++) {
+
+                DataType dataType = DataType.values()[buffer.get()];
+                int firstPage = buffer.getInt();
+                int numBytes = buffer.getInt();
+
+                // each column gets its own view of the mapped file so the header can keep being read
+                ByteBuffer column = buffer.duplicate();
+                column.position(firstPage * pageSize);
+                column.limit(firstPage * pageSize + numBytes);
+
+                columnVectors.add(readColumn(column.slice(), dataType, numRows));
+            }
+
+            return new TableData(paddingAmountList, columnVectors, numRows);
+        }
+    }
+
+    private static ColumnVector readColumn(ByteBuffer column, DataType dataType, int numRows) {
+        switch (dataType) {
+            case NUMBER: {
+                double[] values = new double[numRows];
+                column.asDoubleBuffer().get(values);
+                column.position(numRows * Double.BYTES);
+                int numTexts = column.getInt();
+                String[] text = numTexts > 0 ? new String[numRows] : null;
+                for (int i = 0; i < numTexts; i++) {
+                    int row = column.getInt();
+                    text[row] = readString(column);
+                }
+                return NumberVector.wrap(values, text, numRows);
+            }
+            case DATE: {
+                int[] epochDays = new int[numRows];
+                column.asIntBuffer().get(epochDays);
+                return DateVector.wrap(epochDays, numRows);
+            }
+            case CHAR:
+            default: {
+                int dictionarySize = column.getInt();
+                CharVector.Dictionary dictionary = new CharVector.Dictionary();
+                for (int i = 0; i < dictionarySize; i++) {
+                    dictionary.encode(readString(column));
+                }
+                int[] codes = new int[numRows];
+                column.slice().asIntBuffer().get(codes);
+                return CharVector.wrap(codes, dictionary, numRows);
+            }
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // write operations ------------------------------------------------------------------------------------------------
+
+    /**
+     * Writes the table data out to a paged file, replacing the file if it exists. Written to a temporary file
+     * first and moved into place, so a crash never leaves a paged file half written.
+     * @param tableData is the table data to write
+     * @param path is where to write the file
+     */
+    public static void write(TableData tableData, Path path) {
+        if (stage(tableData, path) != null) {
+            try {
+                IO.moveIntoPlace(IO.getTemporaryPath(path), path);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes the table data out to the temporary file of the paged file without moving it into place, see
+     * WriteAheadLog.checkpoint().
+     * @param tableData is the table data to write
+     * @param path is the paged file
+     * @return the paged file, or null if the table data couldn't be written
+     */
+    public static Path stage(TableData tableData, Path path) {
+
+        try {
+
+            int numRows = tableData.getNumRows();
+            List<ColumnVector> columnVectors = tableData.getColumnVectors();
+
+            List<byte[]> columns = new ArrayList<>();
+
+            for (ColumnVector columnVector : columnVectors) {
+                columns.add(writeColumn(columnVector, numRows));
+            }
+
+            // lay each column out on its own pages after the header pages
+            int headerSize = HEADER_SIZE + columnVectors.size() * COLUMN_ENTRY_SIZE;
+            int nextPage = numPages(headerSize);
+            ByteBuffer header = ByteBuffer.allocate(nextPage * PAGE_SIZE);
+
+            header.putInt(MAGIC).putInt(VERSION).putInt(PAGE_SIZE).putInt(numRows).putInt(columnVectors.size());
+
+            for (int cols = 0; cols < columnVectors.size(); cols++) {
+                header.put((byte) columnVectors.get(cols).getDataType().ordinal());
+                header.putInt(nextPage);
+                header.putInt(columns.get(cols).length);
+                nextPage += numPages(columns.get(cols).length);
+            }
+
+            header.clear();
+
+            try (FileChannel fileChannel = FileChannel.open(IO.getTemporaryPath(path), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                fileChannel.write(header);
+
+                for (byte[] column : columns) {
+                    ByteBuffer page = ByteBuffer.allocate(numPages(column.length) * PAGE_SIZE);
+                    page.put(column);
+                    page.clear();
+                    fileChannel.write(page);
+                }
+
+                fileChannel.force(false);
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        return path;
+    }
+
+    private static byte[] writeColumn(ColumnVector columnVector, int numRows) throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream column = new DataOutputStream(bytes);
+
+        switch (columnVector.getDataType()) {
+            case NUMBER: {
+                NumberVector numberVector = (NumberVector) columnVector;
+                List<Integer> rowsWithText = new ArrayList<>();
+                for (int row = 0; row < numRows; row++) {
+                    column.writeDouble(numberVector.getDouble(row));
+                    if (numberVector.getText(row) != null) {
+                        rowsWithText.add(row);
+                    }
+                }
+                column.writeInt(rowsWithText.size());
+                for (int row : rowsWithText) {
+                    column.writeInt(row);
+                    writeString(column, numberVector.getText(row));
+                }
+                break;
+            }
+            case DATE: {
+                DateVector dateVector = (DateVector) columnVector;
+                for (int row = 0; row < numRows; row++) {
+                    column.writeInt(dateVector.getEpochDay(row));
+                }
+                break;
+            }
+            case CHAR:
+            default: {
+                // dictionaries are shared between copies and only grow, so only write the values still in use
+                CharVector.Dictionary dictionary = new CharVector.Dictionary();
+                int[] codes = new int[numRows];
+                for (int row = 0; row < numRows; row++) {
+                    codes[row] = dictionary.encode(columnVector.get(row));
+                }
+                column.writeInt(dictionary.size());
+                for (int code = 0; code < dictionary.size(); code++) {
+                    writeString(column, dictionary.getValue(code));
+                }
+                for (int code : codes) {
+                    column.writeInt(code);
+                }
+                break;
+            }
+        }
+
+        column.flush();
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream column, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        column.writeInt(bytes.length);
+        column.write(bytes);
+    }
+
+    /**
+     * @return the number of pages needed to hold the number of bytes supplied, at least 1
+     */
+    private static int numPages(int numBytes) {
+        return Math.max(1, (numBytes + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+}
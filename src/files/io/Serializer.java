@@ -1,7 +1,9 @@
 package files.io;
 
+import datastructures.misc.EquiDepthHistogram;
 import datastructures.relation.table.Table;
 import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
 import datastructures.relation.table.component.FileStructure;
 import datastructures.relation.table.component.TableData;
 import datastructures.user.component.TablePrivileges;
@@ -9,7 +11,14 @@ import datastructures.user.User;
 import datastructures.relation.table.component.DataType;
 import datastructures.user.component.Privilege;
 
+import utilities.Utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Responsible for serializing and un-serializing all data so that it can be used in
@@ -272,6 +281,19 @@ public class Serializer {
      * @return list of tables within the system
      */
     public static List<Table> unSerializeTables(String serializedTables, boolean unSerializingCurrentTableData) {
+        return unSerializeTables(serializedTables, unSerializingCurrentTableData, false);
+    }
+
+    /**
+     * Formats raw table file data into something usable like unSerializeTables() above, but can leave each
+     * table's data to be read the first time it's needed instead.
+     * @param serializedTables is data about the tables in the system
+     * @param unSerializingCurrentTableData is whether we will be un-serializing the current table data
+     * @param loadTableDataLazily is whether to hold off on reading each table's data until it's needed
+     * @return list of tables within the system
+     */
+    public static List<Table> unSerializeTables(String serializedTables, boolean unSerializingCurrentTableData,
+                                                boolean loadTableDataLazily) {
 
         String[] lines = serializedTables.split("\n");
 
@@ -356,11 +378,16 @@ public class Serializer {
                             table.setClusteredWith(data);
                             break;
                         case "TableDataFilename":
-                            String serializedTableData = unSerializingCurrentTableData
-                                    ? IO.readCurrentTableData(FileType.CurrentTableData.CURRENT_TABLE_DATA, data)
-                                    : IO.readOriginalTableData(FileType.OriginalTableData.ORIGINAL_TABLE_DATA, data);
-                            TableData tableData = unSerializeTableData(serializedTableData, table);
-                            table.setTableData(tableData);
+                            if(loadTableDataLazily) {
+                                // the columns as they are now, they may be altered before the data is read
+                                Table tableLayout = new Table(table.getTableName(), table.getColumns().stream()
+                                        .map(Column::new)
+                                        .collect(Collectors.toList()), new ArrayList<>(), new HashMap<>());
+                                table.setTableDataLoader(() -> readTableData(data, tableLayout,
+                                        unSerializingCurrentTableData));
+                            } else {
+                                table.setTableData(readTableData(data, table, unSerializingCurrentTableData));
+                            }
                             break;
                         default: {
                             System.out.println("In Utilities.createUserData()");
@@ -471,21 +498,77 @@ public class Serializer {
      * @return the table data
      */
     public static TableData unSerializeTableData(String serializedTableData, Table table) {
+        return TableDataParser.parse(new BufferedReader(new StringReader(serializedTableData)), table,
+                getPaddingAmountList(table));
+    }
 
-        // string.split() will be very useful here
-        String[] tableRows = serializedTableData.split("\n");
+    /**
+     * Reads a table data file a batch of lines at a time, so the contents of the file are never held in memory
+     * next to the table data they're parsed into.
+     * @param tableDataFile is the table data file of a single table
+     * @param table contains information about what the table data means
+     * @return the table data
+     */
+    public static TableData unSerializeTableData(Path tableDataFile, Table table) {
+        return TableDataParser.parse(tableDataFile, table, getPaddingAmountList(table));
+    }
 
-        int numRows = tableRows.length;
-        int numCols = table.getNumCols();
+    /**
+     * Reads a table's data, from its paged file if it's up to date and from its text file otherwise.
+     * @param tableDataFilename is the name of the table's text file
+     * @param table contains information about what the table data means
+     * @param unSerializingCurrentTableData is whether to read the current table data or the original
+     * @return the table data
+     */
+    private static TableData readTableData(String tableDataFilename, Table table,
+                                           boolean unSerializingCurrentTableData) {
+
+        Path tableDataDirectory = unSerializingCurrentTableData
+                ? FileType.CurrentTableData.CURRENT_TABLE_DATA.getPath()
+                : FileType.OriginalTableData.ORIGINAL_TABLE_DATA.getPath();
+        TableData tableData = unSerializePagedTableData(tableDataDirectory, tableDataFilename, table);
 
-        // used for determining where to split each column in a row
-        List<Integer> columnSizes = new ArrayList<>();
-        List<Integer> columnNameLengths = new ArrayList<>();
+        if(tableData == null) {
+            tableData = unSerializeTableData(tableDataDirectory.resolve(tableDataFilename), table);
+        }
+
+        return tableData;
+    }
+
+    /**
+     * Reads a table's data from its paged file, as long as the paged file exists and isn't older than the
+     * text file it was written from.
+     * @param tableDataDirectory is the directory holding the table's data files
+     * @param tableDataFilename is the name of the table's text file
+     * @param table contains information about what the table data means
+     * @return the table data, or null if the text file has to be read instead
+     */
+    public static TableData unSerializePagedTableData(Path tableDataDirectory, String tableDataFilename, Table table) {
+
+        Path pagedFile = PagedTableFile.getPath(tableDataDirectory, table.getTableName());
+
+        if(! PagedTableFile.isUpToDate(pagedFile, tableDataDirectory.resolve(tableDataFilename))) {
+            return null;
+        }
+
+        try {
+            TableData tableData = PagedTableFile.read(pagedFile, getPaddingAmountList(table));
+            return tableData.getNumRows() == 0 || tableData.getColumnVectors().size() == table.getNumCols()
+                    ? tableData : null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param table is the table whose data is being formatted
+     * @return how much space each column of the table takes up when its data is written out
+     */
+    private static List<Integer> getPaddingAmountList(Table table) {
 
-        // used for formatting purposes
         List<Integer> paddingAmountList = new ArrayList<>();
 
-        // figuring out padding amounts and adding to the list of column sizes
         for(Column column : table.getColumns()) {
 
             int columnNameLength = column.getColumnName().length();
@@ -501,56 +584,9 @@ public class Serializer {
             } else {
                 paddingAmountList.add(column.size());
             }
-
-            // add these guys for later
-            columnSizes.add(column.size());
-            columnNameLengths.add(columnNameLength);
-        }
-
-        // skip the column names and dashed lines
-        String[][] splitTableData = new String[numRows - 2][numCols];
-
-        for(int rows = 2; rows < numRows; rows++) {
-
-            int beginIndex = 0;
-
-            for(int cols = 0; cols < numCols; cols++) {
-
-                int columnNameLength = table.getColumns().get(cols).getColumnName().length();
-                int columnSize = Math.max(columnNameLength, columnSizes.get(cols));
-                int endIndex = columnSize + beginIndex;
-
-                String formattedColumn = "";
-
-                // last column can be too small for endIndex
-                if(cols == numCols - 1) {
-                    formattedColumn = tableRows[rows].substring(beginIndex);
-                }else {
-                    formattedColumn = tableRows[rows].substring(beginIndex, endIndex).trim();
-                }
-
-                splitTableData[rows - 2][cols] = formattedColumn;
-
-                // + 1 to account for that extra space between columns,
-                beginIndex = endIndex + 1;
-            }
         }
 
-        // convert 2D array to 2D array list for Table Data
-        List<List<String>> tableData = new ArrayList<>();
-
-        for(int rows = 0; rows < numRows - 2; rows++) {
-
-            List<String> columns = new ArrayList<>();
-
-            for(int cols = 0; cols < numCols; cols++) {
-                columns.add(splitTableData[rows][cols].trim());
-            }
-
-            tableData.add(columns);
-        }
-
-        return new TableData(paddingAmountList, tableData);
+        return paddingAmountList;
     }
 
     /**
@@ -610,4 +646,135 @@ public class Serializer {
 
         return toSerialize.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Formats raw statistics file data into something usable, handing each table the statistics of its columns.
+     * Statistics of tables that no longer exist, or that no longer describe their table's data, are ignored, in
+     * which case they'll be gathered again the first time they're needed.
+     * @param serializedStatistics is data about the statistics of the tables in the system
+     * @param tables are the tables of the system
+     */
+    public static void unSerializeStatistics(String serializedStatistics, List<Table> tables) {
+
+        String[] lines = serializedStatistics.split("\n");
+
+        Table table = null;
+        List<ColumnStatistics> statisticsList = new ArrayList<>();
+        String[] statisticsTokens = null;
+        EquiDepthHistogram histogram = null;
+
+        for(int i = 0; i < lines.length; i++) {
+
+            String currentLine = lines[i].trim();
+
+            // lines that contain "DONE" determine when to add and instantiate variables
+            switch(currentLine) {
+                case "":
+                    break;
+                case "TABLE STATISTICS DONE":
+                    if(table != null) {
+                        table.restoreStatistics(statisticsList);
+                    }
+                    table = null;
+                    statisticsList = new ArrayList<>();
+                    break;
+                case "COLUMN STATISTICS DONE":
+                    if(statisticsTokens != null) {
+                        statisticsList.add(new ColumnStatistics(DataType.convertToDataType(statisticsTokens[1]),
+                                Double.parseDouble(statisticsTokens[2]), Double.parseDouble(statisticsTokens[3]),
+                                Double.parseDouble(statisticsTokens[4]), Double.parseDouble(statisticsTokens[5]),
+                                Double.parseDouble(statisticsTokens[6]), histogram));
+                    }
+                    statisticsTokens = null;
+                    histogram = null;
+                    break;
+                // lines that don't contain "DONE" have some form of data to add
+                default: {
+
+                    String[] tokens = currentLine.split(": ");
+                    String type = tokens[0];
+                    String data = tokens[1];
+
+                    switch(type) {
+                        case "Table":
+                            table = Utilities.getReferencedTable(data, tables);
+                            break;
+                        case "ColumnStatistics":
+                            statisticsTokens = data.split("\\s+");
+                            break;
+                        case "Histogram":
+                            if(data.equalsIgnoreCase("EMPTY")) {
+                                break;
+                            }
+                            histogram = new EquiDepthHistogram(Arrays.stream(data.split("\\s+"))
+                                    .mapToDouble(Double::parseDouble)
+                                    .toArray());
+                            break;
+                        default: {
+                            System.out.println("In Serializer.unSerializeStatistics()");
+                            System.out.println("Unknown Input @ Line " + i + ": " + currentLine);
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Takes the statistics of every table that has them and converts them into a string which will eventually
+     * be written out to disk, so they don't have to be gathered again when the application is re-launched.
+     * Tables whose statistics were never gathered are left out.
+     * @param tables a list of tables within the system
+     * @return string representation of the statistics of the tables to write out
+     */
+    public static String serializeStatistics(List<Table> tables) {
+
+        StringBuilder toSerialize = new StringBuilder();
+
+        for(Table table : tables) {
+
+            // tables whose data was never read keep the statistics they were saved with
+            List<ColumnStatistics> statisticsList = table.getStatisticsToSave();
+
+            if(statisticsList == null) {
+                continue;
+            }
+
+            toSerialize.append("Table: ").append(table.getTableName()).append("\n");
+
+            for(int cols = 0; cols < statisticsList.size(); cols++) {
+
+                ColumnStatistics statistics = statisticsList.get(cols);
+                String columnName = cols < table.getNumCols()
+                        ? table.getColumns().get(cols).getColumnName()
+                        : "Column" + cols;
+
+                toSerialize.append("\t").append("ColumnStatistics: ").append(columnName).append(" ")
+                        .append(statistics.getDataType()).append(" ").append(statistics.getNumRows()).append(" ")
+                        .append(statistics.getNumNulls()).append(" ").append(statistics.getNumDistinct()).append(" ")
+                        .append(statistics.getMin()).append(" ").append(statistics.getMax()).append("\n");
+
+                EquiDepthHistogram histogram = statistics.getHistogram();
+                toSerialize.append("\t\t").append("Histogram: ");
+
+                if(histogram != null) {
+                    for(double bound : histogram.getBounds()) {
+                        toSerialize.append(bound).append(" ");
+                    }
+                    // remove " "
+                    toSerialize.deleteCharAt(toSerialize.length() - 1);
+                } else {
+                    toSerialize.append("EMPTY");
+                }
+
+                toSerialize.append("\n");
+                toSerialize.append("\t").append("COLUMN STATISTICS DONE").append("\n");
+            }
+
+            toSerialize.append("TABLE STATISTICS DONE").append("\n");
+        }
+
+        return toSerialize.toString();
+    }
+}
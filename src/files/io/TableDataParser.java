@@ -0,0 +1,229 @@
+package files.io;
+
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.CharVector;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Parses table data text files a batch of lines at a time. Each line is sliced into its fixed width columns and
+ * every value goes straight into the typed vector of its column, so the file is never held as one big string,
+ * split into lines, or copied into rows first. Once a file has more than one batch, as many batches as there are
+ * threads are parsed at the same time, each into vectors of its own, and appended to the table data in the order
+ * they were read. Only those batches are held on top of the table data itself.
+ */
+public final class TableDataParser {
+
+    // big enough that handing a batch to a thread is cheap next to parsing it
+    static final int BATCH_SIZE = 16384;
+
+    // column names and dashed lines
+    private static final int NUM_HEADER_LINES = 2;
+
+    // can't instantiate me!
+    private TableDataParser() {}
+
+    /**
+     * @param path is the table data file to parse
+     * @param table contains information about what the table data means
+     * @param paddingAmountList is used for formatting
+     * @return the table data, or empty table data if the file couldn't be read
+     */
+    public static TableData parse(Path path, Table table, List<Integer> paddingAmountList) {
+
+        // a reader rather than Files.newBufferedReader(), which gives up on the whole file at the first character
+        // that isn't UTF-8 instead of replacing it
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(path),
+                StandardCharsets.UTF_8))) {
+            return parse(reader, table, paddingAmountList);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return parse(new BufferedReader(new StringReader("")), table, paddingAmountList);
+        }
+    }
+
+    /**
+     * @param reader is where the contents of a table data file are read from
+     * @param table contains information about what the table data means
+     * @param paddingAmountList is used for formatting
+     * @return the table data
+     */
+    public static TableData parse(BufferedReader reader, Table table, List<Integer> paddingAmountList) {
+
+        // used for determining where to split each column in a row
+        int[] columnSizes = table.getColumns().stream()
+                .mapToInt(column -> Math.max(column.getColumnName().length(), column.size()))
+                .toArray();
+
+        // each column is stored in a typed vector, so values are converted once here and never again
+        List<DataType> dataTypes = table.getColumns().stream()
+                .map(Column::getDataType)
+                .collect(Collectors.toList());
+
+        List<ColumnVector> columnVectors = null;
+        int numRows = 0;
+
+        try {
+
+            for (int lines = 0; lines < NUM_HEADER_LINES; lines++) {
+                reader.readLine();
+            }
+
+            int maxBatches = Math.max(ForkJoinPool.getCommonPoolParallelism(), 1);
+            List<String[]> batches = readBatches(reader, maxBatches);
+
+            while (! batches.isEmpty()) {
+
+                List<List<ColumnVector>> parts = batches.size() == 1
+                        ? Collections.singletonList(parseBatch(batches.get(0), columnSizes, dataTypes))
+                        : batches.parallelStream()
+                                .map(batch -> parseBatch(batch, columnSizes, dataTypes))
+                                .collect(Collectors.toList());
+
+                for (List<ColumnVector> part : parts) {
+                    numRows += part.isEmpty() ? 0 : part.get(0).size();
+                    columnVectors = columnVectors == null ? part : append(columnVectors, part);
+                }
+
+                batches = readBatches(reader, maxBatches);
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        if (columnVectors == null) {
+            columnVectors = new ArrayList<>();
+            for (DataType dataType : dataTypes) {
+                columnVectors.add(ColumnVector.create(dataType));
+            }
+            numRows = 0;
+        }
+
+        return new TableData(paddingAmountList, columnVectors, numRows);
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    /**
+     * Reads up to maxBatches batches of lines, blank lines are skipped.
+     * @return the batches read, empty once the end of the file is reached
+     */
+    private static List<String[]> readBatches(BufferedReader reader, int maxBatches) throws IOException {
+
+        List<String[]> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        String line;
+
+        while (batches.size() < maxBatches && (line = reader.readLine()) != null) {
+
+            if (isBlank(line)) {
+                continue;
+            }
+
+            batch.add(line);
+
+            if (batch.size() == BATCH_SIZE) {
+                batches.add(batch.toArray(new String[0]));
+                batch.clear();
+            }
+        }
+
+        if (! batch.isEmpty()) {
+            batches.add(batch.toArray(new String[0]));
+        }
+
+        return batches;
+    }
+
+    /**
+     * Slices each line of the batch into its columns.
+     * @return a vector for each column holding the values of the batch
+     */
+    private static List<ColumnVector> parseBatch(String[] batch, int[] columnSizes, List<DataType> dataTypes) {
+
+        int numCols = columnSizes.length;
+        List<ColumnVector> columnVectors = new ArrayList<>();
+
+        for (DataType dataType : dataTypes) {
+            columnVectors.add(ColumnVector.create(dataType));
+        }
+
+        for (String line : batch) {
+
+            int beginIndex = 0;
+
+            for (int cols = 0; cols < numCols; cols++) {
+
+                int endIndex = columnSizes[cols] + beginIndex;
+
+                // last column can be too small for endIndex
+                String value = cols == numCols - 1
+                        ? line.substring(beginIndex).trim()
+                        : line.substring(beginIndex, endIndex).trim();
+
+                ColumnVector columnVector = columnVectors.get(cols);
+
+                // falls back to characters if the column can't store the value
+                if (! columnVector.accepts(value)) {
+                    columnVector = CharVector.of(columnVector);
+                    columnVectors.set(cols, columnVector);
+                }
+
+                columnVector.add(value);
+
+                // + 1 to account for that extra space between columns,
+                beginIndex = endIndex + 1;
+            }
+        }
+
+        return columnVectors;
+    }
+
+    /**
+     * Appends the vectors of a batch to the vectors of the batches before it. If a column fell back to
+     * characters in either, the column is stored as characters from then on.
+     * @return the vectors holding both
+     */
+    private static List<ColumnVector> append(List<ColumnVector> columnVectors, List<ColumnVector> part) {
+
+        for (int cols = 0; cols < columnVectors.size(); cols++) {
+
+            ColumnVector columnVector = columnVectors.get(cols);
+
+            if (columnVector.getDataType() != part.get(cols).getDataType()
+                    && columnVector.getDataType() != DataType.CHAR) {
+                columnVector = CharVector.of(columnVector);
+                columnVectors.set(cols, columnVector);
+            }
+
+            columnVector.append(part.get(cols));
+        }
+
+        return columnVectors;
+    }
+
+    private static boolean isBlank(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            if (! Character.isWhitespace(line.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,408 @@
+package files.io;
+
+import enums.InputType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * An append only log of the DML statements executed since the data files were last written out (a checkpoint).
+ * Each statement is appended and forced to disk before it changes anything, so a statement that was executed
+ * survives a crash and saving only costs as much as the statement instead of the whole database. After a crash,
+ * the statements logged are executed again on top of the data files to get back to where things were.
+ * Layout of a record: payload length, CRC32 of the payload, then the payload which is the input type followed by
+ * the number of tokens and each token of the filtered input. A record cut short or with the wrong checksum was
+ * being written when the application went down, it and anything after it is thrown away. A statement that
+ * couldn't be put on disk is never executed.
+ * A checkpoint writes every data file next to where it belongs first, then appends a checkpoint record listing
+ * them, and only then moves them into place and empties the log. The checkpoint record is what decides whether a
+ * checkpoint happened: without it the data files are left as they were and the statements are executed again,
+ * with it the data files are moved into place and the statements before it are never executed again, no matter
+ * where the application went down. The record is only dropped once every file it lists is in place.
+ */
+public final class WriteAheadLog {
+
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+    // past this many bytes, the data files should be written out so the log doesn't take forever to replay
+    public static final long CHECKPOINT_SIZE = 1024 * 1024;
+
+    private final Path path;
+    private FileChannel channel;
+
+    /**
+     * @param path is where the log is located, created when the first statement is appended
+     */
+    public WriteAheadLog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return where the log is located
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the number of bytes logged since the last checkpoint
+     */
+    public long size() {
+        try {
+            return Files.exists(path) ? Files.size(path) : 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * @return whether enough has been logged that the data files should be written out
+     */
+    public boolean needsCheckpoint() {
+        return size() > CHECKPOINT_SIZE;
+    }
+
+    /**
+     * Reads every complete record of the log in the order they were appended. A torn or corrupted record at the
+     * end is cut off the log so later records are appended right after the last good one.
+     * @return the statements logged since the last checkpoint, along with any checkpoint record not finished yet
+     */
+    public List<Record> read() {
+
+        List<Record> records = new ArrayList<>();
+
+        if (! Files.exists(path)) {
+            return records;
+        }
+
+        try {
+
+            ByteBuffer log = ByteBuffer.wrap(Files.readAllBytes(path));
+
+            while (log.remaining() >= RECORD_HEADER_SIZE) {
+
+                int length = log.getInt();
+                int checksum = log.getInt();
+
+                if (length < 0 || length > log.remaining()) {
+                    break;
+                }
+
+                byte[] payload = new byte[length];
+                log.get(payload);
+
+                if (checksum != getChecksum(payload)) {
+                    break;
+                }
+
+                records.add(Record.decode(payload));
+            }
+
+            long validSize = records.stream().mapToLong(Record::getSize).sum();
+
+            if (validSize < Files.size(path)) {
+                getChannel().truncate(validSize);
+            }
+
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        return records;
+    }
+
+    /**
+     * @return the statements logged since the last checkpoint record, the ones the data files don't hold yet
+     */
+    public List<Record> readSinceCheckpoint() {
+        List<Record> records = read();
+        return new ArrayList<>(records.subList(getLastCheckpoint(records) + 1, records.size()));
+    }
+
+    /**
+     * Appends a statement to the log, returning once it's on disk.
+     * @param inputType is the type of the statement
+     * @param filteredInput is the filtered input of the statement
+     * @throws UncheckedIOException if the statement couldn't be put on disk, the log is left as it was
+     */
+    public void append(InputType inputType, String[] filteredInput) {
+        append(new Record(inputType, filteredInput));
+    }
+
+    /**
+     * Empties the log. Only called once the data files hold every statement logged.
+     * @throws UncheckedIOException if the log couldn't be emptied
+     */
+    public void checkpoint() {
+        checkpoint(new ArrayList<>());
+    }
+
+    /**
+     * Moves the data files supplied into place and empties the log, see commitCheckpoint() and finishCheckpoint().
+     * @param stagedFiles are the data files holding every statement logged, each written to its temporary file
+     * @throws UncheckedIOException if the checkpoint record couldn't be put on disk or a data file couldn't be
+     *                              moved into place
+     */
+    public void checkpoint(List<Path> stagedFiles) {
+        commitCheckpoint(stagedFiles);
+        finishCheckpoint();
+    }
+
+    /**
+     * Appends a checkpoint record, returning once it's on disk. From then on the data files supplied replace the
+     * statements logged before them, even if the application goes down before they're moved into place.
+     * @param stagedFiles are the data files holding every statement logged, each written to its temporary file
+     * @throws UncheckedIOException if the checkpoint record couldn't be put on disk, the log is left as it was
+     */
+    public void commitCheckpoint(List<Path> stagedFiles) {
+        append(Record.checkpoint(stagedFiles));
+    }
+
+    /**
+     * Moves the data files listed by the last checkpoint record that aren't in place yet into place, then drops
+     * that record and everything logged before it. Called at startup before any data file is read, in case the
+     * application went down part way through a checkpoint, and before a checkpoint writes any data file.
+     * @return whether the log held a checkpoint record
+     * @throws UncheckedIOException if a data file couldn't be moved into place, the log is left as it was so
+     *                              moving it is tried again next time
+     */
+    public boolean finishCheckpoint() {
+
+        List<Record> records = read();
+        int lastCheckpoint = getLastCheckpoint(records);
+
+        if (lastCheckpoint < 0) {
+            return false;
+        }
+
+        try {
+
+            for (String stagedFile : records.get(lastCheckpoint).getFilteredInput()) {
+                Path temporaryPath = IO.getTemporaryPath(Paths.get(stagedFile));
+                if (Files.exists(temporaryPath)) {
+                    IO.moveIntoPlace(temporaryPath, Paths.get(stagedFile));
+                }
+            }
+
+            // statements logged after the checkpoint are still needed, they're executed again on the moved files
+            keepOnly(records.subList(lastCheckpoint + 1, records.size()));
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Lets go of the log file, it's opened again if anything else is appended.
+     */
+    public void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // helper methods --------------------------------------------------------------------------------------------------
+
+    private void append(Record toAppend) {
+
+        long validSize = -1;
+
+        try {
+
+            ByteBuffer record = toByteBuffer(toAppend);
+
+            FileChannel channel = getChannel();
+            validSize = channel.size();
+            channel.position(validSize);
+
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+
+            channel.force(false);
+
+        } catch (IOException e) {
+
+            // a record only partly on disk would hide every record appended after it
+            if (validSize >= 0) {
+                try {
+                    channel.truncate(validSize);
+                } catch (IOException truncateException) {
+                    e.addSuppressed(truncateException);
+                }
+            }
+
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the log with the records supplied. Written to a temporary file first and moved into place, so
+     * the log holds either all of its old records or just the new ones if the application goes down part way.
+     */
+    private void keepOnly(List<Record> records) throws IOException {
+
+        if (records.isEmpty()) {
+            getChannel().truncate(0);
+            channel.force(true);
+            return;
+        }
+
+        close();
+        Path temporaryPath = IO.getTemporaryPath(path);
+
+        try (FileChannel fileChannel = FileChannel.open(temporaryPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            for (Record toKeep : records) {
+                ByteBuffer record = toByteBuffer(toKeep);
+                while (record.hasRemaining()) {
+                    fileChannel.write(record);
+                }
+            }
+
+            fileChannel.force(false);
+        }
+
+        IO.moveIntoPlace(temporaryPath, path);
+    }
+
+    private static ByteBuffer toByteBuffer(Record toWrite) throws IOException {
+
+        byte[] payload = toWrite.encode();
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length);
+        record.putInt(getChecksum(payload));
+        record.put(payload);
+        record.flip();
+
+        return record;
+    }
+
+    /**
+     * @return the index of the last checkpoint record, -1 if there isn't one
+     */
+    private static int getLastCheckpoint(List<Record> records) {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            if (records.get(i).isCheckpoint()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private FileChannel getChannel() throws IOException {
+
+        if (channel == null) {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        }
+
+        return channel;
+    }
+
+    private static int getChecksum(byte[] payload) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(payload);
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * A statement that was logged, or a checkpoint whose tokens are the data files it wrote.
+     */
+    public static final class Record {
+
+        private static final String CHECKPOINT = "CHECKPOINT";
+
+        private final InputType inputType;      // null for a checkpoint
+        private final String[] filteredInput;
+        private int size;   // bytes taken up in the log, header included
+
+        public Record(InputType inputType, String[] filteredInput) {
+            this.inputType = inputType;
+            this.filteredInput = filteredInput;
+        }
+
+        private static Record checkpoint(List<Path> stagedFiles) {
+            return new Record(null, stagedFiles.stream()
+                    .map(Path::toString)
+                    .toArray(String[]::new));
+        }
+
+        public InputType getInputType() {
+            return inputType;
+        }
+
+        public boolean isCheckpoint() {
+            return inputType == null;
+        }
+
+        public String[] getFilteredInput() {
+            return filteredInput;
+        }
+
+        private int getSize() {
+            return size;
+        }
+
+        private byte[] encode() throws IOException {
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream payload = new DataOutputStream(bytes);
+
+            payload.writeUTF(inputType != null ? inputType.name() : CHECKPOINT);
+            payload.writeInt(filteredInput.length);
+
+            for (String token : filteredInput) {
+                payload.writeUTF(token);
+            }
+
+            payload.flush();
+            size = RECORD_HEADER_SIZE + bytes.size();
+
+            return bytes.toByteArray();
+        }
+
+        private static Record decode(byte[] bytes) throws IOException {
+
+            DataInputStream payload = new DataInputStream(new ByteArrayInputStream(bytes));
+
+            String inputTypeName = payload.readUTF();
+            InputType inputType = inputTypeName.equals(CHECKPOINT) ? null : InputType.valueOf(inputTypeName);
+            String[] filteredInput = new String[payload.readInt()];
+
+            for (int i = 0; i < filteredInput.length; i++) {
+                filteredInput[i] = payload.readUTF();
+            }
+
+            Record record = new Record(inputType, filteredInput);
+            record.size = RECORD_HEADER_SIZE + bytes.length;
+
+            return record;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package gui;
+
+import files.io.FileType;
+import files.io.IO;
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.stage.Stage;
+import javafx.stage.StageStyle;
+
+/**
+ * Shown while the system catalog is loading, fills up as the data of each table is read.
+ */
+public class SplashScreen extends Stage {
+
+    private final ProgressBar progressBar;
+    private final Text progressText;
+
+    public SplashScreen() {
+
+        Text loadingText = new Text("Loading Tables");
+        loadingText.setFont(new Font(50.0));
+        loadingText.setFill(Color.WHITE);
+        loadingText.setSmooth(true);
+
+        progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(500);
+
+        progressText = new Text();
+        progressText.setFont(new Font(25.0));
+        progressText.setFill(Color.WHITE);
+        progressText.setSmooth(true);
+
+        BorderPane container = new BorderPane();
+        container.setTop(loadingText);
+        BorderPane.setAlignment(loadingText, Pos.CENTER);
+        BorderPane.setMargin(loadingText, new Insets(30, 30, 15, 30));
+        container.setCenter(progressBar);
+        container.setBottom(progressText);
+        BorderPane.setAlignment(progressText, Pos.CENTER);
+        BorderPane.setMargin(progressText, new Insets(15, 30, 30, 30));
+        container.setPrefSize(640, 240);
+        container.setStyle("-fx-background-color: rgb(30, 30, 30);");
+
+        Scene scene = new Scene(container);
+        scene.setFill(Color.rgb(30, 30, 30));
+
+        this.initStyle(StageStyle.UNDECORATED);
+        this.getIcons().add(IO.readAsset(FileType.Asset.PI_IMAGE));
+        this.setTitle("Loading Tables");
+        this.setScene(scene);
+        this.show();
+    }
+
+    /**
+     * Can be called from any thread, the splash screen is updated on the JavaFX application thread.
+     * @param numTablesRead is the number of tables whose data has been read so far
+     * @param numTables is the number of tables
+     */
+    public void setProgress(int numTablesRead, int numTables) {
+        Platform.runLater(() -> {
+            progressBar.setProgress(numTables > 0 ? (double) numTablesRead / numTables : 1.0);
+            progressText.setText(numTablesRead + " of " + numTables + " tables read");
+        });
+    }
+}
@@ -209,6 +209,114 @@ public class OptionsScreen extends Screen {
         vBoxContainer.getChildren().add(joinOptimizationToggleArea);
 
 
+        // degree of parallelism area
+        BorderPane degreeOfParallelismArea = new BorderPane();
+        degreeOfParallelismArea.setBackground(new Background(
+                new BackgroundFill(Color.rgb(50, 50, 50), new CornerRadii(5), Insets.EMPTY)));
+        degreeOfParallelismArea.setEffect(
+                new DropShadow(BlurType.TWO_PASS_BOX, Color.BLACK, 10, 0.2, 3, 3));
+
+        Text degreeOfParallelismText = new Text("Degree of Parallelism:");
+        degreeOfParallelismText.setFont(new Font(50));
+        degreeOfParallelismText.setFill(Color.WHITE);
+
+        BorderPane.setAlignment(degreeOfParallelismText, Pos.CENTER);
+        BorderPane.setMargin(degreeOfParallelismText, new Insets(0, 0, 0, 15));
+        degreeOfParallelismArea.setLeft(degreeOfParallelismText);
+
+        BorderPane degreeOfParallelismAndInfoButtons = new BorderPane();
+
+        // each click doubles the number of threads until there are as many as processors, then goes back to 1
+        Button degreeOfParallelismButton = new Button(String.valueOf(systemCatalog.getDegreeOfParallelism()));
+        degreeOfParallelismButton.setFont(new Font(40));
+        degreeOfParallelismButton.setTextFill(Color.WHITE);
+        degreeOfParallelismButton.setPrefSize(120, 80);
+        degreeOfParallelismButton.getStylesheets().addAll(IO.readCSS(FileType.CSS.BUTTON_STYLE));
+        degreeOfParallelismButton.setOnAction(e -> {
+            int numProcessors = Runtime.getRuntime().availableProcessors();
+            int degreeOfParallelism = systemCatalog.getDegreeOfParallelism();
+            degreeOfParallelism = degreeOfParallelism >= numProcessors ? 1 :
+                    Math.min(degreeOfParallelism * 2, numProcessors);
+            systemCatalog.setDegreeOfParallelism(degreeOfParallelism);
+            degreeOfParallelismButton.setText(String.valueOf(degreeOfParallelism));
+        });
+
+        BorderPane.setMargin(degreeOfParallelismButton, new Insets(10, 5, 10, 10));
+        degreeOfParallelismAndInfoButtons.setLeft(degreeOfParallelismButton);
+
+        Button degreeOfParallelismInfoButton = new Button();
+        questionImage = IO.readAsset(FileType.Asset.QUESTION_MARK);
+        questionImageView = new ImageView(questionImage);
+        questionImageView.setFitWidth(100);
+        questionImageView.setFitHeight(80);
+        questionImageView.setSmooth(true);
+        degreeOfParallelismInfoButton.setGraphic(questionImageView);
+        degreeOfParallelismInfoButton.getStylesheets().addAll(IO.readCSS(FileType.CSS.BUTTON_STYLE));
+        degreeOfParallelismInfoButton.setOnAction(e -> new OptionsScreenPopUps.DegreeOfParallelismWindow());
+
+        degreeOfParallelismAndInfoButtons.setRight(degreeOfParallelismInfoButton);
+        BorderPane.setMargin(degreeOfParallelismInfoButton, new Insets(10, 10, 10, 5));
+
+        degreeOfParallelismArea.setRight(degreeOfParallelismAndInfoButtons);
+
+        VBox.setMargin(degreeOfParallelismArea, new Insets(0, 30, 0, 30));
+        vBoxContainer.getChildren().add(degreeOfParallelismArea);
+
+
+        // deterministic order toggle area
+        BorderPane deterministicOrderToggleArea = new BorderPane();
+        deterministicOrderToggleArea.setBackground(new Background(
+                new BackgroundFill(Color.rgb(50, 50, 50), new CornerRadii(5), Insets.EMPTY)));
+        deterministicOrderToggleArea.setEffect(
+                new DropShadow(BlurType.TWO_PASS_BOX, Color.BLACK, 10, 0.2, 3, 3));
+
+        Text deterministicOrderToggleText = new Text("Toggle Deterministic Order:");
+        deterministicOrderToggleText.setFont(new Font(50));
+        deterministicOrderToggleText.setFill(Color.WHITE);
+
+        BorderPane.setAlignment(deterministicOrderToggleText, Pos.CENTER);
+        BorderPane.setMargin(deterministicOrderToggleText, new Insets(0, 0, 0, 15));
+        deterministicOrderToggleArea.setLeft(deterministicOrderToggleText);
+
+        BorderPane deterministicOrderToggleAndInfoButtons = new BorderPane();
+
+        Button deterministicOrderToggleButton = new Button("On");
+        deterministicOrderToggleButton.setFont(new Font(40));
+        deterministicOrderToggleButton.setTextFill(Color.WHITE);
+        deterministicOrderToggleButton.setPrefSize(120, 80);
+        deterministicOrderToggleButton.getStylesheets().addAll(IO.readCSS(FileType.CSS.BUTTON_STYLE));
+        deterministicOrderToggleButton.setOnAction(e -> {
+            if (systemCatalog.isDeterministicOrderOn()) {
+                systemCatalog.turnOffDeterministicOrder();
+                deterministicOrderToggleButton.setText("Off");
+            } else {
+                systemCatalog.turnOnDeterministicOrder();
+                deterministicOrderToggleButton.setText("On");
+            }
+        });
+
+        BorderPane.setMargin(deterministicOrderToggleButton, new Insets(10, 5, 10, 10));
+        deterministicOrderToggleAndInfoButtons.setLeft(deterministicOrderToggleButton);
+
+        Button deterministicOrderToggleInfoButton = new Button();
+        questionImage = IO.readAsset(FileType.Asset.QUESTION_MARK);
+        questionImageView = new ImageView(questionImage);
+        questionImageView.setFitWidth(100);
+        questionImageView.setFitHeight(80);
+        questionImageView.setSmooth(true);
+        deterministicOrderToggleInfoButton.setGraphic(questionImageView);
+        deterministicOrderToggleInfoButton.getStylesheets().addAll(IO.readCSS(FileType.CSS.BUTTON_STYLE));
+        deterministicOrderToggleInfoButton.setOnAction(e -> new OptionsScreenPopUps.DeterministicOrderToggleWindow());
+
+        deterministicOrderToggleAndInfoButtons.setRight(deterministicOrderToggleInfoButton);
+        BorderPane.setMargin(deterministicOrderToggleInfoButton, new Insets(10, 10, 10, 5));
+
+        deterministicOrderToggleArea.setRight(deterministicOrderToggleAndInfoButtons);
+
+        VBox.setMargin(deterministicOrderToggleArea, new Insets(0, 30, 0, 30));
+        vBoxContainer.getChildren().add(deterministicOrderToggleArea);
+
+
         // save content
         BorderPane saveDataArea = new BorderPane();
         saveDataArea.setBackground(new Background(
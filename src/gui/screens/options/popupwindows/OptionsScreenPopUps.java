@@ -101,6 +101,28 @@ public class OptionsScreenPopUps {
         }
     }
 
+    public static class DegreeOfParallelismWindow extends Window {
+        public DegreeOfParallelismWindow() {
+            super(new Text("Sets the most threads a query can be worked on with.\nTables with a large number of rows " +
+                            "are split into pieces that are scanned, filtered, and aggregated at the same time, then " +
+                            "put back together. Clicking doubles the number of threads until there are as many as " +
+                            "processors, then goes back to 1, which works on every query with a single thread."),
+                    "Degree of Parallelism Info"
+            );
+        }
+    }
+
+    public static class DeterministicOrderToggleWindow extends Window {
+        public DeterministicOrderToggleWindow() {
+            super(new Text("Toggles Deterministic Order on or off.\nWhen on, the rows of a query worked on with " +
+                            "several threads come out in the same order as they would with one. When off, pieces " +
+                            "of a table are put back together in the order they finish, which can be faster but " +
+                            "the order of the rows may change from one run to the next."),
+                    "Deterministic Order Info"
+            );
+        }
+    }
+
     public static class SaveDataWindow extends Window {
         public SaveDataWindow() {
             super(new Text("Simply saves the current state of the system.\nWhen you re-launch the app, all changes " +
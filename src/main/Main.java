@@ -1,7 +1,10 @@
 package main;
 
 import gui.ScreenController;
+import gui.SplashScreen;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
 import javafx.stage.Stage;
 import systemcatalog.SystemCatalog;
 
@@ -17,11 +20,42 @@ public class Main extends Application {
     @Override
     public void start(Stage primaryStage) {
 
-        // handles all the data processing used by the application
-        SystemCatalog systemCatalog = new SystemCatalog();
+        // shows how far along loading is, the data is loaded off the JavaFX application thread so it can be drawn
+        SplashScreen splashScreen = new SplashScreen();
 
-        // handles all GUI logic like button clicks, switching between screens, launching windows, etc.
-        new ScreenController(primaryStage, systemCatalog);
+        Thread startUpThread = new Thread(() -> {
+
+            // handles all the data processing used by the application
+            SystemCatalog systemCatalog;
+
+            try {
+                systemCatalog = new SystemCatalog(splashScreen::setProgress);
+            } catch (Exception e) {
+                e.printStackTrace();
+                Platform.runLater(() -> {
+
+                    // the application closes once the error is dismissed, it's the last window open
+                    Alert alert = new Alert(Alert.AlertType.ERROR, "The database could not be loaded.\n" + e);
+                    alert.setHeaderText("Start Up Failed");
+                    alert.show();
+                    splashScreen.close();
+                });
+                return;
+            }
+
+            Platform.runLater(() -> {
+
+                // handles all GUI logic like button clicks, switching between screens, launching windows, etc.
+                new ScreenController(primaryStage, systemCatalog);
+                splashScreen.close();
+
+                // tables the first screen didn't wait on
+                systemCatalog.readRemainingTableData();
+            });
+        }, "Start Up");
+
+        startUpThread.setDaemon(true);
+        startUpThread.start();
     }
 
     public static void main(String[] args) {
@@ -9,7 +9,9 @@ import datastructures.rulegraph.types.RuleGraphTypes;
 import datastructures.querytree.QueryTree;
 import files.io.FileType;
 import files.io.IO;
+import files.io.PagedTableFile;
 import files.io.Serializer;
+import files.io.WriteAheadLog;
 import datastructures.user.User;
 import datastructures.relation.table.Table;
 import systemcatalog.components.Compiler;
@@ -20,9 +22,17 @@ import systemcatalog.components.Verifier;
 import utilities.Utilities;
 import enums.InputType;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -41,6 +51,12 @@ public class SystemCatalog {
     private final Optimizer optimizer;
     private final Compiler compiler;
 
+    // DML statements executed since the data files were last written out
+    private final WriteAheadLog writeAheadLog;
+
+    // threads reading the data of tables in the background, shut down once every table has been handed to them
+    private final ExecutorService tableDataReaders;
+
     // system data
     private List<Table> tables;
     private List<User> users;
@@ -64,17 +80,46 @@ public class SystemCatalog {
     private Quadruple<Integer, Integer, String, String> costAnalysis;
 
     public SystemCatalog() {
+        this((numTablesRead, numTables) -> {});
+    }
+
+    /**
+     * Loads the tables, users, and other data this application needs. Only the data files of the tables the
+     * write-ahead log touches are read before returning, at the same time on a bounded number of threads while the
+     * users and rule graphs are put together. The rest are read once the first screen is up, see
+     * readRemainingTableData(), or when they're first needed.
+     * @param onTableDataRead is handed the number of tables whose data has been read so far and the number of
+     *                        tables waited on, each time another table is read. Called from the threads doing the
+     *                        reading
+     * @throws UncheckedIOException if a data file written at the last checkpoint couldn't be moved into place
+     * @throws IllegalStateException if a statement in the write-ahead log couldn't be executed again
+     */
+    public SystemCatalog(BiConsumer<Integer, Integer> onTableDataRead) {
 
         // creating the system catalog components
         parser = new Parser();
         verifier = new Verifier();
         securityChecker = new SecurityChecker();
         optimizer = new Optimizer();
-        compiler = new Compiler();
+        writeAheadLog = new WriteAheadLog(FileType.CurrentData.CURRENT_WRITE_AHEAD_LOG.getPath());
+        compiler = new Compiler(writeAheadLog);
+
+        // the application may have gone down part way through a checkpoint, there's no loading the data files
+        // before they're all in place
+        writeAheadLog.finishCheckpoint();
 
-        // loading table and user data
+        // loading the tables, each table's data is only read once it's first needed
         tables = Serializer.unSerializeTables(IO.readCurrentData(FileType.CurrentData.CURRENT_TABLES),
-                true);
+                true, true);
+
+        // statistics gathered before the application was last closed, so queries can be costed right away
+        Serializer.unSerializeStatistics(IO.readCurrentData(FileType.CurrentData.CURRENT_STATISTICS), tables);
+
+        // recovering needs the data of the tables in the log, read it now while the rest is loaded below
+        tableDataReaders = createTableDataReaders(tables.size());
+        CompletableFuture<Void> tableDataRead = readTableData(getTablesToRecover(), onTableDataRead);
+
+        // loading user data
         users = Serializer.unSerializeUsers(IO.readCurrentData(FileType.CurrentData.CURRENT_USERS));
 
         // set the current user as the DBA who has all privileges on every table
@@ -94,9 +139,15 @@ public class SystemCatalog {
                 RuleGraphTypes.getGrantRuleGraph(),
                 RuleGraphTypes.getRevokeRuleGraph(),
                 RuleGraphTypes.getBuildFileStructureRuleGraph(),
-                RuleGraphTypes.getRemoveFileStructureRuleGraph()
+                RuleGraphTypes.getRemoveFileStructureRuleGraph(),
+                RuleGraphTypes.getAnalyzeRuleGraph()
         );
 
+        tableDataRead.join();
+
+        // bring the data files back up to date with any DML statements executed after they were written out
+        compiler.recover(tables, users);
+
         // setting the input type as unknown for now
         inputType = InputType.UNKNOWN;
 
@@ -113,6 +164,74 @@ public class SystemCatalog {
         costAnalysis = new Quadruple<>(0, 0, "", "");
     }
 
+    /**
+     * @param numTables is the number of tables to read
+     * @return a thread for each table to read, up to one per processor. Daemon threads, so a table still being
+     * read never keeps the application from closing
+     */
+    private static ExecutorService createTableDataReaders(int numTables) {
+
+        int numThreads = Math.max(1, Math.min(numTables, Runtime.getRuntime().availableProcessors()));
+
+        return Executors.newFixedThreadPool(numThreads, runnable -> {
+            Thread thread = new Thread(runnable, "Table Data Reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the tables named by the statements in the write-ahead log, whose data recovering reads
+     */
+    private List<Table> getTablesToRecover() {
+        return writeAheadLog.readSinceCheckpoint().stream()
+                .flatMap(record -> Arrays.stream(record.getFilteredInput()))
+                .map(token -> Utilities.getReferencedTable(token, tables))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads the data of the tables supplied, each table on whichever table data reader is free next.
+     * @param tablesToRead are the tables to read
+     * @param onTableDataRead is handed the number of tables read so far and the number of tables to read
+     * @return completes once every table has been read
+     */
+    private CompletableFuture<Void> readTableData(List<Table> tablesToRead,
+                                                  BiConsumer<Integer, Integer> onTableDataRead) {
+
+        AtomicInteger numTablesRead = new AtomicInteger();
+
+        onTableDataRead.accept(0, tablesToRead.size());
+
+        return CompletableFuture.allOf(tablesToRead.stream()
+                .map(table -> CompletableFuture.runAsync(() -> {
+                    // a table that couldn't be read is read again when it's first needed, startup goes on
+                    try {
+                        table.getTableData();
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                    onTableDataRead.accept(numTablesRead.incrementAndGet(), tablesToRead.size());
+                }, tableDataReaders))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Reads the data of every table that hasn't been read yet in the background, so it's ready by the time it's
+     * needed. Called once the first screen is up, returns right away.
+     */
+    public void readRemainingTableData() {
+
+        List<Table> tablesToRead = tables.stream()
+                .filter(table -> ! table.isTableDataLoaded())
+                .collect(Collectors.toList());
+
+        readTableData(tablesToRead, (numTablesRead, numTables) -> {});
+        tableDataReaders.shutdown();
+    }
+
     // execution -------------------------------------------------------------------------------------------------------
 
     /**
@@ -171,11 +290,21 @@ public class SystemCatalog {
             // only execute the input if the verifier is on
             if (verifier.isOn()) {
                 if (inputType == InputType.QUERY) {
-                    resultSet = compiler.executeQuery(queryTreeStates, tables);
+                    resultSet = compiler.executeQuery(queryTreeStates, filteredInput, tables);
                     executionMessage = "QUERY was successfully executed!";
                 } else {
-                    compiler.executeDML(inputType, filteredInput, tables, users);
+                    try {
+                        compiler.executeDML(inputType, filteredInput, tables, users);
+                    } catch (UncheckedIOException e) {
+                        e.printStackTrace();
+                        executionMessage = "DML statement could not be written to the write-ahead log, so it " +
+                                "was not executed.";
+                        return;
+                    }
                     executionMessage = "DML statement was successfully executed!";
+                    if (writeAheadLog.needsCheckpoint()) {
+                        checkpoint();
+                    }
                 }
             } else {
                 if (inputType == InputType.QUERY) {
@@ -346,25 +475,109 @@ public class SystemCatalog {
         return optimizer.isJoinOptimizationOn();
     }
 
+    /**
+     * Sets the most threads a query can be worked on with, large tables are split up and worked on in parallel.
+     * @param degreeOfParallelism is the most threads to use
+     */
+    public void setDegreeOfParallelism(int degreeOfParallelism) {
+        compiler.setDegreeOfParallelism(degreeOfParallelism);
+    }
+
+    public int getDegreeOfParallelism() {
+        return compiler.getDegreeOfParallelism();
+    }
+
+    /**
+     * Makes rows of a query come out in the same order no matter how many threads are used.
+     */
+    public void turnOnDeterministicOrder() {
+        compiler.turnOnDeterministicOrder();
+    }
+
+    /**
+     * Lets rows of a query worked on in parallel come out in the order they're finished with.
+     */
+    public void turnOffDeterministicOrder() {
+        compiler.turnOffDeterministicOrder();
+    }
+
+    public boolean isDeterministicOrderOn() {
+        return compiler.isDeterministicOrderOn();
+    }
+
     /**
      * Saves the current state of the database system and writes it out to disk.
      */
     public void saveChanges() {
 
-        IO.writeCurrentData(Serializer.serializeTables(tables), FileType.CurrentData.CURRENT_TABLES);
-        tables.forEach(table -> IO.writeCurrentTableData(Serializer.serializeTableData(table),
-                FileType.CurrentTableData.CURRENT_TABLE_DATA, table.getTableName()));
+        checkpoint();
 
-        // don't add the dba!
-        users.remove(0);
-        IO.writeCurrentData(Serializer.serializeUsers(users), FileType.CurrentData.CURRENT_USERS);
-
-        // re-add the DBA
+        // re-create the DBA so it has privileges on tables created since
         User DBA = User.DatabaseAdministrator(tables);
-        users.add(0, DBA);
+        users.set(0, DBA);
         currentUser = DBA;
     }
 
+    /**
+     * Writes every table and user out to disk, after which the statements in the write-ahead log are no longer
+     * needed to recover them. DML statements are durable once logged, this just keeps the log short.
+     */
+    private void checkpoint() {
+
+        // files a checkpoint that went wrong part way through couldn't move into place would be written over
+        try {
+            writeAheadLog.finishCheckpoint();
+        } catch (UncheckedIOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        // only tables whose data changed since the last checkpoint are written out, each on its own thread
+        List<Table> dirtyTables = tables.stream()
+                .filter(Table::isDirty)
+                .collect(Collectors.toList());
+
+        // every file is written next to where it belongs first, the log decides when they replace the old ones
+        List<Path> stagedFiles = dirtyTables.parallelStream()
+                .map(table -> Arrays.asList(
+                        IO.stageCurrentTableData(Serializer.serializeTableData(table),
+                                FileType.CurrentTableData.CURRENT_TABLE_DATA, table.getTableName()),
+                        // moved into place after the text file so it's never older than it
+                        PagedTableFile.stage(table.getTableData(), PagedTableFile.getPath(
+                                FileType.CurrentTableData.CURRENT_TABLE_DATA.getPath(), table.getTableName()))))
+                .flatMap(List::stream)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        stagedFiles.add(IO.stageCurrentData(Serializer.serializeTables(tables), FileType.CurrentData.CURRENT_TABLES));
+        stagedFiles.add(IO.stageCurrentData(Serializer.serializeStatistics(tables),
+                FileType.CurrentData.CURRENT_STATISTICS));
+
+        // don't add the dba!
+        stagedFiles.add(IO.stageCurrentData(Serializer.serializeUsers(users.subList(1, users.size())),
+                FileType.CurrentData.CURRENT_USERS));
+
+        // the old files and the log still hold everything, try again at the next checkpoint
+        if (stagedFiles.contains(null)) {
+            return;
+        }
+
+        try {
+            writeAheadLog.commitCheckpoint(stagedFiles);
+        } catch (UncheckedIOException e) {
+            e.printStackTrace();
+            return;
+        }
+
+        // the staged files hold the tables from here on, even if some can't be moved into place until later
+        dirtyTables.forEach(Table::markClean);
+
+        try {
+            writeAheadLog.finishCheckpoint();
+        } catch (UncheckedIOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Restores the database. This means that data such as users and tables will be set back to their default values.
      */
@@ -376,6 +589,7 @@ public class SystemCatalog {
         users = Serializer.unSerializeUsers(IO.readOriginalData(FileType.OriginalData.ORIGINAL_USERS));
 
         // write the original data out as the current data
+        tables.forEach(Table::markDirty);
         saveChanges();
 
         turnOnVerifier();
@@ -396,6 +610,8 @@ public class SystemCatalog {
         successfullyExecuted = false;
         executionMessage = "";
 
+        // the last result may be a table's own rows, the table can stop copying them before it's changed
+        resultSet.release();
         resultSet = new ResultSet();
         queryTreeStates = new ArrayList<>();
         naiveRelationalAlgebra = "";
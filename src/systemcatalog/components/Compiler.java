@@ -2,7 +2,9 @@ package systemcatalog.components;
 
 import datastructures.querytree.operator.Operator;
 import datastructures.querytree.operator.types.*;
+import datastructures.relation.resultset.Parallelism;
 import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.resultset.RowIterator;
 import datastructures.relation.table.component.Column;
 import datastructures.relation.table.component.DataType;
 import datastructures.relation.table.component.FileStructure;
@@ -17,10 +19,11 @@ import datastructures.user.User;
 import enums.InputType;
 import enums.Keyword;
 import enums.Symbol;
+import files.io.WriteAheadLog;
 import utilities.OptimizerUtilities;
 import utilities.Utilities;
 
-import java.time.LocalDate;
+import java.io.UncheckedIOException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,21 +35,140 @@ import static datastructures.querytree.QueryTree.TreeTraversal.PREORDER;
  */
 public class Compiler {
 
+    // how many threads a query may use, large tables are split into morsels that are worked on in parallel
+    private Parallelism parallelism;
+
+    // where DML statements are logged before they're executed, null if they aren't logged
+    private final WriteAheadLog writeAheadLog;
+
+    public Compiler() {
+        this(null);
+    }
+
+    /**
+     * @param writeAheadLog is where DML statements are logged before they're executed, see executeDML()
+     */
+    public Compiler(WriteAheadLog writeAheadLog) {
+        this.parallelism = new Parallelism(Runtime.getRuntime().availableProcessors(), true);
+        this.writeAheadLog = writeAheadLog;
+    }
+
+    /**
+     * Sets the most threads a query can be worked on with, 1 works on every query with a single thread.
+     * @param degreeOfParallelism is the most threads to use
+     */
+    public void setDegreeOfParallelism(int degreeOfParallelism) {
+        setParallelism(new Parallelism(degreeOfParallelism, parallelism.isDeterministic()));
+    }
+
+    public int getDegreeOfParallelism() {
+        return parallelism.getDegreeOfParallelism();
+    }
+
+    /**
+     * Rows of a query come out in the same order no matter how many threads are used.
+     */
+    public void turnOnDeterministicOrder() {
+        setParallelism(new Parallelism(parallelism.getDegreeOfParallelism(), true));
+    }
+
+    /**
+     * Rows of a query worked on in parallel come out in the order they're finished with.
+     */
+    public void turnOffDeterministicOrder() {
+        setParallelism(new Parallelism(parallelism.getDegreeOfParallelism(), false));
+    }
+
+    public boolean isDeterministicOrderOn() {
+        return parallelism.isDeterministic();
+    }
+
+    private void setParallelism(Parallelism parallelism) {
+        this.parallelism.shutdown();
+        this.parallelism = parallelism;
+    }
+
     /**
      * Executes the given query which produces a result set. Requires the query tree produced right before
      * pipelining in order to create the result set. This query tree state contains all the necessary information
      * in order to produce a result set. Each node of the query contains an operator that applies
      * a transformation to previous nodes.
+     * Operators are chained together as row iterators. Selections, projections, and joins only pass row ids
+     * of the tables along, so the values of a row are only written out once they reach the top of the query.
+     * Selections on top of each other are fused, each row is checked against all of their predicates at once.
+     * Aggregation needs all of its rows up front and is written out as well.
+     * Rows of large tables are split into morsels when written out, each morsel is scanned, filtered, and
+     * partially aggregated by its own thread, see Parallelism.
      * @param queryTreeStates are the states of the query tree after being run through the Optimizer
      * @return the result set of executing the query
      */
     public ResultSet executeQuery(List<QueryTree> queryTreeStates, List<Table> tables) {
+        List<ResultSet> scannedResultSets = new ArrayList<>();
+        ResultSet resultSet = getRowIterator(queryTreeStates, tables, scannedResultSets).materialize(parallelism);
+        return release(scannedResultSets, resultSet);
+    }
+
+    /**
+     * Executes the given query like executeQuery() above, then removes duplicate rows if DISTINCT is used, orders
+     * the rows by the columns in its ORDER BY clause, and keeps only as many as its LIMIT clause asks for. None of
+     * these change the columns returned, so they aren't part of the query tree.
+     * With an ORDER BY clause, every row has to be seen before the first ones are known, but only the rows kept
+     * are ever put in order. Without one, the rows of the query are only pulled until there are enough.
+     * @param queryTreeStates are the states of the query tree after being run through the Optimizer
+     * @param filteredInput is the filtered input of the query
+     * @param tables is a list of the system tables
+     * @return the result set of executing the query
+     */
+    public ResultSet executeQuery(List<QueryTree> queryTreeStates, String[] filteredInput, List<Table> tables) {
+        List<ResultSet> scannedResultSets = new ArrayList<>();
+        RowIterator rowIterator = getRowIterator(queryTreeStates, tables, scannedResultSets);
+        return release(scannedResultSets, executeQuery(rowIterator, filteredInput, tables));
+    }
+
+    /**
+     * Produces the rows of the query, see executeQuery() above.
+     * @param rowIterator is an iterator over the rows of the query tree
+     * @param filteredInput is the filtered input of the query
+     * @param tables is a list of the system tables
+     * @return the result set of executing the query
+     */
+    private ResultSet executeQuery(RowIterator rowIterator, String[] filteredInput, List<Table> tables) {
+
+        RuleGraph queryRuleGraph = RuleGraphTypes.getQueryRuleGraph();
+
+        List<String> limits = queryRuleGraph.getTokensAt(filteredInput, 73);
+        int limit = limits.isEmpty() ? Integer.MAX_VALUE : (int) Math.min(Double.parseDouble(limits.get(0)),
+                Integer.MAX_VALUE);
+
+        boolean isDistinct = ! queryRuleGraph.getTokensAt(filteredInput, 74).isEmpty();
+        boolean hasOrderByClause = ! queryRuleGraph.getTokensAt(filteredInput, 68).isEmpty();
+
+        if (isDistinct) {
+            rowIterator = RowIterator.scan(rowIterator.materialize(parallelism).distinct());
+        }
+
+        if (hasOrderByClause) {
+            return orderBy(rowIterator.materialize(parallelism), filteredInput, tables, limit);
+        }
+
+        return limits.isEmpty() ? rowIterator.materialize(parallelism) : rowIterator.limit(limit).materialize();
+    }
+
+    /**
+     * Chains the operators of the query together as row iterators, see executeQuery().
+     * @param queryTreeStates are the states of the query tree after being run through the Optimizer
+     * @param tables is a list of the system tables
+     * @param scannedResultSets is filled in with the result set of each table scanned
+     * @return an iterator over the rows of the query
+     */
+    private RowIterator getRowIterator(List<QueryTree> queryTreeStates, List<Table> tables,
+                                       List<ResultSet> scannedResultSets) {
 
         // get query tree before pipelining and convert it to a stack
         QueryTree queryTreeBeforePipelining = queryTreeStates.get(5);
         Deque<Operator> startingStack =
                 OptimizerUtilities.setToDeque(queryTreeBeforePipelining.getOperatorsAndLocations(PREORDER).keySet());
-        Deque<ResultSet> workingStack = new ArrayDeque<>();
+        Deque<RowIterator> workingStack = new ArrayDeque<>();
 
         while (! startingStack.isEmpty()) {
             Operator operator = startingStack.pop();
@@ -55,7 +177,8 @@ public class Compiler {
                     Relation relation = (Relation) operator;
                     String tableName = relation.getTableName();
                     ResultSet resultSet = new ResultSet(Utilities.getReferencedTable(tableName, tables));
-                    workingStack.push(resultSet);
+                    scannedResultSets.add(resultSet);
+                    workingStack.push(RowIterator.scan(resultSet));
                     break;
                 }
                 case SIMPLE_SELECTION: {
@@ -63,31 +186,38 @@ public class Compiler {
                     String columnName = simpleSelection.getColumnName();
                     String symbol = simpleSelection.getSymbol();
                     String value = simpleSelection.getValue();
-                    ResultSet resultSet = workingStack.pop().selection(columnName, symbol, value);
-                    workingStack.push(resultSet);
+                    workingStack.push(workingStack.pop().selection(columnName, symbol, value));
+                    break;
+                }
+                case COMPOUND_SELECTION: {
+                    CompoundSelection compoundSelection = (CompoundSelection) operator;
+                    List<String> columnNames = compoundSelection.getColumnNames();
+                    List<String> symbols = compoundSelection.getSymbols();
+                    List<String> values = compoundSelection.getValues();
+                    workingStack.push(workingStack.pop().selection(columnNames, symbols, values));
                     break;
                 }
-                case PROJECTION:
+                case PROJECTION: {
                     Projection projection = (Projection) operator;
                     List<String> columnNames = projection.getColumnNames();
-                    ResultSet resultSet = workingStack.pop().projection(columnNames);
-                    workingStack.push(resultSet);
+                    workingStack.push(workingStack.pop().projection(columnNames));
                     break;
+                }
                 case INNER_JOIN: {
                     InnerJoin innerJoin = (InnerJoin) operator;
                     String firstJoinColumnName = innerJoin.getFirstJoinColumnName();
                     String joinSymbolName = innerJoin.getSymbol();
                     String secondJoinColumnName = innerJoin.getSecondJoinColumnName();
-                    ResultSet firstResultSet = workingStack.pop();
-                    ResultSet secondResultSet = workingStack.pop();
-                    workingStack.push(firstResultSet.innerJoin(
-                            secondResultSet, firstJoinColumnName, joinSymbolName, secondJoinColumnName));
+                    RowIterator firstRowIterator = workingStack.pop();
+                    RowIterator secondRowIterator = workingStack.pop();
+                    workingStack.push(firstRowIterator.innerJoin(
+                            secondRowIterator, firstJoinColumnName, joinSymbolName, secondJoinColumnName));
                     break;
                 }
                 case CARTESIAN_PRODUCT: {
-                    ResultSet firstResultSet = workingStack.pop();
-                    ResultSet secondResultSet = workingStack.pop();
-                    workingStack.push(firstResultSet.cartesianProduct(secondResultSet));
+                    RowIterator firstRowIterator = workingStack.pop();
+                    RowIterator secondRowIterator = workingStack.pop();
+                    workingStack.push(firstRowIterator.cartesianProduct(secondRowIterator));
                     break;
                 }
                 case AGGREGATION: {
@@ -95,8 +225,8 @@ public class Compiler {
                     List<String> groupByColumnNames = aggregation.getGroupByColumnNames();
                     List<String> aggregationTypes = aggregation.getAggregationTypes();
                     List<String> aggregatedColumnNames = aggregation.getAggregatedColumnNames();
-                    workingStack.push(workingStack.pop().aggregate(
-                            groupByColumnNames, aggregationTypes, aggregatedColumnNames));
+                    workingStack.push(RowIterator.scan(workingStack.pop().aggregate(
+                            groupByColumnNames, aggregationTypes, aggregatedColumnNames, parallelism)));
                     break;
                 }
                 case AGGREGATE_SELECTION: {
@@ -105,8 +235,8 @@ public class Compiler {
                     List<String> aggregatedColumnNames = aggregateSelection.getColumnNames();
                     List<String> symbols = aggregateSelection.getSymbols();
                     List<String> values = aggregateSelection.getValues();
-                    workingStack.push(workingStack.pop().having(
-                            aggregationTypes, aggregatedColumnNames, symbols, values));
+                    workingStack.push(RowIterator.scan(workingStack.pop().materialize().having(
+                            aggregationTypes, aggregatedColumnNames, symbols, values)));
                     break;
                 }
             }
@@ -115,16 +245,115 @@ public class Compiler {
         return workingStack.pop();
     }
 
+    /**
+     * The result set of each table scanned shares the table's rows and is only needed while the rows of the query
+     * are produced. Letting go of them means the tables don't copy their rows the next time they're changed.
+     * A scan that is the result of the query itself is kept until the result is released.
+     * @param scannedResultSets are the result sets of the tables scanned
+     * @param resultSet is the result set of the query
+     * @return the result set of the query
+     */
+    private static ResultSet release(List<ResultSet> scannedResultSets, ResultSet resultSet) {
+
+        for (ResultSet scannedResultSet : scannedResultSets) {
+            if (scannedResultSet != resultSet) {
+                scannedResultSet.release();
+            }
+        }
+
+        return resultSet;
+    }
+
+    /**
+     * Orders the result set of a query by the columns in its ORDER BY clause.
+     * @param resultSet is the result set produced by executing the query
+     * @param filteredInput is the filtered input of the query
+     * @param tables is a list of the system tables
+     * @param limit is the most rows to return
+     * @return the first rows of the result set in order
+     */
+    private ResultSet orderBy(ResultSet resultSet, String[] filteredInput, List<Table> tables, int limit) {
+
+        RuleGraph queryRuleGraph = RuleGraphTypes.getQueryRuleGraph();
+        List<String> tokens = queryRuleGraph.getTokensAt(filteredInput, 68, 69, 70);
+
+        // each column is followed by ASC or DESC if given, ascending otherwise
+        List<String> columnNames = new ArrayList<>();
+        List<Boolean> areAscending = new ArrayList<>();
+
+        for (String token : tokens) {
+            if (token.equalsIgnoreCase(Keyword.ASC.toString()) || token.equalsIgnoreCase(Keyword.DESC.toString())) {
+                areAscending.set(areAscending.size() - 1, token.equalsIgnoreCase(Keyword.ASC.toString()));
+            } else {
+                columnNames.add(token);
+                areAscending.add(true);
+            }
+        }
+
+        List<String> tableNames = queryRuleGraph.getTokensAt(filteredInput, 13, 15, 18);
+        OptimizerUtilities.prefixColumnNamesWithTableNames(columnNames,
+                Utilities.getReferencedTables(tableNames, tables));
+
+        return resultSet.orderBy(columnNames, areAscending, limit);
+    }
+
     /**
      * Executes a data manipulation language (DML) statement. Essentially, a command that makes changes to the
      * system's data in some shape or form. Input is assumed to have already passed through the Parser, Verifier,
      * and Security Checker to ensure that the it's syntactically and logically correct.
+     * The statement is appended to the write-ahead log before any changes are made, so it's durable as soon as
+     * this returns even though the data files are only written out when saving.
      * @param dmlInputType is the type dml statement
      * @param filteredInput is the filtered input
      * @param tables is a list of the system tables
      * @param users is a list of users of the system
+     * @throws UncheckedIOException if the statement couldn't be logged, nothing is changed then
      */
     public void executeDML(InputType dmlInputType, String[] filteredInput, List<Table> tables, List<User> users) {
+
+        if (writeAheadLog != null) {
+            writeAheadLog.append(dmlInputType, filteredInput);
+        }
+
+        applyDML(dmlInputType, filteredInput, tables, users);
+    }
+
+    /**
+     * Executes every DML statement logged since the last checkpoint again, in the order they were logged. Called at
+     * startup on the data files written out at that checkpoint, bringing them back to where they were when the
+     * application was last closed. Statements aren't logged a second time.
+     * @param tables is a list of the system tables
+     * @param users is a list of users of the system
+     * @return the number of statements executed
+     * @throws IllegalStateException if a statement couldn't be executed again, the ones after it aren't executed
+     */
+    public int recover(List<Table> tables, List<User> users) {
+
+        if (writeAheadLog == null) {
+            return 0;
+        }
+
+        // statements before a checkpoint are already in the data files
+        List<WriteAheadLog.Record> records = writeAheadLog.readSinceCheckpoint();
+
+        for (int i = 0; i < records.size(); i++) {
+
+            WriteAheadLog.Record record = records.get(i);
+
+            // each statement was logged against what the ones before it left behind, there's no going on without one
+            try {
+                applyDML(record.getInputType(), record.getFilteredInput(), tables, users);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Only " + i + " of the " + records.size() + " statements in the " +
+                        "write-ahead log could be executed again, failed on: " +
+                        String.join(" ", record.getFilteredInput()), e);
+            }
+        }
+
+        return records.size();
+    }
+
+    private void applyDML(InputType dmlInputType, String[] filteredInput, List<Table> tables, List<User> users) {
         switch(dmlInputType) {
             case CREATE_TABLE:
                 createTable(filteredInput, tables);
@@ -150,6 +379,9 @@ public class Compiler {
             case REMOVE_FILE_STRUCTURE:
                 removeFileStructure(filteredInput, tables);
                 break;
+            case ANALYZE:
+                analyze(filteredInput, tables);
+                break;
             case GRANT:
                 grant(filteredInput, users, tables);
                 break;
@@ -202,6 +434,7 @@ public class Compiler {
         }
 
         Table table = new Table(tableName, columns, new ArrayList<>(), new HashMap<>());
+        table.markDirty();
         tables.add(table);
     }
 
@@ -253,6 +486,11 @@ public class Compiler {
         String tableName = alterTableRuleGraph.getTokensAt(filteredInput, 2).get(0);
         String alterType = alterTableRuleGraph.getTokensAt(filteredInput, 3, 4, 5).get(0);
 
+        // columns may change, so the table's data is written out again
+        Table alteredTable = Utilities.getReferencedTable(tableName, tables);
+        assert alteredTable != null;
+        alteredTable.markDirty();
+
         if (alterType.equalsIgnoreCase("modify")) {
 
             String columnName = alterTableRuleGraph.getTokensAt(filteredInput, 6).get(0);
@@ -283,15 +521,27 @@ public class Compiler {
                     // check if the data located at the column needs shrinking
                     // eg. change char(4) to char(2) would change "Blah" to "Bl"
                     boolean dataNeedsShrinking = newSize < originalSize;
+                    TableData tableData = table.getTableData();
 
                     if (dataNeedsShrinking) {
-                        List<List<String>> data = table.getTableData().getData();
-                        for (List<String> row : data) {
-                            if (row.get(i).length() > newSize) {
-                                row.set(i, row.get(i).substring(0, newSize));
+
+                        int[] rowsToShrink = new int[tableData.getNumRows()];
+                        String[] shrunkCells = new String[tableData.getNumRows()];
+                        int numRowsToShrink = 0;
+
+                        for (int row = 0; row < tableData.getNumRows(); row++) {
+                            String cell = tableData.getCellAt(row, i);
+                            if (cell.length() > newSize) {
+                                rowsToShrink[numRowsToShrink] = row;
+                                shrunkCells[numRowsToShrink++] = cell.substring(0, newSize);
                             }
                         }
+
+                        tableData.updateCellsAt(rowsToShrink, shrunkCells, numRowsToShrink, i);
                     }
+
+                    // store the column's data as its new type
+                    tableData.setDataType(i, newDataType);
                 }
 
                 // if the size changes, save the new padding amount and adjust for later
@@ -426,6 +676,7 @@ public class Compiler {
                 }
                 // add the new row
                 table.addRow(valueNames);
+                table.markDirty();
                 break;
             }
         }
@@ -451,125 +702,24 @@ public class Compiler {
                 // get the table data
                 TableData tableData = table.getTableData();
 
-                // get the column index that's mapped to the tableData and determine what type of data it holds
+                // get the column index that's mapped to the tableData
                 int mappedColInd = -1;
-                DataType dataType = null;
 
                 for (int i = 0; i < table.getNumCols(); i++) {
                     if (table.getColumns().get(i).getColumnName().equalsIgnoreCase(columnName)) {
                         mappedColInd = i;
-                        dataType = table.getColumns().get(i).getDataType();
                         break;
                     }
                 }
 
-                List<List<String>> rowsToKeep = new ArrayList<>();
-                List<List<String>> data = tableData.getData();
-
-                for (List<String> row : data) {
-
-                    // determine data type
-                    if (dataType == DataType.CHAR) {
-
-                        String tableValue = row.get(mappedColInd);
-
-                        // if the condition is met, don't add the data to the rows to keep, just continue past
-                        switch (symbol) {
-                            case EQUAL:
-                                if (tableValue.equalsIgnoreCase(valueName)) {
-                                    continue;
-                                }
-                                break;
-                            case NOT_EQUAL:
-                                if (! tableValue.equalsIgnoreCase(valueName)) {
-                                    continue;
-                                }
-                                break;
-                        }
-
-                    } else if (dataType == DataType.NUMBER) {
-
-                        double value = Double.parseDouble(valueName);
-                        double tableValue = Double.parseDouble(row.get(mappedColInd));
-
-                        switch (symbol) {
-                            case EQUAL:
-                                if (tableValue == value) {
-                                    continue;
-                                }
-                                break;
-                            case NOT_EQUAL:
-                                if (tableValue != value) {
-                                    continue;
-                                }
-                                break;
-                            case GREATER_THAN:
-                                if (tableValue > value) {
-                                    continue;
-                                }
-                                break;
-                            case LESS_THAN:
-                                if (tableValue < value) {
-                                    continue;
-                                }
-                                break;
-                            case GREATER_THAN_OR_EQUAL:
-                                if (tableValue >= value) {
-                                    continue;
-                                }
-                                break;
-                            case LESS_THAN_OR_EQUAL:
-                                if (tableValue <= value) {
-                                    continue;
-                                }
-                                break;
-                        }
-
-                    } else if (dataType == DataType.DATE) {
-
-                        LocalDate value = LocalDate.parse(valueName);
-                        LocalDate tableDate = LocalDate.parse(row.get(mappedColInd));
-
-                        switch (symbol) {
-                            case EQUAL:
-                                if (tableDate.equals(value)) {
-                                    continue;
-                                }
-                                break;
-                            case NOT_EQUAL:
-                                if (! tableDate.equals(value)) {
-                                    continue;
-                                }
-                                break;
-                            case GREATER_THAN:
-                                if (tableDate.compareTo(value) > 0) {
-                                    continue;
-                                }
-                                break;
-                            case LESS_THAN:
-                                if (tableDate.compareTo(value) < 0) {
-                                    continue;
-                                }
-                                break;
-                            case GREATER_THAN_OR_EQUAL:
-                                if (tableDate.compareTo(value) >= 0) {
-                                    continue;
-                                }
-                                break;
-                            case LESS_THAN_OR_EQUAL:
-                                if (tableDate.compareTo(value) <= 0) {
-                                    continue;
-                                }
-                                break;
-                        }
-                    }
+                // find the rows meeting the condition using the column's typed values or hash index, then remove them
+                int[] rowsToDelete = new int[tableData.getNumRows()];
+                int numRowsToDelete = tableData.select(mappedColInd, symbol, valueName, rowsToDelete);
 
-                    // didn't meet any of the conditions for removal, good to go
-                    rowsToKeep.add(row);
+                tableData.deleteRows(rowsToDelete, numRowsToDelete);
+                if (numRowsToDelete > 0) {
+                    table.markDirty();
                 }
-
-                // set the table data to the rows to keep
-                tableData.setData(rowsToKeep);
                 break;
             } // end if statement checking for table name equality
         } // end loop through tables
@@ -611,11 +761,14 @@ public class Compiler {
         assert setTableDataLocation != -1 && whereTableDataLocation != -1;
 
         // search for the rows that satisfy the condition
-        for (List<String> row : tableReference.getTableData().getData()) {
-            String tableValue = row.get(whereTableDataLocation);
-            if (tableValue.equalsIgnoreCase(equalsValue)) {
-                row.set(setTableDataLocation, newValue);
-            }
+        TableData tableData = tableReference.getTableData();
+        int[] rowsToUpdate = new int[tableData.getNumRows()];
+        int numRowsToUpdate = tableData.select(whereTableDataLocation, Symbol.EQUAL, equalsValue, rowsToUpdate);
+
+        tableData.updateCellsAt(rowsToUpdate, numRowsToUpdate, setTableDataLocation, newValue);
+
+        if (numRowsToUpdate > 0) {
+            tableReference.markDirty();
         }
     }
 
@@ -655,6 +808,8 @@ public class Compiler {
                             column.setFileStructure(FileStructure.CLUSTERED_B_TREE);
                             break;
                     }
+                    table.updateIndexes();
+                    table.markDirty();
                     break;
                 }
             }
@@ -674,6 +829,8 @@ public class Compiler {
                     }
                     // set this table clustered with the other table
                     table.setClusteredWith(secondTableInput);
+                    table.updateIndexes();
+                    table.markDirty();
                 }
 
                 if (tableName.equalsIgnoreCase(secondTableInput)) {
@@ -681,6 +838,8 @@ public class Compiler {
                         column.removeFileStructure();
                     }
                     table.setClusteredWith(firstTableInput);
+                    table.updateIndexes();
+                    table.markDirty();
                 }
             }
         }
@@ -722,12 +881,32 @@ public class Compiler {
                 if (tableName.equalsIgnoreCase(tableInput)) {
                     Column column = table.getColumn(columnInput);
                     column.removeFileStructure();
+                    table.updateIndexes();
+                    table.markDirty();
                     break;
                 }
             }
         }
     }
 
+    /**
+     * Executes the ANALYZE command, gathering the statistics of every column of the supplied tables. Statistics
+     * are kept up to date as the data changes anyway, this just gathers them ahead of time so they get saved.
+     * @param filteredInput is the filtered input
+     * @param tables is a list of system tables
+     */
+    public void analyze(String[] filteredInput, List<Table> tables) {
+
+        RuleGraph analyzeRuleGraph = RuleGraphTypes.getAnalyzeRuleGraph();
+        List<String> tableNames = analyzeRuleGraph.getTokensAt(filteredInput, 1);
+
+        for (String tableName : tableNames) {
+            Table table = Utilities.getReferencedTable(tableName, tables);
+            assert table != null;
+            table.getTableData().analyze();
+        }
+    }
+
     /**
      * Executes the GRANT command, granting privileges to the specified users on the given table.
      * @param filteredInput is the filtered input
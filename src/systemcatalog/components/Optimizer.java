@@ -4,9 +4,11 @@ import datastructures.misc.Pair;
 import datastructures.misc.Quadruple;
 import datastructures.misc.Triple;
 import datastructures.querytree.operator.types.*;
-import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.resultset.ResultSetEstimate;
 import datastructures.relation.table.Table;
+import datastructures.relation.table.WhatIfCatalog;
 import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
 import datastructures.relation.table.component.FileStructure;
 import datastructures.rulegraph.RuleGraph;
 import datastructures.rulegraph.types.RuleGraphTypes;
@@ -45,6 +47,9 @@ import static utilities.OptimizerUtilities.*;
  */
 public class Optimizer {
 
+    // past this many relations, finding the best join order is done greedily (there are 2^n subsets to go through)
+    private static final int MAX_RELATIONS_TO_ENUMERATE = 12;
+
     private final RuleGraph queryRuleGraph;
     private boolean isJoinOptimizationOn;
 
@@ -611,53 +616,324 @@ public class Optimizer {
             return new QueryTree(queryTree);
         }
 
-        // permuting a list of all possible relation locations which will produce a list of all
-        // possible query tree orientations, making calls to previous methods to recreate these new query trees
+        // find the best order to join the relations in, then recreate the query tree in that order
         List<String> tableNames = queryRuleGraph.getTokensAt(input, 13, 15, 18);
-        List<List<String>> permutedTableNames = new ArrayList<>();
-        OptimizerUtilities.permuteList(tableNames.size(), tableNames, permutedTableNames);
-
-        List<QueryTree> permutedQueryTrees = new ArrayList<>();
-
-        for (List<String> permutedTableName : permutedTableNames) {
-            QueryTree permutedQueryTree = createQueryTree(input, tables, permutedTableName);
-            permutedQueryTree = cascadeSelections(permutedQueryTree);
-            permutedQueryTree = pushDownSelections(permutedQueryTree);
-            permutedQueryTree = formJoins(permutedQueryTree);
-            permutedQueryTree = pushDownProjections(permutedQueryTree);
-            permutedQueryTrees.add(permutedQueryTree);
+        List<String> joinOrder = getJoinOrder(input, tables, tableNames);
+
+        if (joinOrder.isEmpty()) {
+            return new QueryTree(queryTree);
         }
 
-        // filter out query tree permutations that contain cartesian products, these will be inherently worse
-        permutedQueryTrees = removeQueryTreesWithOperatorsOfType(permutedQueryTrees, CARTESIAN_PRODUCT);
+        QueryTree rearrangedQueryTree = createQueryTree(input, tables, joinOrder);
+        rearrangedQueryTree = cascadeSelections(rearrangedQueryTree);
+        rearrangedQueryTree = pushDownSelections(rearrangedQueryTree);
+        rearrangedQueryTree = formJoins(rearrangedQueryTree);
+        rearrangedQueryTree = pushDownProjections(rearrangedQueryTree);
 
-        // finding the query tree that executes its smallest relations first
-        QueryTree smallestPermutedQueryTree = permutedQueryTrees.get(0);
-        int smallestProductionCost = Integer.MAX_VALUE;
+        // cartesian products are inherently worse, the join order should never produce one but just in case
+        if (rearrangedQueryTree.getTypeOccurrence(CARTESIAN_PRODUCT) != 0) {
+            return new QueryTree(queryTree);
+        }
 
-        // creating a deep copy of the system tables and removing any file structures built, if any
-        List<Table> tablesCopy = tables
-                .stream()
-                .map(Table::new)
+        return rearrangedQueryTree;
+    }
+
+    /**
+     * Finds the order to join the relations of a query in, Selinger style. The cheapest way to join each connected
+     * subset of the relations is found bottom-up, by joining one of its relations last to the cheapest plan for
+     * the rest of the subset, so every left-deep join order is considered without a query tree being built and
+     * costed for each one. The cost of a plan is the nested loop join cost of each join plus the blocks written
+     * out for each intermediate result, sizes are estimated from the statistics of each table. Past
+     * MAX_RELATIONS_TO_ENUMERATE relations, the number of subsets gets out of hand and the relations are instead
+     * joined greedily, always adding the relation that makes the next intermediate result cheapest.
+     * @param input is the user's tokenized input
+     * @param tables is a list of system tables
+     * @param tableNames are the names of the tables in the from clause
+     * @return the table names in the order they should be joined in, or an empty list if the relations can't all be
+     * joined without a cartesian product
+     */
+    private List<String> getJoinOrder(String[] input, List<Table> tables, List<String> tableNames) {
+
+        int numRelations = tableNames.size();
+        List<Table> referencedTables = new ArrayList<>();
+
+        for (String tableName : tableNames) {
+            Table table = Utilities.getReferencedTable(tableName, tables);
+            // can't estimate anything about tables that don't exist (happens when the verifier is off)
+            if (table == null) {
+                return new ArrayList<>();
+            }
+            referencedTables.add(table);
+        }
+
+        // split the selections into those on a single relation and those joining two relations
+        QueryTree queryTree = cascadeSelections(createQueryTree(input, tables, new ArrayList<>()));
+        List<Operator> simpleSelections =
+                new ArrayList<>(queryTree.getOperatorsAndLocationsOfType(SIMPLE_SELECTION, PREORDER).keySet());
+        List<Operator> selectionsWithJoinConditions = getSelectionsWithJoinConditions(simpleSelections);
+
+        // columns needed by the operators above the joins, like projections do, intermediate results only keep
+        // these and the columns of join conditions that haven't been applied yet
+        List<String> outputColumnNames = queryTree.getOperatorsAndLocations(PREORDER).keySet().stream()
+                .filter(operator -> operator.getType() != SIMPLE_SELECTION)
+                .map(Operator::getReferencedColumnNames)
+                .flatMap(Collection::stream)
+                .distinct()
+                .collect(Collectors.toList());
+
+        // estimates of each relation after its selections and projection, these are the leaves of every plan
+        List<ResultSetEstimate> relationEstimates = new ArrayList<>();
+
+        for (Table table : referencedTables) {
+
+            ResultSetEstimate relationEstimate = new ResultSetEstimate(table);
+
+            for (Operator operator : simpleSelections) {
+                SimpleSelection simpleSelection = (SimpleSelection) operator;
+                if (getRelationIndex(simpleSelection.getColumnName(), tableNames) == relationEstimates.size()) {
+                    relationEstimate = relationEstimate.selection(simpleSelection.getColumnName(),
+                            simpleSelection.getSymbol(), simpleSelection.getValue());
+                }
+            }
+
+            List<String> projectedColumnNames = getColumnNamesWithRelationName(getNeededColumnNames(
+                    Collections.singletonList(relationEstimates.size()), outputColumnNames,
+                    selectionsWithJoinConditions, tableNames), table.getTableName());
+
+            if (! projectedColumnNames.isEmpty()) {
+                relationEstimate = relationEstimate.projection(projectedColumnNames);
+            }
+
+            relationEstimates.add(relationEstimate);
+        }
+
+        JoinPlan bestPlan = numRelations <= MAX_RELATIONS_TO_ENUMERATE
+                ? enumerateJoinPlans(relationEstimates, selectionsWithJoinConditions, outputColumnNames, tableNames)
+                : getGreedyJoinPlan(relationEstimates, selectionsWithJoinConditions, outputColumnNames, tableNames);
+
+        if (bestPlan == null) {
+            return new ArrayList<>();
+        }
+
+        return bestPlan.relationIndexes.stream()
+                .map(tableNames::get)
                 .collect(Collectors.toList());
+    }
 
-        removeAllFileStructures(tablesCopy);
+    /**
+     * Dynamic programming over subsets of the relations, each subset is a bit mask whose bit i is set if relation i
+     * is in it. Removing a relation from a subset always gives a smaller mask, so going through the masks in
+     * ascending order means the plans a subset is built from are already known.
+     * @return the cheapest plan joining every relation, or null if there isn't one without a cartesian product
+     */
+    private JoinPlan enumerateJoinPlans(List<ResultSetEstimate> relationEstimates, List<Operator> joinConditions,
+                                        List<String> outputColumnNames, List<String> tableNames) {
+
+        int numRelations = relationEstimates.size();
+        JoinPlan[] bestPlans = new JoinPlan[1 << numRelations];
+
+        for (int i = 0; i < numRelations; i++) {
+            ResultSetEstimate relationEstimate = relationEstimates.get(i);
+            bestPlans[1 << i] = new JoinPlan(Collections.singletonList(i), relationEstimate,
+                    getEstimatedBlocks(relationEstimate));
+        }
 
-        for (QueryTree permutedQueryTree : permutedQueryTrees) {
-            // there might be some bad apples generated through permutation, only worry about the valid ones
-            try {
-                int productionCost = getCostAnalysis(Arrays.asList(permutedQueryTree), tablesCopy, true)
-                        .getFirst();
-                if (productionCost < smallestProductionCost) {
-                    smallestPermutedQueryTree = permutedQueryTree;
-                    smallestProductionCost = productionCost;
+        for (int subset = 1; subset < bestPlans.length; subset++) {
+
+            // single relations were taken care of above
+            if (Integer.bitCount(subset) < 2) {
+                continue;
+            }
+
+            // going through the relations backwards means ties go to the order of the from clause
+            for (int lastRelation = numRelations - 1; lastRelation >= 0; lastRelation--) {
+
+                if ((subset & (1 << lastRelation)) == 0) {
+                    continue;
                 }
-            } catch (Exception e) {
 
+                JoinPlan plan = joinLast(bestPlans[subset & ~(1 << lastRelation)], lastRelation,
+                        relationEstimates.get(lastRelation), joinConditions, outputColumnNames, tableNames);
+
+                if (plan != null && (bestPlans[subset] == null || plan.cost < bestPlans[subset].cost)) {
+                    bestPlans[subset] = plan;
+                }
             }
         }
 
-        return new QueryTree(smallestPermutedQueryTree);
+        return bestPlans[bestPlans.length - 1];
+    }
+
+    /**
+     * Starts from the relation with the fewest blocks and keeps joining whichever relation makes the cheapest plan.
+     * @return a plan joining every relation, or null if there isn't one without a cartesian product
+     */
+    private JoinPlan getGreedyJoinPlan(List<ResultSetEstimate> relationEstimates, List<Operator> joinConditions,
+                                       List<String> outputColumnNames, List<String> tableNames) {
+
+        int numRelations = relationEstimates.size();
+        JoinPlan plan = null;
+
+        for (int i = 0; i < numRelations; i++) {
+            ResultSetEstimate relationEstimate = relationEstimates.get(i);
+            double blocks = getEstimatedBlocks(relationEstimate);
+            if (plan == null || blocks < plan.cost) {
+                plan = new JoinPlan(Collections.singletonList(i), relationEstimate, blocks);
+            }
+        }
+
+        while (plan != null && plan.relationIndexes.size() < numRelations) {
+
+            JoinPlan bestNextPlan = null;
+
+            for (int i = 0; i < numRelations; i++) {
+
+                if (plan.relationIndexes.contains(i)) {
+                    continue;
+                }
+
+                JoinPlan nextPlan = joinLast(plan, i, relationEstimates.get(i), joinConditions, outputColumnNames,
+                        tableNames);
+
+                if (nextPlan != null && (bestNextPlan == null || nextPlan.cost < bestNextPlan.cost)) {
+                    bestNextPlan = nextPlan;
+                }
+            }
+
+            plan = bestNextPlan;
+        }
+
+        return plan;
+    }
+
+    /**
+     * @param plan is the plan to extend, null if there isn't one
+     * @param relationIndex is the index of the relation to join to the plan
+     * @param relationEstimate is the estimate of the relation to join to the plan
+     * @param joinConditions are the selections of the query that have join conditions
+     * @param outputColumnNames are the columns needed by the operators above the joins
+     * @param tableNames are the names of the tables in the from clause
+     * @return the plan after joining the relation, or null if no join condition connects the relation to the plan
+     */
+    private JoinPlan joinLast(JoinPlan plan, int relationIndex, ResultSetEstimate relationEstimate,
+                              List<Operator> joinConditions, List<String> outputColumnNames, List<String> tableNames) {
+
+        if (plan == null) {
+            return null;
+        }
+
+        ResultSetEstimate joinedEstimate = null;
+
+        for (Operator operator : joinConditions) {
+
+            SimpleSelection joinCondition = (SimpleSelection) operator;
+            int firstRelationIndex = getRelationIndex(joinCondition.getColumnName(), tableNames);
+            int secondRelationIndex = getRelationIndex(joinCondition.getValue(), tableNames);
+
+            boolean connectsRelation =
+                    (firstRelationIndex == relationIndex && plan.relationIndexes.contains(secondRelationIndex)) ||
+                    (secondRelationIndex == relationIndex && plan.relationIndexes.contains(firstRelationIndex));
+
+            if (! connectsRelation) {
+                continue;
+            }
+
+            // the first condition joins the relation, any others connecting it (a cycle) narrow the join down
+            joinedEstimate = joinedEstimate == null
+                    ? plan.estimate.innerJoin(relationEstimate, joinCondition.getColumnName(),
+                            joinCondition.getSymbol(), joinCondition.getValue())
+                    : joinedEstimate.joinSelection(joinCondition.getColumnName(), joinCondition.getSymbol(),
+                            joinCondition.getValue());
+        }
+
+        if (joinedEstimate == null) {
+            return null;
+        }
+
+        List<Integer> relationIndexes = new ArrayList<>(plan.relationIndexes);
+        relationIndexes.add(relationIndex);
+
+        // like the projection placed above each join, only keep the columns still needed
+        joinedEstimate = joinedEstimate.projection(getNeededColumnNames(relationIndexes, outputColumnNames,
+                joinConditions, tableNames));
+
+        double planBlocks = getEstimatedBlocks(plan.estimate);
+        double relationBlocks = getEstimatedBlocks(relationEstimate);
+        double nestedLoopJoinCost = Math.min(planBlocks, relationBlocks) + planBlocks * relationBlocks;
+        double cost = plan.cost + nestedLoopJoinCost + getEstimatedBlocks(joinedEstimate);
+
+        return new JoinPlan(relationIndexes, joinedEstimate, cost);
+    }
+
+    /**
+     * @param relationIndexes are the indexes of the relations joined so far
+     * @param outputColumnNames are the columns needed by the operators above the joins
+     * @param joinConditions are the selections of the query that have join conditions
+     * @param tableNames are the names of the tables in the from clause
+     * @return the output columns along with the columns of join conditions to relations that haven't been joined yet
+     */
+    private static List<String> getNeededColumnNames(List<Integer> relationIndexes, List<String> outputColumnNames,
+                                                     List<Operator> joinConditions, List<String> tableNames) {
+
+        List<String> neededColumnNames = new ArrayList<>(outputColumnNames);
+
+        for (Operator operator : joinConditions) {
+
+            SimpleSelection joinCondition = (SimpleSelection) operator;
+            boolean hasFirstRelation =
+                    relationIndexes.contains(getRelationIndex(joinCondition.getColumnName(), tableNames));
+            boolean hasSecondRelation =
+                    relationIndexes.contains(getRelationIndex(joinCondition.getValue(), tableNames));
+
+            if (hasFirstRelation != hasSecondRelation) {
+                neededColumnNames.add(joinCondition.getColumnName());
+                neededColumnNames.add(joinCondition.getValue());
+            }
+        }
+
+        return neededColumnNames;
+    }
+
+    /**
+     * @return the number of blocks the estimate takes up, as a double since joins of many relations can get huge
+     */
+    private static double getEstimatedBlocks(ResultSetEstimate estimate) {
+        int blockingFactor = Math.max(1, QueryCost.blockingFactor(QueryCost.recordSize(estimate.getColumns())));
+        return Math.ceil((double) estimate.getNumRows() / blockingFactor);
+    }
+
+    /**
+     * @param columnName is a column name prefixed with its table name
+     * @param tableNames are the names of the tables in the from clause
+     * @return the index of the column's table in the from clause, -1 if it's not there
+     */
+    private static int getRelationIndex(String columnName, List<String> tableNames) {
+
+        String tableName = columnName.split("\\.")[0];
+
+        for (int i = 0; i < tableNames.size(); i++) {
+            if (tableNames.get(i).equalsIgnoreCase(tableName)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * A left-deep plan for joining some of the relations of a query, used while finding the best join order.
+     */
+    private static final class JoinPlan {
+
+        private final List<Integer> relationIndexes; // in the order they're joined
+        private final ResultSetEstimate estimate;
+        private final double cost;
+
+        private JoinPlan(List<Integer> relationIndexes, ResultSetEstimate estimate, double cost) {
+            this.relationIndexes = relationIndexes;
+            this.estimate = estimate;
+            this.cost = cost;
+        }
     }
 
     /**
@@ -966,19 +1242,17 @@ public class Optimizer {
         getRecommendedFileStructuresWithVerifier(List<Triple<String, String, String>> recommendedFileStructures,
                                                  List<QueryTree> queryTreeStates, List<Table> tables) {
 
+        // file structures and clustering are tried out on a view of the system tables that shares their data
+        WhatIfCatalog whatIfCatalog = new WhatIfCatalog(tables);
+
         // check each file structure recommended to see if not building a file structure will yield a better result
         for (int i = 0; i < recommendedFileStructures.size(); i++) {
 
             Triple<String, String, String> recommendedFileStructure = recommendedFileStructures.get(i);
 
-            // create a deep copy of the system tables, apply the file structure for the given table, and see if
-            // the cost of producing the query tree is lower than with the file structure
-            List<Table> tablesCopy = tables
-                    .stream()
-                    .map(Table::new)
-                    .collect(Collectors.toList());
-
-            removeAllFileStructures(tablesCopy);
+            // apply the file structure for the given table on a clean slate, and see if the cost of producing the
+            // query tree is lower than with the file structure
+            whatIfCatalog.removeAllFileStructures();
 
             String tableName = recommendedFileStructure.getFirst();
             String columnName = recommendedFileStructure.getSecond();
@@ -1000,20 +1274,16 @@ public class Optimizer {
                     fileStructure = FileStructure.NONE;
             }
 
-            Table referencedTable = Utilities.getReferencedTable(tableName, tablesCopy);
-            assert referencedTable != null;
-            Column referencedColumn = referencedTable.getColumn(columnName);
-            assert referencedColumn != null;
-            referencedColumn.setFileStructure(fileStructure);
+            whatIfCatalog.setFileStructure(tableName, columnName, fileStructure);
 
             // with file structure built
             int productionCostWithFileStructure =
-                    getCostAnalysis(queryTreeStates, tablesCopy, true).getFirst();
+                    getCostAnalysis(queryTreeStates, whatIfCatalog.getTables(), true).getFirst();
 
             // without file structure built
-            referencedColumn.setFileStructure(FileStructure.NONE);
+            whatIfCatalog.setFileStructure(tableName, columnName, FileStructure.NONE);
             int productionCostWithoutFileStructure =
-                    getCostAnalysis(queryTreeStates, tablesCopy, true).getFirst();
+                    getCostAnalysis(queryTreeStates, whatIfCatalog.getTables(), true).getFirst();
 
             if (productionCostWithFileStructure > productionCostWithoutFileStructure) {
                 recommendedFileStructures.set(i, new Triple<>(tableName, columnName, "No File Structure"));
@@ -1024,14 +1294,8 @@ public class Optimizer {
         // recommendations, in order to do this, will need to calculate the total cost of the query tree with the
         // file structures already built and compare them to each possible clustered file query tree cost
 
-        // making a deep copy the system tables
-        List<Table> tablesCopy = tables
-                .stream()
-                .map(Table::new)
-                .collect(Collectors.toList());
-
         // start from a clean slate, then proceed to build all file structures that are recommended
-        removeAllFileStructures(tablesCopy);
+        whatIfCatalog.removeAllFileStructures();
 
         for (Triple<String, String, String> recommendedFileStructure : recommendedFileStructures) {
 
@@ -1055,17 +1319,14 @@ public class Optimizer {
                     fileStructure = FileStructure.NONE;
             }
 
-            Table referencedTable = Utilities.getReferencedTable(tableName, tablesCopy);
-            assert referencedTable != null;
-            Column referencedColumn = referencedTable.getColumn(columnName);
-            assert referencedColumn != null;
-            referencedColumn.setFileStructure(fileStructure);
+            whatIfCatalog.setFileStructure(tableName, columnName, fileStructure);
         }
 
-        int productionCostWithoutClustering = getCostAnalysis(queryTreeStates, tablesCopy, true).getFirst();
+        int productionCostWithoutClustering =
+                getCostAnalysis(queryTreeStates, whatIfCatalog.getTables(), true).getFirst();
 
         // getting all possible table pairs (does not include kinds that look like <T1, T2> and <T2, T1>)
-        List<Pair<String, String>> tablePairs = getTablePairs(tablesCopy
+        List<Pair<String, String>> tablePairs = getTablePairs(whatIfCatalog.getTables()
                 .stream()
                 .map(Table::getTableName)
                 .filter(tableName -> { // only keep table pairs that are referenced in recommended file structures
@@ -1085,19 +1346,14 @@ public class Optimizer {
 
         for (Pair<String, String> tablePair : tablePairs) {
 
-            removeAllFileStructures(tablesCopy);
+            whatIfCatalog.removeAllFileStructures();
 
             String firstTableName = tablePair.getFirst();
             String secondTableName = tablePair.getSecond();
-            Table firstTable = Utilities.getReferencedTable(firstTableName, tablesCopy);
-            Table secondTable = Utilities.getReferencedTable(secondTableName, tablesCopy);
-
-            assert firstTable != null && secondTable != null;
+            whatIfCatalog.setClustered(firstTableName, secondTableName);
 
-            firstTable.setClusteredWith(secondTableName);
-            secondTable.setClusteredWith(firstTableName);
-
-            int productionCostWithClustering = getCostAnalysis(queryTreeStates, tablesCopy, true).getFirst();
+            int productionCostWithClustering =
+                    getCostAnalysis(queryTreeStates, whatIfCatalog.getTables(), true).getFirst();
 
             // the cost with clustering is lower than that of building file structures, add that pair
             if (productionCostWithClustering < productionCostWithoutClustering) {
@@ -1175,7 +1431,9 @@ public class Optimizer {
     /**
      * Returns a lot of information with respect to how the cost of the query tree is calculated. This includes
      * the total execution cost, the total write to disk cost, and a string containing info about how these
-     * costs were generated. Essentially, shows the work that was done to get these costs.
+     * costs were generated. Essentially, shows the work that was done to get these costs. The number of records
+     * produced by each node is estimated from the statistics of each table (see ResultSetEstimate), so the query
+     * itself is never run.
      * @param queryTreeStates is a list of query tree states produced after the optimization process
      * @param tables are the tables of the system
      * @param isVerifierOn is whether the verifier is on, if off, will simply return because we can't retrieve data
@@ -1204,7 +1462,7 @@ public class Optimizer {
         // used for producing result sets
         Deque<Operator> operatorStack =
                 setToDeque(queryTreeBeforePipelining.getOperatorsAndLocations(PREORDER).keySet());
-        Deque<ResultSet> workingOperatorStack = new ArrayDeque<>();
+        Deque<ResultSetEstimate> workingOperatorStack = new ArrayDeque<>();
 
         // makes sure that the pipelined nodes are not getting mixed up
         Deque<String> pipelinedProductionCostWorkStack = new ArrayDeque<>();
@@ -1231,13 +1489,13 @@ public class Optimizer {
                     String tableName = relation.getTableName();
                     Table table = Utilities.getReferencedTable(tableName, tables);
                     assert table != null;
-                    ResultSet resultSet = new ResultSet(table);
+                    ResultSetEstimate resultSet = new ResultSetEstimate(table);
                     workingOperatorStack.push(resultSet);
 
                     // get the table's information (will likely get overwritten if a selection, inner join,
                     // or cartesian product is encountered
                     int recordSize = QueryCost.recordSize(resultSet.getColumns()); // |r|
-                    int numRecords = QueryCost.numberRecords(resultSet.getData()); // r
+                    int numRecords = resultSet.getNumRows(); // r
                     int blockingFactor = QueryCost.blockingFactor(recordSize); // bf
                     int blocks = QueryCost.blocks(numRecords, blockingFactor); // b
 
@@ -1245,7 +1503,7 @@ public class Optimizer {
 
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(resultSet.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(resultSet.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(resultSet.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(recordSize)).append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blocks(numRecords, blockingFactor))
@@ -1259,7 +1517,7 @@ public class Optimizer {
                     String columnName = simpleSelection.getColumnName();
                     String symbol = simpleSelection.getSymbol();
                     String value = simpleSelection.getValue();
-                    ResultSet resultSet = workingOperatorStack.pop();
+                    ResultSetEstimate resultSet = workingOperatorStack.pop();
                     workingOperatorStack.push(resultSet.selection(columnName, symbol, value));
 
                     // get the data from the result set before applying the projection, this will overwrite any data
@@ -1267,10 +1525,7 @@ public class Optimizer {
                     Column column = resultSet.getColumnFromColumnName(columnName);
                     FileStructure fileStructure = column.getFileStructure();
 
-                    boolean isUniqueValue = resultSet.getColumnDataAt(resultSet.getColumnFromColumnName(columnName))
-                            .stream()
-                            .filter(v -> v.equalsIgnoreCase(value))
-                            .count() <= 1;
+                    boolean isUniqueValue = resultSet.isUniqueValue(columnName, value);
 
                     // general calculations
                     int recordSize = QueryCost.recordSize(resultSet.getColumns()); // |r|
@@ -1279,21 +1534,20 @@ public class Optimizer {
                     int blocks = QueryCost.blocks(numRecords, blockingFactor); // b
 
                     // b-tree specific calculations
-                    int keySize = resultSet.getColumnFromColumnName(columnName).size(); // |r| of column
+                    int keySize = column.size(); // |r| of column
                     int degree = QueryCost.degree(keySize); // m
                     int levels = QueryCost.levels(numRecords, degree); // l
                     int terminalLevelNodes = QueryCost.terminalLevelNodes(numRecords, degree); // bl
-                    int numDistinctValues = // d
-                            (int) resultSet.getColumnDataAt(resultSet.getColumnFromColumnName(columnName))
-                            .stream()
-                            .distinct()
-                            .count();
+                    // nulls are counted as a value of their own
+                    ColumnStatistics columnStatistics = resultSet.getColumnStatistics(columnName);
+                    int numDistinctValues = (int) Math.round(columnStatistics.getNumDistinct()) + // d
+                            (columnStatistics.getNumNulls() >= 0.5 ? 1 : 0);
                     int selectivity = QueryCost.selectivity(numRecords, numDistinctValues); // s
 
                     pipelinedProductionCostWork = new StringBuilder();
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(resultSet.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(resultSet.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(resultSet.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(recordSize)).append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blocks(numRecords, blockingFactor))
@@ -1412,14 +1666,14 @@ public class Optimizer {
 
                     Projection projection = (Projection) operator;
                     List<String> columnNames = projection.getColumnNames();
-                    ResultSet resultSet = workingOperatorStack.pop().projection(columnNames);
+                    ResultSetEstimate resultSet = workingOperatorStack.pop().projection(columnNames);
                     workingOperatorStack.push(resultSet);
 
                     // get result set data (will only be used if and only if the working production cost is empty
                     // which means that it wasn't written to from previous operator nodes encountered)
                     int recordSize = QueryCost.recordSize(resultSet.getColumns());
                     int numRecords = maxNumRecsFromJoining == 0
-                            ? QueryCost.numberRecords(resultSet.getData())
+                            ? resultSet.getNumRows()
                             : maxNumRecsFromJoining;
                     int blockingFactor = QueryCost.blockingFactor(recordSize);
                     int blocks = QueryCost.blocks(numRecords, blockingFactor);
@@ -1428,7 +1682,7 @@ public class Optimizer {
                         pipelinedProductionCostWork.append(QueryCostToString.recordSize(resultSet.getColumns()))
                                 .append("\n");
                         pipelinedProductionCostWork.append(maxNumRecsFromJoining == 0
-                                ? QueryCostToString.numberRecords(resultSet.getData())
+                                ? QueryCostToString.numberRecords(resultSet.getNumRows())
                                 : "r = " + maxNumRecsFromJoining).append("\n");
                         pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(recordSize)).append("\n");
                         pipelinedProductionCostWork.append(QueryCostToString.blocks(numRecords, blockingFactor))
@@ -1452,7 +1706,7 @@ public class Optimizer {
                         StringBuilder temp = new StringBuilder();
                         temp.append(QueryCostToString.recordSize(resultSet.getColumns())).append("\n");
                         temp.append(maxNumRecsFromJoining == 0
-                                ? QueryCostToString.numberRecords(resultSet.getData())
+                                ? QueryCostToString.numberRecords(resultSet.getNumRows())
                                 : "r = " + maxNumRecsFromJoining).append("\n");
                         temp.append(QueryCostToString.blockingFactor(recordSize)).append("\n");
                         temp.append(QueryCostToString.blocks(numRecords, blockingFactor)).append("\n");
@@ -1467,10 +1721,10 @@ public class Optimizer {
                     String firstJoinColumnName = innerJoin.getFirstJoinColumnName();
                     String joinSymbolName = innerJoin.getSymbol();
                     String secondJoinColumnName = innerJoin.getSecondJoinColumnName();
-                    ResultSet firstResultSet = workingOperatorStack.pop();
-                    ResultSet secondResultSet = workingOperatorStack.pop();
-                    ResultSet innerJoinResultSet = firstResultSet.innerJoin(secondResultSet, firstJoinColumnName,
-                            joinSymbolName, secondJoinColumnName);
+                    ResultSetEstimate firstResultSet = workingOperatorStack.pop();
+                    ResultSetEstimate secondResultSet = workingOperatorStack.pop();
+                    ResultSetEstimate innerJoinResultSet = firstResultSet.innerJoin(secondResultSet,
+                            firstJoinColumnName, joinSymbolName, secondJoinColumnName);
                     workingOperatorStack.push(innerJoinResultSet);
 
                     // pop off the strings for the production and write to disk costs and add append these to the work
@@ -1505,13 +1759,13 @@ public class Optimizer {
                     // only use the result set if this is the first join, otherwise, use the max number of records
                     // that can be generated from previous joins (a more realistic approach to estimation)
                     int firstResultSetNumRecords = maxNumRecsFromJoining == 0
-                            ? QueryCost.numberRecords(firstResultSet.getData()) // (this is the 1st join)
+                            ? firstResultSet.getNumRows() // (this is the 1st join)
                             : maxNumRecsFromJoining; // (this is not the first join)
                     int firstResultSetBlockingFactor = QueryCost.blockingFactor(firstResultSetRecordSize);
                     int firstResultSetBlocks = QueryCost.blocks(firstResultSetNumRecords, firstResultSetBlockingFactor);
 
                     int secondResultSetRecordSize = QueryCost.recordSize(secondResultSet.getColumns());
-                    int secondResultSetNumRecords = QueryCost.numberRecords(secondResultSet.getData());
+                    int secondResultSetNumRecords = secondResultSet.getNumRows();
                     int secondResultSetBlockingFactor = QueryCost.blockingFactor(secondResultSetRecordSize);
                     int secondResultSetBlocks = QueryCost.blocks(secondResultSetNumRecords,
                             secondResultSetBlockingFactor);
@@ -1536,7 +1790,7 @@ public class Optimizer {
                     pipelinedProductionCostWork.append("First Relation (Left Subtree):\n");
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(firstResultSet.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(firstResultSet.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(firstResultSet.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(firstResultSetRecordSize))
                             .append("\n");
@@ -1547,7 +1801,7 @@ public class Optimizer {
                     pipelinedProductionCostWork.append("Second Relation (Right Subtree):\n");
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(secondResultSet.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(secondResultSet.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(secondResultSet.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(secondResultSetRecordSize))
                             .append("\n");
@@ -1627,9 +1881,9 @@ public class Optimizer {
                 }
                 case CARTESIAN_PRODUCT: {
 
-                    ResultSet firstResultSet = workingOperatorStack.pop();
-                    ResultSet secondResultSet = workingOperatorStack.pop();
-                    ResultSet cartesianProduct = firstResultSet.cartesianProduct(secondResultSet);
+                    ResultSetEstimate firstResultSet = workingOperatorStack.pop();
+                    ResultSetEstimate secondResultSet = workingOperatorStack.pop();
+                    ResultSetEstimate cartesianProduct = firstResultSet.cartesianProduct(secondResultSet);
                     workingOperatorStack.push(cartesianProduct);
 
                     String productionCostWorkTemp1 = pipelinedProductionCostWorkStack.pop();
@@ -1657,17 +1911,17 @@ public class Optimizer {
                     subscript++;
 
                     int firstTableRecordSize = QueryCost.recordSize(firstResultSet.getColumns());
-                    int firstTableNumRecords = QueryCost.numberRecords(firstResultSet.getData());
+                    int firstTableNumRecords = firstResultSet.getNumRows();
                     int firstTableBlockingFactor = QueryCost.blockingFactor(firstTableRecordSize);
                     int firstTableBlocks = QueryCost.blocks(firstTableNumRecords, firstTableBlockingFactor);
 
                     int secondTableRecordSize = QueryCost.recordSize(secondResultSet.getColumns());
-                    int secondTableNumRecords = QueryCost.numberRecords(secondResultSet.getData());
+                    int secondTableNumRecords = secondResultSet.getNumRows();
                     int secondTableBlockingFactor = QueryCost.blockingFactor(secondTableRecordSize);
                     int secondTableBlocks = QueryCost.blocks(secondTableNumRecords, secondTableBlockingFactor);
 
                     int cartesianProductRecordSize = QueryCost.recordSize(cartesianProduct.getColumns());
-                    int cartesianProductNumRecords = QueryCost.numberRecords(cartesianProduct.getData());
+                    int cartesianProductNumRecords = cartesianProduct.getNumRows();
                     int cartesianProductBlockingFactor = QueryCost.blockingFactor(cartesianProductRecordSize);
                     int cartesianProductBlocks = QueryCost.blocks(cartesianProductNumRecords,
                             cartesianProductBlockingFactor);
@@ -1676,7 +1930,7 @@ public class Optimizer {
                     pipelinedProductionCostWork.append("First Relation (Left Subtree):\n");
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(firstResultSet.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(firstResultSet.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(firstResultSet.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(firstTableRecordSize))
                             .append("\n");
@@ -1687,7 +1941,7 @@ public class Optimizer {
                     pipelinedProductionCostWork.append("Second Relation (Right Subtree):\n");
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(secondResultSet.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(secondResultSet.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(secondResultSet.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(secondTableRecordSize))
                             .append("\n");
@@ -1698,7 +1952,7 @@ public class Optimizer {
                     pipelinedProductionCostWork.append("Cartesian Product:\n");
                     pipelinedProductionCostWork.append(QueryCostToString.recordSize(cartesianProduct.getColumns()))
                             .append("\n");
-                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(cartesianProduct.getData()))
+                    pipelinedProductionCostWork.append(QueryCostToString.numberRecords(cartesianProduct.getNumRows()))
                             .append("\n");
                     pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(secondTableRecordSize))
                             .append("\n");
@@ -1716,7 +1970,7 @@ public class Optimizer {
                     List<String> groupByColumnNames = aggregation.getGroupByColumnNames();
                     List<String> aggregationTypes = aggregation.getAggregationTypes();
                     List<String> aggregatedColumnNames = aggregation.getAggregatedColumnNames();
-                    ResultSet resultSet = workingOperatorStack.pop();
+                    ResultSetEstimate resultSet = workingOperatorStack.pop();
                     workingOperatorStack.push(resultSet.aggregate(groupByColumnNames, aggregationTypes,
                             aggregatedColumnNames));
 
@@ -1724,7 +1978,7 @@ public class Optimizer {
                     // which means that it wasn't written to from previous operator nodes encountered)
                     int recordSize = QueryCost.recordSize(resultSet.getColumns());
                     int numRecords = maxNumRecsFromJoining == 0
-                            ? QueryCost.numberRecords(resultSet.getData())
+                            ? resultSet.getNumRows()
                             : maxNumRecsFromJoining;
                     int blockingFactor = QueryCost.blockingFactor(recordSize);
                     int blocks = QueryCost.blocks(numRecords, blockingFactor);
@@ -1734,7 +1988,7 @@ public class Optimizer {
                         pipelinedProductionCostWork.append(QueryCostToString.recordSize(resultSet.getColumns()))
                                 .append("\n");
                         pipelinedProductionCostWork.append(maxNumRecsFromJoining == 0
-                                ? QueryCostToString.numberRecords(resultSet.getData())
+                                ? QueryCostToString.numberRecords(resultSet.getNumRows())
                                 : "r = " + maxNumRecsFromJoining).append("\n");
                         pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(recordSize)).append("\n");
                         pipelinedProductionCostWork.append(QueryCostToString.blocks(numRecords, blockingFactor))
@@ -1758,7 +2012,7 @@ public class Optimizer {
                     List<String> aggregatedColumnNames = aggregateSelection.getColumnNames();
                     List<String> symbols = aggregateSelection.getSymbols();
                     List<String> values = aggregateSelection.getValues();
-                    ResultSet resultSet = workingOperatorStack.pop();
+                    ResultSetEstimate resultSet = workingOperatorStack.pop();
                     workingOperatorStack.push(resultSet.having(aggregationTypes, aggregatedColumnNames, symbols,
                             values));
 
@@ -1766,7 +2020,7 @@ public class Optimizer {
                     // which means that it wasn't written to from previous operator nodes encountered)
                     int recordSize = QueryCost.recordSize(resultSet.getColumns());
                     int numRecords = maxNumRecsFromJoining == 0
-                            ? QueryCost.numberRecords(resultSet.getData())
+                            ? resultSet.getNumRows()
                             : maxNumRecsFromJoining;
                     int blockingFactor = QueryCost.blockingFactor(recordSize);
                     int blocks = QueryCost.blocks(numRecords, blockingFactor);
@@ -1776,7 +2030,7 @@ public class Optimizer {
                         pipelinedProductionCostWork.append(QueryCostToString.recordSize(resultSet.getColumns()))
                                 .append("\n");
                         pipelinedProductionCostWork.append(maxNumRecsFromJoining == 0
-                                ? QueryCostToString.numberRecords(resultSet.getData())
+                                ? QueryCostToString.numberRecords(resultSet.getNumRows())
                                 : "r = " + maxNumRecsFromJoining).append("\n");
                         pipelinedProductionCostWork.append(QueryCostToString.blockingFactor(recordSize)).append("\n");
                         pipelinedProductionCostWork.append(QueryCostToString.blocks(numRecords, blockingFactor))
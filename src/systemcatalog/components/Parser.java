@@ -69,6 +69,8 @@ public class Parser {
                 return isValidBuildFileStructure(filteredInput);
             case REMOVE_FILE_STRUCTURE:
                 return isValidRemoveFileStructure(filteredInput);
+            case ANALYZE:
+                return isValidAnalyze(filteredInput);
             case UNKNOWN:
             default:
                 return false;
@@ -86,13 +88,19 @@ public class Parser {
         RuleGraph queryRuleGraph = RuleGraphTypes.getQueryRuleGraph();
 
         boolean isValid = queryRuleGraph.isSyntacticallyCorrect(filteredInput) &&
-                ! queryRuleGraph.hasIllegalReservedWord(filteredInput, 2, 9, 13, 15, 18, 20, 27, 29, 36, 38, 43, 52, 60, 62) &&
+                ! queryRuleGraph.hasIllegalReservedWord(filteredInput, 2, 9, 13, 15, 18, 20, 27, 29, 36, 38, 43, 52, 60, 62, 68) &&
                 // ensure that column names, table names, and other values are non numeric
-                queryRuleGraph.hasNonNumericAt(filteredInput, 2, 9, 13, 15, 18, 20, 27, 29, 38, 43, 52, 62) &&
+                queryRuleGraph.hasNonNumericAt(filteredInput, 2, 9, 13, 15, 18, 20, 27, 29, 38, 43, 52, 62, 68) &&
                 // table names referenced in FROM clause must be unique
                 ! queryRuleGraph.hasDuplicatesAt(filteredInput, 13, 15, 18) &&
                 // column names referenced in group by clause must be unique
                 ! queryRuleGraph.hasDuplicatesAt(filteredInput, 43) &&
+                // same for the order by clause
+                ! queryRuleGraph.hasDuplicatesAt(filteredInput, 68) &&
+                // the number of rows to limit to has to be a whole number that isn't negative
+                queryRuleGraph.hasNumericAt(filteredInput, 73) &&
+                queryRuleGraph.hasIntegerAt(filteredInput, 73) &&
+                queryRuleGraph.hasPositiveNumberAt(filteredInput, 73) &&
                 // >, <, >=, and <= can only be used with a date value for WHERE and HAVING clauses
                 ! queryRuleGraph.hasIllegalDateAt(filteredInput, new int[] {30, 31, 32, 33, 34, 35}, new int[] {36, 38}) &&
                 ! queryRuleGraph.hasIllegalDateAt(filteredInput, new int[] {54, 55, 56, 57, 58, 59}, new int[] {60, 62});
@@ -111,7 +119,7 @@ public class Parser {
 
         // if the verifier is off, check that each column name referenced is prefixed with a table name
         if (! isVerifierOn) {
-            List<String> columnNames = queryRuleGraph.getTokensAt(filteredInput, 2, 9, 20, 27, 29, 43, 52);
+            List<String> columnNames = queryRuleGraph.getTokensAt(filteredInput, 2, 9, 20, 27, 29, 43, 52, 68);
             for (String columnName : columnNames) {
                 if (! OptimizerUtilities.isPrefixed(columnName)) {
                     errorMessage = "Parser error when validating Query:\n" +
@@ -346,4 +354,23 @@ public class Parser {
 
         return isValid;
     }
+
+    /**
+     * @param filteredInput is the input after being filtered
+     * @return whether this is a valid ANALYZE command
+     */
+    private boolean isValidAnalyze(String[] filteredInput) {
+
+        RuleGraph analyzeRuleGraph = RuleGraphTypes.getAnalyzeRuleGraph();
+
+        boolean isValid = analyzeRuleGraph.isSyntacticallyCorrect(filteredInput) &&
+                ! analyzeRuleGraph.hasIllegalReservedWord(filteredInput, 1) &&
+                analyzeRuleGraph.hasNonNumericAt(filteredInput, 1) &&
+                ! analyzeRuleGraph.hasDuplicatesAt(filteredInput, 1);
+
+        errorMessage = isValid ? "" : "Parser error when validating Analyze command:\n" +
+                analyzeRuleGraph.getErrorMessage();
+
+        return isValid;
+    }
 }
\ No newline at end of file
@@ -94,6 +94,8 @@ public class SecurityChecker {
                 return isValidBuildFileStructure(filteredInput, currentUser);
             case REMOVE_FILE_STRUCTURE:
                 return isValidRemoveFileStructure(filteredInput, currentUser);
+            case ANALYZE:
+                return isValidAnalyze(filteredInput, currentUser);
             case UNKNOWN:
             default:
                 return false;
@@ -362,4 +364,28 @@ public class SecurityChecker {
 
         return false;
     }
+
+    /**
+     * Checks if the current user has the INDEX privilege on the supplied tables, gathering statistics is
+     * treated like building a file structure since both only help the optimizer.
+     * @param filteredInput is the filtered input
+     * @param currentUser is the current user of the system
+     * @return whether the current user has the correct table privileges for the ANALYZE command
+     */
+    public boolean isValidAnalyze(String[] filteredInput, User currentUser) {
+
+        RuleGraph analyzeRuleGraph = RuleGraphTypes.getAnalyzeRuleGraph();
+        List<String> tableNames = analyzeRuleGraph.getTokensAt(filteredInput, 1);
+
+        for (String tableName : tableNames) {
+            if (! currentUser.hasPrivilegeOnTable(tableName, Privilege.INDEX)) {
+                errorMessage = "User \"" + currentUser.getUsername() + "\" does not have the passable " +
+                        "\"INDEX\" privilege on Table\n\"" + tableName + "\", therefore, " +
+                        "the Analyze command was not executed";
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
\ No newline at end of file
@@ -105,6 +105,8 @@ public class Verifier {
                 return isValidBuildFileStructure(filteredInput, tables);
             case REMOVE_FILE_STRUCTURE:
                 return isValidRemoveFileStructure(filteredInput, tables);
+            case ANALYZE:
+                return isValidAnalyze(filteredInput, tables);
             case UNKNOWN:
             default:
                 return false;
@@ -138,7 +140,7 @@ public class Verifier {
 
         // check that all columns exist within the tables referenced
         List<Table> referencedTables = Utilities.getReferencedTables(tableNames, systemTables);
-        List<String> columnNames = queryRuleGraph.getTokensAt(filteredInput, 2, 9, 20, 27, 29, 43, 52);
+        List<String> columnNames = queryRuleGraph.getTokensAt(filteredInput, 2, 9, 20, 27, 29, 43, 52, 68);
         OptimizerUtilities.getColumnNamesFromStar(columnNames, referencedTables);
 
         for (String columnName : columnNames) {
@@ -438,6 +440,27 @@ public class Verifier {
             }
         }
 
+
+        // rows are ordered after the projection, so order by clause columns have to be present in the select clause
+        boolean hasStar = ! queryRuleGraph.getTokensAt(filteredInput, 1).isEmpty();
+        List<String> selectClauseColumnNames = queryRuleGraph.getTokensAt(filteredInput, 2);
+        List<String> orderByClauseColumnNames = queryRuleGraph.getTokensAt(filteredInput, 68);
+        OptimizerUtilities.prefixColumnNamesWithTableNames(selectClauseColumnNames, referencedTables);
+
+        for (String orderByClauseColumnName : orderByClauseColumnNames) {
+
+            String prefixedColumnName =
+                    OptimizerUtilities.prefixColumnNameWithTableName(orderByClauseColumnName, referencedTables);
+            boolean foundColumn = hasStar || selectClauseColumnNames.stream()
+                    .anyMatch(selectClauseColumnName -> selectClauseColumnName.equalsIgnoreCase(prefixedColumnName));
+
+            if (! foundColumn) {
+                errorMessage = queryError + "Did not find order by clause column \"" + orderByClauseColumnName +
+                        "\" in select clause";
+                return false;
+            }
+        }
+
         return true;
     }
 
@@ -1042,4 +1065,30 @@ public class Verifier {
 
         return true;
     }
+
+    /**
+     * Returns whether the data referenced in the ANALYZE command makes sense with respect to the data on the system.
+     * @param filteredInput is the filtered input
+     * @param tables are the tables of the system
+     * @return whether the ANALYZE command is valid
+     */
+    public boolean isValidAnalyze(String[] filteredInput, List<Table> tables) {
+
+        String analyzeError = "Verifier error when validating Analyze statement:\n";
+        RuleGraph analyzeRuleGraph = RuleGraphTypes.getAnalyzeRuleGraph();
+
+        // make sure tables exist
+        List<String> tableNames = analyzeRuleGraph.getTokensAt(filteredInput, 1);
+
+        for (String tableName : tableNames) {
+            Table referencedTable = Utilities.getReferencedTable(tableName, tables);
+            boolean hasTable = referencedTable != null;
+            if (! hasTable) {
+                errorMessage = analyzeError + "Table \"" + tableName + "\" does not exist";
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
\ No newline at end of file
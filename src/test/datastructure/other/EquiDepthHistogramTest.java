@@ -0,0 +1,42 @@
+package test.datastructure.other;
+
+import datastructures.misc.EquiDepthHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EquiDepthHistogramTest {
+
+    @Test
+    public void testBounds() {
+
+        double[] keys = {1, 2, 3, 4, 5, 6, 7, 8};
+        EquiDepthHistogram histogram = EquiDepthHistogram.of(keys, keys.length, 4);
+
+        assertArrayEquals(new double[] {1, 3, 5, 7, 8}, histogram.getBounds());
+        assertEquals(4, histogram.getNumBars());
+
+        // can't have more bars than values
+        assertEquals(2, EquiDepthHistogram.of(keys, 2, 4).getNumBars());
+        assertNull(EquiDepthHistogram.of(keys, 0, 4));
+    }
+
+    @Test
+    public void testSkewedValues() {
+
+        // half of the values are 1, the rest are spread out up to 1000
+        double[] keys = new double[100];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i < 50 ? 1 : (i - 49) * 20;
+        }
+
+        EquiDepthHistogram histogram = EquiDepthHistogram.of(keys, keys.length, 10);
+
+        assertEquals(0.5, histogram.getFractionEqual(1), 0.1);
+        assertEquals(0, histogram.getFractionEqual(500));
+        assertEquals(0, histogram.getFractionBelow(1));
+        assertEquals(0.75, histogram.getFractionBelow(500), 0.05);
+        assertEquals(1, histogram.getFractionBelow(1001));
+    }
+}
@@ -0,0 +1,84 @@
+package test.datastructure.relation;
+
+import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that grouping and aggregating a result set in one pass gives the expected groups and values.
+ */
+class AggregateTest {
+
+    private ResultSet resultSet;
+
+    @BeforeEach
+    public void init() {
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(Arrays.asList("Germany", "Berlin", "4.5", "2021-01-05")));
+        rows.add(new ArrayList<>(Arrays.asList("Mexico", "México D.F.", "2", "2020-12-31")));
+        rows.add(new ArrayList<>(Arrays.asList("germany", "Berlin", "1.25", "2021-01-01")));
+        rows.add(new ArrayList<>(Arrays.asList("Mexico", "México D.F.", "null", "null")));
+        rows.add(new ArrayList<>(Arrays.asList("Germany", "Aachen", "3", "2021-01-09")));
+
+        Table table = new Table("Customers", new ArrayList<>(Arrays.asList(
+                new Column("Country", DataType.CHAR, 10, 0), new Column("City", DataType.CHAR, 15, 0),
+                new Column("Balance", DataType.NUMBER, 5, 2), new Column("Joined", DataType.DATE, 10, 0))),
+                new ArrayList<>(), new HashMap<>());
+        table.setTableData(new TableData(new ArrayList<>(Arrays.asList(10, 15, 5, 10)), rows,
+                Arrays.asList(DataType.CHAR, DataType.CHAR, DataType.NUMBER, DataType.DATE)));
+
+        resultSet = new ResultSet(table);
+    }
+
+    @Test
+    public void testGroupsInOrderOfFirstRow() {
+
+        ResultSet aggregated = resultSet.aggregate(Collections.singletonList("Customers.Country"),
+                Arrays.asList("SUM", "COUNT", "MIN", "MAX"),
+                Arrays.asList("Customers.Balance", "Customers.City", "Customers.Joined", "Customers.Balance"));
+
+        List<List<String>> expected = new ArrayList<>();
+        expected.add(Arrays.asList("Germany", "8.75", "3", "2021-01-01", "4.50"));
+        expected.add(Arrays.asList("Mexico", "2.00", "2", "2020-12-31", "2.00"));
+
+        assertEquals(expected, aggregated.getData());
+        assertEquals("SUM(Customers.Balance)", aggregated.getColumns().get(1).getColumnName());
+        assertEquals(DataType.NUMBER, aggregated.getColumns().get(2).getDataType());
+    }
+
+    @Test
+    public void testMultipleGroupByColumns() {
+
+        ResultSet aggregated = resultSet.aggregate(Arrays.asList("Customers.Country", "Customers.City"),
+                Collections.singletonList("AVG"), Collections.singletonList("Customers.Balance"));
+
+        List<List<String>> expected = new ArrayList<>();
+        expected.add(Arrays.asList("Germany", "Berlin", "2.88"));
+        expected.add(Arrays.asList("Mexico", "México D.F.", "2.00"));
+        expected.add(Arrays.asList("Germany", "Aachen", "3.00"));
+
+        assertEquals(expected, aggregated.getData());
+    }
+
+    @Test
+    public void testNoGroupByColumns() {
+
+        ResultSet aggregated = resultSet.aggregate(new ArrayList<>(), Arrays.asList("AVG", "COUNT", "MAX"),
+                Arrays.asList("Customers.Balance", "Customers.Country", "Customers.Joined"));
+
+        assertEquals(Collections.singletonList(Arrays.asList("2.69", "5", "2021-01-09")), aggregated.getData());
+    }
+}
@@ -0,0 +1,135 @@
+package test.datastructure.relation;
+
+import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import enums.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that hash and sort-merge joins give the same rows, in the same order, as comparing every pair of rows.
+ */
+class InnerJoinTest {
+
+    @Test
+    public void testSmallerSideFirst() {
+        checkAgainstNestedLoop(createResultSet("A", DataType.NUMBER, 30, 10, new Random(1)),
+                createResultSet("B", DataType.NUMBER, 200, 10, new Random(2)));
+    }
+
+    @Test
+    public void testSmallerSideSecond() {
+        checkAgainstNestedLoop(createResultSet("A", DataType.NUMBER, 200, 10, new Random(3)),
+                createResultSet("B", DataType.NUMBER, 30, 10, new Random(4)));
+    }
+
+    @Test
+    public void testCharactersIgnoreCase() {
+        checkAgainstNestedLoop(createResultSet("A", DataType.CHAR, 50, 8, new Random(5)),
+                createResultSet("B", DataType.CHAR, 80, 8, new Random(6)));
+    }
+
+    @Test
+    public void testMixedTypes() {
+        checkAgainstNestedLoop(createResultSet("A", DataType.NUMBER, 50, 8, new Random(7)),
+                createResultSet("B", DataType.CHAR, 40, 8, new Random(8)));
+    }
+
+    @Test
+    public void testNumberRanges() {
+        for (String symbol : new String[] {"<", "<=", ">", ">=", "!="}) {
+            checkAgainstNestedLoop(createResultSet("A", DataType.NUMBER, 60, 15, new Random(11)),
+                    createResultSet("B", DataType.NUMBER, 90, 15, new Random(12)), symbol);
+        }
+    }
+
+    @Test
+    public void testDateRanges() {
+        for (String symbol : new String[] {"<", "<=", ">", ">="}) {
+            checkAgainstNestedLoop(createResultSet("A", DataType.DATE, 70, 20, new Random(13)),
+                    createResultSet("B", DataType.DATE, 40, 20, new Random(14)), symbol);
+        }
+    }
+
+    @Test
+    public void testEmptySide() {
+        ResultSet joined = createResultSet("A", DataType.NUMBER, 20, 5, new Random(9))
+                .innerJoin(createResultSet("B", DataType.NUMBER, 0, 5, new Random(10)), "A.Key", "=", "B.Key");
+        assertEquals(0, joined.getNumRows());
+        assertEquals(4, joined.getNumColumns());
+    }
+
+    private static void checkAgainstNestedLoop(ResultSet first, ResultSet second) {
+        checkAgainstNestedLoop(first, second, "=");
+    }
+
+    private static void checkAgainstNestedLoop(ResultSet first, ResultSet second, String symbol) {
+
+        List<List<String>> expected = nestedLoopJoin(first, second, Symbol.convertToSymbol(symbol));
+
+        // the join columns can be listed in either order, the symbol is flipped when they are
+        assertEquals(expected, first.innerJoin(second, "A.Key", symbol, "B.Key").getData());
+        assertEquals(expected, first.innerJoin(second, "B.Key", flip(symbol), "A.Key").getData());
+    }
+
+    private static String flip(String symbol) {
+        return symbol.startsWith("<") ? symbol.replace('<', '>') : symbol.replace('>', '<');
+    }
+
+    private static List<List<String>> nestedLoopJoin(ResultSet first, ResultSet second, Symbol symbol) {
+
+        List<List<String>> joined = new ArrayList<>();
+
+        for (int firstRow = 0; firstRow < first.getNumRows(); firstRow++) {
+            for (int secondRow = 0; secondRow < second.getNumRows(); secondRow++) {
+                if (first.getTableData().getColumnVector(0).matches(firstRow, symbol,
+                        second.getTableData().getColumnVector(0), secondRow)) {
+                    List<String> row = new ArrayList<>(first.getData().get(firstRow));
+                    row.addAll(second.getData().get(secondRow));
+                    joined.add(row);
+                }
+            }
+        }
+
+        return joined;
+    }
+
+    private static ResultSet createResultSet(String tableName, DataType keyType, int numRows, int numKeys,
+                                             Random random) {
+
+        String[] charKeys = {"Genaro", "genaro", "GENARO", "Carla", "carla", "Ramón", "RAMÓN", "3"};
+        List<List<String>> rows = new ArrayList<>();
+
+        for (int i = 0; i < numRows; i++) {
+            String key;
+            if (random.nextInt(10) == 0) {
+                key = "null";
+            } else if (keyType == DataType.DATE) {
+                key = LocalDate.of(2021, 1, 1).plusDays(random.nextInt(numKeys)).toString();
+            } else if (keyType == DataType.CHAR) {
+                key = charKeys[random.nextInt(Math.min(numKeys, charKeys.length))];
+            } else {
+                key = String.valueOf(random.nextInt(numKeys));
+            }
+            rows.add(new ArrayList<>(Arrays.asList(key, String.valueOf(i))));
+        }
+
+        Table table = new Table(tableName, new ArrayList<>(Arrays.asList(new Column("Key", keyType, 10, 0),
+                new Column("Row", DataType.NUMBER, 5, 0))), new ArrayList<>(), new HashMap<>());
+        table.setTableData(new TableData(new ArrayList<>(Arrays.asList(10, 5)), rows,
+                Arrays.asList(keyType, DataType.NUMBER)));
+
+        return new ResultSet(table);
+    }
+}
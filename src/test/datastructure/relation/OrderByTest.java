@@ -0,0 +1,118 @@
+package test.datastructure.relation;
+
+import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that ordering a result set on one or more columns puts the rows in the expected order.
+ */
+class OrderByTest {
+
+    private ResultSet resultSet;
+
+    @BeforeEach
+    public void init() {
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(Arrays.asList("Germany", "Berlin", "4.5", "2021-01-05")));
+        rows.add(new ArrayList<>(Arrays.asList("Mexico", "México D.F.", "2", "2020-12-31")));
+        rows.add(new ArrayList<>(Arrays.asList("germany", "Berlin", "1.25", "2021-01-01")));
+        rows.add(new ArrayList<>(Arrays.asList("Mexico", "México D.F.", "null", "null")));
+        rows.add(new ArrayList<>(Arrays.asList("Germany", "Aachen", "3", "2021-01-09")));
+
+        Table table = new Table("Customers", new ArrayList<>(Arrays.asList(
+                new Column("Country", DataType.CHAR, 10, 0), new Column("City", DataType.CHAR, 15, 0),
+                new Column("Balance", DataType.NUMBER, 5, 2), new Column("Joined", DataType.DATE, 10, 0))),
+                new ArrayList<>(), new HashMap<>());
+        table.setTableData(new TableData(new ArrayList<>(Arrays.asList(10, 15, 5, 10)), rows,
+                Arrays.asList(DataType.CHAR, DataType.CHAR, DataType.NUMBER, DataType.DATE)));
+
+        resultSet = new ResultSet(table);
+    }
+
+    @Test
+    public void testNullsLastWhenAscending() {
+
+        ResultSet ordered = resultSet.orderBy(Collections.singletonList("Customers.Joined"),
+                Collections.singletonList(true));
+
+        assertEquals(Arrays.asList("2020-12-31", "2021-01-01", "2021-01-05", "2021-01-09", "null"),
+                ordered.getColumnDataAt(3));
+    }
+
+    @Test
+    public void testCharacterNullsOrderedLikeOtherNulls() {
+
+        // "null" would otherwise be ordered between "Nuremberg" and "Oslo"
+        resultSet.getTableData().updateCellAt(1, 1, "Nuremberg");
+        resultSet.getTableData().updateCellAt(3, 1, "null");
+        resultSet.getTableData().updateCellAt(4, 1, "Oslo");
+
+        ResultSet ascending = resultSet.orderBy(Collections.singletonList("Customers.City"),
+                Collections.singletonList(true));
+        ResultSet descending = resultSet.orderBy(Collections.singletonList("Customers.City"),
+                Collections.singletonList(false));
+
+        assertEquals(Arrays.asList("Berlin", "Berlin", "Nuremberg", "Oslo", "null"), ascending.getColumnDataAt(1));
+        assertEquals(Arrays.asList("null", "Oslo", "Nuremberg", "Berlin", "Berlin"), descending.getColumnDataAt(1));
+        assertEquals(Arrays.asList("null", "Oslo"), resultSet.orderBy(Collections.singletonList("Customers.City"),
+                Collections.singletonList(false), 2).getColumnDataAt(1));
+    }
+
+    @Test
+    public void testEqualRowsKeepTheirOrder() {
+
+        ResultSet ordered = resultSet.orderBy(Collections.singletonList("Customers.City"),
+                Collections.singletonList(true));
+
+        assertEquals(Arrays.asList("Aachen", "Berlin", "Berlin", "México D.F.", "México D.F."),
+                ordered.getColumnDataAt(1));
+        assertEquals(Arrays.asList("2021-01-09", "2021-01-05", "2021-01-01", "2020-12-31", "null"),
+                ordered.getColumnDataAt(3));
+    }
+
+    @Test
+    public void testMultipleColumns() {
+
+        // characters are compared ignoring case, so the germany row is ordered on its balance with the others
+        ResultSet ordered = resultSet.orderBy(Arrays.asList("Customers.Country", "Customers.Balance"),
+                Arrays.asList(true, false));
+
+        assertEquals(Arrays.asList("2021-01-05", "2021-01-09", "2021-01-01", "null", "2020-12-31"),
+                ordered.getColumnDataAt(3));
+        assertEquals(resultSet.getColumns().size(), ordered.getColumns().size());
+        assertEquals(5, resultSet.getNumRows());
+    }
+
+    @Test
+    public void testFirstRowsOnly() {
+
+        ResultSet ordered = resultSet.orderBy(Collections.singletonList("Customers.Balance"),
+                Collections.singletonList(false), 3);
+
+        // nulls come first when descending
+        assertEquals(Arrays.asList("null", "2021-01-05", "2021-01-09"), ordered.getColumnDataAt(3));
+
+        // the rows kept are the same as ordering every row and taking the first ones
+        for (int limit = 0; limit <= 6; limit++) {
+            List<List<String>> expected = resultSet.orderBy(Arrays.asList("Customers.City", "Customers.Joined"),
+                    Arrays.asList(false, true)).getData();
+            List<List<String>> actual = resultSet.orderBy(Arrays.asList("Customers.City", "Customers.Joined"),
+                    Arrays.asList(false, true), limit).getData();
+            assertEquals(expected.subList(0, Math.min(limit, expected.size())), actual);
+        }
+    }
+}
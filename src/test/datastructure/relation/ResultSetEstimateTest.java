@@ -0,0 +1,257 @@
+package test.datastructure.relation;
+
+import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.resultset.ResultSetEstimate;
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import files.io.Serializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that statistics are gathered correctly and that estimates on evenly spread data are close to
+ * the number of rows the result sets actually have.
+ */
+class ResultSetEstimateTest {
+
+    private Table customers;
+    private Table orders;
+
+    @BeforeEach
+    public void init() {
+
+        // 100 customers with unique ids, 4 countries, every 10th customer hasn't joined yet
+        List<List<String>> customerRows = new ArrayList<>();
+        String[] countries = {"Germany", "germany", "Mexico", "Sweden", "UK"};
+
+        for (int i = 1; i <= 100; i++) {
+            String joined = i % 10 == 0 ? "null" : LocalDate.of(2021, 1, 1).plusDays(i).toString();
+            customerRows.add(new ArrayList<>(Arrays.asList(String.valueOf(i), countries[i % 5], joined)));
+        }
+
+        // 300 orders, 3 for each customer
+        List<List<String>> orderRows = new ArrayList<>();
+
+        for (int i = 0; i < 300; i++) {
+            orderRows.add(new ArrayList<>(Arrays.asList(String.valueOf(i), String.valueOf(i % 100 + 1))));
+        }
+
+        customers = createTable("Customers", customerRows, new Column("CustomerID", DataType.NUMBER, 5, 0),
+                new Column("Country", DataType.CHAR, 10, 0), new Column("Joined", DataType.DATE, 10, 0));
+        orders = createTable("Orders", orderRows, new Column("OrderID", DataType.NUMBER, 5, 0),
+                new Column("CustomerID", DataType.NUMBER, 5, 0));
+    }
+
+    @Test
+    public void testGatherStatistics() {
+
+        List<ColumnStatistics> statistics = customers.getTableData().getStatistics();
+
+        assertEquals(100, statistics.get(0).getNumDistinct());
+        assertEquals(1, statistics.get(0).getMin());
+        assertEquals(100, statistics.get(0).getMax());
+
+        // characters are compared ignoring case
+        assertEquals(4, statistics.get(1).getNumDistinct());
+        assertFalse(statistics.get(1).hasRange());
+
+        assertEquals(10, statistics.get(2).getNumNulls());
+        assertEquals(90, statistics.get(2).getNumDistinct());
+    }
+
+    @Test
+    public void testStatisticsKeptUpToDate() {
+
+        List<ColumnStatistics> statistics = customers.getTableData().getStatistics();
+        assertSame(statistics, customers.getTableData().getStatistics());
+
+        customers.addRow(new ArrayList<>(Arrays.asList("101", "Norway", "null")));
+
+        statistics = customers.getTableData().getStatistics();
+        assertEquals(101, statistics.get(0).getNumRows());
+        assertEquals(101, statistics.get(0).getMax());
+        assertEquals(5, statistics.get(1).getNumDistinct());
+        assertEquals(11, statistics.get(2).getNumNulls());
+    }
+
+    @Test
+    public void testSelection() {
+
+        ResultSetEstimate estimate = new ResultSetEstimate(customers);
+
+        assertEquals(100, estimate.getNumRows());
+        assertEquals(1, estimate.selection("Customers.CustomerID", "=", "42").getNumRows());
+        assertEquals(0, estimate.selection("Customers.CustomerID", "=", "420").getNumRows());
+        assertEquals(25, estimate.selection("Customers.Country", "=", "Mexico").getNumRows());
+        assertEquals(0, estimate.selection("Customers.Country", "<", "Mexico").getNumRows());
+
+        checkAgainstResultSet(customers, "Customers.CustomerID", "<", "51", 1);
+        checkAgainstResultSet(customers, "Customers.CustomerID", ">=", "51", 1);
+        checkAgainstResultSet(customers, "Customers.CustomerID", "!=", "7", 0);
+        checkAgainstResultSet(customers, "Customers.Joined", "<=", "2021-02-15", 2);
+        checkAgainstResultSet(customers, "Customers.Joined", ">", "2021-02-15", 2);
+    }
+
+    @Test
+    public void testUniqueValues() {
+
+        ResultSetEstimate estimate = new ResultSetEstimate(customers);
+
+        assertTrue(estimate.isUniqueValue("Customers.CustomerID", "42"));
+        assertFalse(estimate.isUniqueValue("Customers.Country", "Mexico"));
+        assertFalse(new ResultSetEstimate(orders).isUniqueValue("Orders.CustomerID", "42"));
+    }
+
+    @Test
+    public void testCombinedSelections() {
+
+        ResultSetEstimate estimate = new ResultSetEstimate(customers)
+                .selection("Customers.CustomerID", ">", "50")
+                .selection("Customers.Country", "=", "UK");
+
+        assertEquals(12, estimate.getNumRows(), 1);
+        assertEquals(1, estimate.getColumnStatistics("Customers.Country").getNumDistinct());
+        assertEquals(50, estimate.getColumnStatistics("Customers.CustomerID").getMin(), 1);
+    }
+
+    @Test
+    public void testJoins() {
+
+        ResultSetEstimate customerEstimate = new ResultSetEstimate(customers);
+        ResultSetEstimate orderEstimate = new ResultSetEstimate(orders);
+
+        // each order joins with exactly one customer, the columns can be listed in either order
+        assertEquals(300, customerEstimate.innerJoin(orderEstimate, "Customers.CustomerID", "=",
+                "Orders.CustomerID").getNumRows());
+        assertEquals(300, customerEstimate.innerJoin(orderEstimate, "Orders.CustomerID", "=",
+                "Customers.CustomerID").getNumRows());
+
+        ResultSetEstimate product = customerEstimate.cartesianProduct(orderEstimate);
+        assertEquals(30000, product.getNumRows());
+        assertEquals(5, product.getColumns().size());
+        assertEquals("Orders.CustomerID", product.getColumns().get(4).getColumnName());
+    }
+
+    @Test
+    public void testJoinSelection() {
+
+        ResultSetEstimate customerEstimate = new ResultSetEstimate(customers);
+        ResultSetEstimate orderEstimate = new ResultSetEstimate(orders);
+
+        // a join condition applied after a cartesian product gives the same rows as joining on it
+        ResultSetEstimate product = customerEstimate.cartesianProduct(orderEstimate);
+        assertEquals(300, product.joinSelection("Customers.CustomerID", "=", "Orders.CustomerID").getNumRows());
+
+        // a second condition between relations that are already joined narrows the join down
+        ResultSetEstimate joined = customerEstimate.innerJoin(orderEstimate, "Customers.CustomerID", "=",
+                "Orders.CustomerID");
+        assertEquals(1, joined.joinSelection("Customers.CustomerID", "=", "Orders.OrderID").getNumRows());
+        assertEquals(300, joined.joinSelection("Customers.CustomerID", "=", "Orders.Missing").getNumRows());
+    }
+
+    @Test
+    public void testAggregateAndHaving() {
+
+        ResultSetEstimate estimate = new ResultSetEstimate(customers).aggregate(
+                Collections.singletonList("Customers.Country"), Arrays.asList("COUNT", "MAX"),
+                Arrays.asList("Customers.CustomerID", "Customers.Joined"));
+
+        assertEquals(4, estimate.getNumRows());
+        assertEquals("MAX(Customers.Joined)", estimate.getColumns().get(2).getColumnName());
+        assertEquals(4, estimate.having(Collections.singletonList("COUNT"),
+                Collections.singletonList("Customers.CustomerID"), Collections.singletonList(">="),
+                Collections.singletonList("1")).getNumRows());
+
+        assertEquals(1, new ResultSetEstimate(orders).aggregate(new ArrayList<>(),
+                Collections.singletonList("COUNT"), Collections.singletonList("Orders.OrderID")).getNumRows());
+    }
+
+    @Test
+    public void testHistogramOnSkewedData() {
+
+        // most orders belong to the first customer, a histogram notices while the smallest and largest values can't
+        List<List<String>> orderRows = new ArrayList<>();
+
+        for (int i = 0; i < 100; i++) {
+            orderRows.add(new ArrayList<>(Arrays.asList(String.valueOf(i), String.valueOf(i < 80 ? 1 : i))));
+        }
+
+        Table skewedOrders = createTable("Orders", orderRows, new Column("OrderID", DataType.NUMBER, 5, 0),
+                new Column("CustomerID", DataType.NUMBER, 5, 0));
+
+        assertNotNull(skewedOrders.getTableData().getStatistics().get(1).getHistogram());
+        checkAgainstResultSet(skewedOrders, "Orders.CustomerID", "=", "1", 5);
+        checkAgainstResultSet(skewedOrders, "Orders.CustomerID", "<", "50", 5);
+    }
+
+    @Test
+    public void testSaveAndLoadStatistics() {
+
+        List<ColumnStatistics> statistics = customers.getTableData().analyze();
+        String serializedStatistics = Serializer.serializeStatistics(Arrays.asList(customers, orders));
+
+        // orders never had their statistics gathered, so they aren't saved
+        assertFalse(serializedStatistics.contains("Table: Orders"));
+
+        // built again from scratch, so nothing has been gathered yet
+        Table analyzedCustomers = customers;
+        init();
+        assertFalse(customers.getTableData().hasStatistics());
+
+        Serializer.unSerializeStatistics(serializedStatistics, Collections.singletonList(customers));
+        assertTrue(customers.getTableData().hasStatistics());
+
+        List<ColumnStatistics> loadedStatistics = customers.getTableData().getStatistics();
+
+        for (int i = 0; i < statistics.size(); i++) {
+            assertEquals(statistics.get(i).getNumNulls(), loadedStatistics.get(i).getNumNulls());
+            assertEquals(statistics.get(i).getNumDistinct(), loadedStatistics.get(i).getNumDistinct());
+            assertEquals(statistics.get(i).getMax(), loadedStatistics.get(i).getMax());
+        }
+
+        assertArrayEquals(statistics.get(2).getHistogram().getBounds(),
+                loadedStatistics.get(2).getHistogram().getBounds());
+        assertNull(loadedStatistics.get(1).getHistogram());
+
+        // statistics that don't describe the data are ignored
+        analyzedCustomers.addRow(new ArrayList<>(Arrays.asList("101", "Norway", "null")));
+        Serializer.unSerializeStatistics(serializedStatistics, Collections.singletonList(analyzedCustomers));
+        assertFalse(analyzedCustomers.getTableData().hasStatistics());
+    }
+
+    private static void checkAgainstResultSet(Table table, String columnName, String symbol, String value,
+                                              int delta) {
+        int actual = new ResultSet(table).selection(columnName, symbol, value).getNumRows();
+        int estimated = new ResultSetEstimate(table).selection(columnName, symbol, value).getNumRows();
+        assertEquals(actual, estimated, delta);
+    }
+
+    private static Table createTable(String tableName, List<List<String>> rows, Column... columns) {
+
+        List<DataType> dataTypes = new ArrayList<>();
+        List<Integer> paddingAmountList = new ArrayList<>();
+
+        for (Column column : columns) {
+            dataTypes.add(column.getDataType());
+            paddingAmountList.add(column.getColumnName().length() + 5);
+        }
+
+        Table table = new Table(tableName, new ArrayList<>(Arrays.asList(columns)), new ArrayList<>(),
+                new HashMap<>());
+        table.setTableData(new TableData(paddingAmountList, rows, dataTypes));
+
+        return table;
+    }
+}
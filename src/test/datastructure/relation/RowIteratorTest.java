@@ -0,0 +1,283 @@
+package test.datastructure.relation;
+
+import datastructures.relation.resultset.Parallelism;
+import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.resultset.RowIterator;
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.FileStructure;
+import datastructures.relation.table.component.TableData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that chaining row iterators gives the same result sets as applying each transformation in turn.
+ */
+class RowIteratorTest {
+
+    private ResultSet customers;
+    private ResultSet purchases;
+
+    @BeforeEach
+    public void init() {
+
+        List<List<String>> customerRows = new ArrayList<>();
+        customerRows.add(new ArrayList<>(Arrays.asList("1", "Genaro", "2021-01-05")));
+        customerRows.add(new ArrayList<>(Arrays.asList("2", "Carla", "2020-12-31")));
+        customerRows.add(new ArrayList<>(Arrays.asList("3", "genaro", "null")));
+        customerRows.add(new ArrayList<>(Arrays.asList("4", "Ramón", "2021-03-01")));
+
+        List<List<String>> purchaseRows = new ArrayList<>();
+        purchaseRows.add(new ArrayList<>(Arrays.asList("3", "4.5")));
+        purchaseRows.add(new ArrayList<>(Arrays.asList("1", "2")));
+        purchaseRows.add(new ArrayList<>(Arrays.asList("3", "10.25")));
+        purchaseRows.add(new ArrayList<>(Arrays.asList("5", "1")));
+
+        customers = createResultSet("Customers", customerRows,
+                new Column("CustomerID", DataType.NUMBER, 5, 0, FileStructure.HASH_TABLE),
+                new Column("FirstName", DataType.CHAR, 10, 0), new Column("Joined", DataType.DATE, 10, 0));
+        purchases = createResultSet("Purchases", purchaseRows, new Column("CustomerID", DataType.NUMBER, 5, 0),
+                new Column("Price", DataType.NUMBER, 5, 2));
+    }
+
+    @Test
+    public void testSelectionsAndProjection() {
+
+        ResultSet expected = customers
+                .selection("Customers.FirstName", "=", "GENARO")
+                .selection("Customers.CustomerID", ">", "1")
+                .projection(Arrays.asList("Customers.Joined", "Customers.CustomerID"));
+
+        ResultSet actual = RowIterator.scan(customers)
+                .selection("Customers.FirstName", "=", "GENARO")
+                .selection("Customers.CustomerID", ">", "1")
+                .projection(Arrays.asList("Customers.Joined", "Customers.CustomerID"))
+                .materialize();
+
+        assertSameResultSet(expected, actual);
+        assertEquals(Collections.singletonList(Arrays.asList("null", "3")), actual.getData());
+    }
+
+    @Test
+    public void testCompoundSelection() {
+
+        ResultSet expected = customers
+                .selection("Customers.FirstName", "!=", "Carla")
+                .selection("Customers.Joined", ">", "2021-01-01")
+                .selection("Customers.CustomerID", "=", "4");
+
+        List<String> columnNames = Arrays.asList("Customers.FirstName", "Customers.Joined", "Customers.CustomerID");
+        List<String> symbols = Arrays.asList("!=", ">", "=");
+        List<String> values = Arrays.asList("Carla", "2021-01-01", "4");
+
+        // checked in whichever order the statistics suggest, with or without them the rows are the same
+        assertSameResultSet(expected,
+                RowIterator.scan(customers).selection(columnNames, symbols, values).materialize());
+        customers.getTableData().analyze();
+        assertSameResultSet(expected,
+                RowIterator.scan(customers).selection(columnNames, symbols, values).materialize());
+        assertEquals(Collections.singletonList(Arrays.asList("4", "Ramón", "2021-03-01")), expected.getData());
+    }
+
+    @Test
+    public void testSelectionUsesIndex() {
+
+        ResultSet actual = RowIterator.scan(customers)
+                .selection("Customers.CustomerID", "=", "4")
+                .materialize();
+
+        assertSameResultSet(customers.selection("Customers.CustomerID", "=", "4"), actual);
+    }
+
+    @Test
+    public void testJoin() {
+
+        ResultSet expected = customers
+                .innerJoin(purchases, "Purchases.CustomerID", "=", "Customers.CustomerID")
+                .selection("Purchases.Price", ">", "3")
+                .projection(Arrays.asList("Customers.FirstName", "Purchases.Price"));
+
+        ResultSet actual = RowIterator.scan(customers)
+                .innerJoin(RowIterator.scan(purchases), "Purchases.CustomerID", "=", "Customers.CustomerID")
+                .selection("Purchases.Price", ">", "3")
+                .projection(Arrays.asList("Customers.FirstName", "Purchases.Price"))
+                .materialize();
+
+        assertSameResultSet(expected, actual);
+        assertEquals(2, actual.getNumRows());
+    }
+
+    @Test
+    public void testCartesianProduct() {
+
+        ResultSet expected = purchases.cartesianProduct(customers.selection("Customers.CustomerID", "<", "3"));
+
+        ResultSet actual = RowIterator.scan(purchases)
+                .cartesianProduct(RowIterator.scan(customers).selection("Customers.CustomerID", "<", "3"))
+                .materialize();
+
+        assertSameResultSet(expected, actual);
+        assertEquals(8, actual.getNumRows());
+    }
+
+    @Test
+    public void testJoinOfSelectionsAndJoins() {
+
+        // the rows of each side reach the outer join as row ids into three different tables
+        ResultSet expected = customers.selection("Customers.CustomerID", ">", "1")
+                .projection(Arrays.asList("Customers.CustomerID", "Customers.FirstName"))
+                .innerJoin(purchases.selection("Purchases.Price", "<", "10")
+                        .cartesianProduct(customers.selection("Customers.Joined", ">", "2021-01-01")
+                                .projection(Collections.singletonList("Customers.Joined"))),
+                        "Purchases.CustomerID", "<=", "Customers.CustomerID")
+                .projection(Arrays.asList("Customers.Joined", "Customers.FirstName", "Purchases.Price"));
+
+        ResultSet actual = RowIterator.scan(customers).selection("Customers.CustomerID", ">", "1")
+                .projection(Arrays.asList("Customers.CustomerID", "Customers.FirstName"))
+                .innerJoin(RowIterator.scan(purchases).selection("Purchases.Price", "<", "10")
+                        .cartesianProduct(RowIterator.scan(customers).selection("Customers.Joined", ">", "2021-01-01")
+                                .projection(Collections.singletonList("Customers.Joined"))),
+                        "Purchases.CustomerID", "<=", "Customers.CustomerID")
+                .projection(Arrays.asList("Customers.Joined", "Customers.FirstName", "Purchases.Price"))
+                .materialize();
+
+        assertSameResultSet(expected, actual);
+        assertEquals(10, actual.getNumRows());
+    }
+
+    @Test
+    public void testLimit() {
+
+        ResultSet actual = RowIterator.scan(customers)
+                .selection("Customers.CustomerID", ">", "1")
+                .projection(Collections.singletonList("Customers.CustomerID"))
+                .limit(2)
+                .materialize();
+
+        assertEquals(Arrays.asList(Collections.singletonList("2"), Collections.singletonList("3")), actual.getData());
+        assertEquals(4, RowIterator.scan(customers).limit(10).materialize().getNumRows());
+        assertEquals(0, RowIterator.scan(customers).limit(0).materialize().getNumRows());
+    }
+
+    @Test
+    public void testParallelMaterialize() {
+
+        ResultSet manyPurchases = createManyPurchases();
+        Parallelism parallelism = new Parallelism(4, true, 64);
+
+        ResultSet expected = RowIterator.scan(manyPurchases)
+                .selection("Purchases.Price", ">", "2")
+                .projection(Arrays.asList("Purchases.Price", "Purchases.CustomerID"))
+                .materialize();
+
+        ResultSet actual = RowIterator.scan(manyPurchases)
+                .selection("Purchases.Price", ">", "2")
+                .projection(Arrays.asList("Purchases.Price", "Purchases.CustomerID"))
+                .materialize(parallelism);
+
+        assertSameResultSet(expected, actual);
+        assertEquals(400, actual.getNumRows());
+
+        // every row is still there when morsels are put back together in the order they finish
+        Parallelism unordered = new Parallelism(4, false, 64);
+        List<List<String>> unorderedData = RowIterator.scan(manyPurchases)
+                .selection("Purchases.Price", ">", "2")
+                .materialize(unordered)
+                .getData();
+        List<List<String>> expectedData = manyPurchases.selection("Purchases.Price", ">", "2").getData();
+
+        Comparator<List<String>> byRow = Comparator.comparing(Object::toString);
+        unorderedData.sort(byRow);
+        expectedData.sort(byRow);
+        assertEquals(expectedData, unorderedData);
+
+        parallelism.shutdown();
+        unordered.shutdown();
+    }
+
+    @Test
+    public void testParallelAggregate() {
+
+        ResultSet manyPurchases = createManyPurchases();
+        Parallelism parallelism = new Parallelism(4, true, 64);
+
+        List<String> groupBy = Collections.singletonList("Purchases.CustomerID");
+        List<String> aggregationTypes = Arrays.asList("COUNT", "SUM", "MIN", "MAX", "AVG", "COUNT");
+        List<String> aggregated = Arrays.asList("Purchases.Price", "Purchases.Price", "Purchases.Bought",
+                "Purchases.Bought", "Purchases.Bought", "Purchases.Name");
+
+        ResultSet expected = manyPurchases.aggregate(groupBy, aggregationTypes, aggregated);
+        ResultSet actual = RowIterator.scan(manyPurchases).aggregate(groupBy, aggregationTypes, aggregated,
+                parallelism);
+
+        assertSameResultSet(expected, actual);
+        assertEquals(7, actual.getNumRows());
+
+        // a single group, even when no rows are left
+        assertSameResultSet(manyPurchases.aggregate(new ArrayList<>(), aggregationTypes, aggregated),
+                RowIterator.scan(manyPurchases).aggregate(new ArrayList<>(), aggregationTypes, aggregated,
+                        parallelism));
+        assertEquals(Arrays.asList("0", "0", "null", "null", "null", "0"), RowIterator.scan(manyPurchases)
+                .selection("Purchases.Price", "<", "0")
+                .aggregate(new ArrayList<>(), aggregationTypes, aggregated, parallelism).getData().get(0));
+
+        parallelism.shutdown();
+    }
+
+    /**
+     * 1000 purchases by 7 customers, enough to be split into many morsels.
+     */
+    private static ResultSet createManyPurchases() {
+
+        List<List<String>> rows = new ArrayList<>();
+        String[] names = {"Genaro", "genaro", "Carla", "null"};
+
+        for (int i = 0; i < 1000; i++) {
+            String bought = i % 9 == 0 ? "null" : LocalDate.of(2021, 1, 1).plusDays(i % 50).toString();
+            rows.add(new ArrayList<>(Arrays.asList(String.valueOf(i % 7), String.valueOf(i % 5),
+                    names[i % 4], bought)));
+        }
+
+        return createResultSet("Purchases", rows, new Column("CustomerID", DataType.NUMBER, 5, 0),
+                new Column("Price", DataType.NUMBER, 5, 0), new Column("Name", DataType.CHAR, 10, 0),
+                new Column("Bought", DataType.DATE, 10, 0));
+    }
+
+    private static void assertSameResultSet(ResultSet expected, ResultSet actual) {
+        assertEquals(expected.getData(), actual.getData());
+        assertEquals(expected.getTableData().getPaddingAmountList(), actual.getTableData().getPaddingAmountList());
+        assertEquals(expected.getNumColumns(), actual.getNumColumns());
+        for (int cols = 0; cols < expected.getNumColumns(); cols++) {
+            assertEquals(expected.getColumns().get(cols).getColumnName(),
+                    actual.getColumns().get(cols).getColumnName());
+        }
+    }
+
+    private static ResultSet createResultSet(String tableName, List<List<String>> rows, Column... columns) {
+
+        List<DataType> dataTypes = new ArrayList<>();
+        List<Integer> paddingAmountList = new ArrayList<>();
+
+        for (Column column : columns) {
+            dataTypes.add(column.getDataType());
+            paddingAmountList.add(column.getColumnName().length() + 5);
+        }
+
+        Table table = new Table(tableName, new ArrayList<>(Arrays.asList(columns)), new ArrayList<>(),
+                new HashMap<>());
+        table.setTableData(new TableData(paddingAmountList, rows, dataTypes));
+
+        return new ResultSet(table);
+    }
+}
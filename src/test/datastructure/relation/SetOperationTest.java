@@ -0,0 +1,95 @@
+package test.datastructure.relation;
+
+import datastructures.relation.resultset.ResultSet;
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that rows are matched up ignoring case, with nulls equal to each other, when taking the union,
+ * intersection, or distinct rows of result sets.
+ */
+class SetOperationTest {
+
+    private ResultSet customers;
+    private ResultSet otherCustomers;
+
+    @BeforeEach
+    public void init() {
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(Arrays.asList("Germany", "4.5", "2021-01-05")));
+        rows.add(new ArrayList<>(Arrays.asList("Mexico", "null", "null")));
+        rows.add(new ArrayList<>(Arrays.asList("germany", "4.5", "2021-01-05")));
+        rows.add(new ArrayList<>(Arrays.asList("Mexico", "null", "null")));
+        rows.add(new ArrayList<>(Arrays.asList("Germany", "3", "2021-01-05")));
+
+        List<List<String>> otherRows = new ArrayList<>();
+        otherRows.add(new ArrayList<>(Arrays.asList("MEXICO", "null", "null")));
+        otherRows.add(new ArrayList<>(Arrays.asList("Sweden", "1", "2020-12-31")));
+        otherRows.add(new ArrayList<>(Arrays.asList("Germany", "3", "2021-01-05")));
+        otherRows.add(new ArrayList<>(Arrays.asList("Sweden", "1", "2020-12-31")));
+
+        customers = createResultSet(rows);
+        otherCustomers = createResultSet(otherRows);
+    }
+
+    @Test
+    public void testDistinct() {
+
+        List<List<String>> expected = new ArrayList<>();
+        expected.add(Arrays.asList("Germany", "4.5", "2021-01-05"));
+        expected.add(Arrays.asList("Mexico", "null", "null"));
+        expected.add(Arrays.asList("Germany", "3", "2021-01-05"));
+
+        ResultSet distinct = customers.distinct();
+
+        assertEquals(expected.size(), distinct.getNumRows());
+        for (int rows = 0; rows < expected.size(); rows++) {
+            assertEquals(expected.get(rows).get(0), distinct.getData().get(rows).get(0));
+            assertEquals(expected.get(rows).get(2), distinct.getData().get(rows).get(2));
+        }
+        assertEquals(3, distinct.getNumColumns());
+    }
+
+    @Test
+    public void testIntersection() {
+
+        // rows of the first result set are kept, including their duplicates
+        ResultSet intersection = customers.intersection(otherCustomers);
+
+        assertEquals(3, intersection.getNumRows());
+        assertEquals(Arrays.asList("Mexico", "Mexico", "Germany"), intersection.getColumnDataAt(0));
+        assertEquals(0, customers.intersection(new ResultSet()).getNumRows());
+    }
+
+    @Test
+    public void testUnion() {
+
+        ResultSet union = customers.union(otherCustomers);
+
+        assertEquals(Arrays.asList("Germany", "Mexico", "Germany", "Sweden"), union.getColumnDataAt(0));
+        assertEquals(customers.distinct().getNumRows(), customers.union(customers).getNumRows());
+    }
+
+    private static ResultSet createResultSet(List<List<String>> rows) {
+
+        Table table = new Table("Customers", new ArrayList<>(Arrays.asList(
+                new Column("Country", DataType.CHAR, 10, 0), new Column("Balance", DataType.NUMBER, 5, 2),
+                new Column("Joined", DataType.DATE, 10, 0))), new ArrayList<>(), new HashMap<>());
+        table.setTableData(new TableData(new ArrayList<>(Arrays.asList(10, 5, 10)), rows,
+                Arrays.asList(DataType.CHAR, DataType.NUMBER, DataType.DATE)));
+
+        return new ResultSet(table);
+    }
+}
@@ -0,0 +1,312 @@
+package test.datastructure.relation;
+
+import datastructures.relation.table.component.CharVector;
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.DateVector;
+import datastructures.relation.table.component.NumberVector;
+import datastructures.relation.table.component.TableData;
+import enums.Symbol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that table data stored in typed column vectors behaves like the rows it was created from.
+ */
+class TableDataTest {
+
+    private TableData tableData;
+
+    @BeforeEach
+    public void init() {
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(Arrays.asList("1", "Genaro", "4.76", "2021-01-05")));
+        rows.add(new ArrayList<>(Arrays.asList("2", "Carla", "05", "2020-12-31")));
+        rows.add(new ArrayList<>(Arrays.asList("3", "genaro", "0.2", "null")));
+        tableData = new TableData(new ArrayList<>(Arrays.asList(5, 10, 5, 10)), rows,
+                Arrays.asList(DataType.NUMBER, DataType.CHAR, DataType.NUMBER, DataType.DATE));
+    }
+
+    @Test
+    public void testColumnsAreTyped() {
+        assertTrue(tableData.getColumnVector(0) instanceof NumberVector);
+        assertTrue(tableData.getColumnVector(1) instanceof CharVector);
+        assertTrue(tableData.getColumnVector(2) instanceof NumberVector);
+        assertTrue(tableData.getColumnVector(3) instanceof DateVector);
+    }
+
+    @Test
+    public void testValuesRoundTrip() {
+        assertEquals(Arrays.asList("1", "Genaro", "4.76", "2021-01-05"), tableData.getData().get(0));
+        assertEquals(Arrays.asList("2", "Carla", "05", "2020-12-31"), tableData.getData().get(1));
+        assertEquals(Arrays.asList("3", "genaro", "0.2", "null"), tableData.getData().get(2));
+    }
+
+    @Test
+    public void testSelect() {
+
+        int[] rowIds = new int[tableData.getNumRows()];
+
+        assertEquals(2, tableData.getColumnVector(1).select(Symbol.EQUAL, "GENARO", rowIds));
+        assertEquals(2, tableData.getColumnVector(2).select(Symbol.GREATER_THAN, "4.5", rowIds));
+        assertEquals(1, tableData.getColumnVector(2).select(Symbol.EQUAL, "5", rowIds));
+        assertEquals(1, rowIds[0]);
+
+        // null dates never match
+        assertEquals(1, tableData.getColumnVector(3).select(Symbol.LESS_THAN, "2021-01-01", rowIds));
+        assertEquals(1, tableData.getColumnVector(3).select(Symbol.NOT_EQUAL, "2021-01-05", rowIds));
+    }
+
+    @Test
+    public void testCompiledPredicates() {
+
+        IntPredicate greaterThan = tableData.getColumnVector(2).compile(Symbol.GREATER_THAN, "4.5");
+        assertTrue(greaterThan.test(0) && greaterThan.test(1));
+        assertFalse(greaterThan.test(2));
+
+        // characters only support = and !=, null dates never match
+        assertFalse(tableData.getColumnVector(1).compile(Symbol.LESS_THAN, "Zed").test(0));
+        assertTrue(tableData.getColumnVector(1).compile(Symbol.NOT_EQUAL, "GENARO").test(1));
+        assertFalse(tableData.getColumnVector(3).compile(Symbol.NOT_EQUAL, "2021-01-05").test(2));
+        assertFalse(tableData.getColumnVector(3).compile(Symbol.LESS_THAN, "2021-01-05").test(2));
+
+        // comparing against a row of another vector gives the same rows as comparing against its value,
+        // except that a null row matches nothing
+        Symbol[] symbols = {Symbol.EQUAL, Symbol.NOT_EQUAL, Symbol.GREATER_THAN, Symbol.LESS_THAN,
+                Symbol.GREATER_THAN_OR_EQUAL, Symbol.LESS_THAN_OR_EQUAL};
+
+        for (int col : new int[] {0, 2, 3}) {
+            ColumnVector columnVector = tableData.getColumnVector(col);
+            for (Symbol symbol : symbols) {
+                for (int otherRow = 0; otherRow < tableData.getNumRows(); otherRow++) {
+                    IntPredicate againstRow = columnVector.compile(symbol, columnVector, otherRow);
+                    IntPredicate againstValue = columnVector.compile(symbol, columnVector.get(otherRow));
+                    for (int rows = 0; rows < tableData.getNumRows(); rows++) {
+                        assertEquals(! columnVector.isNull(otherRow) && againstValue.test(rows), againstRow.test(rows));
+                        assertEquals(columnVector.matches(rows, symbol, columnVector, otherRow), againstRow.test(rows));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRowViewWritesThrough() {
+
+        tableData.getData().get(0).set(1, "Blah");
+        assertEquals("Blah", tableData.getCellAt(0, 1));
+
+        // swapping rows through the view
+        List<List<String>> rows = tableData.getData();
+        rows.set(0, rows.set(2, rows.get(0)));
+        assertEquals("3", tableData.getCellAt(0, 0));
+        assertEquals("1", tableData.getCellAt(2, 0));
+    }
+
+    @Test
+    public void testFallsBackToChar() {
+        tableData.updateCellAt(1, 0, "abc");
+        assertTrue(tableData.getColumnVector(0) instanceof CharVector);
+        assertEquals(Arrays.asList("1", "abc", "3"), tableData.getRowsAt(0));
+    }
+
+    @Test
+    public void testDeleteAndGather() {
+
+        tableData.deleteRows(new int[] {0, 2}, 2);
+        assertEquals(1, tableData.getNumRows());
+        assertEquals("Carla", tableData.getCellAt(0, 1));
+
+        TableData gathered = tableData.gather(new int[] {0, 0}, 2);
+        assertEquals(2, gathered.getNumRows());
+        assertEquals("2020-12-31", gathered.getCellAt(1, 3));
+    }
+
+    @Test
+    public void testUpdateClusteredColumn() {
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(Arrays.asList("1", "x")));
+        rows.add(new ArrayList<>(Arrays.asList("2", "x")));
+        rows.add(new ArrayList<>(Arrays.asList("3", "y")));
+        TableData clustered = new TableData(new ArrayList<>(Arrays.asList(5, 5)), rows,
+                Arrays.asList(DataType.NUMBER, DataType.CHAR));
+        clustered.clusterOn(0);
+
+        int[] rowIds = new int[3];
+        int count = clustered.select(1, Symbol.EQUAL, "x", rowIds);
+        clustered.updateCellsAt(rowIds, count, 0, "10");
+
+        assertEquals(Arrays.asList(Arrays.asList("3", "y"), Arrays.asList("10", "x"), Arrays.asList("10", "x")),
+                clustered.getData());
+    }
+
+    @Test
+    public void testSnapshotSharesUntilChanged() {
+
+        TableData snapshot = TableData.snapshotOf(tableData);
+        assertSame(tableData.getColumnVector(0), snapshot.getColumnVector(0));
+
+        // changing the original leaves the snapshot as it was
+        tableData.updateCellAt(0, 1, "Blah");
+        tableData.deleteRowAt(2);
+        assertNotSame(tableData.getColumnVector(1), snapshot.getColumnVector(1));
+        assertEquals("Genaro", snapshot.getCellAt(0, 1));
+        assertEquals(3, snapshot.getNumRows());
+        assertEquals(2, tableData.getNumRows());
+
+        // and the other way around
+        TableData otherSnapshot = TableData.snapshotOf(tableData);
+        otherSnapshot.addRow(new ArrayList<>(Arrays.asList("4", "Maria", "1", "2021-02-01")));
+        otherSnapshot.swapRows(0, 2);
+        assertEquals(2, tableData.getNumRows());
+        assertEquals("Blah", tableData.getCellAt(0, 1));
+        assertEquals("Maria", otherSnapshot.getCellAt(0, 1));
+    }
+
+    @Test
+    public void testReleasedSnapshotIsNotCopied() {
+
+        ColumnVector columnVector = tableData.getColumnVector(1);
+
+        TableData snapshot = TableData.snapshotOf(tableData);
+        TableData otherSnapshot = TableData.snapshotOf(tableData);
+        snapshot.release();
+
+        // still shared with the other snapshot
+        tableData.updateCellAt(0, 1, "Blah");
+        assertNotSame(columnVector, tableData.getColumnVector(1));
+        assertEquals("Genaro", otherSnapshot.getCellAt(0, 1));
+
+        columnVector = tableData.getColumnVector(1);
+        TableData.snapshotOf(tableData).release();
+
+        // a DML statement after the query is done with its snapshot changes the rows in place
+        tableData.addRow(new ArrayList<>(Arrays.asList("4", "Maria", "1", "2021-02-01")));
+        tableData.updateCellAt(1, 1, "Blah");
+        tableData.deleteRowAt(0);
+        assertSame(columnVector, tableData.getColumnVector(1));
+        assertEquals(3, tableData.getNumRows());
+    }
+
+    @Test
+    public void testSnapshotKeepsIndexesApart() {
+
+        tableData.buildHashIndex(1);
+        TableData snapshot = TableData.snapshotOf(tableData);
+        int[] rowIds = new int[4];
+
+        tableData.addRow(new ArrayList<>(Arrays.asList("4", "Genaro", "1", "2021-02-01")));
+        assertEquals(3, tableData.select(1, Symbol.EQUAL, "genaro", rowIds));
+        assertEquals(2, snapshot.select(1, Symbol.EQUAL, "genaro", rowIds));
+        assertArrayEquals(new int[] {0, 2}, Arrays.copyOf(rowIds, 2));
+    }
+
+    @Test
+    public void testHashIndexProbe() {
+
+        tableData.buildHashIndex(1);
+        tableData.buildHashIndex(2);
+        int[] rowIds = new int[tableData.getNumRows()];
+
+        // equality ignores case, just like scanning
+        assertEquals(2, tableData.select(1, Symbol.EQUAL, "GENARO", rowIds));
+        assertArrayEquals(new int[] {0, 2}, Arrays.copyOf(rowIds, 2));
+        assertEquals(1, tableData.select(2, Symbol.EQUAL, "5.0", rowIds));
+        assertEquals(1, rowIds[0]);
+        assertEquals(0, tableData.select(2, Symbol.EQUAL, "6", rowIds));
+    }
+
+    @Test
+    public void testHashIndexKeptUpToDate() {
+
+        tableData.buildHashIndex(0);
+        int[] rowIds = new int[10];
+
+        tableData.addRow(new ArrayList<>(Arrays.asList("2", "Dup", "1", "null")));
+        assertEquals(2, tableData.select(0, Symbol.EQUAL, "2", rowIds));
+        assertArrayEquals(new int[] {1, 3}, Arrays.copyOf(rowIds, 2));
+
+        tableData.updateCellAt(1, 0, "7");
+        assertEquals(1, tableData.select(0, Symbol.EQUAL, "2", rowIds));
+        assertEquals(3, rowIds[0]);
+        assertEquals(1, tableData.select(0, Symbol.EQUAL, "7", rowIds));
+
+        tableData.deleteRowAt(0);
+        assertEquals(1, tableData.select(0, Symbol.EQUAL, "2", rowIds));
+        assertEquals(2, rowIds[0]);
+
+        // the index follows the column when the column to its left is dropped
+        tableData.addColumn(5);
+        tableData.buildHashIndex(4);
+        tableData.deleteColumnAt(0);
+        assertTrue(tableData.hasHashIndex(3));
+        assertEquals(3, tableData.select(3, Symbol.EQUAL, "null", rowIds));
+
+        // falling back to characters doesn't leave the index behind
+        tableData.updateCellAt(0, 3, "abc");
+        assertEquals(1, tableData.select(3, Symbol.EQUAL, "ABC", rowIds));
+        assertEquals(0, rowIds[0]);
+    }
+
+    @Test
+    public void testHashIndexMatchesScan() {
+
+        Random random = new Random(42);
+        tableData.buildHashIndex(0);
+        tableData.buildHashIndex(1);
+        tableData.buildHashIndex(3);
+        String[] names = {"Genaro", "genaro", "Carla", "CARLA", "Bob"};
+
+        for (int i = 0; i < 500; i++) {
+
+            int numRows = tableData.getNumRows();
+
+            switch (random.nextInt(5)) {
+                case 0:
+                    tableData.addRow(new ArrayList<>(Arrays.asList(String.valueOf(random.nextInt(10)),
+                            names[random.nextInt(names.length)], "1", "2021-01-0" + (1 + random.nextInt(9)))));
+                    break;
+                case 1:
+                    if (numRows > 0) {
+                        tableData.updateCellAt(random.nextInt(numRows), 0, String.valueOf(random.nextInt(10)));
+                    }
+                    break;
+                case 2:
+                    if (numRows > 0) {
+                        tableData.deleteRowAt(random.nextInt(numRows));
+                    }
+                    break;
+                case 3:
+                    if (numRows > 1) {
+                        tableData.swapRows(random.nextInt(numRows), random.nextInt(numRows));
+                    }
+                    break;
+                default:
+                    if (numRows > 0) {
+                        tableData.updateCellAt(random.nextInt(numRows), 1, names[random.nextInt(names.length)]);
+                    }
+                    break;
+            }
+
+            int[] probed = new int[tableData.getNumRows()];
+            int[] scanned = new int[tableData.getNumRows()];
+            String[][] values = {{String.valueOf(random.nextInt(10))}, {names[random.nextInt(names.length)]},
+                    {}, {"2021-01-0" + (1 + random.nextInt(9))}};
+
+            for (int col : new int[] {0, 1, 3}) {
+                int numProbed = tableData.select(col, Symbol.EQUAL, values[col][0], probed);
+                int numScanned = tableData.getColumnVector(col).select(Symbol.EQUAL, values[col][0], scanned);
+                assertArrayEquals(Arrays.copyOf(scanned, numScanned), Arrays.copyOf(probed, numProbed));
+            }
+        }
+    }
+}
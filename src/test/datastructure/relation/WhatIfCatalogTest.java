@@ -0,0 +1,71 @@
+package test.datastructure.relation;
+
+import datastructures.relation.table.Table;
+import datastructures.relation.table.WhatIfCatalog;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.FileStructure;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that trying out file structures and clustering never changes the system tables or copies their data.
+ */
+class WhatIfCatalogTest {
+
+    private List<Table> tables;
+
+    @BeforeEach
+    public void init() {
+
+        Table customers = new Table("Customers", new ArrayList<>(Arrays.asList(
+                new Column("CustomerID", DataType.NUMBER, 5, 0, FileStructure.HASH_TABLE),
+                new Column("FirstName", DataType.CHAR, 10, 0))), new ArrayList<>(), new HashMap<>());
+        customers.addRow(new ArrayList<>(Arrays.asList("1", "Genaro")));
+
+        Table purchases = new Table("Purchases", new ArrayList<>(Arrays.asList(
+                new Column("CustomerID", DataType.NUMBER, 5, 0),
+                new Column("Price", DataType.NUMBER, 5, 2))), new ArrayList<>(), new HashMap<>());
+
+        tables = Arrays.asList(customers, purchases);
+    }
+
+    @Test
+    public void testSharesTableData() {
+
+        WhatIfCatalog whatIfCatalog = new WhatIfCatalog(tables);
+
+        for (int i = 0; i < tables.size(); i++) {
+            assertSame(tables.get(i).getTableData(), whatIfCatalog.getTables().get(i).getTableData());
+            assertNotSame(tables.get(i).getColumns().get(0), whatIfCatalog.getTables().get(i).getColumns().get(0));
+        }
+    }
+
+    @Test
+    public void testOriginalTablesUnchanged() {
+
+        WhatIfCatalog whatIfCatalog = new WhatIfCatalog(tables);
+
+        whatIfCatalog.setFileStructure("Purchases", "Price", FileStructure.CLUSTERED_B_TREE);
+        whatIfCatalog.setClustered("customers", "Purchases");
+
+        assertEquals(FileStructure.CLUSTERED_B_TREE,
+                whatIfCatalog.getTables().get(1).getColumn("Price").getFileStructure());
+        assertEquals("Purchases", whatIfCatalog.getTables().get(0).getClusteredWithTableName());
+        assertEquals(FileStructure.NONE, tables.get(1).getColumn("Price").getFileStructure());
+        assertEquals("none", tables.get(0).getClusteredWithTableName());
+
+        whatIfCatalog.removeAllFileStructures();
+
+        assertEquals(FileStructure.NONE, whatIfCatalog.getTables().get(0).getColumn("CustomerID").getFileStructure());
+        assertEquals("none", whatIfCatalog.getTables().get(1).getClusteredWithTableName());
+        assertEquals(FileStructure.HASH_TABLE, tables.get(0).getColumn("CustomerID").getFileStructure());
+    }
+}
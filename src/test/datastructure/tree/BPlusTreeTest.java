@@ -0,0 +1,145 @@
+package test.datastructure.tree;
+
+import datastructures.relation.table.component.BPlusTree;
+import datastructures.relation.table.component.ColumnVector;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import enums.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that searching a B+-tree finds exactly the rows that scanning the column does.
+ */
+public class BPlusTreeTest {
+
+    private static final Symbol[] SYMBOLS = {Symbol.EQUAL, Symbol.LESS_THAN, Symbol.LESS_THAN_OR_EQUAL,
+            Symbol.GREATER_THAN, Symbol.GREATER_THAN_OR_EQUAL};
+
+    @Test
+    public void testSearch() {
+
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(String.valueOf(i % 37));
+        }
+        Collections.shuffle(values, new Random(1));
+
+        ColumnVector columnVector = ColumnVector.of(DataType.NUMBER, values);
+        BPlusTree bPlusTree = new BPlusTree(columnVector, 4);
+
+        assertEquals(1000, bPlusTree.size());
+        assertTrue(bPlusTree.getHeight() > 3);
+
+        for (Symbol symbol : SYMBOLS) {
+            for (String value : new String[] {"-1", "0", "17", "17.5", "36", "40"}) {
+                assertSameRows(columnVector, bPlusTree, symbol, value);
+            }
+        }
+    }
+
+    @Test
+    public void testDatesAndNulls() {
+
+        ColumnVector columnVector = ColumnVector.of(DataType.DATE,
+                Arrays.asList("2021-01-05", "null", "2020-12-31", "2021-01-05", "null", "2021-03-01"));
+        BPlusTree bPlusTree = new BPlusTree(columnVector, 3);
+
+        assertEquals(4, bPlusTree.size());
+        int[] rowIds = new int[columnVector.size()];
+        assertEquals(2, bPlusTree.search(columnVector, Symbol.EQUAL, "2021-01-05", rowIds));
+        assertEquals(-1, bPlusTree.search(columnVector, Symbol.EQUAL, "null", rowIds));
+        assertEquals(-1, bPlusTree.search(columnVector, Symbol.NOT_EQUAL, "2021-01-05", rowIds));
+
+        for (Symbol symbol : SYMBOLS) {
+            assertSameRows(columnVector, bPlusTree, symbol, "2021-01-05");
+        }
+    }
+
+    @Test
+    public void testTableDataKeepsTreeUpToDate() {
+        checkAgainstScan(false);
+    }
+
+    @Test
+    public void testClusteredTableDataKeepsTreeUpToDate() {
+        checkAgainstScan(true);
+    }
+
+    private static void checkAgainstScan(boolean isClustered) {
+
+        Random random = new Random(7);
+        TableData tableData = new TableData(new ArrayList<>(Arrays.asList(5, 5)), new ArrayList<>(),
+                Arrays.asList(DataType.NUMBER, DataType.NUMBER));
+        tableData.buildBPlusTree(0, 3);
+        tableData.buildBPlusTree(1, 4);
+        if (isClustered) {
+            tableData.clusterOn(1);
+        }
+
+        for (int i = 0; i < 400; i++) {
+
+            int numRows = tableData.getNumRows();
+
+            switch (random.nextInt(isClustered ? 4 : 6)) {
+                case 0:
+                case 1:
+                case 4:
+                case 5:
+                    tableData.addRow(Arrays.asList(String.valueOf(random.nextInt(20)),
+                            random.nextInt(10) == 0 ? "null" : String.valueOf(random.nextInt(20))));
+                    break;
+                case 2:
+                    if (numRows > 0) {
+                        tableData.updateCellAt(random.nextInt(numRows), random.nextInt(2),
+                                String.valueOf(random.nextInt(20)));
+                    }
+                    break;
+                default:
+                    if (numRows > 0) {
+                        tableData.deleteRowAt(random.nextInt(numRows));
+                    }
+                    break;
+            }
+
+            // clustered rows stay in order with the nulls at the bottom
+            for (int rows = 1; isClustered && rows < tableData.getNumRows(); rows++) {
+                String previous = tableData.getCellAt(rows - 1, 1);
+                String current = tableData.getCellAt(rows, 1);
+                assertTrue(current.equals("null") ||
+                        (! previous.equals("null") && Double.parseDouble(previous) <= Double.parseDouble(current)));
+            }
+
+            int[] searched = new int[tableData.getNumRows()];
+            int[] scanned = new int[tableData.getNumRows()];
+            Symbol symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+            String value = String.valueOf(random.nextInt(20));
+
+            for (int col = 0; col < 2; col++) {
+                int numSearched = tableData.select(col, symbol, value, searched);
+                int numScanned = tableData.getColumnVector(col).select(symbol, value, scanned);
+                assertArrayEquals(Arrays.copyOf(scanned, numScanned), Arrays.copyOf(searched, numSearched));
+            }
+        }
+    }
+
+    private static void assertSameRows(ColumnVector columnVector, BPlusTree bPlusTree, Symbol symbol, String value) {
+
+        int[] searched = new int[columnVector.size()];
+        int[] scanned = new int[columnVector.size()];
+
+        int numSearched = bPlusTree.search(columnVector, symbol, value, searched);
+        int numScanned = columnVector.select(symbol, value, scanned);
+
+        int[] searchedRows = Arrays.copyOf(searched, numSearched);
+        Arrays.sort(searchedRows);
+        assertArrayEquals(Arrays.copyOf(scanned, numScanned), searchedRows);
+    }
+}
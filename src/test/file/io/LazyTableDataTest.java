@@ -0,0 +1,112 @@
+package test.file.io;
+
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.ColumnStatistics;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
+import files.io.FileType;
+import files.io.IO;
+import files.io.Serializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import utilities.Utilities;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that tables whose data is read the first time it's needed end up with the same data as tables
+ * read all at once, that nothing is read before then, and that data that couldn't be read is read again later.
+ */
+class LazyTableDataTest {
+
+    private List<Table> tables;
+    private List<Table> lazyTables;
+
+    @BeforeEach
+    public void init() {
+        String serializedTables = IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES);
+        tables = Serializer.unSerializeTables(serializedTables, false);
+        lazyTables = Serializer.unSerializeTables(serializedTables, false, true);
+    }
+
+    @Test
+    public void testReadOnFirstAccess() {
+
+        assertEquals(tables.size(), lazyTables.size());
+        assertTrue(lazyTables.stream().noneMatch(Table::isTableDataLoaded));
+
+        Table customers = Utilities.getReferencedTable("Customers", lazyTables);
+        assertEquals(Utilities.getReferencedTable("Customers", tables).getTableData().getData(),
+                customers.getTableData().getData());
+
+        assertTrue(customers.isTableDataLoaded());
+        assertEquals(1, lazyTables.stream().filter(Table::isTableDataLoaded).count());
+
+        for (int i = 0; i < tables.size(); i++) {
+            assertEquals(tables.get(i).getTableData().getData(), lazyTables.get(i).getTableData().getData());
+        }
+    }
+
+    @Test
+    public void testColumnsChangedBeforeRead() {
+
+        Table customers = Utilities.getReferencedTable("Customers", lazyTables);
+        int numRows = Utilities.getReferencedTable("Customers", tables).getNumRecords();
+
+        // the data is still read with the columns it was written with
+        customers.getColumns().get(1).setSize(2);
+        customers.addColumn(new Column("Nickname", DataType.CHAR, 10, 0));
+
+        assertEquals(numRows, customers.getNumRecords());
+        assertEquals(customers.getNumCols(), customers.getTableData().getColumnVectors().size());
+        assertEquals("null", customers.getTableData().getCellAt(0, customers.getNumCols() - 1));
+    }
+
+    @Test
+    public void testStatisticsHeldUntilRead() {
+
+        Table customers = Utilities.getReferencedTable("Customers", tables);
+        customers.getTableData().analyze();
+        String serializedStatistics = Serializer.serializeStatistics(Collections.singletonList(customers));
+
+        Serializer.unSerializeStatistics(serializedStatistics, lazyTables);
+        Table lazyCustomers = Utilities.getReferencedTable("Customers", lazyTables);
+
+        // saved again as they were without reading the data
+        assertEquals(serializedStatistics, Serializer.serializeStatistics(lazyTables));
+        assertFalse(lazyCustomers.isTableDataLoaded());
+
+        List<ColumnStatistics> statistics = lazyCustomers.getTableData().getStatistics();
+        assertTrue(lazyCustomers.getTableData().hasStatistics());
+        assertEquals(customers.getTableData().getStatistics().get(0).getNumDistinct(),
+                statistics.get(0).getNumDistinct());
+    }
+
+    @Test
+    public void testReadAgainAfterFailedRead() {
+
+        Table customers = Utilities.getReferencedTable("Customers", lazyTables);
+        TableData tableData = Utilities.getReferencedTable("Customers", tables).getTableData();
+        AtomicInteger numReads = new AtomicInteger();
+
+        customers.setTableDataLoader(() -> {
+            if (numReads.incrementAndGet() == 1) {
+                throw new UncheckedIOException(new IOException("disk went away"));
+            }
+            return tableData;
+        });
+
+        assertThrows(UncheckedIOException.class, customers::getTableData);
+        assertFalse(customers.isTableDataLoaded());
+
+        assertSame(tableData, customers.getTableData());
+        assertEquals(2, numReads.get());
+    }
+}
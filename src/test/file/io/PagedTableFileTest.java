@@ -0,0 +1,87 @@
+package test.file.io;
+
+import datastructures.relation.table.component.CharVector;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.DateVector;
+import datastructures.relation.table.component.NumberVector;
+import datastructures.relation.table.component.TableData;
+import files.io.PagedTableFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that table data written out to a paged file is read back in exactly the same.
+ */
+class PagedTableFileTest {
+
+    private Path path;
+    private TableData tableData;
+
+    @BeforeEach
+    public void init() throws IOException {
+
+        path = Files.createTempFile("PagedTableFileTest", PagedTableFile.FILE_EXTENSION);
+
+        List<List<String>> rows = new ArrayList<>();
+        rows.add(new ArrayList<>(Arrays.asList("1", "Genaro", "4.76", "2021-01-05")));
+        rows.add(new ArrayList<>(Arrays.asList("2", "Valença do Douro", "05", "2020-12-31")));
+        rows.add(new ArrayList<>(Arrays.asList("3", "Genaro", "null", "null")));
+        tableData = new TableData(new ArrayList<>(Arrays.asList(5, 20, 5, 10)), rows,
+                Arrays.asList(DataType.NUMBER, DataType.CHAR, DataType.NUMBER, DataType.DATE));
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        PagedTableFile.write(tableData, path);
+        TableData read = PagedTableFile.read(path, new ArrayList<>(Arrays.asList(5, 20, 5, 10)));
+
+        assertEquals(0, Files.size(path) % PagedTableFile.PAGE_SIZE);
+        assertEquals(tableData.getData(), read.getData());
+        assertFalse(Files.exists(path.resolveSibling(path.getFileName() + ".tmp")));
+        assertTrue(read.getColumnVector(0) instanceof NumberVector);
+        assertTrue(read.getColumnVector(1) instanceof CharVector);
+        assertTrue(read.getColumnVector(3) instanceof DateVector);
+    }
+
+    @Test
+    public void testUnusedDictionaryValuesAreDropped() throws IOException {
+
+        tableData.updateCellAt(1, 1, "Carla");
+        PagedTableFile.write(tableData, path);
+        TableData read = PagedTableFile.read(path, new ArrayList<>(Arrays.asList(5, 20, 5, 10)));
+
+        assertEquals(2, ((CharVector) read.getColumnVector(1)).getDictionary().size());
+        assertEquals("Carla", read.getCellAt(1, 1));
+    }
+
+    @Test
+    public void testEmptyTable() throws IOException {
+
+        tableData.deleteRows(new int[] {0, 1, 2}, 3);
+        PagedTableFile.write(tableData, path);
+
+        assertEquals(0, PagedTableFile.read(path, new ArrayList<>(Arrays.asList(5, 20, 5, 10))).getNumRows());
+    }
+
+    @Test
+    public void testNotAPagedFile() throws IOException {
+        Files.write(path, "Not paged".getBytes());
+        assertThrows(IOException.class, () -> PagedTableFile.read(path, new ArrayList<>()));
+    }
+}
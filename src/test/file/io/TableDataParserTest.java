@@ -0,0 +1,107 @@
+package test.file.io;
+
+import datastructures.relation.table.Table;
+import datastructures.relation.table.component.CharVector;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.DateVector;
+import datastructures.relation.table.component.NumberVector;
+import datastructures.relation.table.component.TableData;
+import files.io.Serializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that table data files parsed a batch of lines at a time, some of them in parallel, come out the
+ * same as the table data they were written from.
+ */
+class TableDataParserTest {
+
+    // enough rows for several batches
+    private static final int NUM_ROWS = 50000;
+
+    private Path path;
+    private Table table;
+
+    @BeforeEach
+    public void init() throws IOException {
+
+        path = Files.createTempFile("TableDataParserTest", ".txt");
+
+        table = new Table("Purchases");
+        table.setColumns(new ArrayList<>(Arrays.asList(
+                new Column("PurchaseID", DataType.NUMBER, 5, 0),
+                new Column("City", DataType.CHAR, 20, 0),
+                new Column("Price", DataType.NUMBER, 5, 0),
+                new Column("PurchaseDate", DataType.DATE, 10, 0))));
+
+        List<List<String>> rows = new ArrayList<>();
+        String[] cities = {"Genaro", "Valença do Douro", "Carla"};
+
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows.add(new ArrayList<>(Arrays.asList(String.valueOf(i), cities[i % cities.length],
+                    i % 7 == 0 ? "null" : "0" + (i % 100), i % 5 == 0 ? "null" : "2021-01-0" + (1 + i % 9))));
+        }
+
+        table.setTableData(new TableData(new ArrayList<>(Arrays.asList(10, 20, 5, 12)), rows));
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+
+        String serializedTableData = Serializer.serializeTableData(table);
+        Files.write(path, serializedTableData.getBytes(StandardCharsets.UTF_8));
+
+        TableData fromFile = Serializer.unSerializeTableData(path, table);
+        TableData fromString = Serializer.unSerializeTableData(serializedTableData, table);
+
+        assertEquals(NUM_ROWS, fromFile.getNumRows());
+        assertEquals(table.getTableData().getData(), fromFile.getData());
+        assertEquals(table.getTableData().getData(), fromString.getData());
+        assertTrue(fromFile.getColumnVector(0) instanceof NumberVector);
+        assertTrue(fromFile.getColumnVector(1) instanceof CharVector);
+        assertTrue(fromFile.getColumnVector(2) instanceof NumberVector);
+        assertTrue(fromFile.getColumnVector(3) instanceof DateVector);
+        assertEquals(3, ((CharVector) fromFile.getColumnVector(1)).getDictionary().size());
+    }
+
+    @Test
+    public void testFallBackToCharactersInLaterBatch() throws IOException {
+
+        // only the very last row can't be stored as a number
+        table.getTableData().updateCellAt(NUM_ROWS - 1, 2, "abc");
+        Files.write(path, Serializer.serializeTableData(table).getBytes(StandardCharsets.UTF_8));
+
+        TableData fromFile = Serializer.unSerializeTableData(path, table);
+
+        assertEquals(table.getTableData().getData(), fromFile.getData());
+        assertTrue(fromFile.getColumnVector(0) instanceof NumberVector);
+        assertTrue(fromFile.getColumnVector(2) instanceof CharVector);
+    }
+
+    @Test
+    public void testMissingFile() throws IOException {
+
+        Files.delete(path);
+        TableData fromFile = Serializer.unSerializeTableData(path, table);
+
+        assertEquals(0, fromFile.getNumRows());
+        assertEquals(table.getNumCols(), fromFile.getColumnVectors().size());
+    }
+}
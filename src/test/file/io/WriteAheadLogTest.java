@@ -0,0 +1,298 @@
+package test.file.io;
+
+import datastructures.relation.table.Table;
+import datastructures.user.User;
+import enums.InputType;
+import files.io.FileType;
+import files.io.IO;
+import files.io.Serializer;
+import files.io.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import systemcatalog.components.Compiler;
+import utilities.Utilities;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Makes sure that statements appended to the write-ahead log are read back in the same, that a record left
+ * half written is thrown away, that replaying the log gets the tables back to where they were, and that a
+ * checkpoint interrupted at any point leaves the data files and the log agreeing with each other.
+ */
+class WriteAheadLogTest {
+
+    private Path path;
+    private Path dataFile;
+    private WriteAheadLog writeAheadLog;
+
+    @BeforeEach
+    public void init() throws IOException {
+        path = Files.createTempFile("WriteAheadLogTest", ".log");
+        dataFile = Files.createTempFile("WriteAheadLogTest", ".txt");
+        Files.write(dataFile, "old".getBytes(StandardCharsets.UTF_8));
+        writeAheadLog = new WriteAheadLog(path);
+    }
+
+    @AfterEach
+    public void cleanUp() throws IOException {
+        writeAheadLog.close();
+        Files.deleteIfExists(path);
+        Files.deleteIfExists(dataFile);
+        Files.deleteIfExists(IO.getTemporaryPath(dataFile));
+    }
+
+    @Test
+    public void testRoundTrip() {
+
+        String[] insert = Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Valença\", \"Blah\")");
+        String[] delete = Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 1");
+
+        writeAheadLog.append(InputType.INSERT, insert);
+        writeAheadLog.append(InputType.DELETE, delete);
+
+        List<WriteAheadLog.Record> records = new WriteAheadLog(path).read();
+
+        assertEquals(2, records.size());
+        assertEquals(InputType.INSERT, records.get(0).getInputType());
+        assertArrayEquals(insert, records.get(0).getFilteredInput());
+        assertEquals(InputType.DELETE, records.get(1).getInputType());
+        assertArrayEquals(delete, records.get(1).getFilteredInput());
+    }
+
+    @Test
+    public void testTornRecordIsThrownAway() throws IOException {
+
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 1"));
+        long sizeOfFirstRecord = writeAheadLog.size();
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 2"));
+        writeAheadLog.close();
+
+        // the application went down half way through writing the second record
+        byte[] log = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(log, log.length - 3));
+
+        WriteAheadLog recovered = new WriteAheadLog(path);
+        assertEquals(1, recovered.read().size());
+        assertEquals(sizeOfFirstRecord, recovered.size());
+
+        // appended right after the last good record
+        recovered.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 3"));
+        recovered.close();
+        assertEquals(2, new WriteAheadLog(path).read().size());
+    }
+
+    @Test
+    public void testCorruptedRecordIsThrownAway() throws IOException {
+
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 1"));
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 2"));
+        writeAheadLog.close();
+
+        byte[] log = Files.readAllBytes(path);
+        log[log.length - 1] ^= 1;
+        Files.write(path, log);
+
+        List<WriteAheadLog.Record> records = new WriteAheadLog(path).read();
+        assertEquals(1, records.size());
+        assertTrue(Arrays.asList(records.get(0).getFilteredInput()).contains("1"));
+    }
+
+    @Test
+    public void testCheckpoint() {
+
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 1"));
+        assertTrue(writeAheadLog.size() > 0);
+        assertFalse(writeAheadLog.needsCheckpoint());
+
+        writeAheadLog.checkpoint();
+        assertEquals(0, writeAheadLog.size());
+        assertTrue(writeAheadLog.read().isEmpty());
+    }
+
+    @Test
+    public void testRecover() {
+
+        List<Table> tables = loadOriginalTables();
+        List<User> users = Serializer.unSerializeUsers(IO.readOriginalData(FileType.OriginalData.ORIGINAL_USERS));
+
+        Compiler compiler = new Compiler(writeAheadLog);
+        compiler.executeDML(InputType.INSERT, Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Blah\")"),
+                tables, users);
+        compiler.executeDML(InputType.UPDATE, Utilities.filterInput(
+                "UPDATE Customers SET FirstName = \"Blah\" WHERE CustomerID = 1"), tables, users);
+        compiler.executeDML(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 2"),
+                tables, users);
+
+        // starting over from the data files, as if the application went down before saving
+        List<Table> recoveredTables = loadOriginalTables();
+        assertEquals(3, new Compiler(new WriteAheadLog(path)).recover(recoveredTables, users));
+
+        assertEquals(getCustomers(tables).getTableData().getData(),
+                getCustomers(recoveredTables).getTableData().getData());
+    }
+
+    @Test
+    public void testDataWrittenLogNotTruncated() throws IOException {
+
+        List<Table> tables = loadOriginalTables();
+        List<User> users = Serializer.unSerializeUsers(IO.readOriginalData(FileType.OriginalData.ORIGINAL_USERS));
+
+        new Compiler(writeAheadLog).executeDML(InputType.INSERT,
+                Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Blah\")"), tables, users);
+
+        // the application went down after committing the checkpoint, before moving the data file into place
+        Files.write(IO.getTemporaryPath(dataFile), "new".getBytes(StandardCharsets.UTF_8));
+        writeAheadLog.commitCheckpoint(Collections.singletonList(dataFile));
+        writeAheadLog.close();
+
+        // the insert is in the data file, so it's never executed again
+        assertEquals(0, new Compiler(new WriteAheadLog(path)).recover(loadOriginalTables(), users));
+
+        WriteAheadLog recovered = new WriteAheadLog(path);
+        assertTrue(recovered.finishCheckpoint());
+        assertEquals("new", new String(Files.readAllBytes(dataFile), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(IO.getTemporaryPath(dataFile)));
+        assertEquals(0, recovered.size());
+
+        // finishing it again at the next startup changes nothing
+        assertFalse(recovered.finishCheckpoint());
+        assertEquals("new", new String(Files.readAllBytes(dataFile), StandardCharsets.UTF_8));
+        recovered.close();
+    }
+
+    @Test
+    public void testTornCheckpointIsThrownAway() throws IOException {
+
+        List<Table> tables = loadOriginalTables();
+        List<User> users = Serializer.unSerializeUsers(IO.readOriginalData(FileType.OriginalData.ORIGINAL_USERS));
+
+        new Compiler(writeAheadLog).executeDML(InputType.INSERT,
+                Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Blah\")"), tables, users);
+
+        // the application went down half way through writing the checkpoint record
+        Files.write(IO.getTemporaryPath(dataFile), "new".getBytes(StandardCharsets.UTF_8));
+        writeAheadLog.commitCheckpoint(Collections.singletonList(dataFile));
+        writeAheadLog.close();
+        byte[] log = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(log, log.length - 3));
+
+        WriteAheadLog recovered = new WriteAheadLog(path);
+        assertFalse(recovered.finishCheckpoint());
+        assertEquals("old", new String(Files.readAllBytes(dataFile), StandardCharsets.UTF_8));
+
+        // the data file never got the insert, so it's executed again
+        assertEquals(1, new Compiler(recovered).recover(loadOriginalTables(), users));
+        recovered.close();
+    }
+
+    @Test
+    public void testStatementNotLoggedIsNotExecuted() {
+
+        List<Table> tables = loadOriginalTables();
+        List<User> users = Serializer.unSerializeUsers(IO.readOriginalData(FileType.OriginalData.ORIGINAL_USERS));
+        int numRows = getCustomers(tables).getNumRecords();
+
+        // too long to be logged
+        char[] name = new char[70000];
+        Arrays.fill(name, 'a');
+        String[] insert = Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"" + new String(name) + "\")");
+
+        assertThrows(UncheckedIOException.class,
+                () -> new Compiler(writeAheadLog).executeDML(InputType.INSERT, insert, tables, users));
+
+        assertEquals(numRows, getCustomers(tables).getNumRecords());
+        assertEquals(0, writeAheadLog.size());
+    }
+
+    @Test
+    public void testRecoverStopsAtFailedStatement() {
+
+        List<Table> tables = loadOriginalTables();
+        List<User> users = Serializer.unSerializeUsers(IO.readOriginalData(FileType.OriginalData.ORIGINAL_USERS));
+        int numRows = getCustomers(tables).getNumRecords();
+
+        writeAheadLog.append(InputType.INSERT, Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Blah\")"));
+        writeAheadLog.append(InputType.DELETE, new String[] {"DELETE"});
+        writeAheadLog.append(InputType.INSERT, Utilities.filterInput("INSERT INTO Customers VALUES(-2, \"Blah\")"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> new Compiler(writeAheadLog).recover(tables, users));
+
+        assertTrue(e.getMessage().startsWith("Only 1 of the 3"));
+        assertEquals(numRows + 1, getCustomers(tables).getNumRecords());
+    }
+
+    @Test
+    public void testDataFileNotMovedKeepsLog() throws IOException {
+
+        // a directory that isn't empty can't be replaced
+        Path blockedFile = Files.createTempDirectory("WriteAheadLogTest");
+        Path blockingFile = Files.createFile(blockedFile.resolve("blocking"));
+
+        try {
+
+            writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 1"));
+            Files.write(IO.getTemporaryPath(dataFile), "new".getBytes(StandardCharsets.UTF_8));
+            Files.write(IO.getTemporaryPath(blockedFile), "new".getBytes(StandardCharsets.UTF_8));
+
+            assertThrows(UncheckedIOException.class,
+                    () -> writeAheadLog.checkpoint(Arrays.asList(dataFile, blockedFile)));
+
+            // kept so moving it is tried again, the statement before it is still never executed again
+            List<WriteAheadLog.Record> records = new WriteAheadLog(path).read();
+            assertEquals(2, records.size());
+            assertTrue(records.get(1).isCheckpoint());
+            assertTrue(writeAheadLog.readSinceCheckpoint().isEmpty());
+
+            Files.delete(blockingFile);
+            Files.delete(blockedFile);
+            assertTrue(writeAheadLog.finishCheckpoint());
+            assertEquals("new", new String(Files.readAllBytes(blockedFile), StandardCharsets.UTF_8));
+            assertEquals(0, writeAheadLog.size());
+
+        } finally {
+            if (Files.isDirectory(blockedFile)) {
+                Files.deleteIfExists(blockingFile);
+            }
+            Files.deleteIfExists(blockedFile);
+            Files.deleteIfExists(IO.getTemporaryPath(blockedFile));
+        }
+    }
+
+    @Test
+    public void testStatementsAfterCheckpointAreKept() {
+
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 1"));
+        writeAheadLog.commitCheckpoint(Collections.singletonList(dataFile));
+        String[] delete = Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 2");
+        writeAheadLog.append(InputType.DELETE, delete);
+
+        assertTrue(writeAheadLog.finishCheckpoint());
+
+        List<WriteAheadLog.Record> records = new WriteAheadLog(path).read();
+        assertEquals(1, records.size());
+        assertArrayEquals(delete, records.get(0).getFilteredInput());
+
+        // appended right after it
+        writeAheadLog.append(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = 3"));
+        assertEquals(2, new WriteAheadLog(path).read().size());
+    }
+
+    private static List<Table> loadOriginalTables() {
+        return Serializer.unSerializeTables(IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES), false);
+    }
+
+    private static Table getCustomers(List<Table> tables) {
+        return Utilities.getReferencedTable("Customers", tables);
+    }
+}
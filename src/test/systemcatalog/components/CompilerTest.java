@@ -3,6 +3,7 @@ package test.systemcatalog.components;
 import datastructures.querytree.QueryTree;
 import datastructures.relation.resultset.ResultSet;
 import datastructures.relation.table.Table;
+import datastructures.relation.table.component.TableData;
 import datastructures.user.User;
 import enums.InputType;
 import files.io.FileType;
@@ -19,8 +20,12 @@ import systemcatalog.components.Parser;
 import systemcatalog.components.Verifier;
 import utilities.Utilities;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -110,6 +115,67 @@ public class CompilerTest {
         }
     }
 
+    @Test
+    public void testOrderBy() {
+        String query = "SELECT CustomerID, LastName FROM Customers WHERE CustomerID < 50 ORDER BY LastName DESC, CustomerID";
+        System.out.println(query);
+        String[] filtered = Utilities.filterInput(query);
+        List<QueryTree> queryTrees = optimizer.getQueryTreeStates(filtered, tablesForQuery);
+        ResultSet resultSet = compiler.executeQuery(queryTrees, filtered, tablesForQuery);
+        System.out.println(resultSet);
+
+        List<List<String>> data = resultSet.getData();
+        assertEquals(49, data.size());
+
+        // last names go down, customers with the same last name are ordered by their ids going up
+        for (int rows = 1; rows < data.size(); rows++) {
+            int comparison = data.get(rows - 1).get(1).compareToIgnoreCase(data.get(rows).get(1));
+            assertTrue(comparison >= 0);
+            if (comparison == 0) {
+                assertTrue(Double.parseDouble(data.get(rows - 1).get(0)) < Double.parseDouble(data.get(rows).get(0)));
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT * FROM Customers",
+            "SELECT CustomerID, LastName FROM Customers WHERE CustomerID < 50 ORDER BY LastName DESC, CustomerID",
+            "SELECT PaymentMethod, COUNT(PaymentMethod) FROM CustomerPurchaseDetails GROUP BY PaymentMethod ORDER BY PaymentMethod"
+    })
+    public void testLimit(String query) {
+        System.out.println(query);
+        String[] filtered = Utilities.filterInput(query);
+        List<QueryTree> queryTrees = optimizer.getQueryTreeStates(filtered, tablesForQuery);
+        List<List<String>> allRows = compiler.executeQuery(queryTrees, filtered, tablesForQuery).getData();
+
+        // the first rows are the same as running the query without a limit
+        for (int limit : new int[] {0, 1, 3, allRows.size(), allRows.size() + 1}) {
+            String[] limited = Utilities.filterInput(query + " LIMIT " + limit);
+            queryTrees = optimizer.getQueryTreeStates(limited, tablesForQuery);
+            List<List<String>> firstRows = compiler.executeQuery(queryTrees, limited, tablesForQuery).getData();
+            assertEquals(allRows.subList(0, Math.min(limit, allRows.size())), firstRows);
+        }
+    }
+
+    @Test
+    public void testDistinct() {
+        String query = "SELECT DISTINCT PaymentMethod FROM CustomerPurchaseDetails";
+        System.out.println(query);
+        String[] filtered = Utilities.filterInput(query);
+        List<QueryTree> queryTrees = optimizer.getQueryTreeStates(filtered, tablesForQuery);
+        ResultSet resultSet = compiler.executeQuery(queryTrees, filtered, tablesForQuery);
+        System.out.println(resultSet);
+
+        // one row for each payment method, same as grouping by it
+        String groupByQuery = "SELECT PaymentMethod, COUNT(PaymentMethod) FROM CustomerPurchaseDetails GROUP BY PaymentMethod";
+        filtered = Utilities.filterInput(groupByQuery);
+        queryTrees = optimizer.getQueryTreeStates(filtered, tablesForQuery);
+        ResultSet groupedResultSet = compiler.executeQuery(queryTrees, filtered, tablesForQuery);
+
+        assertEquals(groupedResultSet.getColumnDataAt(0), resultSet.getColumnDataAt(0));
+    }
+
     @Test
     public void testCreateTable() {
         List<Table> tables = Serializer.unSerializeTables(IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES), false);
@@ -278,6 +344,52 @@ public class CompilerTest {
                 });
     }
 
+    @Test
+    public void testDirtyTables() {
+
+        List<Table> tables = Serializer.unSerializeTables(IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES), false);
+        assertTrue(tables.stream().noneMatch(Table::isDirty));
+
+        // nothing deleted, nothing to write out
+        compiler.executeDML(InputType.DELETE, Utilities.filterInput("DELETE FROM Customers WHERE CustomerID = -42"),
+                tables, users);
+        assertTrue(tables.stream().noneMatch(Table::isDirty));
+
+        compiler.executeDML(InputType.INSERT, Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Blah\")"),
+                tables, users);
+        compiler.executeDML(InputType.GRANT, Utilities.filterInput("GRANT SELECT ON Customers TO Jango"),
+                tables, users);
+
+        assertEquals(Collections.singletonList("Customers"), tables.stream()
+                .filter(Table::isDirty)
+                .map(Table::getTableName)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testUpdateClusteredColumn() {
+
+        List<Table> tables = Serializer.unSerializeTables(IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES), false);
+        compiler.executeDML(InputType.BUILD_FILE_STRUCTURE,
+                Utilities.filterInput("BUILD CLUSTERED BTREE ON CustomerID IN Customers"), tables, users);
+        compiler.executeDML(InputType.INSERT, Utilities.filterInput("INSERT INTO Customers VALUES(-2, \"Blah\")"),
+                tables, users);
+        compiler.executeDML(InputType.INSERT, Utilities.filterInput("INSERT INTO Customers VALUES(-1, \"Blah\")"),
+                tables, users);
+
+        // every row updated moves to the end of the table
+        compiler.executeDML(InputType.UPDATE, Utilities.filterInput(
+                "UPDATE Customers SET CustomerID = 1000 WHERE FirstName = \"Blah\""), tables, users);
+
+        TableData tableData = Utilities.getReferencedTable("Customers", tables).getTableData();
+        int numRows = tableData.getNumRows();
+
+        assertEquals("1", tableData.getCellAt(0, 0));
+        assertEquals("Genaro", tableData.getCellAt(0, 1));
+        assertEquals(Arrays.asList("1000", "Blah"), tableData.getData().get(numRows - 2).subList(0, 2));
+        assertEquals(Arrays.asList("1000", "Blah"), tableData.getData().get(numRows - 1).subList(0, 2));
+    }
+
     @Test
     public void testGrant() {
         List<Table> tables = Serializer.unSerializeTables(IO.readOriginalData(FileType.OriginalData.ORIGINAL_TABLES), false);
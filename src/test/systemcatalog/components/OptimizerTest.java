@@ -4,7 +4,12 @@ import datastructures.misc.Pair;
 import datastructures.misc.Quadruple;
 import datastructures.misc.Triple;
 import datastructures.querytree.QueryTree;
+import datastructures.querytree.operator.Operator;
+import datastructures.querytree.operator.types.Relation;
 import datastructures.relation.table.Table;
+import datastructures.relation.table.component.Column;
+import datastructures.relation.table.component.DataType;
+import datastructures.relation.table.component.TableData;
 import datastructures.user.User;
 import enums.InputType;
 import files.io.FileType;
@@ -14,15 +19,21 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import systemcatalog.components.Compiler;
 import systemcatalog.components.Optimizer;
 import systemcatalog.components.Parser;
 import systemcatalog.components.Verifier;
 import utilities.Utilities;
 
 import javax.rmi.CORBA.Util;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -334,4 +345,99 @@ public class OptimizerTest {
         System.out.println(costAnalysis.getThird() + "\n");
         System.out.println(costAnalysis.getFourth() + "\n");
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "SELECT FirstName, LastName, ProductName FROM Customers INNER JOIN CustomerPurchaseDetails ON Customers.CustomerID = CustomerPurchaseDetails.CustomerID INNER JOIN Products ON CustomerPurchaseDetails.ProductID = Products.ProductID",
+            "SELECT SupplierName, StoreName, ProductName FROM Suppliers INNER JOIN ShippingDetails ON Suppliers.SupplierID = ShippingDetails.SupplierID INNER JOIN Stores ON ShippingDetails.StoreID = Stores.StoreID INNER JOIN Products ON ShippingDetails.ProductID = Products.ProductID",
+            "SELECT SupplierName, StoreName FROM Suppliers, ShippingDetails, Stores WHERE Suppliers.SupplierID = ShippingDetails.SupplierID AND ShippingDetails.StoreID = Stores.StoreID AND Stores.StoreID > 2",
+    })
+    void testRearrangeJoins(String query) {
+
+        String[] filtered = Utilities.filterInput(query);
+        Optimizer optimizer = new Optimizer();
+        List<QueryTree> queryTrees = optimizer.getQueryTreeStates(filtered, tables);
+        optimizer.turnOffJoinOptimization();
+        List<QueryTree> unoptimizedQueryTrees = optimizer.getQueryTreeStates(filtered, tables);
+
+        // every relation is joined, never through a cartesian product
+        QueryTree afterRearrangingJoins = queryTrees.get(5);
+        assertEquals(0, afterRearrangingJoins.getTypeOccurrence(Operator.Type.CARTESIAN_PRODUCT));
+        assertEquals(afterRearrangingJoins.getTypeOccurrence(Operator.Type.RELATION) - 1,
+                afterRearrangingJoins.getTypeOccurrence(Operator.Type.INNER_JOIN));
+
+        // the order of the rows may change but not the rows themselves
+        Compiler compiler = new Compiler();
+        List<List<String>> expected = new ArrayList<>(compiler.executeQuery(unoptimizedQueryTrees, tables).getData());
+        List<List<String>> actual = new ArrayList<>(compiler.executeQuery(queryTrees, tables).getData());
+        expected.sort(Comparator.comparing(Object::toString));
+        actual.sort(Comparator.comparing(Object::toString));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testRearrangeJoinsPicksCheaperOrder() {
+
+        String[] filtered = Utilities.filterInput("SELECT ProductName FROM InventoryDetails, Products, Stores WHERE " +
+                "InventoryDetails.ProductID = Products.ProductID AND InventoryDetails.StoreID = Stores.StoreID AND " +
+                "Stores.StoreID = 1");
+        Optimizer optimizer = new Optimizer();
+        List<QueryTree> queryTrees = optimizer.getQueryTreeStates(filtered, tables);
+        optimizer.turnOffJoinOptimization();
+        List<QueryTree> unoptimizedQueryTrees = optimizer.getQueryTreeStates(filtered, tables);
+
+        // the single store left after its selection is joined first, so every intermediate result stays small
+        assertEquals(Arrays.asList("InventoryDetails", "Products", "Stores"),
+                getJoinOrder(unoptimizedQueryTrees.get(5)));
+        assertEquals(Arrays.asList("Stores", "InventoryDetails", "Products"), getJoinOrder(queryTrees.get(5)));
+    }
+
+    @Test
+    void testRearrangeJoinsGreedily() {
+
+        // more relations than are enumerated, chained together and each smaller than the one before it
+        int numRelations = 13;
+        List<Table> chainedTables = new ArrayList<>();
+        List<String> tableNames = new ArrayList<>();
+        List<String> joinConditions = new ArrayList<>();
+
+        for (int i = 0; i < numRelations; i++) {
+
+            Table table = new Table("Relation" + i);
+            table.setColumns(new ArrayList<>(Arrays.asList(new Column("ID", DataType.NUMBER, 5, 0),
+                    new Column("NextID", DataType.NUMBER, 5, 0))));
+
+            List<List<String>> rows = new ArrayList<>();
+            for (int rowNum = 0; rowNum < 10 * (numRelations - i); rowNum++) {
+                rows.add(new ArrayList<>(Arrays.asList(String.valueOf(rowNum), String.valueOf(rowNum))));
+            }
+
+            table.setTableData(new TableData(new ArrayList<>(Arrays.asList(5, 6)), rows));
+            chainedTables.add(table);
+            tableNames.add(table.getTableName());
+
+            if (i > 0) {
+                joinConditions.add("Relation" + (i - 1) + ".NextID = Relation" + i + ".ID");
+            }
+        }
+
+        String[] filtered = Utilities.filterInput("SELECT Relation0.ID FROM " + String.join(", ", tableNames) +
+                " WHERE " + String.join(" AND ", joinConditions));
+        QueryTree afterRearrangingJoins = new Optimizer().getQueryTreeStates(filtered, chainedTables).get(5);
+
+        // starts from the smallest relation at the end of the chain, which leaves only one relation to join next
+        Collections.reverse(tableNames);
+        assertEquals(tableNames, getJoinOrder(afterRearrangingJoins));
+        assertEquals(0, afterRearrangingJoins.getTypeOccurrence(Operator.Type.CARTESIAN_PRODUCT));
+    }
+
+    /**
+     * @return the names of the relations in the order they're joined in
+     */
+    private static List<String> getJoinOrder(QueryTree queryTree) {
+        return queryTree.getOperatorsAndLocationsOfType(Operator.Type.RELATION, QueryTree.TreeTraversal.PREORDER)
+                .keySet().stream()
+                .map(operator -> ((Relation) operator).getTableName())
+                .collect(Collectors.toList());
+    }
+}
@@ -88,6 +88,13 @@ public class ParserTest {
             "SELECT Col1, COUNT(Col1) FROM Tab1 GROUP BY Col1", // same columns referenced in select clause
             "SELECT Col1 FROM Tab1, Tab2 WHERE Tab1.Col1 = Tab2.Col1", // having a join predicate in where clause
             "SELECT Col1, Col1 FROM Tab1", // duplicate columns in select clause
+            "SELECT Col1 FROM Tab1 ORDER BY Col1", // order by clauses
+            "SELECT Col1, Col2 FROM Tab1 WHERE Col1 = 1 ORDER BY Col1 DESC, Col2 ASC",
+            "SELECT Col1, SUM(Col2) FROM Tab1 GROUP BY Col1 HAVING SUM(Col2) > 1 ORDER BY Col1 DESC",
+            "SELECT DISTINCT Col1, Col2 FROM Tab1", // distinct rows
+            "SELECT DISTINCT * FROM Tab1 ORDER BY Col1 LIMIT 5",
+            "SELECT Col1 FROM Tab1 LIMIT 10", // limit clauses
+            "SELECT Col1 FROM Tab1 WHERE Col1 = 1 ORDER BY Col1 DESC LIMIT 0",
     })
     void testValidQueries(String query) {
         System.out.println(query);
@@ -134,7 +141,20 @@ public class ParserTest {
             "SELECT Col1 FROM Tab1 WHERE Col1 > \"10-2-2019\"", // date is not formatted correctly
             "SELECT COUNT(Col1) FROM Tab1 GROUP BY Col1 HAVING Col1 > 5", // forgetting aggregation type in having clause
             "SELECT Col1, COUNT(Col1) FROM Tab1", // forgetting group by clause for non aggregated columns
-            "SELECT Col1, Col2, COUNT(Col3) FROM Tab1 GROUP BY Col1"
+            "SELECT Col1, Col2, COUNT(Col3) FROM Tab1 GROUP BY Col1",
+            "SELECT Col1 FROM Tab1 ORDER Col1", // forgetting BY in order by clause
+            "SELECT Col1 FROM Tab1 ORDER BY", // missing columns in order by clause
+            "SELECT Col1, Col2 FROM Tab1 ORDER BY Col1 Col2", // missing commas in order by clause
+            "SELECT Col1 FROM Tab1 ORDER BY Col1 ASC DESC",
+            "SELECT Col1 FROM Tab1 ORDER BY Col1, Col1", // duplicate columns in order by clause
+            "SELECT Col1 FROM Tab1 ORDER BY Col1 WHERE Col1 = 1", // order by clause has to come last
+            "SELECT Col1 FROM Tab1 LIMIT", // missing number of rows in limit clause
+            "SELECT Col1 FROM Tab1 LIMIT Col1",
+            "SELECT Col1 FROM Tab1 LIMIT -1", // number of rows has to be a whole number that isn't negative
+            "SELECT Col1 FROM Tab1 LIMIT 2.5",
+            "SELECT Col1 FROM Tab1 LIMIT 5 ORDER BY Col1", // limit clause has to come last
+            "SELECT Col1 DISTINCT FROM Tab1", // distinct has to come right after select
+            "SELECT DISTINCT DISTINCT Col1 FROM Tab1"
     })
     void testInvalidQueries(String query) {
         System.out.println(query);
@@ -537,4 +557,36 @@ public class ParserTest {
         assertFalse(isValid);
         System.out.println("-----------------------------------------------------------------------------------------");
     }
-}
\ No newline at end of file
+
+    // ANALYZE command -------------------------------------------------------------------------------------------------
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "ANALYZE Tab1", // simple
+            "analyze Tab1, Tab2, Tab3"
+    })
+    void testValidAnalyzeCommand(String analyze) {
+        System.out.println(analyze);
+        String[] filtered = Utilities.filterInput(analyze);
+        boolean isValid = parser.isValid(InputType.ANALYZE, filtered, true);
+        System.out.println("Error Code: " + parser.getErrorMessage());
+        assertTrue(isValid);
+        System.out.println("-----------------------------------------------------------------------------------------");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "ANALYZE", // missing table
+            "ANALYZE Tab1,", // trailing comma
+            "ANALYZE Table", // reserved word placement
+            "ANALYZE Tab1, tab1", // duplicate table
+            "ANALYZE 1" // number where one is not supposed to be
+    })
+    void testInvalidAnalyzeCommand(String analyze) {
+        System.out.println(analyze);
+        String[] filtered = Utilities.filterInput(analyze);
+        boolean isValid = parser.isValid(InputType.ANALYZE, filtered, true);
+        System.out.println("Error Code: " + parser.getErrorMessage());
+        assertFalse(isValid);
+        System.out.println("-----------------------------------------------------------------------------------------");
+    }
+}
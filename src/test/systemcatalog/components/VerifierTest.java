@@ -60,6 +60,9 @@ public class VerifierTest {
             "SELECT State, COUNT(State) FROM Stores GROUP BY State", // group by stuff
             "SELECT State, COUNT(State) FROM Stores GROUP BY State HAVING COUNT(State) > 1", // having clause stuff
             "SELECT PaymentMethod, COUNT(PaymentMethod), AVG(Quantity) FROM CustomerPurchaseDetails GROUP BY PaymentMethod HAVING AVG(Quantity) > 1",
+            "SELECT FirstName, LastName FROM Customers ORDER BY LastName DESC, FirstName", // order by clause stuff
+            "SELECT * FROM Customers ORDER BY Customers.CustomerID",
+            "SELECT State, COUNT(State) FROM Stores GROUP BY State ORDER BY State",
     })
     void testValidQuery(String query) {
         System.out.println(query);
@@ -100,7 +103,9 @@ public class VerifierTest {
             "SELECT CustomerID FROM CustomerPurchaseDetails WHERE DatePurchased = \"2020-99-20\"", // invalid dates for where and having clause
             "SELECT PaymentMethod, COUNT(PaymentMethod) FROM CustomerPurchaseDetails GROUP BY PaymentMethod HAVING AVG(DatePurchased) > \"Blah\"",
             "SELECT * FROM Customers GROUP BY CustomerID", // not allowed as there are no aggregate functions being used
-            "SELECT PaymentMethod, COUNT(PaymentMethod) FROM CustomerPurchaseDetails GROUP BY PaymentMethod HAVING AVG(DatePurchased) > \"2020-10-17\"" // missing AVG(DatePurchased) in select clause
+            "SELECT PaymentMethod, COUNT(PaymentMethod) FROM CustomerPurchaseDetails GROUP BY PaymentMethod HAVING AVG(DatePurchased) > \"2020-10-17\"", // missing AVG(DatePurchased) in select clause
+            "SELECT CustomerID FROM Customers ORDER BY Blah", // in order by clause
+            "SELECT CustomerID FROM Customers ORDER BY FirstName" // missing FirstName in select clause
     })
     void testInvalidQuery(String query) {
         System.out.println(query);
@@ -6,8 +6,6 @@ import datastructures.querytree.operator.types.*;
 import datastructures.relation.table.Table;
 import datastructures.querytree.QueryTree;
 import datastructures.querytree.operator.Operator;
-import datastructures.relation.table.component.Column;
-import datastructures.relation.table.component.FileStructure;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -431,15 +429,6 @@ public final class OptimizerUtilities {
         return distinctFileStructures;
     }
 
-    public static void removeAllFileStructures(List<Table> tables) {
-        for (Table table : tables) {
-            for (Column column : table.getColumns()) {
-                column.setFileStructure(FileStructure.NONE);
-            }
-        }
-        tables.forEach(table -> table.setClusteredWith("none"));
-    }
-
     /**
      * Doesn't keep inverted table names eg. <T1, T2> and <T2, T1>
      * @param tableNames
@@ -14,6 +14,10 @@ public final class QueryCostToString {
         return "r = " + QueryCost.numberRecords(data);
     }
 
+    public static String numberRecords(int numRecords) {
+        return "r = " + numRecords;
+    }
+
     public static String recordSize(List<Column> columns) {
         StringBuilder recordSize = new StringBuilder();
         if (columns.size() > 1) {
@@ -200,6 +200,8 @@ public final class Utilities {
                 return InputType.BUILD_FILE_STRUCTURE;
             case "REMOVE":
                 return InputType.REMOVE_FILE_STRUCTURE;
+            case "ANALYZE":
+                return InputType.ANALYZE;
             default:
                 return InputType.UNKNOWN;
         }